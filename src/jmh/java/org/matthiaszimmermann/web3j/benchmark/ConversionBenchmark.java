@@ -0,0 +1,38 @@
+package org.matthiaszimmermann.web3j.benchmark;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.matthiaszimmermann.web3j.util.Web3jUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+	private BigInteger wei = new BigInteger("123456789012345678901");
+	private BigDecimal ether = new BigDecimal("123.456789012345678901");
+
+	@Benchmark
+	public BigDecimal weiToEther() {
+		return Web3jUtils.weiToEther(wei);
+	}
+
+	@Benchmark
+	public BigInteger etherToWei() {
+		return Web3jUtils.etherToWei(ether);
+	}
+}
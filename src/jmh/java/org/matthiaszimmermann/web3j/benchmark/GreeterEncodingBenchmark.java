@@ -0,0 +1,62 @@
+package org.matthiaszimmermann.web3j.benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+
+/**
+ * ABI encoding of the functions and the constructor of the Greeter contract wrapper.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GreeterEncodingBenchmark {
+
+	private Utf8String greeting = new Utf8String("hello world");
+
+	@Benchmark
+	public String greet() {
+		Function function = new Function("greet", 
+				Arrays.<Type>asList(), 
+				Arrays.<TypeReference<?>>asList(new TypeReference<Utf8String>() {}));
+		return FunctionEncoder.encode(function);
+	}
+
+	@Benchmark
+	public String deposits() {
+		Function function = new Function("deposits", 
+				Arrays.<Type>asList(), 
+				Arrays.<TypeReference<?>>asList(new TypeReference<Uint256>() {}));
+		return FunctionEncoder.encode(function);
+	}
+
+	@Benchmark
+	public String kill() {
+		Function function = new Function("kill", Arrays.<Type>asList(), Collections.<TypeReference<?>>emptyList());
+		return FunctionEncoder.encode(function);
+	}
+
+	@Benchmark
+	public String constructor() {
+		return FunctionEncoder.encodeConstructor(Arrays.<Type>asList(greeting));
+	}
+}
@@ -0,0 +1,53 @@
+package org.matthiaszimmermann.web3j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.matthiaszimmermann.web3j.util.KeyPairPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Keys;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyPairBenchmark {
+
+	private KeyPairPool keyPairPool;
+
+	@Setup
+	public void setUp() {
+		keyPairPool = new KeyPairPool();
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.out.println("\n" + keyPairPool.getStats());
+		keyPairPool.close();
+	}
+
+	@Benchmark
+	public Credentials createEcKeyPair() throws Exception {
+		return Credentials.create(Keys.createEcKeyPair());
+	}
+
+	/**
+	 * Takes credentials from the {@link KeyPairPool}, the sustained rate is bounded by the background workers.
+	 */
+	@Benchmark
+	public Credentials takeFromPool() throws Exception {
+		return keyPairPool.take();
+	}
+}
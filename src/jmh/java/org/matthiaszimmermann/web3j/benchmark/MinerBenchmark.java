@@ -0,0 +1,46 @@
+package org.matthiaszimmermann.web3j.benchmark;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import org.matthiaszimmermann.web3j.demo.dummy.DummyBitcoinMiner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinerBenchmark {
+
+	private MessageDigest md5;
+	private byte [] hash;
+	private String blockData = "B37060F28617A5DFA3DB9A3D547663B3:I am Satoshi Nakamoto:aacldeor";
+
+	@Setup
+	public void setUp() throws NoSuchAlgorithmException {
+		md5 = MessageDigest.getInstance("MD5");
+		hash = md5.digest(blockData.getBytes());
+	}
+
+	@Benchmark
+	public String bytesToHex() {
+		return DummyBitcoinMiner.bytesToHex(hash);
+	}
+
+	@Benchmark
+	public String calculateHash() {
+		return DummyBitcoinMiner.calculateHash(md5, blockData);
+	}
+}
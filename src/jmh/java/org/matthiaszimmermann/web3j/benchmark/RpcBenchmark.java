@@ -0,0 +1,79 @@
+package org.matthiaszimmermann.web3j.benchmark;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.matthiaszimmermann.web3j.util.Web3jUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+
+/**
+ * Client side cost of the Web3jUtils RPC paths against the in-process {@link StubNode}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RpcBenchmark {
+
+	static final int ADDRESSES = 100;
+
+	private Web3j web3j;
+	private String address;
+	private List<String> addresses;
+
+	@Setup
+	public void setUp() {
+		web3j = Web3jUtils.build(new StubNode());
+		addresses = new ArrayList<>();
+
+		for(int i = 0; i < ADDRESSES; i++) {
+			addresses.add(String.format("0x%040x", i + 1));
+		}
+
+		address = addresses.get(0);
+	}
+
+	@Benchmark
+	public BigInteger getBalanceWei() throws Exception {
+		return Web3jUtils.getBalanceWei(web3j, address);
+	}
+
+	@Benchmark
+	public BigInteger getNonce() throws Exception {
+		return Web3jUtils.getNonce(web3j, address);
+	}
+
+	/**
+	 * One batch for all addresses, compare with {@link #getBalanceWeiOneByOne()}.
+	 */
+	@Benchmark
+	public List<BigInteger> getBalancesWeiBatch() throws Exception {
+		return Web3jUtils.getBalancesWei(web3j, addresses, DefaultBlockParameterName.LATEST);
+	}
+
+	@Benchmark
+	public List<BigInteger> getBalanceWeiOneByOne() throws Exception {
+		List<BigInteger> balances = new ArrayList<>(addresses.size());
+
+		for(String address: addresses) {
+			balances.add(Web3jUtils.getBalanceWei(web3j, address));
+		}
+
+		return balances;
+	}
+}
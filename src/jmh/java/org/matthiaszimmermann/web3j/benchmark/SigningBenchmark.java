@@ -0,0 +1,75 @@
+package org.matthiaszimmermann.web3j.benchmark;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.matthiaszimmermann.web3j.util.Alice;
+import org.matthiaszimmermann.web3j.util.Bob;
+import org.matthiaszimmermann.web3j.util.SigningService;
+import org.matthiaszimmermann.web3j.util.SigningService.SignedTransaction;
+import org.matthiaszimmermann.web3j.util.Web3jConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.core.methods.request.RawTransaction;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SigningBenchmark {
+
+	static final int BATCH_SIZE = 256;
+
+	private RawTransaction transaction = RawTransaction.createEtherTransaction(
+			BigInteger.valueOf(42), 
+			Web3jConstants.GAS_PRICE, 
+			Web3jConstants.GAS_LIMIT_ETHER_TX, 
+			Bob.ADDRESS, 
+			BigInteger.valueOf(1_000_000_000L));
+
+	private List<RawTransaction> batch = new ArrayList<>();
+	private SigningService signingService;
+
+	@Setup
+	public void setUp() {
+		for(int i = 0; i < BATCH_SIZE; i++) {
+			batch.add(transaction);
+		}
+
+		signingService = new SigningService();
+	}
+
+	@TearDown
+	public void tearDown() {
+		signingService.close();
+	}
+
+	@Benchmark
+	public byte [] signMessage() {
+		return TransactionEncoder.signMessage(transaction, Alice.CREDENTIALS);
+	}
+
+	/**
+	 * Signs {@link #BATCH_SIZE} transactions with the {@link SigningService}, compare with {@link #signMessage()}.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<SignedTransaction> signBatch() throws Exception {
+		return signingService.sign(batch, Alice.CREDENTIALS);
+	}
+}
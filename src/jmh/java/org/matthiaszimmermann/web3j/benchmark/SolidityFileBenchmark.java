@@ -0,0 +1,98 @@
+package org.matthiaszimmermann.web3j.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.matthiaszimmermann.web3j.util.SolidityNormalizer;
+import org.matthiaszimmermann.web3j.util.Web3jUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads Solidity sources of different sizes built by repeating the greeter contract.
+ * Throughput in MB/s is ops/s * sizeKb / 1024, the parser throughput is the one of {@link #normalize()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolidityFileBenchmark {
+
+	static final String GREETER = "src/main/resources/greeter.sol";
+
+	@Param({"1", "1024"})
+	public int sizeKb;
+
+	private File file;
+
+	@Setup
+	public void setUp() throws IOException {
+		String contract = new String(Files.readAllBytes(Paths.get(GREETER)), StandardCharsets.UTF_8);
+		StringBuilder source = new StringBuilder();
+
+		while(source.length() < sizeKb * 1024) {
+			source.append(contract).append('\n');
+		}
+
+		file = File.createTempFile("benchmark", ".sol");
+		Files.write(file.toPath(), source.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@TearDown
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Repeated reads of an unchanged file only read and hash the file, the parsed file is served from the cache of the normalizer.
+	 */
+	@Benchmark
+	public String readSolidityFile() throws IOException {
+		return Web3jUtils.readSolidityFile(file.getPath());
+	}
+
+	/**
+	 * Reads and normalizes the file on every invocation, compare with {@link #readLines()}.
+	 */
+	@Benchmark
+	public String normalize() throws IOException {
+		return new SolidityNormalizer().normalize(file.toPath());
+	}
+
+	/**
+	 * The line based reader with regex whitespace replacement that preceded {@link SolidityNormalizer}.
+	 */
+	@Benchmark
+	public String readLines() throws IOException {
+		StringBuilder text = new StringBuilder();
+
+		try(BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			reader.lines().forEach(line -> {
+				if(text.length() > 0) {
+					text.append(" ");
+				}
+
+				text.append(line.contains("//") ? line.substring(0, line.indexOf("//")) : line);
+			});
+		}
+
+		return text.toString().replaceAll("\\s+", " ");
+	}
+}
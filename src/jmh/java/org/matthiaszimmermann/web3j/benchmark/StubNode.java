@@ -0,0 +1,30 @@
+package org.matthiaszimmermann.web3j.benchmark;
+
+import java.io.IOException;
+
+import org.matthiaszimmermann.web3j.node.StubHandler;
+import org.matthiaszimmermann.web3j.util.BatchWeb3jService;
+import org.web3j.protocol.Service;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+/**
+ * In-process stand-in for an Ethereum client that answers with the fixed results of the {@link StubHandler}.
+ * Requests and responses still go through JSON (de)serialization, so benchmarks of
+ * the RPC paths measure the client side cost without any network or node latency.
+ */
+public class StubNode extends Service implements BatchWeb3jService {
+
+	private final StubHandler handler = new StubHandler();
+
+	@Override
+	public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+		String response = handler.handle(objectMapper.writeValueAsString(request));
+		return objectMapper.readValue(response, responseType);
+	}
+
+	@Override
+	public String sendBatch(String payload) throws IOException {
+		return handler.handle(payload);
+	}
+}
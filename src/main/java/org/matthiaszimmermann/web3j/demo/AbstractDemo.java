@@ -1,9 +1,10 @@
 package org.matthiaszimmermann.web3j.demo;
 
+import org.matthiaszimmermann.web3j.util.IpcTransport;
 import org.matthiaszimmermann.web3j.util.Web3jConstants;
+import org.matthiaszimmermann.web3j.util.Web3jUtils;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.methods.response.Web3ClientVersion;
-import org.web3j.protocol.http.HttpService;
 
 public class AbstractDemo {
 	
@@ -12,10 +13,14 @@ public class AbstractDemo {
 	
 	public AbstractDemo(String [] args) {
 		clientUrl = argsToUrl(args);
-		web3j = Web3j.build(new HttpService(clientUrl));
+		web3j = Web3jUtils.buildClient(clientUrl);
 	}
 	
 	public String argsToUrl(String [] args) {
+		// ipc url instead of ip and port
+		if(args.length >= 1 && args[0].startsWith(IpcTransport.SCHEME)) { return args[0]; }
+		if(args.length == 0 && !Web3jConstants.CLIENT_IPC.isEmpty()) { return Web3jConstants.CLIENT_IPC; }
+
 		String ip = Web3jConstants.CLIENT_IP;
 		String port = Web3jConstants.CLIENT_PORT;
 
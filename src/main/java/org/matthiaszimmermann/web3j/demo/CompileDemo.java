@@ -1,13 +1,22 @@
 package org.matthiaszimmermann.web3j.demo;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.Charset;
-import java.util.Map.Entry;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
@@ -19,20 +28,29 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClients;
+import org.matthiaszimmermann.web3j.util.CompileCache;
+import org.matthiaszimmermann.web3j.util.HttpTransport;
 import org.matthiaszimmermann.web3j.util.Web3jConstants;
 import org.matthiaszimmermann.web3j.util.Web3jUtils;
 import org.web3j.codegen.SolidityFunctionWrapperGenerator;
 import org.web3j.protocol.core.Request;
 import org.web3j.protocol.core.methods.response.EthCompileSolidity;
 import org.web3j.protocol.core.methods.response.EthGetCompilers;
+import org.web3j.utils.Strings;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Compiles Solidity contracts with the connected client and generates their java wrapper classes.
+ * <ul>
+ *   <li>--source: folder with *.sol files to build, all contracts are compiled concurrently (default: the Greeter contract only)</li>
+ *   <li>--parallelism: max number of concurrent compile requests and wrapper generations (default 4)</li>
+ * </ul>
+ * Contracts that did not change since their last build are skipped, see {@link CompileCache}.
+ */
 public class CompileDemo extends AbstractDemo {
 
 	static final String CONTRACT = "Greeter";
@@ -41,13 +59,20 @@ public class CompileDemo extends AbstractDemo {
 	static final String FOLDER_BASE = System.getProperty("user.home") + "/Desktop/private/github/web3j_demo";
 	static final String FOLDER_SOURCE = FOLDER_BASE + "/src/main/resources";
 	static final String FOLDER_TARGET = FOLDER_BASE + "/src/main/java";
+	static final String FOLDER_CACHE = FOLDER_BASE + "/src/main";
+
+	// max number of characters printed for a single value of the compile response
+	static final int PREVIEW_LENGTH = 200;
+
+	private final Options options;
 
 	public static void main(String args []) throws Exception {
 		new CompileDemo(args).run();
 	}
 
 	public CompileDemo(String [] args) {
-		super(args);
+		super(Options.clientArgs(args));
+		options = Options.parse(args);
 	}
 
 	@Override
@@ -66,18 +91,164 @@ public class CompileDemo extends AbstractDemo {
 		}
 		System.out.println();
 
-		// compile solidity code
-		String sourceFile = String.format("%s/%s.%s", FOLDER_SOURCE, CONTRACT, Web3jConstants.EXT_SOLIDITY);
-		String sourceCode = Web3jUtils.readSolidityFile(sourceFile);
-		compileSolidity(sourceCode, CONTRACT, FOLDER_SOURCE);
+		String compiler = String.join(",", compilers.getResult()) + "@" + Web3jUtils.getClientVersion(web3j);
+		CompileCache cache = new CompileCache(Paths.get(FOLDER_CACHE, Web3jConstants.COMPILE_CACHE_FILE));
+
+		if(options.source != null) {
+			buildAll(Paths.get(options.source), compiler, cache);
+			return;
+		}
+
+		Path sourceFile = Paths.get(String.format("%s/%s.%s", FOLDER_SOURCE, CONTRACT, Web3jConstants.EXT_SOLIDITY));
+		System.out.println(generate(compile(CONTRACT, sourceFile, compiler, cache), cache));
+	}
+
+	/**
+	 * Compiles all Solidity files of the folder with at most {@link Options#parallelism} compile requests in flight.
+	 * The wrapper of each contract is generated as soon as its compile finishes.
+	 */
+	private void buildAll(Path folder, String compiler, CompileCache cache) throws Exception {
+		List<Path> sourceFiles;
+
+		try(Stream<Path> files = Files.list(folder)) {
+			sourceFiles = files
+					.filter(file -> file.getFileName().toString().endsWith("." + Web3jConstants.EXT_SOLIDITY))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+
+		System.out.println(String.format("Building %d contracts from %s, parallelism %d", sourceFiles.size(), folder, options.parallelism));
+
+		ExecutorService compileWorkers = Executors.newFixedThreadPool(options.parallelism, daemonThreads("compile"));
+		ExecutorService generateWorkers = Executors.newFixedThreadPool(options.parallelism, daemonThreads("generate"));
+		List<CompletableFuture<Result>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+
+		for(Path sourceFile: sourceFiles) {
+			String contract = sourceFile.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+
+			futures.add(CompletableFuture
+					.supplyAsync(() -> compile(contract, sourceFile, compiler, cache), compileWorkers)
+					.thenApplyAsync(result -> generate(result, cache), generateWorkers)
+					.handle((result, e) -> report(result != null ? result : failed(contract, sourceFile, e))));
+		}
+
+		List<Result> results = new ArrayList<>();
+		futures.forEach(future -> results.add(future.join()));
+		long totalMillis = (System.nanoTime() - start) / 1_000_000;
+
+		compileWorkers.shutdown();
+		generateWorkers.shutdown();
+
+		long sumMillis = results.stream().mapToLong(Result::getMillis).sum();
+		long maxMillis = results.stream().mapToLong(Result::getMillis).max().orElse(0);
+
+		System.out.println(String.format("\n%d contracts in %d ms (sum %d ms, slowest %d ms): %d built, %d up to date, %d failed",
+				results.size(), totalMillis, sumMillis, maxMillis,
+				count(results, Status.BUILT), count(results, Status.UP_TO_DATE), count(results, Status.FAILED)));
+
+		results.stream()
+				.filter(result -> result.status == Status.FAILED)
+				.forEach(result -> System.out.println("- " + result.contract + ": " + result.failure));
+	}
+
+	/**
+	 * Result of a contract whose build failed with an unexpected exception (or was rejected by a stopped worker pool).
+	 */
+	private static Result failed(String contract, Path sourceFile, Throwable e) {
+		Result result = new Result(contract, sourceFile.getParent().toString());
+		result.fail(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+
+		return result;
+	}
+
+	private static Result report(Result result) {
+		System.out.println(result);
+		return result;
+	}
+
+	/**
+	 * Compiles the contract unless the compile cache shows that neither its source nor the compiler changed.
+	 * Byte code and ABI are written next to the source file.
+	 */
+	private Result compile(String contract, Path sourceFile, String compiler, CompileCache cache) {
+		Result result = new Result(contract, sourceFile.getParent().toString());
+		long start = System.nanoTime();
+
+		try {
+			String sourceCode = Web3jUtils.readSolidityFile(sourceFile.toString());
+			result.cacheKey = CompileCache.key(sourceCode, compiler);
+
+			if(cache.isUpToDate(contract, result.cacheKey, result.getBinaryFile(), result.getAbiFile(), result.getWrapperFile())) {
+				result.status = Status.UP_TO_DATE;
+				return result;
+			}
+
+			compileSolidity(sourceCode, contract, result.path);
+			result.status = Status.COMPILED;
+		}
+		catch (Exception e) {
+			result.fail(e);
+		}
+		finally {
+			result.compileMillis = (System.nanoTime() - start) / 1_000_000;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Generates the java wrapper class of a freshly compiled contract and records the compile in the cache.
+	 */
+	private Result generate(Result result, CompileCache cache) {
+		if(result.status != Status.COMPILED) {
+			return result;
+		}
+
+		long start = System.nanoTime();
+
+		try {
+			// the generator exits the vm on missing input files
+			if(!Files.isRegularFile(result.getBinaryFile()) || !Files.isRegularFile(result.getAbiFile())) {
+				throw new IOException("Compile output missing for " + result.contract);
+			}
 
-		// generate java wrapper class
-		String binaryFile = getBinaryFileName(CONTRACT, FOLDER_SOURCE);
-		String abiFile = getAbiFileName(CONTRACT, FOLDER_SOURCE);
-		String [] cmdLine = {binaryFile, abiFile, "-p", BASE_PACKAGE, "-o", FOLDER_TARGET};
+			String [] cmdLine = {result.getBinaryFile().toString(), result.getAbiFile().toString(), "-p", BASE_PACKAGE, "-o", FOLDER_TARGET};
 
-		System.out.printf("Running SolidityFunctionWrapperGenerator " + String.join(" ", cmdLine) + " ... ");
-		SolidityFunctionWrapperGenerator.main(cmdLine);
+			log("Running SolidityFunctionWrapperGenerator " + String.join(" ", cmdLine) + " ... ");
+			SolidityFunctionWrapperGenerator.main(cmdLine);
+			cache.update(result.contract, result.cacheKey);
+			result.status = Status.BUILT;
+		}
+		catch (Exception e) {
+			result.fail(e);
+		}
+		finally {
+			result.generateMillis = (System.nanoTime() - start) / 1_000_000;
+		}
+
+		return result;
+	}
+
+	private static long count(List<Result> results, Status status) {
+		return results.stream().filter(result -> result.status == status).count();
+	}
+
+	private static ThreadFactory daemonThreads(String name) {
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Prints details of single contract builds, batch builds only print one line per contract.
+	 */
+	private void log(String line) {
+		if(options.source == null) {
+			System.out.println(line);
+		}
 	}
 
 	/**
@@ -91,24 +262,27 @@ public class CompileDemo extends AbstractDemo {
 
 	/**
 	 * Compiles solidity source code using JSON-RPC API directly.
+	 * The response is streamed: byte code and ABI are written to their files while they are read
+	 * and only bounded previews are printed. Fails if the response contains an error or no result.
 	 */
-	private JsonObject compileSolidity(String source, String contractName, String path) throws Exception {
-		String compileCommandTemplate = "{\"jsonrpc\":\"2.0\",\"method\":\"eth_compileSolidity\",\"params\":[\"%s\"],\"id\":1}";
-		String compileCommand = String.format(compileCommandTemplate, source);
+	private void compileSolidity(String source, String contractName, String path) throws Exception {
+		// the source is json encoded, string literals of the contract contain quotes
+		String compileCommandTemplate = "{\"jsonrpc\":\"2.0\",\"method\":\"eth_compileSolidity\",\"params\":[%s],\"id\":1}";
+		String compileCommand = String.format(compileCommandTemplate, new Gson().toJson(source));
 
-		System.out.println("Compile command " + compileCommand);
-		System.out.printf("Sending compile request to " + clientUrl + " ... ");
+		log("Compile command " + preview(compileCommand));
+		log("Sending compile request to " + clientUrl + " ... ");
 
-		StringEntity requestEntity = new StringEntity(compileCommand, ContentType.create("text/plain").withCharset(Charset.forName("UTF-8")));
+		StringEntity requestEntity = new StringEntity(compileCommand, ContentType.create("text/plain").withCharset(StandardCharsets.UTF_8));
 		HttpUriRequest request = RequestBuilder
 				.post(clientUrl)
 				.setEntity(requestEntity)
 				.build();
 
-		ResponseHandler<JsonObject> rh = new ResponseHandler<JsonObject>() {
+		ResponseHandler<Void> rh = new ResponseHandler<Void>() {
 
 			@Override
-			public JsonObject handleResponse(final HttpResponse response) throws IOException {
+			public Void handleResponse(final HttpResponse response) throws IOException {
 				StatusLine statusLine = response.getStatusLine();
 				HttpEntity entity = response.getEntity();
 
@@ -122,151 +296,355 @@ public class CompileDemo extends AbstractDemo {
 					throw new ClientProtocolException("Response contains no content");
 				}
 
-				Gson gson = new GsonBuilder().create();
-				Reader reader = new InputStreamReader(entity.getContent(), Charset.forName("UTF-8"));
-				return gson.fromJson(reader, JsonObject.class);
+				try(JsonReader reader = new JsonReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8))) {
+					readResponse(reader, contractName, path);
+					return null;
+				}
 			}
 		};
 
-		JsonObject response = HttpClients.createDefault().execute(request, rh);
-		System.out.println(" done");
-		checkForErrors(response);
-		checkForResult(response, contractName, path);
-
-		return response;
+		HttpTransport.getDefault().getHttpClient().execute(request, rh);
 	}
 
-	private void checkForErrors(JsonObject response) {
-		String ERROR = "error";
-		if(response.has(ERROR)) {
-			JsonObject error = response.get(ERROR).getAsJsonObject();
-			System.out.println("Error code: " + error.get("code").toString());
-			System.out.println("Error message:\n" + error.get("message").getAsString());
+	private void readResponse(JsonReader reader, String contractName, String path) throws IOException {
+		boolean hasResult = false;
+		String error = null;
+
+		reader.beginObject();
+
+		while(reader.hasNext()) {
+			String name = reader.nextName();
+
+			if(name.equals("result") && reader.peek() != JsonToken.NULL) {
+				readElement(reader, "JSON-RPC response\n", "", contractName, path);
+				hasResult = true;
+			}
+			else if(name.equals("error") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+				error = readError(reader);
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+
+		reader.endObject();
+
+		if(error != null) {
+			throw new IOException(error);
+		}
+
+		if(!hasResult) {
+			throw new IOException("Response contains no result");
 		}
 	}
 
-	private void checkForResult(JsonObject response, String contractName, String path) throws Exception {
-		String RESULT = "result";
-		if(response.has(RESULT)) {
-			printJsonElement("JSON-RPC response\n", response, "", contractName, path);
+	private String readError(JsonReader reader) throws IOException {
+		String code = "";
+		String message = "";
+
+		reader.beginObject();
+
+		while(reader.hasNext()) {
+			String name = reader.nextName();
+
+			if(name.equals("code")) {
+				code = reader.nextString();
+			}
+			else if(name.equals("message")) {
+				message = preview(reader.nextString());
+			}
+			else {
+				reader.skipValue();
+			}
 		}
+
+		reader.endObject();
+
+		log("Error code: " + code);
+		log("Error message:\n" + message);
+
+		return "Error " + code + ": " + message;
 	}
 
 	/**
-	 * prints content to console
-	 * for abiDefinition and code elements the value is written to the file system.
+	 * Prints the next element of the response to the console,
+	 * for code and abiDefinition elements the value is written to the file system.
 	 */
-	private void printJsonElement(String id, JsonElement e, String ident, String contractName, String path)
-			throws Exception
-	{
-		if(id.equals("abiDefinition:") || id.equals("code:")) {
-			File file = null;
-			String value = e.toString();
-			verifyValue(id, value);
-
-			if(id.equals("abiDefinition:")) {
-				file = new File(getAbiFileName(contractName, path));
+	private void readElement(JsonReader reader, String id, String ident, String contractName, String path) throws IOException {
+		if(id.equals("code:") && reader.peek() == JsonToken.STRING) {
+			writeCode(reader, id, ident, getBinaryFileName(contractName, path));
+			return;
+		}
+
+		if(id.equals("abiDefinition:")) {
+			writeAbi(reader, id, ident, getAbiFileName(contractName, path));
+			return;
+		}
+
+		switch(reader.peek()) {
+		case BEGIN_OBJECT:
+			log(ident + id + " {");
+			reader.beginObject();
+			while(reader.hasNext()) {
+				readElement(reader, reader.nextName() + ":", ident + "  ", contractName, path);
 			}
-			else {
-				// strip initial '"'
-				if(value.startsWith("\"")) {
-					value = value.substring(1);
-				}
+			reader.endObject();
+			log(ident + "}");
+			break;
+
+		case BEGIN_ARRAY:
+			log(ident + id + " [");
+			reader.beginArray();
+			while(reader.hasNext()) {
+				readElement(reader, "", ident + "  ", contractName, path);
+			}
+			reader.endArray();
+			log(ident + "]");
+			break;
+
+		case BOOLEAN:
+			log(ident + id + reader.nextBoolean());
+			break;
+
+		case NULL:
+			reader.nextNull();
+			log(ident + id + "null");
+			break;
 
-				// strip tailing '"'
-				if(value.endsWith("\"")) {
-					value = value.substring(0, value.length() - 1);
+		default:
+			log(ident + id + preview(reader.nextString()));
+		}
+	}
+
+	/**
+	 * Writes the byte code to the specified file and counts non hex characters in the same pass.
+	 */
+	private void writeCode(JsonReader reader, String id, String ident, String fileName) throws IOException {
+		String code = reader.nextString();
+		int unexpectedChars = 0;
+
+		try(PreviewWriter writer = new PreviewWriter(Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8))) {
+			for(int i = 0; i < code.length(); i++) {
+				char c = code.charAt(i);
+
+				if(Character.digit(c, 16) < 0 && !(i == 1 && c == 'x' && code.charAt(0) == '0')) {
+					unexpectedChars++;
 				}
 
-				file = new File(getBinaryFileName(contractName, path));
+				writer.write(c);
 			}
 
-			// System.out.printf("-- writing " + id + "value output to '" + file.getAbsolutePath() + "' ... ");
+			log(ident + id + writer.getPreview());
+		}
+
+		if(!code.startsWith("0x")) {
+			log("// byte code without 0x prefix");
+		}
 
-			BufferedWriter bw = new BufferedWriter(new FileWriter(file));
-			bw.write(value);
-			bw.close();
+		if(unexpectedChars != 0) {
+			log("// " + unexpectedChars + " unexpected chars found");
+		}
+	}
 
-			if(value.length() >= 3000) {
-				System.out.println(ident + id + value.substring(0,  3000) + " ...");
-			}
-			else {
-				System.out.println(ident + id + value);
-			}
+	/**
+	 * Copies the ABI token by token from the response to the specified file.
+	 */
+	private void writeAbi(JsonReader reader, String id, String ident, String fileName) throws IOException {
+		try(PreviewWriter writer = new PreviewWriter(Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8));
+			JsonWriter json = new JsonWriter(writer))
+		{
+			copy(reader, json);
+			json.flush();
+
+			log(ident + id + writer.getPreview());
 		}
-		else if(e.isJsonPrimitive()) {
-			String value = e.getAsString();
-			value = verifyValue(id, value);
-			System.out.println(ident + id + value);
-		}
-		else if(e.isJsonObject()) {
-			System.out.println(ident + id + " {");
-			JsonObject o = (JsonObject)e;
-			for(Entry<String, JsonElement> entry: o.entrySet()) {
-				String key = entry.getKey();
-				printJsonElement(key + ":", entry.getValue(), ident + "  ", contractName, path);
+	}
+
+	private static void copy(JsonReader reader, JsonWriter writer) throws IOException {
+		switch(reader.peek()) {
+		case BEGIN_OBJECT:
+			reader.beginObject();
+			writer.beginObject();
+			while(reader.hasNext()) {
+				writer.name(reader.nextName());
+				copy(reader, writer);
 			}
-			System.out.println(ident + "}");
-		}
-		else if(e.isJsonArray()) {
-			System.out.println(ident + id + " [");
-			JsonArray a= (JsonArray)e;
-			a.forEach(child -> {
-				try {
-					printJsonElement("", child, ident + "  ", contractName, path);
-				} 
-				catch (Exception e1) {
-					e1.printStackTrace();
-				}
-			});
-			System.out.println(ident + "}");
-		}
-		else {
-			System.out.println(ident + id + "<!!!> " + e.toString());
+			reader.endObject();
+			writer.endObject();
+			break;
+
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			writer.beginArray();
+			while(reader.hasNext()) {
+				copy(reader, writer);
+			}
+			reader.endArray();
+			writer.endArray();
+			break;
+
+		case STRING:  writer.value(reader.nextString()); break;
+		case NUMBER:  writer.jsonValue(reader.nextString()); break;
+		case BOOLEAN: writer.value(reader.nextBoolean()); break;
+		case NULL:    reader.nextNull(); writer.nullValue(); break;
+		default:      throw new IOException("Unexpected token " + reader.peek() + " at " + reader.getPath());
 		}
 	}
 
-	private String getAbiFileName(String contractName, String path) {
-		return String.format("%s\\%s.%s", path, contractName, Web3jConstants.EXT_ABI);
+	private static String preview(String value) {
+		return value.length() <= PREVIEW_LENGTH ? value : value.substring(0, PREVIEW_LENGTH) + " ...";
 	}
 
-	private String getBinaryFileName(String contractName, String path) {
-		return String.format("%s\\%s.%s", path, contractName, Web3jConstants.EXT_BINARY);
+	private static String getAbiFileName(String contractName, String path) {
+		return Paths.get(path, contractName + "." + Web3jConstants.EXT_ABI).toString();
 	}
 
-	private String verifyValue(String id, String s) {
-		if(s.startsWith("0x")) {
-			String allowedChars = "0123456789abcdefg";
-			int unexpectedChars = 0;
-			for(int i = 2; i < s.length(); i++) {
-				if(allowedChars.indexOf(s.charAt(i)) < 0) {
-					unexpectedChars++;
+	private static String getBinaryFileName(String contractName, String path) {
+		return Paths.get(path, contractName + "." + Web3jConstants.EXT_BINARY).toString();
+	}
+
+	enum Status { COMPILED, BUILT, UP_TO_DATE, FAILED }
+
+	/**
+	 * Outcome and timings (ms) of building a single contract.
+	 */
+	private static class Result {
+
+		private final String contract;
+		private final String path;
+		private String cacheKey;
+		private Status status;
+		private String failure;
+		private long compileMillis;
+		private long generateMillis;
+
+		Result(String contract, String path) {
+			this.contract = contract;
+			this.path = path;
+		}
+
+		Path getBinaryFile() {
+			return Paths.get(getBinaryFileName(contract, path));
+		}
+
+		Path getAbiFile() {
+			return Paths.get(getAbiFileName(contract, path));
+		}
+
+		/**
+		 * The generator names the wrapper class after the capitalized binary file name.
+		 */
+		Path getWrapperFile() {
+			return Paths.get(FOLDER_TARGET, BASE_PACKAGE.replace('.', '/'), Strings.capitaliseFirstLetter(contract) + ".java");
+		}
+
+		long getMillis() {
+			return compileMillis + generateMillis;
+		}
+
+		void fail(Throwable e) {
+			status = Status.FAILED;
+			failure = e.getMessage() != null ? e.getMessage().split("\n")[0] : e.toString();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-24s %-10s compile %6d ms, generate %6d ms%s",
+					contract, status, compileMillis, generateMillis, failure == null ? "" : ", " + failure);
+		}
+	}
+
+	/**
+	 * Command line options of the form --name=value. All other arguments select the client, see {@link AbstractDemo}.
+	 * Without --source only the Greeter contract is built.
+	 */
+	static class Options {
+
+		String source = null;
+		int parallelism = 4;
+
+		static String [] clientArgs(String [] args) {
+			List<String> clientArgs = new ArrayList<>();
+
+			for(String arg: args) {
+				if(!arg.startsWith("--")) {
+					clientArgs.add(arg);
 				}
 			}
 
-			if(unexpectedChars != 0) {
-				System.out.println("// " + unexpectedChars + " unexpected chars found");
+			return clientArgs.toArray(new String[clientArgs.size()]);
+		}
+
+		static Options parse(String [] args) {
+			Options options = new Options();
+
+			for(String arg: args) {
+				if(!arg.startsWith("--")) {
+					continue;
+				}
+
+				int equals = arg.indexOf('=');
+
+				if(equals < 0) {
+					throw new IllegalArgumentException("Option without value: " + arg);
+				}
+
+				String name = arg.substring(2, equals);
+				String value = arg.substring(equals + 1);
+
+				switch(name) {
+				case "source":      options.source = value; break;
+				case "parallelism": options.parallelism = Integer.parseInt(value); break;
+				default:            throw new IllegalArgumentException("Unknown option: --" + name);
+				}
 			}
+
+			if(options.parallelism < 1) {
+				throw new IllegalArgumentException("Parallelism must be positive: " + options.parallelism);
+			}
+
+			return options;
 		}
+	}
 
-		if(id.equals("code:") || id.equals("abiDefinition:")) {
-			try {
-				File tmp = null;
+	/**
+	 * Passes all characters to the underlying writer and keeps the first {@link #PREVIEW_LENGTH} for printing.
+	 */
+	private static class PreviewWriter extends FilterWriter {
 
-				if(id.equals("code:")) { tmp = File.createTempFile("contract", ".bin");}
-				else                   { tmp = File.createTempFile("contract", ".abi");}
+		private final StringBuilder preview = new StringBuilder(PREVIEW_LENGTH);
+		private long length = 0;
 
-				BufferedWriter bw = new BufferedWriter(new FileWriter(tmp));
-				bw.write(s);
-				bw.close();
+		PreviewWriter(Writer out) {
+			super(out);
+		}
 
-				// System.out.println("// wrote content of '" + id + "' to file " + tmp.getAbsolutePath());
-			} 
-			catch (IOException e) {
-				e.printStackTrace();
+		@Override
+		public void write(int c) throws IOException {
+			if(preview.length() < PREVIEW_LENGTH) {
+				preview.append((char) c);
 			}
+
+			length++;
+			out.write(c);
 		}
 
-		return s.length() <= 3000 ? s : s.substring(0, 3000); 
+		@Override
+		public void write(char [] buffer, int offset, int count) throws IOException {
+			preview.append(buffer, offset, Math.min(count, PREVIEW_LENGTH - preview.length()));
+			length += count;
+			out.write(buffer, offset, count);
+		}
+
+		@Override
+		public void write(String value, int offset, int count) throws IOException {
+			preview.append(value, offset, offset + Math.min(count, PREVIEW_LENGTH - preview.length()));
+			length += count;
+			out.write(value, offset, count);
+		}
+
+		String getPreview() {
+			return length <= PREVIEW_LENGTH ? preview.toString() : preview + " ... (" + length + " chars)";
+		}
 	}
 }
@@ -5,10 +5,15 @@ import java.math.BigInteger;
 
 import org.matthiaszimmermann.web3j.demo.contract.Greeter;
 import org.matthiaszimmermann.web3j.util.Alice;
+import org.matthiaszimmermann.web3j.util.CallCacheService;
+import org.matthiaszimmermann.web3j.util.EstimatingTransactionManager;
+import org.matthiaszimmermann.web3j.util.GasEstimator;
+import org.matthiaszimmermann.web3j.util.GasPriceOracle;
 import org.matthiaszimmermann.web3j.util.Web3jConstants;
 import org.matthiaszimmermann.web3j.util.Web3jUtils;
 import org.web3j.abi.datatypes.Utf8String;
 import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
 /**
@@ -17,6 +22,9 @@ import org.web3j.protocol.core.methods.response.TransactionReceipt;
  */
 public class ContractDemo extends AbstractDemo {
 
+	// gas price suggested by the gas price oracle when the contract is deployed, used for all contract transactions
+	private BigInteger gasPrice;
+
 	@Override
 	public void run() throws Exception {
 		super.run();
@@ -40,11 +48,15 @@ public class ContractDemo extends AbstractDemo {
 	private Greeter deployContract() throws Exception {
 		System.out.println("// Deploy contract Greeter");
 
+		GasPriceOracle.Estimate estimate = GasPriceOracle.forClient(web3j).getEstimate();
+		gasPrice = estimate.getStandard();
+		System.out.println("Gas prices: " + estimate);
+
 		Greeter contract = Greeter
 				.deploy(
 						web3j, 
-						Alice.CREDENTIALS, 
-						Web3jConstants.GAS_PRICE, 
+						new EstimatingTransactionManager(web3j, Alice.CREDENTIALS), 
+						gasPrice, 
 						Web3jConstants.GAS_LIMIT_GREETER_TX, 
 						BigInteger.ZERO, 
 						new Utf8String("hello world"))
@@ -59,7 +71,7 @@ public class ContractDemo extends AbstractDemo {
 		String deployHash = txReceipt.getTransactionHash();
 		BigInteger deployFees = txReceipt
 				.getCumulativeGasUsed()
-				.multiply(Web3jConstants.GAS_PRICE);
+				.multiply(gasPrice);
 
 		System.out.println("Deploy hash: " + deployHash);
 		System.out.println("Deploy fees: " + Web3jUtils.weiToEther(deployFees));
@@ -106,6 +118,24 @@ public class ContractDemo extends AbstractDemo {
 		
 		System.out.println("Message returned by Contract.greet(): " + message.toString());
 		printBalanceAlice("after greet");
+
+		// greet() does not change after deployment, repeated calls can be answered from memory
+		Web3j cachedWeb3j = CallCacheService.wrap(web3j);
+		CallCacheService callCache = CallCacheService.forClient(cachedWeb3j);
+		callCache.declareImmutable(contract.getContractAddress(), "greet()");
+
+		Greeter cachedContract = Greeter.load(
+				contract.getContractAddress(), 
+				cachedWeb3j, 
+				Alice.CREDENTIALS, 
+				gasPrice, 
+				Web3jConstants.GAS_LIMIT_GREETER_TX);
+
+		for(int i = 0; i < 3; i++) {
+			cachedContract.greet().get();
+		}
+
+		System.out.println("Call cache after 3 x greet(): " + callCache);
 		System.out.println();
 	}
 
@@ -118,10 +148,11 @@ public class ContractDemo extends AbstractDemo {
 
 		BigInteger killFees = txReceipt
 				.getCumulativeGasUsed()
-				.multiply(Web3jConstants.GAS_PRICE);
+				.multiply(gasPrice);
 
 		System.out.println("Contract.kill() fee: " + Web3jUtils.weiToEther(killFees));
 		printBalanceAlice("after kill");
+		System.out.println("Gas estimates: " + GasEstimator.forClient(web3j));
 	}
 
 	private void fundAlice() throws Exception {
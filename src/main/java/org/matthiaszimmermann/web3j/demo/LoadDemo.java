@@ -0,0 +1,460 @@
+package org.matthiaszimmermann.web3j.demo;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.matthiaszimmermann.web3j.util.AccountPool;
+import org.matthiaszimmermann.web3j.util.NonceManager;
+import org.matthiaszimmermann.web3j.util.ReceiptWatcher;
+import org.matthiaszimmermann.web3j.util.RpcMetrics;
+import org.matthiaszimmermann.web3j.util.Web3jConstants;
+import org.matthiaszimmermann.web3j.util.Web3jUtils;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.RawTransaction;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.utils.Numeric;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Load generator for Ether transfers.
+ * Sends transfers from a set of sender accounts to a set of recipient addresses for a fixed duration,
+ * either at a fixed rate (open loop) or with a fixed number of concurrent senders (closed loop).
+ * Reports the submit throughput, the confirmed transfers per second, the latency percentiles
+ * from submit to tx hash and from submit to receipt and a breakdown of all errors.
+ * The report is printed to the console and written to a JSON file for comparing runs.
+ *
+ * Usage: LoadDemo [ip port | ipc-url] [--option=value ...]
+ * <ul>
+ *   <li>--senders: number of sending accounts (default 1)</li>
+ *   <li>--recipients: number of recipient addresses (default 10)</li>
+ *   <li>--rate: transfers per second, 0 for as fast as the concurrency allows (default 0)</li>
+ *   <li>--concurrency: max number of transfers submitted at the same time (default 8)</li>
+ *   <li>--duration: seconds to submit transfers (default 30)</li>
+ *   <li>--mode: 'send' uses ethSendTransaction from unlocked client accounts,
+ *       'raw' signs locally and uses ethSendRawTransaction from generated accounts funded by the coinbase (default send)</li>
+ *   <li>--funding: Ether per generated sender account in raw mode (default 1)</li>
+ *   <li>--out: JSON report file (default load-result.json)</li>
+ * </ul>
+ */
+public class LoadDemo extends AbstractDemo {
+
+	static final String MODE_SEND = "send";
+	static final String MODE_RAW = "raw";
+
+	static final BigInteger AMOUNT_WEI = BigInteger.valueOf(1_000);
+	static final double [] PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+
+	// latencies are recorded in microseconds with 3 significant digits
+	static final long HIGHEST_LATENCY = TimeUnit.HOURS.toMicros(1);
+
+	// open loop: at most this many seconds of scheduled transfers wait for a free worker, further transfers are dropped
+	static final int QUEUE_SECONDS = 1;
+
+	// open loop: transfers started this long after their scheduled time are counted as late
+	static final long LATE_MILLIS = 100;
+
+	private final Options options;
+
+	private final Histogram hashLatency = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+	private final Histogram receiptLatency = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder confirmed = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder late = new LongAdder();
+	private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+	private final Queue<CompletableFuture<Void>> pendingReceipts = new ConcurrentLinkedQueue<>();
+	private final AtomicLong lastReceipt = new AtomicLong();
+
+	public static void main(String [] args) throws Exception {
+		new LoadDemo(args).run();
+	}
+
+	public LoadDemo(String [] args) {
+		super(Options.clientArgs(args));
+		options = Options.parse(args);
+	}
+
+	@Override
+	public void run() throws Exception {
+		super.run();
+
+		List<Sender> senders = createSenders();
+		List<String> recipients = createRecipients();
+
+		System.out.println(String.format("Load: %d senders (%s), %d recipients, %s, %d s",
+				senders.size(), options.mode, recipients.size(),
+				options.rate > 0 ? options.rate + " tx/s" : "max rate", options.duration));
+
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.SECONDS.toNanos(options.duration);
+
+		if(options.rate > 0) {
+			runAtRate(senders, recipients, start, deadline);
+		}
+		else {
+			runWithConcurrency(senders, recipients, deadline);
+		}
+
+		long submitEnd = System.nanoTime();
+		System.out.println("Submitted " + submitted.sum() + " transfers, waiting for " + pendingReceipts.size() + " receipts ...");
+
+		// receipt futures complete (possibly with a timeout error) within the receipt timeout
+		CompletableFuture.allOf(pendingReceipts.toArray(new CompletableFuture<?>[0])).join();
+
+		ObjectNode report = report(start, submitEnd);
+		print(report);
+
+		System.out.println("\nRPC metrics:\n" + RpcMetrics.getDefault());
+
+		File file = new File(options.out);
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+		System.out.println("\nReport written to " + file.getAbsolutePath());
+	}
+
+	/**
+	 * Closed loop: each worker submits the next transfer as soon as the previous one has its tx hash.
+	 */
+	private void runWithConcurrency(List<Sender> senders, List<String> recipients, long deadline) throws Exception {
+		ExecutorService workers = Executors.newFixedThreadPool(options.concurrency);
+		AtomicLong next = new AtomicLong();
+
+		for(int i = 0; i < options.concurrency; i++) {
+			workers.execute(() -> {
+				while(System.nanoTime() < deadline) {
+					transfer(next.getAndIncrement(), senders, recipients, System.nanoTime());
+				}
+			});
+		}
+
+		workers.shutdown();
+		workers.awaitTermination(TimeUnit.SECONDS.toMillis(options.duration) + Web3jConstants.RECEIPT_TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Open loop: transfers are started at their scheduled time regardless of how long earlier transfers take.
+	 * Latencies are measured from the scheduled time, so a backlog shows up in the percentiles.
+	 * The backlog is bounded to {@link #QUEUE_SECONDS} of transfers, transfers beyond it are dropped and counted.
+	 */
+	private void runAtRate(List<Sender> senders, List<String> recipients, long start, long deadline) throws Exception {
+		int queueSize = Math.max(1, options.rate * QUEUE_SECONDS);
+		ExecutorService workers = new ThreadPoolExecutor(options.concurrency, options.concurrency, 0, TimeUnit.MILLISECONDS, 
+				new ArrayBlockingQueue<>(queueSize), new ThreadPoolExecutor.AbortPolicy());
+		long period = TimeUnit.SECONDS.toNanos(1) / options.rate;
+		long lateNanos = TimeUnit.MILLISECONDS.toNanos(LATE_MILLIS);
+
+		for(long i = 0; ; i++) {
+			long scheduled = start + i * period;
+
+			if(scheduled >= deadline) {
+				break;
+			}
+
+			long delay = scheduled - System.nanoTime();
+			if(delay > 0) {
+				LockSupport.parkNanos(delay);
+			}
+
+			long index = i;
+
+			try {
+				workers.execute(() -> {
+					if(System.nanoTime() - scheduled > lateNanos) {
+						late.increment();
+					}
+
+					transfer(index, senders, recipients, scheduled);
+				});
+			}
+			catch (RejectedExecutionException e) {
+				dropped.increment();
+			}
+		}
+
+		workers.shutdown();
+		workers.awaitTermination(TimeUnit.SECONDS.toMillis(options.duration) + Web3jConstants.RECEIPT_TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+
+	private void transfer(long index, List<Sender> senders, List<String> recipients, long startNanos) {
+		Sender sender = senders.get((int) (index % senders.size()));
+		String to = recipients.get((int) (index % recipients.size()));
+
+		submitted.increment();
+
+		try {
+			EthSendTransaction response = NonceManager
+					.forClient(web3j)
+					.send(sender.address, nonce -> sender.transfer(nonce, to));
+
+			if(response.hasError()) {
+				error("rpc: " + response.getError().getMessage());
+				return;
+			}
+
+			hashLatency.recordValue(micros(startNanos));
+			accepted.increment();
+
+			pendingReceipts.add(ReceiptWatcher
+					.forClient(web3j)
+					.watch(response.getTransactionHash())
+					.handle((receipt, e) -> {
+						if(e != null) {
+							Throwable cause = e.getCause() != null ? e.getCause() : e;
+							error("receipt: " + cause.getClass().getSimpleName());
+						}
+						else {
+							receiptLatency.recordValue(micros(startNanos));
+							confirmed.increment();
+							lastReceipt.accumulateAndGet(System.nanoTime(), Math::max);
+						}
+
+						return null;
+					}));
+		}
+		catch (Exception e) {
+			Throwable cause = e.getCause() != null ? e.getCause() : e;
+			error("exception: " + cause.getClass().getSimpleName());
+		}
+	}
+
+	private void error(String reason) {
+		errors.computeIfAbsent(reason, r -> new LongAdder()).increment();
+	}
+
+	private static long micros(long startNanos) {
+		return Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos), HIGHEST_LATENCY);
+	}
+
+	private List<Sender> createSenders() throws Exception {
+		List<Sender> senders = new ArrayList<>();
+
+		if(options.mode.equals(MODE_SEND)) {
+			List<String> accounts = Web3jUtils.getAccounts(web3j).getAccounts();
+
+			for(int i = 0; i < Math.min(options.senders, accounts.size()); i++) {
+				senders.add(new Sender(accounts.get(i), null));
+			}
+
+			if(senders.size() < options.senders) {
+				System.out.println("Client has only " + accounts.size() + " accounts, using " + senders.size() + " senders");
+			}
+
+			return senders;
+		}
+
+		// deterministic accounts, so repeated runs reuse the funds of earlier runs
+		AccountPool pool = AccountPool.create(web3j, "load-demo-sender", options.senders, Web3jUtils.etherToWei(options.funding));
+
+		for(Credentials credentials: pool.getAccounts()) {
+			senders.add(new Sender(credentials.getAddress(), credentials));
+		}
+
+		return senders;
+	}
+
+	private List<String> createRecipients() {
+		List<String> recipients = new ArrayList<>();
+
+		for(int i = 0; i < options.recipients; i++) {
+			byte [] hash = Hash.sha3(("load-demo-recipient-" + i).getBytes(StandardCharsets.UTF_8));
+			recipients.add(Numeric.toHexString(hash).substring(0, 42));
+		}
+
+		return recipients;
+	}
+
+	private ObjectNode report(long start, long submitEnd) {
+		ObjectMapper mapper = new ObjectMapper();
+		ObjectNode report = mapper.createObjectNode();
+
+		ObjectNode config = report.putObject("config");
+		config.put("client", clientUrl);
+		config.put("mode", options.mode);
+		config.put("senders", options.senders);
+		config.put("recipients", options.recipients);
+		config.put("rate", options.rate);
+		config.put("concurrency", options.concurrency);
+		config.put("durationSeconds", options.duration);
+
+		double submitSeconds = (submitEnd - start) / 1e9;
+		double confirmSeconds = confirmed.sum() == 0 ? 0.0 : (lastReceipt.get() - start) / 1e9;
+
+		report.put("submitted", submitted.sum());
+		report.put("accepted", accepted.sum());
+		report.put("confirmed", confirmed.sum());
+		report.put("dropped", dropped.sum());
+		report.put("late", late.sum());
+		report.put("submitThroughput", submitSeconds == 0 ? 0.0 : accepted.sum() / submitSeconds);
+		report.put("confirmedTps", confirmSeconds == 0 ? 0.0 : confirmed.sum() / confirmSeconds);
+
+		ObjectNode latency = report.putObject("latencyMillis");
+		latency.set("submitToHash", percentiles(mapper, hashLatency));
+		latency.set("submitToReceipt", percentiles(mapper, receiptLatency));
+
+		ObjectNode errorCounts = report.putObject("errors");
+		new TreeMap<>(errors).forEach((reason, count) -> errorCounts.put(reason, count.sum()));
+
+		return report;
+	}
+
+	private static ObjectNode percentiles(ObjectMapper mapper, Histogram histogram) {
+		ObjectNode node = mapper.createObjectNode();
+		node.put("count", histogram.getTotalCount());
+		node.put("mean", histogram.getMean() / 1000);
+
+		for(double percentile: PERCENTILES) {
+			node.put("p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString(),
+					histogram.getValueAtPercentile(percentile) / 1000.0);
+		}
+
+		node.put("max", histogram.getMaxValue() / 1000.0);
+
+		return node;
+	}
+
+	private static void print(ObjectNode report) {
+		System.out.println();
+		System.out.println(String.format("Submitted: %d, accepted: %d, confirmed: %d",
+				report.get("submitted").asLong(), report.get("accepted").asLong(), report.get("confirmed").asLong()));
+		System.out.println(String.format("Submit throughput: %.1f tx/s, confirmed: %.1f tx/s",
+				report.get("submitThroughput").asDouble(), report.get("confirmedTps").asDouble()));
+
+		if(report.get("config").get("rate").asInt() > 0) {
+			System.out.println(String.format("Dropped (worker queue full): %d, late (started > %d ms after schedule): %d",
+					report.get("dropped").asLong(), LATE_MILLIS, report.get("late").asLong()));
+		}
+
+		System.out.println(String.format("%-16s %8s %10s %10s %10s %10s %10s %10s", "latency (ms)", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+		report.get("latencyMillis").fields().forEachRemaining(entry -> {
+			ObjectNode values = (ObjectNode) entry.getValue();
+			System.out.println(String.format("%-16s %8d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f", entry.getKey(),
+					values.get("count").asLong(), values.get("mean").asDouble(), values.get("p50").asDouble(), values.get("p90").asDouble(),
+					values.get("p99").asDouble(), values.get("p99.9").asDouble(), values.get("max").asDouble()));
+		});
+
+		if(report.get("errors").size() > 0) {
+			System.out.println("Errors:");
+			report.get("errors").fields().forEachRemaining(entry ->
+				System.out.println(String.format("%8d %s", entry.getValue().asLong(), entry.getKey())));
+		}
+	}
+
+	/**
+	 * Sending account. Accounts without credentials must be unlocked in the client.
+	 */
+	private class Sender {
+
+		private final String address;
+		private final Credentials credentials;
+
+		Sender(String address, Credentials credentials) {
+			this.address = address;
+			this.credentials = credentials;
+		}
+
+		Request<?, EthSendTransaction> transfer(BigInteger nonce, String to) {
+			if(credentials == null) {
+				return web3j.ethSendTransaction(Transaction.createEtherTransaction(
+						address, nonce, Web3jConstants.GAS_PRICE, Web3jConstants.GAS_LIMIT_ETHER_TX, to, AMOUNT_WEI));
+			}
+
+			RawTransaction transaction = RawTransaction.createEtherTransaction(
+					nonce, Web3jConstants.GAS_PRICE, Web3jConstants.GAS_LIMIT_ETHER_TX, to, AMOUNT_WEI);
+
+			return web3j.ethSendRawTransaction(Numeric.toHexString(TransactionEncoder.signMessage(transaction, credentials)));
+		}
+	}
+
+	/**
+	 * Command line options of the form --name=value. All other arguments select the client, see {@link AbstractDemo}.
+	 */
+	static class Options {
+
+		int senders = 1;
+		int recipients = 10;
+		int rate = 0;
+		int concurrency = 8;
+		int duration = 30;
+		String mode = MODE_SEND;
+		BigDecimal funding = BigDecimal.ONE;
+		String out = "load-result.json";
+
+		static String [] clientArgs(String [] args) {
+			List<String> clientArgs = new ArrayList<>();
+
+			for(String arg: args) {
+				if(!arg.startsWith("--")) {
+					clientArgs.add(arg);
+				}
+			}
+
+			return clientArgs.toArray(new String[clientArgs.size()]);
+		}
+
+		static Options parse(String [] args) {
+			Options options = new Options();
+			Map<String, String> values = new HashMap<>();
+
+			for(String arg: args) {
+				if(arg.startsWith("--")) {
+					int equals = arg.indexOf('=');
+
+					if(equals < 0) {
+						throw new IllegalArgumentException("Option without value: " + arg);
+					}
+
+					values.put(arg.substring(2, equals), arg.substring(equals + 1));
+				}
+			}
+
+			values.forEach((name, value) -> {
+				switch(name) {
+				case "senders":     options.senders = Integer.parseInt(value); break;
+				case "recipients":  options.recipients = Integer.parseInt(value); break;
+				case "rate":        options.rate = Integer.parseInt(value); break;
+				case "concurrency": options.concurrency = Integer.parseInt(value); break;
+				case "duration":    options.duration = Integer.parseInt(value); break;
+				case "mode":        options.mode = value; break;
+				case "funding":     options.funding = new BigDecimal(value); break;
+				case "out":         options.out = value; break;
+				default:            throw new IllegalArgumentException("Unknown option: --" + name);
+				}
+			});
+
+			if(!options.mode.equals(MODE_SEND) && !options.mode.equals(MODE_RAW)) {
+				throw new IllegalArgumentException("Unknown mode: " + options.mode);
+			}
+
+			return options;
+		}
+	}
+}
@@ -2,13 +2,12 @@ package org.matthiaszimmermann.web3j.demo;
 
 import java.math.BigInteger;
 
+import org.matthiaszimmermann.web3j.util.NonceManager;
 import org.matthiaszimmermann.web3j.util.Web3jConstants;
 import org.matthiaszimmermann.web3j.util.Web3jUtils;
-import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.methods.request.Transaction;
 import org.web3j.protocol.core.methods.response.EthAccounts;
 import org.web3j.protocol.core.methods.response.EthCoinbase;
-import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
 import org.web3j.protocol.core.methods.response.EthMining;
 import org.web3j.protocol.core.methods.response.EthSendTransaction;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
@@ -55,9 +54,9 @@ public class TransferDemo extends AbstractDemo {
 	/**
 	 * Implementation of the Ethers transfer.
 	 * <ol>
-	 *   <li>Get nonce for for the sending account</li>
+	 *   <li>Get nonce for for the sending account from the local nonce manager</li>
 	 *   <li>Create the transaction object</li>
-	 *   <li>Send the transaction to the network</li>
+	 *   <li>Send the transaction to the network (the nonce manager releases or resolves the nonce if the send fails)</li>
 	 *   <li>Wait for the confirmation</li>
 	 * </ol>
 	 */
@@ -69,30 +68,27 @@ public class TransferDemo extends AbstractDemo {
 
 		System.out.println("Transfer " + Web3jUtils.weiToEther(amountWei) + " Ether to account");
 
-		// step 1: get the nonce (tx count for sending address)
-		EthGetTransactionCount transactionCount = web3j
-				.ethGetTransactionCount(fromAddress, DefaultBlockParameterName.LATEST)
-				.sendAsync()
-				.get();
-
-		BigInteger nonce = transactionCount.getTransactionCount();
-		System.out.println("Nonce for sending address (coinbase): " + nonce);
-
+		// step 1: get the nonce (seeded once from the pending tx count of the sending address)
 		// step 2: create the transaction object
-		Transaction transaction = Transaction
-				.createEtherTransaction(
-						fromAddress, 
-						nonce, 
-						Web3jConstants.GAS_PRICE, 
-						Web3jConstants.GAS_LIMIT_ETHER_TX, 
-						toAddress, 
-						amountWei);
-
 		// step 3: send the tx to the network
-		EthSendTransaction response = web3j
-				.ethSendTransaction(transaction)
-				.sendAsync()
-				.get();
+		EthSendTransaction response = NonceManager.forClient(web3j).send(fromAddress, nonce -> {
+			System.out.println("Nonce for sending address (coinbase): " + nonce);
+
+			Transaction transaction = Transaction
+					.createEtherTransaction(
+							fromAddress, 
+							nonce, 
+							Web3jConstants.GAS_PRICE, 
+							Web3jConstants.GAS_LIMIT_ETHER_TX, 
+							toAddress, 
+							amountWei);
+
+			return web3j.ethSendTransaction(transaction);
+		});
+
+		if(response.hasError()) {
+			throw new RuntimeException("Transfer failed: " + response.getError().getMessage());
+		}
 
 		String txHash = response.getTransactionHash();		
 		System.out.println("Tx hash: " + txHash);
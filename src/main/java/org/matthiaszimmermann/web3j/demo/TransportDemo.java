@@ -0,0 +1,96 @@
+package org.matthiaszimmermann.web3j.demo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.matthiaszimmermann.web3j.node.HttpEndpoint;
+import org.matthiaszimmermann.web3j.node.IpcEndpoint;
+import org.matthiaszimmermann.web3j.node.StubHandler;
+import org.matthiaszimmermann.web3j.util.HttpTransport;
+import org.matthiaszimmermann.web3j.util.IpcTransport;
+import org.matthiaszimmermann.web3j.util.Web3jUtils;
+import org.web3j.protocol.Web3j;
+
+/**
+ * Compares the latency and throughput of JSON-RPC calls over HTTP and over a Unix domain socket (IPC).
+ * Both transports are served in-process by a stand-in node that answers with fixed results,
+ * so the numbers show the transport overhead only. No Ethereum client is needed.
+ *
+ * Usage: TransportDemo [calls (default 10000)] [threads (default 8)]
+ */
+public class TransportDemo {
+
+	static final int WARMUP_CALLS = 2000;
+
+	public static void main(String [] args) throws Exception {
+		int calls = args.length >= 1 ? Integer.parseInt(args[0]) : 10_000;
+		int threads = args.length >= 2 ? Integer.parseInt(args[1]) : 8;
+
+		File socketFile = File.createTempFile("stub", ".ipc");
+		StubHandler handler = new StubHandler();
+
+		try(HttpEndpoint http = new HttpEndpoint(handler, 0);
+			IpcEndpoint ipc = new IpcEndpoint(handler, socketFile.getPath()))
+		{
+			System.out.println(String.format("%-6s %12s %12s %12s %16s", "", "avg (us)", "p50 (us)", "p99 (us)", "calls/s (" + threads + " thr)"));
+
+			run("HTTP", Web3jUtils.buildClient(http.getUrl()), calls, threads);
+			run("IPC", Web3jUtils.buildClient(ipc.getUrl()), calls, threads);
+		}
+		finally {
+			HttpTransport.shutdownDefault();
+			IpcTransport.shutdownAll();
+		}
+	}
+
+	private static void run(String name, Web3j web3j, int calls, int threads) throws Exception {
+		for(int i = 0; i < WARMUP_CALLS; i++) {
+			web3j.ethBlockNumber().send();
+		}
+
+		// latency of sequential calls
+		long [] latencies = new long[calls];
+
+		for(int i = 0; i < calls; i++) {
+			long start = System.nanoTime();
+			web3j.ethBlockNumber().send();
+			latencies[i] = System.nanoTime() - start;
+		}
+
+		Arrays.sort(latencies);
+		double average = Arrays.stream(latencies).average().orElse(0);
+
+		// throughput of concurrent calls
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<?>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+
+		for(int t = 0; t < threads; t++) {
+			futures.add(pool.submit(() -> {
+				for(int i = 0; i < calls / threads; i++) {
+					web3j.ethBlockNumber().send();
+				}
+
+				return null;
+			}));
+		}
+
+		for(Future<?> future: futures) {
+			future.get();
+		}
+
+		double callsPerSecond = (calls / threads) * threads * 1e9 / (System.nanoTime() - start);
+		pool.shutdown();
+
+		System.out.println(String.format("%-6s %12.1f %12.1f %12.1f %16.0f", name, 
+				average / 1000, 
+				latencies[calls / 2] / 1000.0, 
+				latencies[calls * 99 / 100] / 1000.0, 
+				callsPerSecond));
+	}
+}
@@ -1,14 +1,17 @@
 package org.matthiaszimmermann.web3j.demo.dummy;
 
 import java.security.MessageDigest;
-import java.util.Random;
 
 /**
  * Tiny proof of work demo.
- * 
- * Goal: show link between mining difficulty and number of hashes 
+ *
+ * Goal: show link between mining difficulty and number of hashes
  * to compute for solving crypto challenge for new blocks.
- * 
+ * The nonce space is searched in parallel by {@link ParallelMiner} to show
+ * how the hash rate scales with the number of cores.
+ *
+ * Usage: DummyBitcoinMiner [leading zeros (default 2)] [threads (default all cores)] [md5|sha256|keccak256 (default md5)]
+ *
  * This demo is unrelated to Ethereum or web3j.
  */
 public class DummyBitcoinMiner {
@@ -16,54 +19,89 @@ public class DummyBitcoinMiner {
 	public static final char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
 	public static final String LEADING_ZEROS = "0000000000";
 
-	private static Random rnd = new Random();
-	private static int hashes = 0;
-	private static String difficulty;
-	private static MessageDigest md5;
+	// nonces are fixed size strings of lower case letters
+	public static final int NONCE_SIZE = 8;
+	public static final long NONCE_SPACE = (long) Math.pow(26, NONCE_SIZE);
+
+	static final String HASH_OF_PREVIOUS_BLOCK = "B37060F28617A5DFA3DB9A3D547663B3";
+	static final String BLOCK_PAYLOAD = "I am Satoshi Nakamoto";
 
 	public static void main(String[] args) throws Exception {
 
-		md5 = MessageDigest.getInstance("MD5");
-		difficulty = args.length == 0 ? 
-				LEADING_ZEROS.substring(0, 2) : 
-				LEADING_ZEROS.substring(0, new Integer(args[0])); 
+		String difficulty = args.length == 0 ?
+				LEADING_ZEROS.substring(0, 2) :
+				LEADING_ZEROS.substring(0, Integer.parseInt(args[0]));
+
+		int threads = args.length <= 1 ?
+				Runtime.getRuntime().availableProcessors() :
+				Integer.parseInt(args[1]);
 
-		String hashOfPreviousBlock = "B37060F28617A5DFA3DB9A3D547663B3";
-		String blockPayload = "I am Satoshi Nakamoto";
-		String nonce = nextNonceValue(4);
-		String blockData = buildBlock(hashOfPreviousBlock, blockPayload, nonce);
-		String blockHash = calculateHash(blockData);
+		HashAlgorithm algorithm = args.length <= 2 ?
+				HashAlgorithm.MD5 :
+				HashAlgorithm.fromName(args[2]);
 
-		while(!blockHash.startsWith(difficulty)) {
-			nonce = nextNonceValue(4);
-			blockData = buildBlock(hashOfPreviousBlock, blockPayload, nonce);
-			blockHash = calculateHash(blockData);
+		ParallelMiner miner = new ParallelMiner(HASH_OF_PREVIOUS_BLOCK, BLOCK_PAYLOAD, difficulty.length(), threads, algorithm);
+		ParallelMiner.Result result = miner.mine();
 
-			System.out.println(blockData + " -> " + blockHash);
-			hashes++;
+		if(result.isSolved()) {
+			System.out.println(result.getBlockData() + " -> " + result.getBlockHash());
+			System.out.println("Success with nonce '" + result.getNonce() +
+					"' for difficulty '" + difficulty + "'. Hashes calculated: " + result.getHashes());
+		}
+		else {
+			System.out.println("No nonce found for difficulty '" + difficulty + "'. Hashes calculated: " + result.getHashes());
 		}
 
-		System.out.println("Success with nonce '" + nonce + 
-				"' for difficulty '" + difficulty + "'. Hashes calculated: " + hashes);
+		result.printHashRates();
 	}
 
-	private static String buildBlock(String hashOfPreviousBlock, String blockPayload, String nonce) {
+	static String buildBlock(String hashOfPreviousBlock, String blockPayload, String nonce) {
 		return String.format("%s:%s:%s", hashOfPreviousBlock, blockPayload, nonce);
 	}
-	
-	private static String nextNonceValue(int size) {
-		StringBuffer buf = new StringBuffer();
 
-		for(int i = 0; i < size; i++) {
-			buf.append((char)(rnd.nextInt(25)+97));
+	/**
+	 * Writes the nonce for the specified position in the nonce space into the buffer as ASCII letters.
+	 * Nonces consist of size lower case letters ('aaaaaaaa', 'aaaaaaab', ...).
+	 */
+	static void writeNonce(byte [] buffer, int offset, int size, long index) {
+		for(int i = offset + size - 1; i >= offset; i--) {
+			buffer[i] = (byte)('a' + index % 26);
+			index /= 26;
 		}
+	}
 
-		return buf.toString();
+	/**
+	 * Moves the nonce in the buffer to the next position in the nonce space ('aaaz' -> 'aaba').
+	 */
+	static void incrementNonce(byte [] buffer, int offset, int size) {
+		for(int i = offset + size - 1; i >= offset; i--) {
+			if(buffer[i] != 'z') {
+				buffer[i]++;
+				return;
+			}
+
+			buffer[i] = 'a';
+		}
 	}
-	
-	private static String calculateHash(String blockData) {
-		md5.update(blockData.getBytes());
-		return bytesToHex(md5.digest());
+
+	/**
+	 * Returns true if the hex representation of the hash starts with the specified number of zeros.
+	 */
+	static boolean hasLeadingZeros(byte [] hash, int zeros) {
+		int fullBytes = zeros / 2;
+
+		for(int i = 0; i < fullBytes; i++) {
+			if(hash[i] != 0) {
+				return false;
+			}
+		}
+
+		return zeros % 2 == 0 || (hash[fullBytes] & 0xF0) == 0;
+	}
+
+	public static String calculateHash(MessageDigest digest, String blockData) {
+		digest.update(blockData.getBytes());
+		return bytesToHex(digest.digest());
 	}
 
 	public static String bytesToHex(byte[] bytes) {
@@ -74,5 +112,5 @@ public class DummyBitcoinMiner {
 			hexChars[j * 2 + 1] = HEX_ARRAY[v & 0x0F];
 		}
 		return new String(hexChars);
-	}	
+	}
 }
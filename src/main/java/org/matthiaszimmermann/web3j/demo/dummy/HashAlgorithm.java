@@ -0,0 +1,32 @@
+package org.matthiaszimmermann.web3j.demo.dummy;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.bouncycastle.jcajce.provider.digest.Keccak;
+
+/**
+ * Hash functions supported by the mining demo.
+ * Keccak-256 (the hash used by Ethereum) is provided by Bouncy Castle.
+ */
+public enum HashAlgorithm {
+
+	MD5,
+	SHA256,
+	KECCAK256;
+
+	public MessageDigest newDigest() throws NoSuchAlgorithmException {
+		switch(this) {
+		case MD5:    return MessageDigest.getInstance("MD5");
+		case SHA256: return MessageDigest.getInstance("SHA-256");
+		default:     return new Keccak.Digest256();
+		}
+	}
+
+	/**
+	 * Returns the algorithm for the provided (case insensitive) name, e.g. 'md5', 'sha256' or 'keccak256'.
+	 */
+	public static HashAlgorithm fromName(String name) {
+		return valueOf(name.replace("-", "").toUpperCase());
+	}
+}
@@ -0,0 +1,244 @@
+package org.matthiaszimmermann.web3j.demo.dummy;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Searches the nonce space of {@link DummyBitcoinMiner} with a fixed pool of worker threads.
+ * The nonce space is split into ranges of {@link #RANGE_SIZE} nonces that the workers claim one after the other.
+ * Each worker uses its own message digest. All workers stop as soon as one of them finds a solution.
+ * 
+ * The hashing loop does not allocate: each worker hashes a preallocated block buffer, increments the nonce
+ * in place and checks the difficulty directly on the digest bytes.
+ */
+public class ParallelMiner {
+
+	static final long RANGE_SIZE = 10_000;
+
+	private final String hashOfPreviousBlock;
+	private final String blockPayload;
+	private final int leadingZeros;
+	private final int threads;
+	private final HashAlgorithm algorithm;
+
+	private final AtomicLong nextRange = new AtomicLong();
+	private final AtomicReference<Solution> solution = new AtomicReference<>();
+
+	/**
+	 * Creates a miner looking for block hashes that start with the specified number of zero hex digits.
+	 */
+	public ParallelMiner(String hashOfPreviousBlock, String blockPayload, int leadingZeros, int threads, HashAlgorithm algorithm) {
+		this.hashOfPreviousBlock = hashOfPreviousBlock;
+		this.blockPayload = blockPayload;
+		this.leadingZeros = leadingZeros;
+		this.threads = threads;
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Runs the workers until a nonce is found that results in a block hash starting with the required
+	 * number of zeros or until the nonce space is exhausted. Progress is printed by a {@link ProgressReporter}.
+	 */
+	public Result mine() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Worker> workers = new ArrayList<>();
+		List<Future<?>> futures = new ArrayList<>();
+
+		for(int i = 0; i < threads; i++) {
+			workers.add(new Worker());
+		}
+
+		long start = System.nanoTime();
+
+		ProgressReporter reporter = new ProgressReporter(() -> workers.stream().mapToLong(worker -> worker.published).sum());
+
+		try {
+			for(Worker worker: workers) {
+				futures.add(pool.submit(worker));
+			}
+
+			for(Future<?> future: futures) {
+				future.get();
+			}
+		}
+		finally {
+			reporter.close();
+			pool.shutdownNow();
+		}
+
+		return new Result(solution.get(), algorithm, workers, System.nanoTime() - start);
+	}
+
+	private class Worker implements Runnable {
+
+		private final MessageDigest digest;
+		private final byte [] block;
+		private final byte [] hash;
+		private final int nonceOffset;
+
+		private long hashes = 0;
+		private long nanos = 0;
+
+		// hash count made visible to the progress reporter once per range
+		private volatile long published = 0;
+
+		Worker() throws NoSuchAlgorithmException {
+			String prefix = DummyBitcoinMiner.buildBlock(hashOfPreviousBlock, blockPayload, "");
+
+			digest = algorithm.newDigest();
+			hash = new byte[digest.getDigestLength()];
+			nonceOffset = prefix.length();
+			block = new byte[nonceOffset + DummyBitcoinMiner.NONCE_SIZE];
+			System.arraycopy(prefix.getBytes(StandardCharsets.US_ASCII), 0, block, 0, nonceOffset);
+		}
+
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+
+			try {
+				while(solution.get() == null) {
+					long first = nextRange.getAndIncrement() * RANGE_SIZE;
+					long last = Math.min(first + RANGE_SIZE, DummyBitcoinMiner.NONCE_SPACE);
+
+					if(first >= DummyBitcoinMiner.NONCE_SPACE) {
+						break;
+					}
+
+					DummyBitcoinMiner.writeNonce(block, nonceOffset, DummyBitcoinMiner.NONCE_SIZE, first);
+					long index = first;
+
+					while(index < last) {
+						digest.update(block, 0, block.length);
+						digest.digest(hash, 0, hash.length);
+						index++;
+
+						if(DummyBitcoinMiner.hasLeadingZeros(hash, leadingZeros)) {
+							String blockData = new String(block, StandardCharsets.US_ASCII);
+							String nonce = blockData.substring(nonceOffset);
+							solution.compareAndSet(null, new Solution(nonce, blockData, DummyBitcoinMiner.bytesToHex(hash)));
+							break;
+						}
+
+						DummyBitcoinMiner.incrementNonce(block, nonceOffset, DummyBitcoinMiner.NONCE_SIZE);
+					}
+
+					hashes += index - first;
+					published = hashes;
+				}
+			}
+			catch (DigestException e) {
+				throw new IllegalStateException(e);
+			}
+
+			nanos = System.nanoTime() - start;
+		}
+	}
+
+	private static class Solution {
+
+		final String nonce;
+		final String blockData;
+		final String blockHash;
+
+		Solution(String nonce, String blockData, String blockHash) {
+			this.nonce = nonce;
+			this.blockData = blockData;
+			this.blockHash = blockHash;
+		}
+	}
+
+	/**
+	 * Solution (if any) together with the aggregate and per thread hash counts and rates.
+	 */
+	public static class Result {
+
+		private final Solution solution;
+		private final HashAlgorithm algorithm;
+		private final long [] hashes;
+		private final long [] nanos;
+		private final long elapsedNanos;
+
+		Result(Solution solution, HashAlgorithm algorithm, List<Worker> workers, long elapsedNanos) {
+			this.solution = solution;
+			this.algorithm = algorithm;
+			this.hashes = workers.stream().mapToLong(worker -> worker.hashes).toArray();
+			this.nanos = workers.stream().mapToLong(worker -> worker.nanos).toArray();
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public boolean isSolved() {
+			return solution != null;
+		}
+
+		public String getNonce() {
+			return isSolved() ? solution.nonce : null;
+		}
+
+		public String getBlockData() {
+			return isSolved() ? solution.blockData : null;
+		}
+
+		public String getBlockHash() {
+			return isSolved() ? solution.blockHash : null;
+		}
+
+		public long getHashes() {
+			long total = 0;
+
+			for(long count: hashes) {
+				total += count;
+			}
+
+			return total;
+		}
+
+		public long getElapsedMillis() {
+			return elapsedNanos / 1_000_000;
+		}
+
+		/**
+		 * Aggregate hash rate over all threads (hashes per second).
+		 */
+		public double getHashRate() {
+			return rate(getHashes(), elapsedNanos);
+		}
+
+		/**
+		 * Hash rate of the specified worker thread (hashes per second).
+		 */
+		public double getHashRate(int thread) {
+			return rate(hashes[thread], nanos[thread]);
+		}
+
+		public HashAlgorithm getAlgorithm() {
+			return algorithm;
+		}
+
+		public int getThreads() {
+			return hashes.length;
+		}
+
+		public void printHashRates() {
+			System.out.println(String.format("Algorithm: %s, threads: %d, time: %d ms, hash rate: %.0f hashes/s",
+					algorithm, getThreads(), getElapsedMillis(), getHashRate()));
+
+			for(int i = 0; i < getThreads(); i++) {
+				System.out.println(String.format("- thread %d: %d hashes, %.0f hashes/s", i, hashes[i], getHashRate(i)));
+			}
+		}
+
+		private static double rate(long count, long nanos) {
+			return nanos == 0 ? 0.0 : count * 1_000_000_000.0 / nanos;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package org.matthiaszimmermann.web3j.demo.dummy;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Prints the mining progress at a fixed interval instead of a line per hash.
+ * The hash count is sampled from the provided supplier, so the mining threads never block on console output.
+ */
+public class ProgressReporter implements AutoCloseable {
+
+	public static final long INTERVAL_MILLIS = 1000;
+
+	private final LongSupplier hashes;
+	private final ScheduledExecutorService scheduler;
+	private final long start = System.nanoTime();
+
+	private long lastHashes = 0;
+	private long lastNanos = start;
+
+	public ProgressReporter(LongSupplier hashes) {
+		this.hashes = hashes;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "mining-progress");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		scheduler.scheduleAtFixedRate(this::report, INTERVAL_MILLIS, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	private void report() {
+		long now = System.nanoTime();
+		long count = hashes.getAsLong();
+		double rate = (count - lastHashes) * 1_000_000_000.0 / (now - lastNanos);
+
+		System.out.println(String.format("%6.1f s: %d hashes, %.0f hashes/s", (now - start) / 1e9, count, rate));
+
+		lastHashes = count;
+		lastNanos = now;
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+	}
+}
@@ -0,0 +1,386 @@
+package org.matthiaszimmermann.web3j.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.matthiaszimmermann.web3j.util.Web3jConstants;
+import org.matthiaszimmermann.web3j.util.Web3jUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Fetches a range of historical blocks with their receipts on several worker threads and hands them
+ * to a {@link BlockSink} in strict block number order.
+ * The range is split into chunks of consecutive blocks. A worker fetches the blocks of a chunk with a single
+ * JSON-RPC batch and the receipts of all their transactions with a second batch. The calling thread delivers
+ * the chunks to the sink in order, at most window chunks are fetched ahead of the sink, which bounds the memory used.
+ *
+ * With a checkpoint file the last delivered block is recorded every {@link Web3jConstants#BACKFILL_CHECKPOINT_INTERVAL}
+ * blocks (after {@link BlockSink#checkpoint(BigInteger)}) and a repeated scan resumes after that block.
+ *
+ * The worker threads are created once and shared by all scans of the scanner until it is closed.
+ */
+public class BackfillScanner implements AutoCloseable {
+
+	private final Web3j web3j;
+	private final int chunkSize;
+	private final int window;
+	private final long retryDelay;
+	private final ExecutorService workers;
+
+	private Consumer<Report> progressListener = null;
+
+	/**
+	 * Creates a scanner with {@link Web3jConstants#BACKFILL_THREADS} workers, chunks of {@link Web3jConstants#BACKFILL_CHUNK_SIZE}
+	 * blocks and a window of {@link Web3jConstants#BACKFILL_WINDOW} chunks.
+	 */
+	public BackfillScanner(Web3j web3j) {
+		this(web3j, Web3jConstants.BACKFILL_THREADS, Web3jConstants.BACKFILL_CHUNK_SIZE, Web3jConstants.BACKFILL_WINDOW);
+	}
+
+	public BackfillScanner(Web3j web3j, int threads, int chunkSize, int window) {
+		this(web3j, threads, chunkSize, window, Web3jConstants.BACKFILL_RETRY_DELAY);
+	}
+
+	BackfillScanner(Web3j web3j, int threads, int chunkSize, int window, long retryDelay) {
+		if(threads < 1 || chunkSize < 1 || window < threads || retryDelay < 0) {
+			throw new IllegalArgumentException(String.format("Invalid scanner settings: threads %d, chunk size %d, window %d, retry delay %d", threads, chunkSize, window, retryDelay));
+		}
+
+		this.web3j = web3j;
+		this.chunkSize = chunkSize;
+		this.window = window;
+		this.retryDelay = retryDelay;
+		this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "backfill-scanner");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Registers a listener that is called on the scanning thread with the progress after each delivered chunk.
+	 */
+	public BackfillScanner onProgress(Consumer<Report> listener) {
+		this.progressListener = listener;
+		return this;
+	}
+
+	/**
+	 * Delivers the blocks from first to last (inclusive) to the sink.
+	 */
+	public Report scan(BigInteger first, BigInteger last, BlockSink sink) throws Exception {
+		return scan(first, last, sink, null);
+	}
+
+	/**
+	 * Delivers the blocks from first to last (inclusive) to the sink, skipping the blocks up to the
+	 * last block recorded in the checkpoint file (if it exists). A null checkpoint file scans the complete range.
+	 */
+	public Report scan(BigInteger first, BigInteger last, BlockSink sink, Path checkpointFile) throws Exception {
+		BigInteger done = checkpointFile != null ? readCheckpoint(checkpointFile) : null;
+		BigInteger start = done != null ? first.max(done.add(BigInteger.ONE)) : first;
+
+		Deque<Future<List<Block>>> pending = new ArrayDeque<>();
+		Progress progress = new Progress(start);
+		BigInteger next = start;
+		BigInteger checkpointed = start.subtract(BigInteger.ONE);
+
+		try {
+			while(next.compareTo(last) <= 0 || !pending.isEmpty()) {
+
+				// keep the window filled, chunks are submitted (and delivered) in block order
+				while(pending.size() < window && next.compareTo(last) <= 0) {
+					BigInteger chunkEnd = next.add(BigInteger.valueOf(chunkSize - 1)).min(last);
+					BigInteger from = next;
+
+					pending.add(submit(() -> fetchChunk(from, chunkEnd)));
+					next = chunkEnd.add(BigInteger.ONE);
+				}
+
+				for(Block block: take(pending.poll())) {
+					sink.accept(block.block, block.receipts);
+					progress.add(block);
+				}
+
+				if(checkpointFile != null && progress.lastBlock.subtract(checkpointed).intValue() >= Web3jConstants.BACKFILL_CHECKPOINT_INTERVAL) {
+					checkpoint(sink, checkpointFile, progress.lastBlock);
+					checkpointed = progress.lastBlock;
+				}
+
+				if(progressListener != null) {
+					progressListener.accept(progress.report(false));
+				}
+			}
+		}
+		catch (Exception e) {
+			// whatever has been delivered is recorded, so the next scan resumes after it
+			if(checkpointFile != null && progress.lastBlock.compareTo(checkpointed) > 0) {
+				try {
+					checkpoint(sink, checkpointFile, progress.lastBlock);
+				}
+				catch (IOException checkpointFailure) {
+					e.addSuppressed(checkpointFailure);
+				}
+			}
+
+			throw e;
+		}
+		finally {
+			// chunks fetched ahead of a failed scan are not needed anymore
+			for(Future<List<Block>> chunk: pending) {
+				chunk.cancel(true);
+			}
+		}
+
+		if(checkpointFile != null && progress.lastBlock.compareTo(checkpointed) > 0) {
+			checkpoint(sink, checkpointFile, progress.lastBlock);
+		}
+
+		return progress.report(true);
+	}
+
+	/**
+	 * Stops the worker threads, a running scan fails.
+	 */
+	@Override
+	public void close() {
+		// queued chunks are cancelled, otherwise a scan waiting for them would never return
+		for(Runnable chunk: workers.shutdownNow()) {
+			if(chunk instanceof Future) {
+				((Future<?>) chunk).cancel(true);
+			}
+		}
+	}
+
+	private <T> Future<T> submit(Callable<T> task) throws IOException {
+		try {
+			return workers.submit(task);
+		}
+		catch (RejectedExecutionException e) {
+			throw new IOException("Scanner closed", e);
+		}
+	}
+
+	private static <T> T take(Future<T> future) throws Exception {
+		try {
+			return future.get();
+		}
+		catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+		catch (CancellationException e) {
+			throw new IOException("Scanner closed", e);
+		}
+	}
+
+	/**
+	 * Fetches the blocks of the chunk and the receipts of their transactions, retries failed fetches
+	 * up to {@link Web3jConstants#BACKFILL_RETRIES} times. The delay before a retry doubles with each attempt.
+	 */
+	private List<Block> fetchChunk(BigInteger first, BigInteger last) throws Exception {
+		for(int attempt = 0; ; attempt++) {
+			try {
+				return fetchBlocks(first, last);
+			}
+			catch (InterruptedException e) {
+				throw e;
+			}
+			catch (Exception e) {
+				// a cancelled chunk may also fail with an I/O error of the interrupted request
+				if(attempt >= Web3jConstants.BACKFILL_RETRIES || Thread.currentThread().isInterrupted()) {
+					throw new IOException(String.format("Failed to fetch blocks %s to %s: %s", first, last, e.getMessage()), e);
+				}
+			}
+
+			// interrupted when the scan has failed or the scanner is closed
+			Thread.sleep(retryDelay << attempt);
+		}
+	}
+
+	private List<Block> fetchBlocks(BigInteger first, BigInteger last) throws Exception {
+		List<BigInteger> numbers = new ArrayList<>();
+
+		for(BigInteger number = first; number.compareTo(last) <= 0; number = number.add(BigInteger.ONE)) {
+			numbers.add(number);
+		}
+
+		List<Optional<EthBlock.Block>> blocks = Web3jUtils.getBlocks(web3j, numbers, true);
+		List<String> hashes = new ArrayList<>();
+
+		for(int i = 0; i < blocks.size(); i++) {
+			if(!blocks.get(i).isPresent()) {
+				throw new IOException("Unknown block " + numbers.get(i));
+			}
+
+			for(EthBlock.TransactionResult<?> tx: blocks.get(i).get().getTransactions()) {
+				hashes.add(((EthBlock.TransactionObject) tx).getHash());
+			}
+		}
+
+		List<Optional<TransactionReceipt>> receipts = Web3jUtils.getReceipts(web3j, hashes);
+		List<Block> chunk = new ArrayList<>(blocks.size());
+		int receipt = 0;
+
+		for(Optional<EthBlock.Block> block: blocks) {
+			List<TransactionReceipt> blockReceipts = new ArrayList<>(block.get().getTransactions().size());
+
+			for(int i = 0; i < block.get().getTransactions().size(); i++) {
+				String hash = hashes.get(receipt);
+				// a node that has the block but not yet the receipt is behind, the chunk is fetched again
+				blockReceipts.add(receipts.get(receipt++).orElseThrow(() -> new IOException("Missing receipt of transaction " + hash)));
+			}
+
+			chunk.add(new Block(block.get(), blockReceipts));
+		}
+
+		return chunk;
+	}
+
+	private static BigInteger readCheckpoint(Path checkpointFile) throws IOException {
+		if(!Files.exists(checkpointFile)) {
+			return null;
+		}
+
+		Properties checkpoint = new Properties();
+
+		try(InputStream in = Files.newInputStream(checkpointFile)) {
+			checkpoint.load(in);
+		}
+
+		String lastBlock = checkpoint.getProperty("lastBlock");
+		return lastBlock != null ? new BigInteger(lastBlock) : null;
+	}
+
+	private static void checkpoint(BlockSink sink, Path checkpointFile, BigInteger lastBlock) throws IOException {
+		sink.checkpoint(lastBlock);
+
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty("lastBlock", lastBlock.toString());
+
+		Path directory = checkpointFile.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path tmp = Files.createTempFile(directory, checkpointFile.getFileName().toString(), ".tmp");
+
+		try(OutputStream out = Files.newOutputStream(tmp)) {
+			checkpoint.store(out, "last block delivered to the sink, written by BackfillScanner");
+		}
+
+		Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * A fetched block with the receipts of its transactions.
+	 */
+	private static class Block {
+
+		private final EthBlock.Block block;
+		private final List<TransactionReceipt> receipts;
+
+		Block(EthBlock.Block block, List<TransactionReceipt> receipts) {
+			this.block = block;
+			this.receipts = receipts;
+		}
+	}
+
+	/**
+	 * Counters of a running scan, only updated by the scanning thread.
+	 */
+	private static class Progress {
+
+		private final long start = System.nanoTime();
+		private BigInteger lastBlock;
+		private long blocks = 0;
+		private long transactions = 0;
+
+		Progress(BigInteger first) {
+			this.lastBlock = first.subtract(BigInteger.ONE);
+		}
+
+		void add(Block block) {
+			lastBlock = block.block.getNumber();
+			blocks++;
+			transactions += block.receipts.size();
+		}
+
+		Report report(boolean done) {
+			return new Report(lastBlock, blocks, transactions, (System.nanoTime() - start) / 1_000_000, done);
+		}
+	}
+
+	/**
+	 * Number of blocks and transactions delivered to the sink, elapsed time and throughput of a scan.
+	 */
+	public static class Report {
+
+		private final BigInteger lastBlock;
+		private final long blocks;
+		private final long transactions;
+		private final long elapsedMillis;
+		private final boolean done;
+
+		Report(BigInteger lastBlock, long blocks, long transactions, long elapsedMillis, boolean done) {
+			this.lastBlock = lastBlock;
+			this.blocks = blocks;
+			this.transactions = transactions;
+			this.elapsedMillis = elapsedMillis;
+			this.done = done;
+		}
+
+		/**
+		 * Last block delivered to the sink.
+		 */
+		public BigInteger getLastBlock() {
+			return lastBlock;
+		}
+
+		public long getBlocks() {
+			return blocks;
+		}
+
+		public long getTransactions() {
+			return transactions;
+		}
+
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		public double getBlocksPerSecond() {
+			return elapsedMillis == 0 ? 0.0 : blocks * 1000.0 / elapsedMillis;
+		}
+
+		/**
+		 * Returns true for the final report of a completed scan.
+		 */
+		public boolean isDone() {
+			return done;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d blocks (up to block %s), %d txs in %d ms, %.1f blocks/s%s",
+					blocks, lastBlock, transactions, elapsedMillis, getBlocksPerSecond(), done ? "" : " (running)");
+		}
+	}
+}
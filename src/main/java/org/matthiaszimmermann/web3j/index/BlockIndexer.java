@@ -0,0 +1,393 @@
+package org.matthiaszimmermann.web3j.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.matthiaszimmermann.web3j.util.BlockHeadTracker;
+import org.matthiaszimmermann.web3j.util.Web3jConstants;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+/**
+ * Embedded index of blocks, transactions and receipts with the transaction history of each address.
+ * Blocks are ingested in sequence, missing blocks are fetched with a {@link BackfillScanner}. Headers and transactions (with their receipts) are appended to the
+ * memory mapped data log, the position of each block and an entry for each address involved in a transaction
+ * (sender, recipient, created contract) are appended to the index log. Both logs are {@link SegmentStore}s.
+ * At startup the index log is scanned to rebuild the block table and the address postings in memory,
+ * queries then only read the records they return.
+ *
+ * Every {@link Web3jConstants#INDEX_CHECKPOINT_INTERVAL} blocks (and on {@link #flush()} and {@link #close()})
+ * both logs are written to disk and the checkpoint file is replaced atomically. After a restart the indexer
+ * resumes after the block of the last checkpoint. Blocks are indexed as reported by the client,
+ * the indexer stays {@link Web3jConstants#INDEX_CONFIRMATIONS} blocks behind the head to avoid reorgs.
+ * A block whose parent hash does not match the hash of the last indexed block is rejected.
+ */
+public class BlockIndexer implements BlockSink, AutoCloseable {
+
+	static final String CHECKPOINT_FILE = "checkpoint.properties";
+
+	// index log entries: kind, key (block number or address), position of the record in the data log
+	private static final byte ENTRY_BLOCK = 1;
+	private static final byte ENTRY_ADDRESS = 2;
+	private static final int ADDRESS_SIZE = 20;
+	private static final int ENTRY_SIZE = 1 + ADDRESS_SIZE + Long.BYTES;
+
+	private final Path directory;
+	private final int confirmations;
+	private final SegmentStore data;
+	private final SegmentStore index;
+
+	// data log positions of the block headers (from the first block on) and of the txs per address (lower case, no 0x)
+	private final PositionList blocks = new PositionList();
+	private final Map<String, PositionList> postings = new HashMap<>();
+
+	// serializes catchUp() calls of the caller and the tracker listener
+	private final Object ingest = new Object();
+
+	private BigInteger firstBlock;
+	private String lastHash = null;
+	private int uncheckpointed = 0;
+
+	private BlockHeadTracker tracker = null;
+	private Consumer<BigInteger> blockListener = null;
+
+	// scanner of the client last caught up with, its workers are reused by all catchUp() calls
+	private volatile BackfillScanner scanner = null;
+	private Web3j scannerClient = null;
+
+	/**
+	 * Opens the index in the provided directory, an empty or missing directory is an empty index.
+	 * Segments have {@link Web3jConstants#INDEX_SEGMENT_SIZE} bytes.
+	 */
+	public static BlockIndexer open(Path directory) throws IOException {
+		return new BlockIndexer(directory, Web3jConstants.INDEX_SEGMENT_SIZE, Web3jConstants.INDEX_CONFIRMATIONS);
+	}
+
+	BlockIndexer(Path directory, int segmentSize, int confirmations) throws IOException {
+		this.directory = directory;
+		this.confirmations = confirmations;
+
+		Properties checkpoint = new Properties();
+		Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+
+		if(Files.exists(checkpointFile)) {
+			try(InputStream in = Files.newInputStream(checkpointFile)) {
+				checkpoint.load(in);
+			}
+		}
+
+		String first = checkpoint.getProperty("firstBlock");
+		this.firstBlock = first != null ? new BigInteger(first) : null;
+		this.data = new SegmentStore(directory, "data", segmentSize, Long.parseLong(checkpoint.getProperty("dataEnd", "0")));
+		this.index = new SegmentStore(directory, "index", segmentSize, Long.parseLong(checkpoint.getProperty("indexEnd", "0")));
+
+		index.scan((position, entry) -> load(entry));
+
+		if(blocks.size() > 0) {
+			lastHash = RecordCodec.decodeHeader(data.read(blocks.get(blocks.size() - 1))).getHash();
+		}
+	}
+
+	private void load(ByteBuffer entry) {
+		byte kind = entry.get();
+		byte [] key = new byte[ADDRESS_SIZE];
+		entry.get(key);
+		long position = entry.getLong();
+
+		if(kind == ENTRY_BLOCK) {
+			blocks.add(position);
+		}
+		else {
+			postings.computeIfAbsent(Numeric.toHexStringNoPrefix(key), address -> new PositionList()).add(position);
+		}
+	}
+
+	/**
+	 * Indexes all blocks after the last indexed block up to the current head (minus {@link Web3jConstants#INDEX_CONFIRMATIONS}).
+	 * An empty index starts with the genesis block. Returns the number of indexed blocks.
+	 */
+	public int catchUp(Web3j web3j) throws Exception {
+		synchronized (ingest) {
+			return indexUpTo(web3j);
+		}
+	}
+
+	private int indexUpTo(Web3j web3j) throws Exception {
+		BigInteger head = web3j.ethBlockNumber().send().getBlockNumber();
+		BigInteger last = head.subtract(BigInteger.valueOf(confirmations));
+		BigInteger next = getNextBlockNumber();
+
+		if(next == null) {
+			next = BigInteger.ZERO;
+		}
+
+		if(next.compareTo(last) > 0) {
+			return 0;
+		}
+
+		BackfillScanner.Report report = scannerFor(web3j).scan(next, last, this);
+		flush();
+
+		return (int) report.getBlocks();
+	}
+
+	private BackfillScanner scannerFor(Web3j web3j) {
+		if(scannerClient != web3j) {
+			if(scanner != null) {
+				scanner.close();
+			}
+
+			scanner = new BackfillScanner(web3j);
+			scannerClient = web3j;
+		}
+
+		return scanner;
+	}
+
+	/**
+	 * Indexes new blocks whenever the {@link BlockHeadTracker} of the client reports a new block head.
+	 * Indexing runs on the listener pool of the tracker until the indexer is closed.
+	 */
+	public synchronized void follow(Web3j web3j) {
+		if(tracker != null) {
+			throw new IllegalStateException("Indexer already follows a client");
+		}
+
+		tracker = BlockHeadTracker.forClient(web3j);
+		blockListener = blockNumber -> {
+			try {
+				catchUp(web3j);
+			}
+			catch (Exception e) {
+				System.out.println("Failed to index block " + blockNumber + ": " + e.getMessage());
+			}
+		};
+
+		tracker.addListener(blockListener);
+	}
+
+	@Override
+	public void accept(EthBlock.Block block, List<TransactionReceipt> receipts) throws IOException {
+		append(block, receipts);
+	}
+
+	@Override
+	public void checkpoint(BigInteger lastBlock) throws IOException {
+		flush();
+	}
+
+	/**
+	 * Appends the block with its transactions (full transaction objects) and their receipts (in the order of the transactions,
+	 * null for missing receipts). The block must be the block following the last indexed block, its parent hash
+	 * the hash of the last indexed block.
+	 */
+	public synchronized void append(EthBlock.Block block, List<TransactionReceipt> receipts) throws IOException {
+		BigInteger next = getNextBlockNumber();
+
+		if(next != null && !next.equals(block.getNumber())) {
+			throw new IOException("Expected block " + next + " but got block " + block.getNumber());
+		}
+
+		if(lastHash != null && !lastHash.equals(block.getParentHash())) {
+			throw new IOException(String.format("Parent hash %s of block %s does not match the hash %s of the last indexed block (reorg)",
+					block.getParentHash(), block.getNumber(), lastHash));
+		}
+
+		if(firstBlock == null) {
+			firstBlock = block.getNumber();
+		}
+
+		int i = 0;
+
+		for(EthBlock.TransactionResult<?> result: block.getTransactions()) {
+			Transaction tx = (Transaction) result;
+			TransactionReceipt receipt = i < receipts.size() ? receipts.get(i) : null;
+			i++;
+			long position = data.append(RecordCodec.encodeTransaction(tx, receipt));
+
+			for(String address: involvedAddresses(tx, receipt)) {
+				byte [] key = Numeric.hexStringToByteArray(address);
+				index.append(entry(ENTRY_ADDRESS, key, position));
+				postings.computeIfAbsent(Numeric.toHexStringNoPrefix(key), a -> new PositionList()).add(position);
+			}
+		}
+
+		long header = data.append(RecordCodec.encodeHeader(block));
+		index.append(entry(ENTRY_BLOCK, new byte[ADDRESS_SIZE], header));
+		blocks.add(header);
+		lastHash = block.getHash();
+
+		if(++uncheckpointed >= Web3jConstants.INDEX_CHECKPOINT_INTERVAL) {
+			flush();
+		}
+	}
+
+	private static Set<String> involvedAddresses(Transaction tx, TransactionReceipt receipt) {
+		Set<String> addresses = new LinkedHashSet<>();
+		addresses.add(tx.getFrom());
+		addresses.add(tx.getTo());
+		addresses.add(tx.getCreates());
+
+		if(receipt != null) {
+			addresses.add(receipt.getContractAddress());
+		}
+
+		addresses.remove(null);
+		addresses.remove("");
+		addresses.remove("0x");
+
+		return addresses;
+	}
+
+	private static byte [] entry(byte kind, byte [] key, long position) {
+		return ByteBuffer
+				.allocate(ENTRY_SIZE)
+				.put(kind)
+				.put(Arrays.copyOf(key, ADDRESS_SIZE))
+				.putLong(position)
+				.array();
+	}
+
+	/**
+	 * Returns all indexed transactions sent from, sent to or creating the provided address in the order of the chain.
+	 */
+	public synchronized List<IndexedTransaction> getAddressHistory(String address) {
+		PositionList positions = postings.get(Numeric.cleanHexPrefix(address).toLowerCase());
+		List<IndexedTransaction> history = new ArrayList<>(positions != null ? positions.size() : 0);
+
+		for(int i = 0; positions != null && i < positions.size(); i++) {
+			history.add(RecordCodec.decodeTransaction(data.read(positions.get(i))));
+		}
+
+		return history;
+	}
+
+	/**
+	 * Returns the number of indexed transactions involving the provided address.
+	 */
+	public synchronized int getTransactionCount(String address) {
+		PositionList positions = postings.get(Numeric.cleanHexPrefix(address).toLowerCase());
+		return positions != null ? positions.size() : 0;
+	}
+
+	/**
+	 * Returns the header of the specified block (transactions as hashes) or null if the block is not indexed.
+	 */
+	public synchronized EthBlock.Block getBlock(BigInteger number) {
+		if(firstBlock == null || number.compareTo(firstBlock) < 0 || number.compareTo(getLastBlockNumber()) > 0) {
+			return null;
+		}
+
+		return RecordCodec.decodeHeader(data.read(blocks.get(number.subtract(firstBlock).intValue())));
+	}
+
+	/**
+	 * Returns the number of the last indexed block or null for an empty index.
+	 */
+	public synchronized BigInteger getLastBlockNumber() {
+		return firstBlock == null ? null : firstBlock.add(BigInteger.valueOf(blocks.size() - 1));
+	}
+
+	private BigInteger getNextBlockNumber() {
+		BigInteger last = getLastBlockNumber();
+		return last == null ? null : last.add(BigInteger.ONE);
+	}
+
+	public synchronized int getBlockCount() {
+		return blocks.size();
+	}
+
+	public synchronized int getAddressCount() {
+		return postings.size();
+	}
+
+	/**
+	 * Writes both logs to disk and records the indexed blocks in the checkpoint file.
+	 */
+	public synchronized void flush() throws IOException {
+		data.force();
+		index.force();
+
+		Properties checkpoint = new Properties();
+
+		if(firstBlock != null) {
+			checkpoint.setProperty("firstBlock", firstBlock.toString());
+			checkpoint.setProperty("lastBlock", getLastBlockNumber().toString());
+		}
+
+		checkpoint.setProperty("dataEnd", Long.toString(data.getEnd()));
+		checkpoint.setProperty("indexEnd", Long.toString(index.getEnd()));
+
+		Path tmp = Files.createTempFile(directory, CHECKPOINT_FILE, ".tmp");
+
+		try(OutputStream out = Files.newOutputStream(tmp)) {
+			checkpoint.store(out, "last indexed block and log ends, written by BlockIndexer");
+		}
+
+		Files.move(tmp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		uncheckpointed = 0;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if(tracker != null) {
+			tracker.removeListener(blockListener);
+		}
+
+		if(scanner != null) {
+			scanner.close();
+		}
+
+		flush();
+		data.close();
+		index.close();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d blocks (%s to %s), %d addresses, %d bytes data", blocks.size(), firstBlock, getLastBlockNumber(), postings.size(), data.getEnd());
+	}
+
+	/**
+	 * Growable list of log positions.
+	 */
+	private static class PositionList {
+
+		private long [] positions = new long[4];
+		private int size = 0;
+
+		void add(long position) {
+			if(size == positions.length) {
+				positions = Arrays.copyOf(positions, size * 2);
+			}
+
+			positions[size++] = position;
+		}
+
+		long get(int i) {
+			return positions[i];
+		}
+
+		int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package org.matthiaszimmermann.web3j.index;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Receives the blocks of a {@link BackfillScanner} in strict block number order, one block at a time.
+ */
+public interface BlockSink {
+
+	/**
+	 * Called for each block with its full transaction objects and their receipts in the order of the transactions.
+	 */
+	void accept(EthBlock.Block block, List<TransactionReceipt> receipts) throws IOException;
+
+	/**
+	 * Called before the scanner records the provided block as done in its checkpoint.
+	 * Sinks with state should write it to disk here, so the scan can resume after this block.
+	 */
+	default void checkpoint(BigInteger lastBlock) throws IOException {
+	}
+}
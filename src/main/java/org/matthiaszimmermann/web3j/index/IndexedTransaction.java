@@ -0,0 +1,45 @@
+package org.matthiaszimmermann.web3j.index;
+
+import java.math.BigInteger;
+
+import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * A transaction and its receipt as stored by the {@link BlockIndexer}.
+ */
+public class IndexedTransaction {
+
+	private final Transaction transaction;
+	private final TransactionReceipt receipt;
+
+	IndexedTransaction(Transaction transaction, TransactionReceipt receipt) {
+		this.transaction = transaction;
+		this.receipt = receipt;
+	}
+
+	public Transaction getTransaction() {
+		return transaction;
+	}
+
+	/**
+	 * Returns the receipt or null if the client did not provide a receipt when the block was indexed.
+	 */
+	public TransactionReceipt getReceipt() {
+		return receipt;
+	}
+
+	public String getHash() {
+		return transaction.getHash();
+	}
+
+	public BigInteger getBlockNumber() {
+		return transaction.getBlockNumber();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s (block %s) %s -> %s: %s wei", transaction.getHash(), transaction.getBlockNumber(),
+				transaction.getFrom(), transaction.getTo() != null ? transaction.getTo() : receipt != null ? receipt.getContractAddress() : null, transaction.getValue());
+	}
+}
@@ -0,0 +1,347 @@
+package org.matthiaszimmermann.web3j.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Binary encoding of block headers, transactions and receipts for the {@link SegmentStore}.
+ * All fields are stored as the raw strings returned by the client. Hex strings (0x...) are stored
+ * as their bytes, which halves their size, and decoded to the identical (lower case) string.
+ */
+class RecordCodec {
+
+	static final byte HEADER = 1;
+	static final byte TRANSACTION = 2;
+
+	// string kinds: hex with an even or odd number of digits, any other text
+	private static final byte HEX_EVEN = 0;
+	private static final byte HEX_ODD = 1;
+	private static final byte TEXT = 2;
+
+	private static final char [] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Encodes the block header, transactions are represented by their hashes only.
+	 */
+	static byte [] encodeHeader(EthBlock.Block block) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeByte(HEADER);
+		writeString(out, block.getNumberRaw());
+		writeString(out, block.getHash());
+		writeString(out, block.getParentHash());
+		writeString(out, block.getNonceRaw());
+		writeString(out, block.getSha3Uncles());
+		writeString(out, block.getLogsBloom());
+		writeString(out, block.getTransactionsRoot());
+		writeString(out, block.getStateRoot());
+		writeString(out, block.getReceiptsRoot());
+		writeString(out, block.getAuthor());
+		writeString(out, block.getMiner());
+		writeString(out, block.getMixHash());
+		writeString(out, block.getDifficultyRaw());
+		writeString(out, block.getTotalDifficultyRaw());
+		writeString(out, block.getExtraData());
+		writeString(out, block.getSizeRaw());
+		writeString(out, block.getGasLimitRaw());
+		writeString(out, block.getGasUsedRaw());
+		writeString(out, block.getTimestampRaw());
+
+		List<String> hashes = new ArrayList<>(block.getTransactions().size());
+
+		for(EthBlock.TransactionResult<?> tx: block.getTransactions()) {
+			hashes.add(tx instanceof EthBlock.TransactionObject ? ((EthBlock.TransactionObject) tx).getHash() : (String) tx.get());
+		}
+
+		writeStrings(out, hashes);
+		writeStrings(out, block.getUncles());
+
+		return bytes.toByteArray();
+	}
+
+	static EthBlock.Block decodeHeader(ByteBuffer in) {
+		expect(in, HEADER);
+
+		EthBlock.Block block = new EthBlock.Block();
+		block.setNumber(readString(in));
+		block.setHash(readString(in));
+		block.setParentHash(readString(in));
+		block.setNonce(readString(in));
+		block.setSha3Uncles(readString(in));
+		block.setLogsBloom(readString(in));
+		block.setTransactionsRoot(readString(in));
+		block.setStateRoot(readString(in));
+		block.setReceiptsRoot(readString(in));
+		block.setAuthor(readString(in));
+		block.setMiner(readString(in));
+		block.setMixHash(readString(in));
+		block.setDifficulty(readString(in));
+		block.setTotalDifficulty(readString(in));
+		block.setExtraData(readString(in));
+		block.setSize(readString(in));
+		block.setGasLimit(readString(in));
+		block.setGasUsed(readString(in));
+		block.setTimestamp(readString(in));
+
+		List<EthBlock.TransactionHash> transactions = new ArrayList<>();
+
+		for(String hash: readStrings(in)) {
+			transactions.add(new EthBlock.TransactionHash(hash));
+		}
+
+		block.setTransactions(new ArrayList<>(transactions));
+		block.setUncles(readStrings(in));
+
+		return block;
+	}
+
+	/**
+	 * Encodes a transaction together with its receipt (may be null).
+	 */
+	static byte [] encodeTransaction(Transaction tx, TransactionReceipt receipt) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeByte(TRANSACTION);
+		writeString(out, tx.getHash());
+		writeString(out, tx.getNonceRaw());
+		writeString(out, tx.getBlockHash());
+		writeString(out, tx.getBlockNumberRaw());
+		writeString(out, tx.getTransactionIndexRaw());
+		writeString(out, tx.getFrom());
+		writeString(out, tx.getTo());
+		writeString(out, tx.getValueRaw());
+		writeString(out, tx.getGasPriceRaw());
+		writeString(out, tx.getGasRaw());
+		writeString(out, tx.getInput());
+		writeString(out, tx.getCreates());
+		writeString(out, tx.getPublicKey());
+		writeString(out, tx.getRaw());
+		writeString(out, tx.getR());
+		writeString(out, tx.getS());
+		out.writeInt(tx.getV());
+
+		out.writeBoolean(receipt != null);
+
+		if(receipt != null) {
+			writeString(out, receipt.getTransactionHash());
+			writeString(out, receipt.getTransactionIndexRaw());
+			writeString(out, receipt.getBlockHash());
+			writeString(out, receipt.getBlockNumberRaw());
+			writeString(out, receipt.getCumulativeGasUsedRaw());
+			writeString(out, receipt.getGasUsedRaw());
+			writeString(out, receipt.getContractAddress());
+			writeString(out, receipt.getRoot());
+			writeString(out, receipt.getFrom());
+			writeString(out, receipt.getTo());
+			writeString(out, receipt.getLogsBloom());
+
+			List<Log> logs = receipt.getLogs() != null ? receipt.getLogs() : new ArrayList<>();
+			out.writeInt(logs.size());
+
+			for(Log log: logs) {
+				out.writeBoolean(log.isRemoved());
+				writeString(out, log.getLogIndexRaw());
+				writeString(out, log.getTransactionIndexRaw());
+				writeString(out, log.getTransactionHash());
+				writeString(out, log.getBlockHash());
+				writeString(out, log.getBlockNumberRaw());
+				writeString(out, log.getAddress());
+				writeString(out, log.getData());
+				writeString(out, log.getType());
+				writeStrings(out, log.getTopics());
+			}
+		}
+
+		return bytes.toByteArray();
+	}
+
+	static IndexedTransaction decodeTransaction(ByteBuffer in) {
+		expect(in, TRANSACTION);
+
+		Transaction tx = new Transaction();
+		tx.setHash(readString(in));
+		tx.setNonce(readString(in));
+		tx.setBlockHash(readString(in));
+		tx.setBlockNumber(readString(in));
+		tx.setTransactionIndex(readString(in));
+		tx.setFrom(readString(in));
+		tx.setTo(readString(in));
+		tx.setValue(readString(in));
+		tx.setGasPrice(readString(in));
+		tx.setGas(readString(in));
+		tx.setInput(readString(in));
+		tx.setCreates(readString(in));
+		tx.setPublicKey(readString(in));
+		tx.setRaw(readString(in));
+		tx.setR(readString(in));
+		tx.setS(readString(in));
+		tx.setV(in.getInt());
+
+		if(in.get() == 0) {
+			return new IndexedTransaction(tx, null);
+		}
+
+		TransactionReceipt receipt = new TransactionReceipt();
+		receipt.setTransactionHash(readString(in));
+		receipt.setTransactionIndex(readString(in));
+		receipt.setBlockHash(readString(in));
+		receipt.setBlockNumber(readString(in));
+		receipt.setCumulativeGasUsed(readString(in));
+		receipt.setGasUsed(readString(in));
+		receipt.setContractAddress(readString(in));
+		receipt.setRoot(readString(in));
+		receipt.setFrom(readString(in));
+		receipt.setTo(readString(in));
+		receipt.setLogsBloom(readString(in));
+
+		int logCount = in.getInt();
+		List<Log> logs = new ArrayList<>(logCount);
+
+		for(int i = 0; i < logCount; i++) {
+			Log log = new Log();
+			log.setRemoved(in.get() != 0);
+			log.setLogIndex(readString(in));
+			log.setTransactionIndex(readString(in));
+			log.setTransactionHash(readString(in));
+			log.setBlockHash(readString(in));
+			log.setBlockNumber(readString(in));
+			log.setAddress(readString(in));
+			log.setData(readString(in));
+			log.setType(readString(in));
+			log.setTopics(readStrings(in));
+			logs.add(log);
+		}
+
+		receipt.setLogs(logs);
+
+		return new IndexedTransaction(tx, receipt);
+	}
+
+	private static void expect(ByteBuffer in, byte type) {
+		byte actual = in.get();
+
+		if(actual != type) {
+			throw new IllegalStateException("Unexpected record type " + actual + ", expected " + type);
+		}
+	}
+
+	/**
+	 * Writes the length (-1 for null) and the kind of the string followed by its bytes.
+	 */
+	static void writeString(DataOutputStream out, String value) throws IOException {
+		if(value == null) {
+			out.writeInt(-1);
+			return;
+		}
+
+		if(!isHex(value)) {
+			byte [] text = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(text.length);
+			out.writeByte(TEXT);
+			out.write(text);
+			return;
+		}
+
+		int digits = value.length() - 2;
+		int odd = digits % 2;
+		byte [] hex = new byte[(digits + 1) / 2];
+
+		for(int i = 0; i < digits; i++) {
+			int nibble = Character.digit(value.charAt(2 + i), 16);
+			int index = (i + odd) / 2;
+			hex[index] = (byte) ((i + odd) % 2 == 0 ? nibble << 4 : hex[index] | nibble);
+		}
+
+		out.writeInt(hex.length);
+		out.writeByte(odd == 1 ? HEX_ODD : HEX_EVEN);
+		out.write(hex);
+	}
+
+	static String readString(ByteBuffer in) {
+		int length = in.getInt();
+
+		if(length < 0) {
+			return null;
+		}
+
+		byte kind = in.get();
+		byte [] bytes = new byte[length];
+		in.get(bytes);
+
+		if(kind == TEXT) {
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		char [] chars = new char[2 + 2 * length];
+		chars[0] = '0';
+		chars[1] = 'x';
+
+		for(int i = 0; i < length; i++) {
+			chars[2 + 2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+			chars[3 + 2 * i] = HEX_DIGITS[bytes[i] & 0xf];
+		}
+
+		// odd number of digits: the first nibble is padding
+		return kind == HEX_ODD ? "0x" + new String(chars, 3, chars.length - 3) : new String(chars);
+	}
+
+	private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+		if(values == null) {
+			out.writeInt(-1);
+			return;
+		}
+
+		out.writeInt(values.size());
+
+		for(String value: values) {
+			writeString(out, value);
+		}
+	}
+
+	private static List<String> readStrings(ByteBuffer in) {
+		int size = in.getInt();
+
+		if(size < 0) {
+			return null;
+		}
+
+		List<String> values = new ArrayList<>(size);
+
+		for(int i = 0; i < size; i++) {
+			values.add(readString(in));
+		}
+
+		return values;
+	}
+
+	/**
+	 * Returns true for 0x followed by lower case hex digits only (other strings would not decode to the same string).
+	 */
+	private static boolean isHex(String value) {
+		if(!value.startsWith("0x")) {
+			return false;
+		}
+
+		for(int i = 2; i < value.length(); i++) {
+			char c = value.charAt(i);
+
+			if(!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
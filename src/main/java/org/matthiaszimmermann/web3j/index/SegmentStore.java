@@ -0,0 +1,147 @@
+package org.matthiaszimmermann.web3j.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Append-only record log in memory mapped segment files of a fixed size (name-00000.seg, name-00001.seg, ...).
+ * A record is its length (int) followed by its bytes and never spans two segments. A record that does not
+ * fit into the rest of the current segment starts the next segment, a zero length marks the skipped rest.
+ * Records are addressed by their position: segment number * segment size + offset in the segment.
+ *
+ * Everything after the end passed to the constructor is ignored and overwritten by new records,
+ * so the log can be reset to the last checkpoint after a crash.
+ */
+class SegmentStore implements AutoCloseable {
+
+	private static final int LENGTH_SIZE = Integer.BYTES;
+
+	private final Path directory;
+	private final String name;
+	private final int segmentSize;
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+	private long end;
+
+	SegmentStore(Path directory, String name, int segmentSize, long end) throws IOException {
+		this.directory = directory;
+		this.name = name;
+		this.segmentSize = segmentSize;
+		this.end = end;
+
+		Files.createDirectories(directory);
+
+		for(int segment = 0; segment <= segmentOf(end); segment++) {
+			segments.add(map(segment));
+		}
+	}
+
+	/**
+	 * Appends the record and returns its position.
+	 */
+	long append(byte [] record) throws IOException {
+		if(record.length == 0 || record.length > segmentSize - LENGTH_SIZE) {
+			throw new IOException(String.format("Invalid record size %d for segments of %d bytes in %s", record.length, segmentSize, name));
+		}
+
+		int offset = offsetOf(end);
+
+		if(offset + LENGTH_SIZE + record.length > segmentSize) {
+			if(offset + LENGTH_SIZE <= segmentSize) {
+				segments.get(segmentOf(end)).putInt(offset, 0);
+			}
+
+			end = (long) (segmentOf(end) + 1) * segmentSize;
+			segments.add(map(segmentOf(end)));
+			offset = 0;
+		}
+
+		long position = end;
+		ByteBuffer segment = segments.get(segmentOf(position)).duplicate();
+
+		segment.position(offset);
+		segment.putInt(record.length);
+		segment.put(record);
+		end = position + LENGTH_SIZE + record.length;
+
+		return position;
+	}
+
+	/**
+	 * Returns the bytes of the record at the provided position. The buffer is a read only view of the mapped segment.
+	 */
+	ByteBuffer read(long position) {
+		ByteBuffer segment = segments.get(segmentOf(position)).asReadOnlyBuffer();
+		int offset = offsetOf(position);
+		int length = segment.getInt(offset);
+
+		segment.position(offset + LENGTH_SIZE);
+		segment.limit(offset + LENGTH_SIZE + length);
+
+		return segment.slice();
+	}
+
+	/**
+	 * Calls the consumer with position and bytes of every record from the start of the log up to its end.
+	 */
+	void scan(BiConsumer<Long, ByteBuffer> consumer) {
+		long position = 0;
+
+		while(position < end) {
+			int offset = offsetOf(position);
+			int length = offset + LENGTH_SIZE <= segmentSize ? segments.get(segmentOf(position)).getInt(offset) : 0;
+
+			if(length == 0) {
+				position = (long) (segmentOf(position) + 1) * segmentSize;
+				continue;
+			}
+
+			consumer.accept(position, read(position));
+			position += LENGTH_SIZE + length;
+		}
+	}
+
+	/**
+	 * Position after the last record.
+	 */
+	long getEnd() {
+		return end;
+	}
+
+	/**
+	 * Writes all changes of the mapped segments to disk.
+	 */
+	void force() {
+		segments.forEach(MappedByteBuffer::force);
+	}
+
+	@Override
+	public void close() {
+		force();
+		segments.clear();
+	}
+
+	private int segmentOf(long position) {
+		return (int) (position / segmentSize);
+	}
+
+	private int offsetOf(long position) {
+		return (int) (position % segmentSize);
+	}
+
+	private MappedByteBuffer map(int segment) throws IOException {
+		Path file = directory.resolve(String.format("%s-%05d.seg", name, segment));
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		}
+	}
+}
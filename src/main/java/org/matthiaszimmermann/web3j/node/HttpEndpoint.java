@@ -0,0 +1,216 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves a {@link JsonRpcHandler} over HTTP on the loopback interface.
+ * The endpoint implements just enough of HTTP/1.1 for JSON-RPC clients: POST requests with a content length
+ * and persistent (keep-alive) connections. Each connection is served by its own daemon thread.
+ */
+public class HttpEndpoint implements Closeable {
+
+	private static final String RESPONSE_HEADER = "HTTP/1.1 %d %s\r\nContent-Type: application/json\r\nContent-Length: %d\r\n%s\r\n";
+
+	private final JsonRpcHandler handler;
+	private final ServerSocket serverSocket;
+	private final ExecutorService threads;
+	private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean closed = false;
+
+	/**
+	 * Starts serving the handler on the specified port. Port 0 selects a free port, see {@link #getUrl()}.
+	 */
+	public HttpEndpoint(JsonRpcHandler handler, int port) throws IOException {
+		this.handler = handler;
+		this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+		this.threads = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "http-endpoint");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		threads.execute(this::accept);
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Returns the url for clients of this endpoint, eg http://127.0.0.1:8545.
+	 */
+	public String getUrl() {
+		return String.format("http://%s:%d", serverSocket.getInetAddress().getHostAddress(), getPort());
+	}
+
+	private void accept() {
+		while(!closed) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				connections.add(socket);
+				threads.execute(() -> serve(socket));
+			}
+			catch (IOException e) {
+				if(!closed) {
+					System.out.println("Failed to accept connection: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		try {
+			InputStream in = new BufferedInputStream(socket.getInputStream());
+			OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+			String requestLine;
+
+			while((requestLine = readLine(in)) != null) {
+				int contentLength = 0;
+				boolean keepAlive = !requestLine.endsWith("HTTP/1.0");
+				boolean malformed = false;
+				String header;
+
+				while((header = readLine(in)) != null && !header.isEmpty()) {
+					int colon = header.indexOf(':');
+
+					if(colon < 0) {
+						malformed = true;
+						continue;
+					}
+
+					String name = header.substring(0, colon).trim().toLowerCase();
+					String value = header.substring(colon + 1).trim();
+
+					if(name.equals("content-length")) {
+						contentLength = parseContentLength(value);
+						malformed |= contentLength < 0;
+					}
+					else if(name.equals("connection")) {
+						keepAlive = value.equalsIgnoreCase("keep-alive");
+					}
+				}
+
+				// truncated or malformed header section, the body cannot be located: answer and close
+				if(header == null || malformed) {
+					writeResponse(out, 400, "Bad Request", new byte[0], false);
+					break;
+				}
+
+				byte [] body = readBody(in, contentLength);
+
+				if(requestLine.startsWith("POST ")) {
+					byte [] response = handler.handle(new String(body, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+					writeResponse(out, 200, "OK", response, keepAlive);
+				}
+				else {
+					writeResponse(out, 405, "Method Not Allowed", new byte[0], keepAlive);
+				}
+
+				if(!keepAlive) {
+					break;
+				}
+			}
+		}
+		catch (IOException e) {
+			// connection closed or broken, nothing to answer
+		}
+		finally {
+			connections.remove(socket);
+			closeQuietly(socket);
+		}
+	}
+
+	/**
+	 * Returns the content length or -1 if the value is not a valid length.
+	 */
+	private static int parseContentLength(String value) {
+		try {
+			return Math.max(Integer.parseInt(value), -1);
+		}
+		catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static void writeResponse(OutputStream out, int status, String reason, byte [] body, boolean keepAlive) throws IOException {
+		String connection = keepAlive ? "" : "Connection: close\r\n";
+		out.write(String.format(RESPONSE_HEADER, status, reason, body.length, connection).getBytes(StandardCharsets.US_ASCII));
+		out.write(body);
+		out.flush();
+	}
+
+	/**
+	 * Reads a CRLF terminated line. Returns null if the connection is closed before the first byte of the line.
+	 */
+	private static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+		int b;
+
+		while((b = in.read()) != '\n') {
+			if(b < 0) {
+				// a truncated line is returned as is, the caller sees the end of the stream with the next line
+				return line.size() == 0 ? null : new String(line.toByteArray(), StandardCharsets.US_ASCII);
+			}
+
+			if(b != '\r') {
+				line.write(b);
+			}
+		}
+
+		return new String(line.toByteArray(), StandardCharsets.US_ASCII);
+	}
+
+	private static byte [] readBody(InputStream in, int length) throws IOException {
+		byte [] body = new byte[length];
+		int offset = 0;
+
+		while(offset < length) {
+			int count = in.read(body, offset, length - offset);
+
+			if(count < 0) {
+				throw new EOFException("Connection closed within request body");
+			}
+
+			offset += count;
+		}
+
+		return body;
+	}
+
+	/**
+	 * Stops accepting connections and closes all open connections.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		closeQuietly(serverSocket);
+		connections.forEach(HttpEndpoint::closeQuietly);
+		threads.shutdownNow();
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		}
+		catch (IOException e) {
+			// nothing to do
+		}
+	}
+}
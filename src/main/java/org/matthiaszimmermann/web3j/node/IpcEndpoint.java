@@ -0,0 +1,131 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jnr.unixsocket.UnixServerSocketChannel;
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+
+/**
+ * Serves a {@link JsonRpcHandler} over a Unix domain socket, like the IPC endpoint of geth.
+ * Clients write JSON-RPC requests (or batches) one after the other, each response is written
+ * as a single line. Each connection is served by its own daemon thread.
+ */
+public class IpcEndpoint implements Closeable {
+
+	private final JsonRpcHandler handler;
+	private final File socketFile;
+	private final UnixServerSocketChannel serverChannel;
+	private final ExecutorService threads;
+	private final Set<UnixSocketChannel> connections = ConcurrentHashMap.newKeySet();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private volatile boolean closed = false;
+
+	/**
+	 * Starts serving the handler on the socket file with the specified path. An existing file is replaced.
+	 */
+	public IpcEndpoint(JsonRpcHandler handler, String path) throws IOException {
+		this.handler = handler;
+		this.socketFile = new File(path);
+		this.socketFile.delete();
+
+		this.serverChannel = UnixServerSocketChannel.open();
+		this.serverChannel.socket().bind(new UnixSocketAddress(socketFile));
+
+		this.threads = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "ipc-endpoint");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		threads.execute(this::accept);
+	}
+
+	public String getPath() {
+		return socketFile.getPath();
+	}
+
+	/**
+	 * Returns the url for clients of this endpoint, eg ipc:///tmp/geth.ipc.
+	 */
+	public String getUrl() {
+		return "ipc://" + socketFile.getAbsolutePath();
+	}
+
+	private void accept() {
+		while(!closed) {
+			try {
+				UnixSocketChannel channel = serverChannel.accept();
+
+				if(channel != null) {
+					connections.add(channel);
+					threads.execute(() -> serve(channel));
+				}
+			}
+			catch (IOException e) {
+				if(!closed) {
+					System.out.println("Failed to accept connection: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void serve(UnixSocketChannel channel) {
+		try {
+			OutputStream out = Channels.newOutputStream(channel);
+			MappingIterator<JsonNode> requests = objectMapper
+					.readerFor(JsonNode.class)
+					.readValues(Channels.newInputStream(channel));
+
+			while(requests.hasNextValue()) {
+				byte [] response = objectMapper.writeValueAsBytes(handler.handle(requests.nextValue()));
+				byte [] line = new byte[response.length + 1];
+
+				System.arraycopy(response, 0, line, 0, response.length);
+				line[response.length] = '\n';
+				out.write(line);
+			}
+		}
+		catch (IOException e) {
+			// connection closed or broken (or invalid json), nothing to answer
+		}
+		finally {
+			connections.remove(channel);
+			closeQuietly(channel);
+		}
+	}
+
+	/**
+	 * Stops accepting connections, closes all open connections and removes the socket file.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		closeQuietly(serverChannel);
+		connections.forEach(IpcEndpoint::closeQuietly);
+		threads.shutdownNow();
+		socketFile.delete();
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		}
+		catch (IOException e) {
+			// nothing to do
+		}
+	}
+}
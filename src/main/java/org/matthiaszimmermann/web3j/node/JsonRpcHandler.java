@@ -0,0 +1,119 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Server side of the JSON-RPC 2.0 protocol used by Ethereum clients.
+ * Subclasses implement the individual methods in {@link #call(String, JsonNode)}, 
+ * this class takes care of single requests, batches and error responses.
+ * Handlers are transport independent, see {@link HttpEndpoint} and {@link IpcEndpoint}.
+ */
+public abstract class JsonRpcHandler {
+
+	protected static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+	protected final ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * Returns the result of the specified method. Returning null results in a JSON null result.
+	 */
+	protected abstract JsonNode call(String method, JsonNode params) throws RpcException;
+
+	/**
+	 * Handles the provided request or batch payload and returns the response payload.
+	 */
+	public String handle(String payload) throws IOException {
+		JsonNode request;
+
+		try {
+			request = objectMapper.readTree(payload);
+		}
+		catch (IOException e) {
+			return objectMapper.writeValueAsString(error(NullNode.getInstance(), RpcException.PARSE_ERROR, e.getMessage()));
+		}
+
+		return objectMapper.writeValueAsString(handle(request));
+	}
+
+	/**
+	 * Handles the provided request or batch. The responses of a batch are returned in request order.
+	 */
+	public JsonNode handle(JsonNode payload) {
+		if(!payload.isArray()) {
+			return handleRequest(payload);
+		}
+
+		ArrayNode responses = NODES.arrayNode();
+
+		for(JsonNode request: payload) {
+			responses.add(handleRequest(request));
+		}
+
+		return responses;
+	}
+
+	private ObjectNode handleRequest(JsonNode request) {
+		JsonNode id = request.has("id") ? request.get("id") : NullNode.getInstance();
+
+		if(!request.hasNonNull("method")) {
+			return error(id, RpcException.INVALID_REQUEST, "Invalid request");
+		}
+
+		try {
+			JsonNode params = request.has("params") ? request.get("params") : NODES.arrayNode();
+			JsonNode result = call(request.get("method").asText(), params);
+
+			ObjectNode response = response(id);
+			response.set("result", result != null ? result : NullNode.getInstance());
+
+			return response;
+		}
+		catch (RpcException e) {
+			return error(id, e.getCode(), e.getMessage());
+		}
+		catch (RuntimeException e) {
+			return error(id, RpcException.INTERNAL_ERROR, e.toString());
+		}
+	}
+
+	private static ObjectNode response(JsonNode id) {
+		ObjectNode response = NODES.objectNode();
+		response.put("jsonrpc", "2.0");
+		response.set("id", id);
+
+		return response;
+	}
+
+	private static ObjectNode error(JsonNode id, int code, String message) {
+		ObjectNode error = NODES.objectNode();
+		error.put("code", code);
+		error.put("message", message);
+
+		ObjectNode response = response(id);
+		response.set("error", error);
+
+		return response;
+	}
+
+	/**
+	 * Returns the parameter at the specified position.
+	 */
+	protected static JsonNode param(JsonNode params, int index) throws RpcException {
+		if(!params.has(index)) {
+			throw new RpcException(RpcException.INVALID_PARAMS, "Missing parameter " + index);
+		}
+
+		return params.get(index);
+	}
+
+	protected static RpcException methodNotFound(String method) {
+		return new RpcException(RpcException.METHOD_NOT_FOUND, "The method " + method + " does not exist/is not available");
+	}
+}
@@ -0,0 +1,30 @@
+package org.matthiaszimmermann.web3j.node;
+
+/**
+ * JSON-RPC error returned to the client in the error object of a response.
+ */
+public class RpcException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	// error codes defined by the JSON-RPC 2.0 specification
+	public static final int PARSE_ERROR = -32700;
+	public static final int INVALID_REQUEST = -32600;
+	public static final int METHOD_NOT_FOUND = -32601;
+	public static final int INVALID_PARAMS = -32602;
+	public static final int INTERNAL_ERROR = -32603;
+
+	// generic server error used by ethereum clients, eg for rejected transactions
+	public static final int SERVER_ERROR = -32000;
+
+	private final int code;
+
+	public RpcException(int code, String message) {
+		super(message);
+		this.code = code;
+	}
+
+	public int getCode() {
+		return code;
+	}
+}
@@ -0,0 +1,38 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.util.Arrays;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Answers the most common read methods with fixed results.
+ * Useful to measure the client side and transport overhead without any work on the node side.
+ */
+public class StubHandler extends JsonRpcHandler {
+
+	public static final String CLIENT_VERSION = "StubNode/v1.0";
+	public static final String BALANCE = "0x1bc16d674ec80000";
+	public static final String NONCE = "0x2a";
+	public static final String BLOCK_NUMBER = "0x4d2";
+	public static final String GREETING = "hello world";
+
+	// abi encoded string result, the same for all contract calls
+	public static final String CALL_RESULT = FunctionEncoder.encodeConstructor(Arrays.<Type>asList(new Utf8String(GREETING)));
+
+	@Override
+	protected JsonNode call(String method, JsonNode params) throws RpcException {
+		switch(method) {
+		case "web3_clientVersion":        return NODES.textNode(CLIENT_VERSION);
+		case "eth_blockNumber":           return NODES.textNode(BLOCK_NUMBER);
+		case "eth_getBalance":            return NODES.textNode(BALANCE);
+		case "eth_getTransactionCount":   return NODES.textNode(NONCE);
+		case "eth_call":                  return NODES.textNode(CALL_RESULT);
+		case "eth_getTransactionReceipt": return null;
+		default:                          throw methodNotFound(method);
+		}
+	}
+}
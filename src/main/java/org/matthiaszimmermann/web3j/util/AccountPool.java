@@ -0,0 +1,166 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+
+/**
+ * Fixed set of accounts derived deterministically from a seed and funded by the coinbase.
+ * Each account is leased to at most one user at a time, so concurrent users (eg tests running
+ * in parallel) never see each others transfers in balances or nonces.
+ * Repeated runs derive the same accounts and only top up those below the target balance.
+ */
+public class AccountPool {
+
+	private final Web3j web3j;
+	private final List<Credentials> accounts;
+	private final BlockingQueue<Credentials> available;
+
+	/**
+	 * Derives size accounts from the seed and funds all accounts with less than balanceWei in a single bulk transfer.
+	 * Addresses starting with a zero byte are skipped: web3j's TransactionEncoder drops the leading zero bytes
+	 * of the recipient and clients reject raw transactions sent to such addresses.
+	 */
+	public static AccountPool create(Web3j web3j, String seed, int size, BigInteger balanceWei) throws Exception {
+		List<Credentials> accounts = new ArrayList<>(size);
+
+		for(int i = 0; accounts.size() < size; i++) {
+			Credentials credentials = deriveCredentials(seed, i);
+
+			if(!credentials.getAddress().startsWith("0x00")) {
+				accounts.add(credentials);
+			}
+		}
+
+		AccountPool pool = new AccountPool(web3j, accounts);
+		pool.fund(balanceWei);
+
+		return pool;
+	}
+
+	/**
+	 * Returns the credentials for the account with the provided index, the private key is sha3(seed + "-" + index).
+	 */
+	public static Credentials deriveCredentials(String seed, int index) {
+		byte [] privateKey = Hash.sha3((seed + "-" + index).getBytes(StandardCharsets.UTF_8));
+		return Credentials.create(ECKeyPair.create(privateKey));
+	}
+
+	private AccountPool(Web3j web3j, List<Credentials> accounts) {
+		this.web3j = web3j;
+		this.accounts = Collections.unmodifiableList(accounts);
+		this.available = new LinkedBlockingQueue<>(accounts);
+	}
+
+	/**
+	 * Tops up all accounts with a balance below the provided amount. The balances are read with a single batch
+	 * and the missing amounts are sent with {@link BulkTransfer}. Returns null if no account needs funds.
+	 */
+	public BulkTransfer.Report fund(BigInteger balanceWei) throws Exception {
+		List<String> addresses = new ArrayList<>(accounts.size());
+		accounts.forEach(account -> addresses.add(account.getAddress()));
+
+		List<BigInteger> balances = Web3jUtils.getBalancesWei(web3j, addresses, DefaultBlockParameterName.LATEST);
+		List<BulkTransfer.Entry> transfers = new ArrayList<>();
+
+		for(int i = 0; i < addresses.size(); i++) {
+			if(balances.get(i).compareTo(balanceWei) < 0) {
+				transfers.add(new BulkTransfer.Entry(addresses.get(i), balanceWei.subtract(balances.get(i))));
+			}
+		}
+
+		if(transfers.isEmpty()) {
+			return null;
+		}
+
+		BulkTransfer.Report report = Web3jUtils.transferFromCoinbaseAndWait(web3j, transfers);
+
+		for(BulkTransfer.EntryResult result: report.getResults()) {
+			if(!result.isSuccess()) {
+				throw new RuntimeException(String.format("Failed to fund %d of %d pool accounts, %s: %s", 
+						report.getFailed(), transfers.size(), result.getTransfer().getTo(), result.getFailure()));
+			}
+		}
+
+		return report;
+	}
+
+	/**
+	 * Leases an account exclusively, waits until an account is released if all accounts are leased.
+	 */
+	public Lease lease() throws InterruptedException {
+		return new Lease(available.take());
+	}
+
+	/**
+	 * Leases an account exclusively, waits at most the provided time for an account to be released.
+	 */
+	public Lease lease(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+		Credentials credentials = available.poll(timeout, unit);
+
+		if(credentials == null) {
+			throw new TimeoutException("No pool account released within " + unit.toMillis(timeout) + " ms");
+		}
+
+		return new Lease(credentials);
+	}
+
+	public List<Credentials> getAccounts() {
+		return accounts;
+	}
+
+	public int getSize() {
+		return accounts.size();
+	}
+
+	/**
+	 * Number of accounts currently not leased.
+	 */
+	public int getAvailable() {
+		return available.size();
+	}
+
+	/**
+	 * Exclusive use of a pool account until the lease is closed.
+	 */
+	public class Lease implements AutoCloseable {
+
+		private final Credentials credentials;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Lease(Credentials credentials) {
+			this.credentials = credentials;
+		}
+
+		public Credentials getCredentials() {
+			return credentials;
+		}
+
+		public String getAddress() {
+			return credentials.getAddress();
+		}
+
+		/**
+		 * Returns the account to the pool, closing a lease more than once has no effect.
+		 */
+		@Override
+		public void close() {
+			if(released.compareAndSet(false, true)) {
+				available.add(credentials);
+			}
+		}
+	}
+}
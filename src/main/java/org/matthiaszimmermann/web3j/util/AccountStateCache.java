@@ -0,0 +1,220 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+
+/**
+ * Read-through cache for balances and nonces keyed by address and block.
+ * Lookups for the latest block are resolved to the current block head of the {@link BlockHeadTracker}
+ * and loaded for that block number, so a new block head is a new key and values of older heads are never returned for latest.
+ * Values for specific blocks never change and stay cached until they are evicted.
+ * The cache holds at most a fixed number of entries, the least recently used entries are evicted first.
+ * Values for the pending block are never cached, neither are values for the latest block before the tracker has seen a block.
+ *
+ * The cache is optional, {@link Web3jUtils#getBalanceWei(Web3j, String)} and {@link Web3jUtils#getNonce(Web3j, String)}
+ * use it once it has been enabled for a client with {@link #enable(Web3j)}.
+ */
+public class AccountStateCache {
+
+	private static final Map<Web3j, AccountStateCache> CACHES = new ConcurrentHashMap<>();
+
+	private final Web3j web3j;
+	private final BlockHeadTracker tracker;
+	private final Map<Key, BigInteger> entries;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Enables the cache for the specified client with {@link Web3jConstants#ACCOUNT_CACHE_SIZE} entries.
+	 */
+	public static AccountStateCache enable(Web3j web3j) {
+		return enable(web3j, Web3jConstants.ACCOUNT_CACHE_SIZE);
+	}
+
+	/**
+	 * Enables the cache for the specified client. Returns the existing cache if the cache is already enabled.
+	 */
+	public static AccountStateCache enable(Web3j web3j, int maxEntries) {
+		return CACHES.computeIfAbsent(web3j, client -> new AccountStateCache(client, maxEntries));
+	}
+
+	/**
+	 * Disables and clears the cache of the specified client (if any).
+	 */
+	public static void disable(Web3j web3j) {
+		AccountStateCache cache = CACHES.remove(web3j);
+
+		if(cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Returns the cache of the specified client or null if the cache is not enabled for the client.
+	 */
+	public static AccountStateCache forClient(Web3j web3j) {
+		return CACHES.get(web3j);
+	}
+
+	private AccountStateCache(Web3j web3j, int maxEntries) {
+		this.web3j = web3j;
+		this.entries = new LinkedHashMap<Key, BigInteger>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, BigInteger> eldest) {
+				return size() > maxEntries;
+			}
+		};
+
+		this.tracker = BlockHeadTracker.forClient(web3j);
+		this.tracker.onStop(() -> disable(web3j));
+	}
+
+	/**
+	 * Returns the balance (in Wei) of the specified address at the specified block.
+	 */
+	public BigInteger getBalanceWei(String address, DefaultBlockParameter block) throws InterruptedException, ExecutionException {
+		return get(Kind.BALANCE, address, block, resolved -> web3j
+				.ethGetBalance(address, resolved)
+				.sendAsync()
+				.get()
+				.getBalance());
+	}
+
+	/**
+	 * Returns the nonce (tx count) of the specified address at the specified block.
+	 */
+	public BigInteger getNonce(String address, DefaultBlockParameter block) throws InterruptedException, ExecutionException {
+		return get(Kind.NONCE, address, block, resolved -> web3j
+				.ethGetTransactionCount(address, resolved)
+				.sendAsync()
+				.get()
+				.getTransactionCount());
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the share of lookups answered from the cache (0.0 if there were no lookups yet).
+	 */
+	public double getHitRate() {
+		long lookups = getHits() + getMisses();
+		return lookups == 0 ? 0.0 : (double) getHits() / lookups;
+	}
+
+	public int getSize() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d entries, %d hits, %d misses (hit rate %.1f%%)", getSize(), getHits(), getMisses(), getHitRate() * 100);
+	}
+
+	private BigInteger get(Kind kind, String address, DefaultBlockParameter block, Loader loader) throws InterruptedException, ExecutionException {
+		DefaultBlockParameter resolved = resolve(block);
+
+		if(resolved == null) {
+			return loader.load(block);
+		}
+
+		Key key = new Key(kind, address, resolved);
+		BigInteger value;
+
+		synchronized (entries) {
+			value = entries.get(key);
+		}
+
+		if(value != null) {
+			hits.increment();
+			return value;
+		}
+
+		misses.increment();
+		value = loader.load(resolved);
+
+		if(value != null) {
+			synchronized (entries) {
+				entries.put(key, value);
+			}
+		}
+
+		return value;
+	}
+
+	/**
+	 * Returns the block number of the current head for latest, the provided block for specific blocks
+	 * and null for blocks that are not cached (pending, latest before the first block head).
+	 */
+	private DefaultBlockParameter resolve(DefaultBlockParameter block) {
+		if(block.getValue().equals(DefaultBlockParameterName.PENDING.getValue())) {
+			return null;
+		}
+
+		if(!block.getValue().equals(DefaultBlockParameterName.LATEST.getValue())) {
+			return block;
+		}
+
+		BigInteger head = tracker.getBlockNumber();
+		return head != null ? DefaultBlockParameter.valueOf(head) : null;
+	}
+
+	private interface Loader {
+		BigInteger load(DefaultBlockParameter block) throws InterruptedException, ExecutionException;
+	}
+
+	private enum Kind { BALANCE, NONCE }
+
+	private static class Key {
+
+		private final Kind kind;
+		private final String address;
+		private final String block;
+
+		Key(Kind kind, String address, DefaultBlockParameter block) {
+			this.kind = kind;
+			this.address = address.toLowerCase();
+			this.block = block.getValue();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) o;
+			return kind == other.kind && address.equals(other.address) && block.equals(other.block);
+		}
+
+		@Override
+		public int hashCode() {
+			return (kind.hashCode() * 31 + address.hashCode()) * 31 + block.hashCode();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.web3j.protocol.http.HttpService;
+
+/**
+ * HTTP service that additionally supports JSON-RPC 2.0 batch requests.
+ * Single requests and batches share the same underlying HTTP client.
+ */
+public class BatchHttpService extends HttpService implements BatchWeb3jService {
+
+	private final String url;
+	private final CloseableHttpClient httpClient;
+
+	/**
+	 * Creates a service that uses the pooled connections of the default {@link HttpTransport}.
+	 */
+	public BatchHttpService(String url) {
+		this(url, HttpTransport.getDefault().getHttpClient());
+	}
+
+	public BatchHttpService(String url, CloseableHttpClient httpClient) {
+		super(url, httpClient);
+
+		this.url = url;
+		this.httpClient = httpClient;
+	}
+
+	@Override
+	public String sendBatch(String payload) throws IOException {
+		HttpPost httpPost = new HttpPost(url);
+		httpPost.setEntity(new StringEntity(payload, ContentType.APPLICATION_JSON));
+
+		return httpClient.execute(httpPost, BATCH_RESPONSE_HANDLER);
+	}
+
+	private static final ResponseHandler<String> BATCH_RESPONSE_HANDLER = new ResponseHandler<String>() {
+
+		@Override
+		public String handleResponse(final HttpResponse response) throws IOException {
+			StatusLine statusLine = response.getStatusLine();
+			HttpEntity entity = response.getEntity();
+
+			if (statusLine.getStatusCode() >= 300) {
+				throw new HttpResponseException(
+						statusLine.getStatusCode(),
+						statusLine.getReasonPhrase());
+			}
+
+			if (entity == null) {
+				throw new ClientProtocolException("Response contains no content");
+			}
+
+			return EntityUtils.toString(entity, StandardCharsets.UTF_8);
+		}
+	};
+}
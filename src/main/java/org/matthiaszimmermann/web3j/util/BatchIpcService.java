@@ -0,0 +1,36 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.web3j.protocol.Service;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * IPC service that additionally supports JSON-RPC 2.0 batch requests.
+ * In contrast to the IPC services of web3j the service is thread safe: requests are sent over
+ * the pooled connections of an {@link IpcTransport}.
+ */
+public class BatchIpcService extends Service implements BatchWeb3jService {
+
+	private final IpcTransport transport;
+
+	BatchIpcService(IpcTransport transport) {
+		this.transport = transport;
+	}
+
+	@Override
+	public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+		JsonNode response = transport.send(objectMapper.writeValueAsBytes(request));
+		return objectMapper.treeToValue(response, responseType);
+	}
+
+	@Override
+	public String sendBatch(String payload) throws IOException {
+		JsonNode response = transport.send(payload.getBytes(StandardCharsets.UTF_8));
+		return objectMapper.writeValueAsString(response);
+	}
+}
@@ -0,0 +1,26 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.IOException;
+
+import org.web3j.protocol.Web3jService;
+
+/**
+ * A {@link Web3jService} that can send several JSON-RPC 2.0 requests in a single round trip.
+ * See {@link JsonRpcBatch} for building the batch payloads and matching the responses.
+ */
+public interface BatchWeb3jService extends Web3jService {
+
+	/**
+	 * Sends the provided batch payload (a JSON array of requests) to the client 
+	 * and returns the raw response (a JSON array of responses in any order).
+	 */
+	String sendBatch(String payload) throws IOException;
+
+	/**
+	 * Returns true if {@link #sendBatch(String)} can be used. 
+	 * Services that wrap another service support batches only if the wrapped service does.
+	 */
+	default boolean isBatchSupported() {
+		return true;
+	}
+}
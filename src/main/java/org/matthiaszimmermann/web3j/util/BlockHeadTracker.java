@@ -0,0 +1,207 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.web3j.protocol.Web3j;
+
+/**
+ * Polls the block number of a client on a single background thread and notifies
+ * registered listeners whenever a new block head is seen.
+ * Listeners run on a separate listener pool, so a slow listener neither delays polling nor the other listeners.
+ * There is at most one tracker per {@link Web3j} client, see {@link #forClient(Web3j)}.
+ * {@link #shutdown(Web3j)} stops the tracker and releases the helpers attached to it.
+ */
+public class BlockHeadTracker {
+
+	private static final Map<Web3j, BlockHeadTracker> TRACKERS = new ConcurrentHashMap<>();
+
+	private final Web3j web3j;
+	private final ScheduledExecutorService scheduler;
+	private final ExecutorService dispatcher;
+	private final List<Subscription> listeners = new CopyOnWriteArrayList<>();
+	private final List<Runnable> stopListeners = new CopyOnWriteArrayList<>();
+	private final ScheduledFuture<?> poller;
+
+	private volatile BigInteger blockNumber = null;
+
+	// consecutive failed polls, only accessed by the polling thread
+	private int failures = 0;
+
+	/**
+	 * Returns the tracker for the specified client. The tracker is created and started on first use.
+	 */
+	public static BlockHeadTracker forClient(Web3j web3j) {
+		return TRACKERS.computeIfAbsent(web3j, BlockHeadTracker::new);
+	}
+
+	/**
+	 * Stops the tracker of the specified client (if any). Call this before a client is discarded,
+	 * otherwise the tracker and the helpers registered with {@link #onStop(Runnable)} keep the client alive.
+	 */
+	public static void shutdown(Web3j web3j) {
+		BlockHeadTracker tracker = TRACKERS.get(web3j);
+
+		if(tracker != null) {
+			tracker.stop();
+		}
+	}
+
+	private BlockHeadTracker(Web3j web3j) {
+		this.web3j = web3j;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "block-head-tracker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.dispatcher = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "block-head-listener");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		int interval = Web3jConstants.BLOCK_POLL_INTERVAL;
+		this.poller = scheduler.scheduleWithFixedDelay(this::poll, 0, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Registers a listener that is called with the new block number on every new block head.
+	 * Listeners are called on the listener pool and may block. A listener is never called concurrently with itself,
+	 * block heads seen while it runs are coalesced and it is called once more with the latest of them.
+	 */
+	public void addListener(Consumer<BigInteger> listener) {
+		listeners.add(new Subscription(listener));
+	}
+
+	public void removeListener(Consumer<BigInteger> listener) {
+		listeners.removeIf(subscription -> subscription.listener.equals(listener));
+	}
+
+	/**
+	 * Registers a task that is run once when the tracker is stopped, used by per-client helpers to release their client.
+	 */
+	public void onStop(Runnable task) {
+		stopListeners.add(task);
+	}
+
+	/**
+	 * Returns the most recent block number seen by this tracker or null if no block has been seen yet.
+	 */
+	public BigInteger getBlockNumber() {
+		return blockNumber;
+	}
+
+	/**
+	 * Runs the specified task on the listener pool.
+	 */
+	public void execute(Runnable task) {
+		dispatcher.execute(task);
+	}
+
+	/**
+	 * Runs the specified task on the listener pool after the specified delay.
+	 */
+	public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		return scheduler.schedule(() -> dispatcher.execute(task), delay, unit);
+	}
+
+	public void stop() {
+		if(!TRACKERS.remove(web3j, this)) {
+			return;
+		}
+
+		poller.cancel(false);
+		scheduler.shutdown();
+		dispatcher.shutdown();
+
+		for(Runnable task: stopListeners) {
+			try {
+				task.run();
+			}
+			catch (Exception e) {
+				System.out.println("Stop listener failed: " + e.getMessage());
+			}
+		}
+	}
+
+	private void poll() {
+		BigInteger latest;
+
+		try {
+			latest = web3j
+					.ethBlockNumber()
+					.send()
+					.getBlockNumber();
+		}
+		catch (Exception e) {
+			// logged once per outage, not on every poll
+			if(failures++ == 0) {
+				System.out.println("Failed to poll block number: " + e.getMessage());
+			}
+
+			return;
+		}
+
+		if(failures > 0) {
+			System.out.println("Polling block number again after " + failures + " failed polls");
+			failures = 0;
+		}
+
+		if(latest == null || latest.equals(blockNumber)) {
+			return;
+		}
+
+		blockNumber = latest;
+
+		for(Subscription subscription: listeners) {
+			subscription.offer(latest);
+		}
+	}
+
+	/**
+	 * A listener with the latest block head not yet delivered to it.
+	 */
+	private class Subscription {
+
+		private final Consumer<BigInteger> listener;
+		private final AtomicReference<BigInteger> undelivered = new AtomicReference<>();
+
+		Subscription(Consumer<BigInteger> listener) {
+			this.listener = listener;
+		}
+
+		void offer(BigInteger latest) {
+			// a delivery is queued or running if there was an undelivered block, it picks up the latest block
+			if(undelivered.getAndSet(latest) == null) {
+				dispatcher.execute(this::deliver);
+			}
+		}
+
+		private void deliver() {
+			BigInteger latest = undelivered.get();
+
+			try {
+				listener.accept(latest);
+			}
+			catch (Exception e) {
+				System.out.println("Block listener failed for block " + latest + ": " + e.getMessage());
+			}
+			finally {
+				// also after an error, otherwise the listener would never be called again
+				if(!undelivered.compareAndSet(latest, null)) {
+					dispatcher.execute(this::deliver);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * Sends many Ether transfers from a single (unlocked) account.
+ * All transfers are submitted back to back with sequential nonces from the {@link NonceManager}
+ * while at most a bounded number of transfers wait for their receipt at any time.
+ * The receipts are collected together through the {@link ReceiptWatcher}, so funding many
+ * accounts takes a few blocks instead of one block per transfer.
+ */
+public class BulkTransfer {
+
+	// gas limit for transfers to contract addresses that cannot be estimated
+	static final BigInteger GAS_LIMIT = Web3jConstants.GAS_LIMIT_ETHER_TX.multiply(BigInteger.valueOf(2));
+
+	/**
+	 * Transfers the specified amounts from the coinbase using the default in-flight window
+	 * {@link Web3jConstants#BULK_TRANSFER_WINDOW}.
+	 */
+	public static Report fromCoinbase(Web3j web3j, List<Entry> transfers) throws Exception {
+		String coinbase = Web3jUtils.getCoinbase(web3j).getResult();
+		return send(web3j, coinbase, transfers, Web3jConstants.BULK_TRANSFER_WINDOW);
+	}
+
+	/**
+	 * Transfers the specified amounts from the provided account with at most window transfers in flight.
+	 * All transfers use the standard price of the client's {@link GasPriceOracle} at the start of the call.
+	 * The gas limits come from the client's {@link GasEstimator}, the code of all recipients is checked with a single batch.
+	 * The method returns once all transfers are either confirmed or failed.
+	 */
+	public static Report send(Web3j web3j, String from, List<Entry> transfers, int window) throws Exception {
+		NonceManager nonceManager = NonceManager.forClient(web3j);
+		ReceiptWatcher receiptWatcher = ReceiptWatcher.forClient(web3j);
+		Semaphore inFlight = new Semaphore(window);
+		BigInteger gasPrice = GasPriceOracle.forClient(web3j).getPrice(GasPriceOracle.Speed.STANDARD);
+		GasEstimator gasEstimator = GasEstimator.forClient(web3j);
+		List<CompletableFuture<EntryResult>> results = new ArrayList<>(transfers.size());
+		List<String> recipients = new ArrayList<>(transfers.size());
+
+		transfers.forEach(transfer -> recipients.add(transfer.to));
+		gasEstimator.prefetchCode(recipients);
+
+		long start = System.nanoTime();
+
+		for(Entry transfer: transfers) {
+			inFlight.acquire();
+
+			GasEstimator.Estimate gas = gasEstimator.estimate(from, transfer.to, null, transfer.amountWei, GAS_LIMIT);
+			AtomicReference<BigInteger> nonce = new AtomicReference<>();
+			EthSendTransaction response = null;
+
+			try {
+				response = nonceManager.send(from, n -> {
+					nonce.set(n);
+					return web3j.ethSendTransaction(Transaction.createEtherTransaction(
+							from, n, gasPrice, gas.getGasLimit(), transfer.to, transfer.amountWei));
+				});
+			}
+			catch (Exception e) {
+				inFlight.release();
+				results.add(CompletableFuture.completedFuture(new EntryResult(transfer, nonce.get(), null, null, e.toString())));
+				continue;
+			}
+
+			if(response.hasError()) {
+				inFlight.release();
+				results.add(CompletableFuture.completedFuture(new EntryResult(transfer, nonce.get(), null, null, response.getError().getMessage())));
+				continue;
+			}
+
+			String txHash = response.getTransactionHash();
+			gasEstimator.verify(txHash, gas);
+
+			results.add(receiptWatcher
+					.watch(txHash)
+					.handle((receipt, error) -> {
+						inFlight.release();
+						return toResult(transfer, nonce.get(), txHash, gas, receipt, error);
+					}));
+		}
+
+		long submitted = System.nanoTime();
+
+		List<EntryResult> entryResults = new ArrayList<>(results.size());
+
+		for(CompletableFuture<EntryResult> result: results) {
+			entryResults.add(result.join());
+		}
+
+		return new Report(entryResults, (submitted - start) / 1_000_000, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	static EntryResult toResult(Entry transfer, BigInteger nonce, String txHash, GasEstimator.Estimate gas, TransactionReceipt receipt, Throwable error) {
+		if(error != null) {
+			Throwable cause = error.getCause() != null ? error.getCause() : error;
+			return new EntryResult(transfer, nonce, txHash, null, cause.getMessage());
+		}
+
+		// compared with the limit the transfer was sent with, estimated or default
+		if(receipt.getGasUsed().compareTo(gas.getGasLimit()) >= 0) {
+			return new EntryResult(transfer, nonce, txHash, receipt, "Out of gas (gas used equals gas limit)");
+		}
+
+		return new EntryResult(transfer, nonce, txHash, receipt, null);
+	}
+
+	/**
+	 * A single transfer of the specified amount of Wei to the specified address.
+	 */
+	public static class Entry {
+
+		private final String to;
+		private final BigInteger amountWei;
+
+		public Entry(String to, BigInteger amountWei) {
+			this.to = to;
+			this.amountWei = amountWei;
+		}
+
+		public String getTo() {
+			return to;
+		}
+
+		public BigInteger getAmountWei() {
+			return amountWei;
+		}
+	}
+
+	/**
+	 * Outcome of a single transfer. The failure reason is null for successful transfers.
+	 */
+	public static class EntryResult {
+
+		private final Entry transfer;
+		private final BigInteger nonce;
+		private final String transactionHash;
+		private final TransactionReceipt receipt;
+		private final String failure;
+
+		EntryResult(Entry transfer, BigInteger nonce, String transactionHash, TransactionReceipt receipt, String failure) {
+			this.transfer = transfer;
+			this.nonce = nonce;
+			this.transactionHash = transactionHash;
+			this.receipt = receipt;
+			this.failure = failure;
+		}
+
+		public Entry getTransfer() {
+			return transfer;
+		}
+
+		public BigInteger getNonce() {
+			return nonce;
+		}
+
+		public String getTransactionHash() {
+			return transactionHash;
+		}
+
+		public TransactionReceipt getReceipt() {
+			return receipt;
+		}
+
+		public BigInteger getGasUsed() {
+			return receipt != null ? receipt.getGasUsed() : null;
+		}
+
+		public String getFailure() {
+			return failure;
+		}
+
+		public boolean isSuccess() {
+			return failure == null;
+		}
+	}
+
+	/**
+	 * Per transfer results (in the order of the provided transfers) and overall throughput.
+	 */
+	public static class Report {
+
+		private final List<EntryResult> results;
+		private final long submitMillis;
+		private final long totalMillis;
+
+		Report(List<EntryResult> results, long submitMillis, long totalMillis) {
+			this.results = Collections.unmodifiableList(results);
+			this.submitMillis = submitMillis;
+			this.totalMillis = totalMillis;
+		}
+
+		public List<EntryResult> getResults() {
+			return results;
+		}
+
+		public long getSucceeded() {
+			return results.stream().filter(EntryResult::isSuccess).count();
+		}
+
+		public long getFailed() {
+			return results.size() - getSucceeded();
+		}
+
+		/**
+		 * Time (ms) to submit all transfers to the client.
+		 */
+		public long getSubmitMillis() {
+			return submitMillis;
+		}
+
+		/**
+		 * Time (ms) until all transfers were confirmed or failed.
+		 */
+		public long getTotalMillis() {
+			return totalMillis;
+		}
+
+		/**
+		 * Confirmed transfers per second.
+		 */
+		public double getTransfersPerSecond() {
+			return totalMillis == 0 ? 0.0 : getSucceeded() * 1000.0 / totalMillis;
+		}
+
+		public BigInteger getTotalGasUsed() {
+			return results.stream()
+					.filter(result -> result.getReceipt() != null)
+					.map(EntryResult::getGasUsed)
+					.reduce(BigInteger.ZERO, BigInteger::add);
+		}
+
+		/**
+		 * Number of distinct blocks that include at least one of the transfers.
+		 */
+		public int getBlockCount() {
+			Set<BigInteger> blocks = new TreeSet<>();
+
+			for(EntryResult result: results) {
+				if(result.getReceipt() != null) {
+					blocks.add(result.getReceipt().getBlockNumber());
+				}
+			}
+
+			return blocks.size();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d transfers (%d ok, %d failed) in %d ms (submit %d ms), %d blocks, %.1f tx/s, gas used %s",
+					results.size(), getSucceeded(), getFailed(), totalMillis, submitMillis,
+					getBlockCount(), getTransfersPerSecond(), getTotalGasUsed());
+		}
+	}
+}
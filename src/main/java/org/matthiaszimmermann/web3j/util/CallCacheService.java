@@ -0,0 +1,303 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.utils.Numeric;
+
+/**
+ * Caches the results of constant contract calls (eth_call). 
+ * Results are keyed by contract address, function selector and encoded arguments (the call data) and block.
+ * Calls against the latest block are keyed by the current block number of the {@link BlockHeadTracker}
+ * and dropped when a new block head is seen. Calls against specific blocks stay cached until they are evicted.
+ * Functions declared immutable for a contract (eg greet() of the Greeter) are served from the cache regardless of the block.
+ * All other requests are forwarded unchanged.
+ *
+ * Generated contract wrappers use the cache for their constant functions when they are loaded with a client from {@link #wrap(Web3j)}.
+ * Such a client only reads, transactions are rejected and need to be sent with the wrapped client.
+ * There is at most one cache client per wrapped client, it is released by {@link #stop()} or when the tracker stops.
+ */
+public class CallCacheService extends ForwardingService {
+
+	private static final String ETH_CALL = "eth_call";
+	private static final String IMMUTABLE = "immutable";
+
+	// methods that change state, they are sent with the wrapped client and its nonce manager
+	private static final Set<String> TRANSACTIONS = new HashSet<>(Arrays.asList("eth_sendTransaction", "eth_sendRawTransaction"));
+
+	// cache clients by wrapped client
+	private static final Map<Web3j, Web3j> CLIENTS = new ConcurrentHashMap<>();
+
+	private final BlockHeadTracker tracker;
+	private final Consumer<BigInteger> blockListener = this::onNewBlock;
+	private final Map<Key, EthCall> entries;
+	private final Set<String> immutableFunctions = ConcurrentHashMap.newKeySet();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	// incremented on every new block, results of the latest block loaded before a new block are not cached
+	private final AtomicLong epoch = new AtomicLong();
+
+	/**
+	 * Returns a read-only client that shares the service and the block head tracker of the provided client and
+	 * answers constant calls from a cache with {@link Web3jConstants#CALL_CACHE_SIZE} entries.
+	 * The returned client rejects eth_sendTransaction and eth_sendRawTransaction, so all transactions go through
+	 * the per-client helpers (nonces, receipts) of the provided client. The provided client must have been built with {@link Web3jUtils}.
+	 * Repeated calls for the same client return the same cache client.
+	 */
+	public static Web3j wrap(Web3j web3j) {
+		return wrap(web3j, Web3jConstants.CALL_CACHE_SIZE);
+	}
+
+	/**
+	 * Returns the cache client of the provided client, a new cache client has a cache with maxEntries entries.
+	 */
+	public static Web3j wrap(Web3j web3j, int maxEntries) {
+		Web3jService service = Web3jUtils.getService(web3j);
+
+		if(service == null) {
+			throw new IllegalArgumentException("Client not built with Web3jUtils");
+		}
+
+		return CLIENTS.computeIfAbsent(web3j, client -> Web3jUtils.build(new CallCacheService(service, BlockHeadTracker.forClient(client), maxEntries)));
+	}
+
+	/**
+	 * Returns the call cache of a client created by {@link #wrap(Web3j)} or null for other clients.
+	 */
+	public static CallCacheService forClient(Web3j web3j) {
+		Web3jService service = Web3jUtils.getService(web3j);
+		return service instanceof CallCacheService ? (CallCacheService) service : null;
+	}
+
+	public CallCacheService(Web3jService delegate, BlockHeadTracker tracker, int maxEntries) {
+		super(delegate);
+
+		this.entries = new LinkedHashMap<Key, EthCall>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, EthCall> eldest) {
+				return size() > maxEntries;
+			}
+		};
+
+		this.tracker = tracker;
+		this.tracker.addListener(blockListener);
+		this.tracker.onStop(this::stop);
+	}
+
+	/**
+	 * Declares the results of the specified function of the contract as immutable. 
+	 * Once cached, the results of such calls are never reloaded.
+	 */
+	public void declareImmutable(String contractAddress, Function function) {
+		immutableFunctions.add(functionKey(contractAddress, FunctionEncoder.encode(function)));
+	}
+
+	/**
+	 * Declares the results of the function with the specified signature (eg "greet()") of the contract as immutable.
+	 */
+	public void declareImmutable(String contractAddress, String methodSignature) {
+		byte [] hash = Hash.sha3(methodSignature.getBytes(StandardCharsets.UTF_8));
+		immutableFunctions.add(functionKey(contractAddress, Numeric.toHexString(hash)));
+	}
+
+	@Override
+	public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+		if(TRANSACTIONS.contains(request.getMethod())) {
+			throw new IOException(request.getMethod() + " not supported by the call cache client, use the wrapped client");
+		}
+
+		Key key = ETH_CALL.equals(request.getMethod()) ? key(request.getParams()) : null;
+
+		if(key == null) {
+			return super.send(request, responseType);
+		}
+
+		EthCall cached;
+
+		synchronized (entries) {
+			cached = entries.get(key);
+		}
+
+		if(cached != null && responseType.isInstance(cached)) {
+			hits.increment();
+			return responseType.cast(copy(cached, request.getId()));
+		}
+
+		misses.increment();
+
+		long loadEpoch = epoch.get();
+		T response = super.send(request, responseType);
+
+		if(response instanceof EthCall && !response.hasError()) {
+			synchronized (entries) {
+				if(!key.latest || loadEpoch == epoch.get()) {
+					entries.put(key, copy((EthCall) response, response.getId()));
+				}
+			}
+		}
+
+		return response;
+	}
+
+	@Override
+	public String sendBatch(String payload) throws IOException {
+		for(String method: TRANSACTIONS) {
+			if(payload.contains("\"" + method + "\"")) {
+				throw new IOException(method + " not supported by the call cache client, use the wrapped client");
+			}
+		}
+
+		return super.sendBatch(payload);
+	}
+
+	/**
+	 * Cached responses are never handed out, callers get their own copy with the id of their request.
+	 */
+	private static EthCall copy(EthCall response, long id) {
+		EthCall copy = new EthCall();
+		copy.setId(id);
+		copy.setJsonrpc(response.getJsonrpc());
+		copy.setResult(response.getResult());
+
+		return copy;
+	}
+
+	/**
+	 * Stops following the block head and empties the cache. A later {@link #wrap(Web3j)} creates a new cache client.
+	 */
+	public void stop() {
+		tracker.removeListener(blockListener);
+		CLIENTS.values().removeIf(client -> forClient(client) == this);
+		clear();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public int getSize() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d entries, %d hits, %d misses", getSize(), getHits(), getMisses());
+	}
+
+	/**
+	 * Returns the cache key for the parameters of an eth_call request or null if the call is not cacheable.
+	 */
+	private Key key(List<?> params) {
+		if(params.size() < 2 || !(params.get(0) instanceof Transaction) || !(params.get(1) instanceof DefaultBlockParameter)) {
+			return null;
+		}
+
+		Transaction transaction = (Transaction) params.get(0);
+		DefaultBlockParameter block = (DefaultBlockParameter) params.get(1);
+
+		if(transaction.getTo() == null || transaction.getData() == null || block == DefaultBlockParameterName.PENDING) {
+			return null;
+		}
+
+		if(immutableFunctions.contains(functionKey(transaction.getTo(), transaction.getData()))) {
+			return new Key(transaction, IMMUTABLE, false);
+		}
+
+		if(block == DefaultBlockParameterName.LATEST) {
+			BigInteger head = tracker.getBlockNumber();
+			return head == null ? null : new Key(transaction, Numeric.encodeQuantity(head), true);
+		}
+
+		return new Key(transaction, block.getValue(), false);
+	}
+
+	private void onNewBlock(BigInteger blockNumber) {
+		epoch.incrementAndGet();
+
+		synchronized (entries) {
+			entries.keySet().removeIf(key -> key.latest);
+		}
+	}
+
+	/**
+	 * Contract address and function selector (first 4 bytes of the call data).
+	 */
+	private static String functionKey(String contractAddress, String data) {
+		String selector = Numeric.cleanHexPrefix(data);
+		selector = selector.length() > 8 ? selector.substring(0, 8) : selector;
+
+		return (Numeric.cleanHexPrefix(contractAddress) + selector).toLowerCase();
+	}
+
+	private static class Key {
+
+		private final String to;
+		private final String from;
+		private final String data;
+		private final String block;
+		private final boolean latest;
+
+		Key(Transaction transaction, String block, boolean latest) {
+			this.to = transaction.getTo().toLowerCase();
+			this.from = transaction.getFrom() == null ? null : transaction.getFrom().toLowerCase();
+			this.data = transaction.getData().toLowerCase();
+			this.block = block;
+			this.latest = latest;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) o;
+			return to.equals(other.to) && Objects.equals(from, other.from) && data.equals(other.data) && block.equals(other.block);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(to, from, data, block);
+		}
+	}
+}
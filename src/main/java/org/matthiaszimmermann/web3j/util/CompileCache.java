@@ -0,0 +1,80 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+/**
+ * Remembers for each contract the hash of the source and compiler it was last compiled with.
+ * A contract needs to be compiled again (and its wrapper regenerated) only if its normalized source
+ * or the compiler changed or one of its output files is missing.
+ * The entries are kept in a properties file that is rewritten atomically on every update.
+ */
+public class CompileCache {
+
+	private final Path file;
+	private final Properties entries = new Properties();
+
+	/**
+	 * Loads the cache from the specified file, a missing file is an empty cache.
+	 */
+	public CompileCache(Path file) throws IOException {
+		this.file = file;
+
+		if(Files.exists(file)) {
+			try(InputStream in = Files.newInputStream(file)) {
+				entries.load(in);
+			}
+		}
+	}
+
+	/**
+	 * Returns the cache key (sha3, hex) for the normalized source code compiled by the specified compiler.
+	 */
+	public static String key(String normalizedSource, String compiler) {
+		String input = compiler + "\n" + normalizedSource;
+		return Numeric.toHexStringNoPrefix(Hash.sha3(input.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Returns true if the contract was last compiled for the provided key and all its output files exist.
+	 */
+	public synchronized boolean isUpToDate(String contract, String key, Path ... outputs) {
+		if(!key.equals(entries.getProperty(contract))) {
+			return false;
+		}
+
+		for(Path output: outputs) {
+			if(!Files.isRegularFile(output)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Records the key of a successful compile and saves the cache.
+	 */
+	public synchronized void update(String contract, String key) throws IOException {
+		entries.setProperty(contract, key);
+
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+		try(OutputStream out = Files.newOutputStream(tmp)) {
+			entries.store(out, "contract=sha3(compiler, normalized source), written by CompileDemo");
+		}
+
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
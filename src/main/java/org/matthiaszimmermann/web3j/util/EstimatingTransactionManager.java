@@ -0,0 +1,45 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.math.BigInteger;
+import java.util.concurrent.ExecutionException;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.tx.RawTransactionManager;
+
+/**
+ * Raw transaction manager that replaces the gas limit of each transaction with the estimate of the client's {@link GasEstimator}.
+ * The gas limit passed by the contract wrapper (eg {@link Web3jConstants#GAS_LIMIT_GREETER_TX}) only caps the estimate.
+ * If the transaction cannot be estimated it is sent with the gas limit of the wrapper.
+ * Contract wrappers use the manager through their transaction manager factory methods, eg
+ * Greeter.deploy(web3j, new EstimatingTransactionManager(web3j, credentials), gasPrice, gasLimit, ...).
+ */
+public class EstimatingTransactionManager extends RawTransactionManager {
+
+	private final GasEstimator estimator;
+
+	public EstimatingTransactionManager(Web3j web3j, Credentials credentials) {
+		super(web3j, credentials);
+		this.estimator = GasEstimator.forClient(web3j);
+	}
+
+	@Override
+	public EthSendTransaction sendTransaction(BigInteger gasPrice, BigInteger gasLimit, String to, String data, BigInteger value) 
+			throws ExecutionException, InterruptedException 
+	{
+		GasEstimator.Estimate estimate = estimator.estimate(getFromAddress(), to, data, value, gasLimit);
+
+		if(estimate.getGasLimit().compareTo(gasLimit) > 0) {
+			return super.sendTransaction(gasPrice, gasLimit, to, data, value);
+		}
+
+		EthSendTransaction response = super.sendTransaction(gasPrice, estimate.getGasLimit(), to, data, value);
+
+		if(!response.hasError()) {
+			estimator.verify(response.getTransactionHash(), estimate);
+		}
+
+		return response;
+	}
+}
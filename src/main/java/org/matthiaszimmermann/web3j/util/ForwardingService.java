@@ -0,0 +1,44 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.IOException;
+
+import org.web3j.protocol.Service;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+/**
+ * Base class for services that wrap another service, eg to add caching or metrics.
+ * By default all requests and batches are forwarded to the wrapped service unchanged.
+ */
+public abstract class ForwardingService extends Service implements BatchWeb3jService {
+
+	protected final Web3jService delegate;
+
+	protected ForwardingService(Web3jService delegate) {
+		this.delegate = delegate;
+	}
+
+	public Web3jService getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+		return delegate.send(request, responseType);
+	}
+
+	@Override
+	public String sendBatch(String payload) throws IOException {
+		if(!isBatchSupported()) {
+			throw new IOException("Batch requests not supported by " + delegate.getClass().getSimpleName());
+		}
+
+		return ((BatchWeb3jService) delegate).sendBatch(payload);
+	}
+
+	@Override
+	public boolean isBatchSupported() {
+		return delegate instanceof BatchWeb3jService && ((BatchWeb3jService) delegate).isBatchSupported();
+	}
+}
@@ -0,0 +1,354 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthEstimateGas;
+import org.web3j.protocol.core.methods.response.EthGetCode;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+/**
+ * Gas limits from eth_estimateGas, cached per contract code, function and argument size.
+ * The first transaction for a (code hash, function selector, argument size class) sends eth_estimateGas,
+ * later transactions with the same key reuse the estimate plus {@link Web3jConstants#GAS_ESTIMATE_MARGIN} percent.
+ * Plain transfers to accounts without code use {@link Web3jConstants#GAS_LIMIT_ETHER_TX} plus the margin without any request.
+ * An estimate is dropped when a transaction using it runs out of gas. The code hash of the recipient is dropped as well,
+ * also when a plain transfer uses more gas than {@link Web3jConstants#GAS_LIMIT_ETHER_TX} (the account has code now),
+ * see {@link #verify(String, Estimate)}. Code hashes and estimates are kept for the
+ * {@link Web3jConstants#GAS_ESTIMATE_CACHE_SIZE} least recently used addresses and keys.
+ *
+ * Argument sizes are grouped into classes of 0, 1, 2, 4, 8, ... 32 byte words, so calls with dynamic arguments
+ * (eg strings) of similar length share an estimate. For deployments the hash of the complete init code
+ * (including the constructor arguments) is used as code hash.
+ * There is at most one estimator per {@link Web3j} client, see {@link #forClient(Web3j)}.
+ */
+public class GasEstimator {
+
+	private static final Map<Web3j, GasEstimator> ESTIMATORS = new ConcurrentHashMap<>();
+
+	// code hash of accounts without code
+	private static final String NO_CODE = "";
+
+	private final Web3j web3j;
+
+	// code hash per (lowercase) address and gas estimates without margin per key
+	private final Map<String, String> codeHashes;
+	private final Map<Key, BigInteger> estimates;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder refreshes = new LongAdder();
+
+	/**
+	 * Returns the estimator for the specified client. The estimator is created on first use.
+	 */
+	public static GasEstimator forClient(Web3j web3j) {
+		return ESTIMATORS.computeIfAbsent(web3j, client -> new GasEstimator(client, Web3jConstants.GAS_ESTIMATE_CACHE_SIZE));
+	}
+
+	GasEstimator(Web3j web3j, int maxEntries) {
+		this.web3j = web3j;
+		this.codeHashes = lruMap(maxEntries);
+		this.estimates = lruMap(maxEntries);
+	}
+
+	private static <K, V> Map<K, V> lruMap(int maxEntries) {
+		return Collections.synchronizedMap(new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxEntries;
+			}
+		});
+	}
+
+	/**
+	 * Returns the gas limit for a transaction from the provided account.
+	 * The recipient is null or empty for contract deployments, data is null or empty for plain transfers.
+	 * Throws a runtime exception if the client fails to estimate the transaction (eg for an always failing transaction).
+	 */
+	public Estimate estimate(String from, String to, String data, BigInteger value) throws Exception {
+		Key key = key(to, data);
+		String address = isEmpty(to) ? null : to.toLowerCase();
+
+		if(key.codeHash.equals(NO_CODE) && key.selector.isEmpty()) {
+			return new Estimate(null, address, withMargin(Web3jConstants.GAS_LIMIT_ETHER_TX));
+		}
+
+		BigInteger gas = estimates.get(key);
+
+		if(gas != null) {
+			hits.increment();
+		}
+		else {
+			misses.increment();
+			gas = estimateGas(from, to, data, value);
+			estimates.put(key, gas);
+		}
+
+		return new Estimate(key, address, withMargin(gas));
+	}
+
+	private static BigInteger withMargin(BigInteger gas) {
+		return gas.add(gas.multiply(BigInteger.valueOf(Web3jConstants.GAS_ESTIMATE_MARGIN)).divide(BigInteger.valueOf(100)));
+	}
+
+	/**
+	 * Same as {@link #estimate(String, String, String, BigInteger)} but returns the provided default gas limit
+	 * if the transaction cannot be estimated.
+	 */
+	public Estimate estimate(String from, String to, String data, BigInteger value, BigInteger defaultGasLimit) throws InterruptedException {
+		try {
+			return estimate(from, to, data, value);
+		}
+		catch (InterruptedException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			System.out.println("Using default gas limit " + defaultGasLimit + ": " + e.getMessage());
+			return new Estimate(null, null, defaultGasLimit);
+		}
+	}
+
+	/**
+	 * Checks the receipt of a transaction sent with the provided estimate once it is mined.
+	 * If the transaction used all of its gas the estimate and the code hash of the recipient are dropped,
+	 * the next transaction with the same key or to the same address loads them again.
+	 * A plain transfer that used more gas than a transfer to an account without code drops the code hash of the recipient.
+	 * Has no effect for default limits.
+	 */
+	public void verify(String transactionHash, Estimate estimate) {
+		if(!estimate.isVerifiable()) {
+			return;
+		}
+
+		ReceiptWatcher
+				.forClient(web3j)
+				.watch(transactionHash)
+				.thenAccept(receipt -> check(receipt, estimate));
+	}
+
+	void check(TransactionReceipt receipt, Estimate estimate) {
+		boolean outOfGas = estimate.isOutOfGas(receipt);
+
+		if(outOfGas && estimate.isCached() && estimates.remove(estimate.key) != null) {
+			refreshes.increment();
+		}
+
+		boolean codeChanged = !estimate.isCached() && receipt.getGasUsed().compareTo(Web3jConstants.GAS_LIMIT_ETHER_TX) > 0;
+
+		if(estimate.address != null && (outOfGas || codeChanged)) {
+			codeHashes.remove(estimate.address);
+		}
+	}
+
+	/**
+	 * Loads the code hashes of the provided addresses with a single JSON-RPC batch,
+	 * so estimates for transfers to many accounts do not send one eth_getCode request per account.
+	 */
+	public void prefetchCode(Collection<String> addresses) throws Exception {
+		List<String> missing = new ArrayList<>();
+
+		for(String address: addresses) {
+			if(!codeHashes.containsKey(address.toLowerCase())) {
+				missing.add(address.toLowerCase());
+			}
+		}
+
+		if(missing.isEmpty()) {
+			return;
+		}
+
+		List<Request<?, EthGetCode>> requests = new ArrayList<>(missing.size());
+
+		for(String address: missing) {
+			requests.add(web3j.ethGetCode(address, DefaultBlockParameterName.LATEST));
+		}
+
+		List<EthGetCode> responses = Web3jUtils.sendBatch(web3j, requests, EthGetCode.class, Web3jConstants.BATCH_SIZE);
+
+		for(int i = 0; i < missing.size(); i++) {
+			if(!responses.get(i).hasError()) {
+				codeHashes.put(missing.get(i), codeHash(responses.get(i).getCode()));
+			}
+		}
+	}
+
+	private Key key(String to, String data) throws Exception {
+		byte [] input = isEmpty(data) ? new byte[0] : Numeric.hexStringToByteArray(data);
+
+		if(isEmpty(to)) {
+			return new Key(Numeric.toHexStringNoPrefix(Hash.sha3(input)), "", sizeClass(input.length));
+		}
+
+		String selector = input.length >= 4 ? Numeric.toHexStringNoPrefix(input).substring(0, 8) : "";
+		int argumentSize = Math.max(0, input.length - 4);
+
+		return new Key(getCodeHash(to), selector, sizeClass(argumentSize));
+	}
+
+	/**
+	 * Returns the smallest power of two number of 32 byte words the arguments fit in (0 for no arguments).
+	 */
+	static int sizeClass(int argumentBytes) {
+		int words = (argumentBytes + 31) / 32;
+		return words <= 1 ? words : Integer.highestOneBit(words - 1) << 1;
+	}
+
+	private String getCodeHash(String address) throws Exception {
+		String codeHash = codeHashes.get(address.toLowerCase());
+
+		if(codeHash == null) {
+			EthGetCode response = web3j
+					.ethGetCode(address, DefaultBlockParameterName.LATEST)
+					.sendAsync()
+					.get();
+
+			if(response.hasError()) {
+				throw new RuntimeException("Failed to get code of " + address + ": " + response.getError().getMessage());
+			}
+
+			codeHash = codeHash(response.getCode());
+			codeHashes.put(address.toLowerCase(), codeHash);
+		}
+
+		return codeHash;
+	}
+
+	private static String codeHash(String code) {
+		if(isEmpty(code) || code.equals("0x")) {
+			return NO_CODE;
+		}
+
+		return Numeric.toHexStringNoPrefix(Hash.sha3(Numeric.hexStringToByteArray(code)));
+	}
+
+	private BigInteger estimateGas(String from, String to, String data, BigInteger value) throws Exception {
+		Transaction transaction = new Transaction(from, null, null, null, isEmpty(to) ? null : to, value, isEmpty(data) ? null : data);
+
+		EthEstimateGas response = web3j
+				.ethEstimateGas(transaction)
+				.sendAsync()
+				.get();
+
+		if(response.hasError()) {
+			throw new RuntimeException("Gas estimate failed: " + response.getError().getMessage());
+		}
+
+		return response.getAmountUsed();
+	}
+
+	private static boolean isEmpty(String value) {
+		return value == null || value.isEmpty();
+	}
+
+	/**
+	 * Number of estimates served from the cache.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Number of estimates that sent eth_estimateGas.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Number of estimates dropped after a transaction ran out of gas.
+	 */
+	public long getRefreshes() {
+		return refreshes.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d estimates, %d hits, %d misses, %d refreshes", estimates.size(), getHits(), getMisses(), getRefreshes());
+	}
+
+	/**
+	 * Gas limit (including the safety margin) for a transaction, the cache key it was derived from and the recipient.
+	 */
+	public static class Estimate {
+
+		private final Key key;
+		private final String address;
+		private final BigInteger gasLimit;
+
+		Estimate(Key key, String address, BigInteger gasLimit) {
+			this.key = key;
+			this.address = address;
+			this.gasLimit = gasLimit;
+		}
+
+		public BigInteger getGasLimit() {
+			return gasLimit;
+		}
+
+		/**
+		 * Returns true if the limit is a cached eth_estimateGas result. Plain transfers and default limits are not cached.
+		 */
+		public boolean isCached() {
+			return key != null;
+		}
+
+		/**
+		 * Returns true for cached limits and plain transfers, default limits are not verified.
+		 */
+		boolean isVerifiable() {
+			return key != null || address != null;
+		}
+
+		/**
+		 * Returns true if the limit is not a default limit and the transaction of the receipt used all of it.
+		 */
+		public boolean isOutOfGas(TransactionReceipt receipt) {
+			return isVerifiable() && receipt.getGasUsed().compareTo(gasLimit) >= 0;
+		}
+	}
+
+	private static class Key {
+
+		private final String codeHash;
+		private final String selector;
+		private final int sizeClass;
+
+		Key(String codeHash, String selector, int sizeClass) {
+			this.codeHash = codeHash;
+			this.selector = selector;
+			this.sizeClass = sizeClass;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key) o;
+			return codeHash.equals(other.codeHash) && selector.equals(other.selector) && sizeClass == other.sizeClass;
+		}
+
+		@Override
+		public int hashCode() {
+			return (codeHash.hashCode() * 31 + selector.hashCode()) * 31 + sizeClass;
+		}
+	}
+}
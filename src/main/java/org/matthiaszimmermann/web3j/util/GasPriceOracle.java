@@ -0,0 +1,288 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthGasPrice;
+
+/**
+ * Suggests gas prices based on the gas prices of the transactions included in the most recent blocks.
+ * The cheap, standard and fast prices are percentiles of the sampled prices blended with the price
+ * suggested by the client (eth_gasPrice). With few sampled transactions the client price dominates,
+ * from {@link Web3jConstants#GAS_ORACLE_MIN_SAMPLES} transactions on only the samples count.
+ *
+ * The estimate is refreshed whenever the {@link BlockHeadTracker} reports a new block, only the blocks
+ * not sampled before are fetched. Reading the prices never sends a request: the initial estimate is made
+ * on the listener pool of the tracker (retried every {@link Web3jConstants#GAS_ORACLE_RETRY_INTERVAL} ms
+ * until it succeeds), until then {@link Web3jConstants#GAS_PRICE} is suggested.
+ * There is at most one oracle per {@link Web3j} client, see {@link #forClient(Web3j)}, it is dropped when the tracker stops.
+ */
+public class GasPriceOracle {
+
+	public enum Speed { CHEAP, STANDARD, FAST }
+
+	private static final Map<Web3j, GasPriceOracle> ORACLES = new ConcurrentHashMap<>();
+
+	private final Web3j web3j;
+	private final BlockHeadTracker tracker;
+	private final int blocks;
+
+	// sorted gas prices of the txs of each sampled block, only accessed in refresh()
+	private final NavigableMap<BigInteger, List<BigInteger>> samples = new TreeMap<>();
+
+	private volatile Estimate estimate = null;
+	private volatile boolean stopped = false;
+
+	/**
+	 * Returns the oracle for the specified client. The oracle is created on first use and samples
+	 * the last {@link Web3jConstants#GAS_ORACLE_BLOCKS} blocks.
+	 */
+	public static GasPriceOracle forClient(Web3j web3j) {
+		return ORACLES.computeIfAbsent(web3j, client -> new GasPriceOracle(client, Web3jConstants.GAS_ORACLE_BLOCKS));
+	}
+
+	private GasPriceOracle(Web3j web3j, int blocks) {
+		this.web3j = web3j;
+		this.blocks = blocks;
+		this.tracker = BlockHeadTracker.forClient(web3j);
+		this.tracker.addListener(this::refresh);
+		this.tracker.onStop(() -> {
+			stopped = true;
+			ORACLES.remove(web3j, this);
+		});
+		this.tracker.execute(this::seed);
+	}
+
+	/**
+	 * Makes the initial estimate, reschedules itself on the tracker until an estimate exists.
+	 */
+	private void seed() {
+		refresh(tracker.getBlockNumber());
+
+		if(estimate == null && !stopped) {
+			try {
+				tracker.schedule(this::seed, Web3jConstants.GAS_ORACLE_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+			}
+			catch (RejectedExecutionException e) {
+				// the tracker stopped in the meantime
+			}
+		}
+	}
+
+	/**
+	 * Returns the suggested gas price (in Wei) for the specified speed.
+	 */
+	public BigInteger getPrice(Speed speed) {
+		return getEstimate().getPrice(speed);
+	}
+
+	/**
+	 * Returns the current estimate without sending a request. Until the initial estimate is made
+	 * (or while the client cannot be reached) the estimate falls back to {@link Web3jConstants#GAS_PRICE}.
+	 */
+	public Estimate getEstimate() {
+		Estimate current = estimate;
+		return current != null ? current : Estimate.fallback();
+	}
+
+	private synchronized void refresh(BigInteger head) {
+		try {
+			if(head == null) {
+				head = web3j.ethBlockNumber().send().getBlockNumber();
+			}
+
+			if(estimate != null && head.equals(estimate.blockNumber)) {
+				return;
+			}
+
+			// the client price is fetched while the missing blocks are loaded
+			CompletableFuture<EthGasPrice> gasPrice = web3j.ethGasPrice().sendAsync();
+
+			BigInteger first = head.subtract(BigInteger.valueOf(blocks - 1)).max(BigInteger.ZERO);
+			samples.headMap(first).clear();
+			samples.tailMap(head, false).clear();
+			loadBlocks(first, head);
+
+			EthGasPrice response = gasPrice.get();
+
+			if(response.hasError()) {
+				throw new RuntimeException(response.getError().getMessage());
+			}
+
+			estimate = createEstimate(head, response.getGasPrice());
+		}
+		catch (Exception e) {
+			System.out.println("Failed to refresh gas price estimate: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Fetches all blocks from first to last (inclusive) not sampled yet with a single JSON-RPC batch.
+	 */
+	private void loadBlocks(BigInteger first, BigInteger last) throws Exception {
+		List<Request<?, EthBlock>> requests = new ArrayList<>();
+
+		for(BigInteger number = first; number.compareTo(last) <= 0; number = number.add(BigInteger.ONE)) {
+			if(!samples.containsKey(number)) {
+				requests.add(web3j.ethGetBlockByNumber(new DefaultBlockParameterNumber(number), true));
+			}
+		}
+
+		for(EthBlock response: Web3jUtils.sendBatch(web3j, requests, EthBlock.class, Web3jConstants.BATCH_SIZE)) {
+			EthBlock.Block block = response.getBlock();
+
+			// blocks might be missing on a load balanced client that lags behind, they are sampled on the next refresh
+			if(response.hasError() || block == null) {
+				continue;
+			}
+
+			List<BigInteger> prices = new ArrayList<>(block.getTransactions().size());
+
+			for(EthBlock.TransactionResult<?> tx: block.getTransactions()) {
+				prices.add(((EthBlock.TransactionObject) tx).getGasPrice());
+			}
+
+			Collections.sort(prices);
+			samples.put(block.getNumber(), prices);
+		}
+	}
+
+	private Estimate createEstimate(BigInteger head, BigInteger clientPrice) {
+		List<BigInteger> prices = new ArrayList<>();
+		samples.values().forEach(prices::addAll);
+		Collections.sort(prices);
+
+		BigInteger cheap = blend(percentile(prices, Web3jConstants.GAS_ORACLE_CHEAP_PERCENTILE), clientPrice, prices.size());
+		BigInteger standard = blend(percentile(prices, Web3jConstants.GAS_ORACLE_STANDARD_PERCENTILE), clientPrice, prices.size());
+		BigInteger fast = blend(percentile(prices, Web3jConstants.GAS_ORACLE_FAST_PERCENTILE), clientPrice, prices.size());
+
+		return new Estimate(head, samples.size(), prices.size(), clientPrice, cheap, standard, fast);
+	}
+
+	/**
+	 * Returns the nearest-rank percentile of the sorted prices, null for no prices.
+	 */
+	static BigInteger percentile(List<BigInteger> sortedPrices, int percentile) {
+		if(sortedPrices.isEmpty()) {
+			return null;
+		}
+
+		int rank = (int) Math.ceil(percentile / 100.0 * sortedPrices.size());
+		return sortedPrices.get(Math.max(0, rank - 1));
+	}
+
+	/**
+	 * Weights the sampled price with the number of samples relative to {@link Web3jConstants#GAS_ORACLE_MIN_SAMPLES}.
+	 */
+	static BigInteger blend(BigInteger sampledPrice, BigInteger clientPrice, int sampleCount) {
+		if(sampledPrice == null) {
+			return clientPrice;
+		}
+
+		int minSamples = Web3jConstants.GAS_ORACLE_MIN_SAMPLES;
+
+		if(sampleCount >= minSamples) {
+			return sampledPrice;
+		}
+
+		return new BigDecimal(sampledPrice.multiply(BigInteger.valueOf(sampleCount))
+				.add(clientPrice.multiply(BigInteger.valueOf(minSamples - sampleCount))))
+				.divide(BigDecimal.valueOf(minSamples), 0, RoundingMode.HALF_UP)
+				.toBigInteger();
+	}
+
+	/**
+	 * Gas prices (in Wei) suggested for the sampled blocks up to a block number.
+	 */
+	public static class Estimate {
+
+		private final BigInteger blockNumber;
+		private final int blockCount;
+		private final int sampleCount;
+		private final BigInteger clientPrice;
+		private final BigInteger cheap;
+		private final BigInteger standard;
+		private final BigInteger fast;
+
+		Estimate(BigInteger blockNumber, int blockCount, int sampleCount, BigInteger clientPrice, BigInteger cheap, BigInteger standard, BigInteger fast) {
+			this.blockNumber = blockNumber;
+			this.blockCount = blockCount;
+			this.sampleCount = sampleCount;
+			this.clientPrice = clientPrice;
+			this.cheap = cheap;
+			this.standard = standard;
+			this.fast = fast;
+		}
+
+		static Estimate fallback() {
+			BigInteger price = Web3jConstants.GAS_PRICE;
+			return new Estimate(null, 0, 0, price, price, price, price);
+		}
+
+		public BigInteger getPrice(Speed speed) {
+			switch (speed) {
+			case CHEAP:    return cheap;
+			case FAST:     return fast;
+			default:       return standard;
+			}
+		}
+
+		public BigInteger getCheap() {
+			return cheap;
+		}
+
+		public BigInteger getStandard() {
+			return standard;
+		}
+
+		public BigInteger getFast() {
+			return fast;
+		}
+
+		/**
+		 * Price suggested by the client (eth_gasPrice) when the estimate was made.
+		 */
+		public BigInteger getClientPrice() {
+			return clientPrice;
+		}
+
+		/**
+		 * Most recent sampled block, null for the fallback estimate.
+		 */
+		public BigInteger getBlockNumber() {
+			return blockNumber;
+		}
+
+		public int getBlockCount() {
+			return blockCount;
+		}
+
+		/**
+		 * Number of sampled transactions.
+		 */
+		public int getSampleCount() {
+			return sampleCount;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("cheap %s, standard %s, fast %s wei (client %s wei, %d txs in %d blocks up to block %s)",
+					cheap, standard, fast, clientPrice, sampleCount, blockCount, blockNumber);
+		}
+	}
+}
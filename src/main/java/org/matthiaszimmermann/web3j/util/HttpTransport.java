@@ -0,0 +1,126 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Factory for HTTP services that share a pool of keep-alive connections.
+ * All services created by a transport use the same {@link CloseableHttpClient}, so concurrent
+ * requests reuse pooled connections instead of opening a new TCP connection per request.
+ * Responses may be gzip compressed, idle connections are closed in the background.
+ * The pool stays open until the transport is closed, see {@link #close()}.
+ */
+public class HttpTransport implements Closeable {
+
+	private static HttpTransport defaultTransport = null;
+
+	private final PoolingHttpClientConnectionManager connectionManager;
+	private final IdleConnectionEvictor evictor;
+	private final CloseableHttpClient httpClient;
+
+	/**
+	 * Returns the transport shared by {@link Web3jUtils#buildHttpClient(String)} and the demos.
+	 * The transport uses the HTTP settings of {@link Web3jConstants} and is created on first use.
+	 */
+	public static synchronized HttpTransport getDefault() {
+		if(defaultTransport == null) {
+			defaultTransport = new HttpTransport();
+		}
+
+		return defaultTransport;
+	}
+
+	/**
+	 * Closes the default transport (if any). The next call to {@link #getDefault()} creates a new one.
+	 */
+	public static synchronized void shutdownDefault() {
+		if(defaultTransport != null) {
+			defaultTransport.close();
+			defaultTransport = null;
+		}
+	}
+
+	/**
+	 * Creates a transport with the HTTP settings of {@link Web3jConstants}.
+	 */
+	public HttpTransport() {
+		this(Web3jConstants.HTTP_MAX_CONNECTIONS,
+				Web3jConstants.HTTP_MAX_CONNECTIONS_PER_ROUTE,
+				Web3jConstants.HTTP_CONNECT_TIMEOUT,
+				Web3jConstants.HTTP_READ_TIMEOUT,
+				Web3jConstants.HTTP_KEEP_ALIVE);
+	}
+
+	/**
+	 * Creates a transport with the specified pool size, timeouts (ms) and keep-alive duration (ms).
+	 * The keep-alive duration applies if the server does not specify a keep-alive timeout itself.
+	 */
+	public HttpTransport(int maxConnections, int maxConnectionsPerRoute, int connectTimeout, int readTimeout, long keepAlive) {
+		connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(connectTimeout)
+				.setConnectionRequestTimeout(connectTimeout)
+				.setSocketTimeout(readTimeout)
+				.build();
+
+		ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+			long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return duration > 0 ? duration : keepAlive;
+		};
+
+		// web3j closes the http client after each request, the shared connection manager survives this
+		// content compression (gzip, deflate) is enabled by default
+		httpClient = HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setConnectionManagerShared(true)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy(keepAliveStrategy)
+				.build();
+
+		evictor = new IdleConnectionEvictor(connectionManager, keepAlive, TimeUnit.MILLISECONDS);
+		evictor.start();
+	}
+
+	/**
+	 * Returns the pooled HTTP client of this transport.
+	 * The client must not be used after the transport has been closed.
+	 */
+	public CloseableHttpClient getHttpClient() {
+		return httpClient;
+	}
+
+	/**
+	 * Creates a service for the specified client url that sends its requests over this transport.
+	 */
+	public BatchHttpService createService(String url) {
+		return new BatchHttpService(url, httpClient);
+	}
+
+	/**
+	 * Returns the number of leased, available and pending connections of the pool.
+	 */
+	public PoolStats getStats() {
+		return connectionManager.getTotalStats();
+	}
+
+	/**
+	 * Stops the idle connection evictor and closes all pooled connections.
+	 */
+	@Override
+	public void close() {
+		evictor.shutdown();
+		connectionManager.shutdown();
+	}
+}
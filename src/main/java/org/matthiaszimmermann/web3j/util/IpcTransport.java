@@ -0,0 +1,280 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+import jnr.unixsocket.UnixSocketOptions;
+
+/**
+ * Factory for services that talk to a local client (eg geth) over its Unix domain socket.
+ * Like the {@link HttpTransport} the transport keeps a bounded pool of persistent connections,
+ * so concurrent requests are sent over separate connections and each connection is reused.
+ * Idle connections are closed after the keep-alive duration, requests fail after the read timeout.
+ * The pool stays open until the transport is closed, see {@link #close()}.
+ */
+public class IpcTransport implements Closeable {
+
+	public static final String SCHEME = "ipc://";
+
+	private static final Map<String, IpcTransport> TRANSPORTS = new ConcurrentHashMap<>();
+
+	private final UnixSocketAddress address;
+	private final Semaphore permits;
+	private final BlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final int poolTimeout;
+	private final int readTimeout;
+	private final long keepAlive;
+
+	private volatile boolean closed = false;
+
+	/**
+	 * Returns the shared transport for the socket with the specified path. The transport is created on first use.
+	 */
+	public static IpcTransport forPath(String path) {
+		return TRANSPORTS.computeIfAbsent(path, IpcTransport::new);
+	}
+
+	/**
+	 * Returns the shared transport for an ipc url like ipc:///path/geth.ipc.
+	 */
+	public static IpcTransport forUrl(String url) {
+		if(!url.startsWith(SCHEME)) {
+			throw new IllegalArgumentException("Not an ipc url: " + url);
+		}
+
+		return forPath(url.substring(SCHEME.length()));
+	}
+
+	/**
+	 * Closes all shared transports.
+	 */
+	public static void shutdownAll() {
+		TRANSPORTS.values().forEach(IpcTransport::close);
+		TRANSPORTS.clear();
+	}
+
+	/**
+	 * Creates a transport with the pool and timeout settings used for HTTP connections, see {@link Web3jConstants}.
+	 * The HTTP connect timeout is used as pool timeout.
+	 */
+	public IpcTransport(String path) {
+		this(path,
+				Web3jConstants.HTTP_MAX_CONNECTIONS_PER_ROUTE,
+				Web3jConstants.HTTP_CONNECT_TIMEOUT,
+				Web3jConstants.HTTP_READ_TIMEOUT,
+				Web3jConstants.HTTP_KEEP_ALIVE);
+	}
+
+	/**
+	 * Creates a transport with at most maxConnections connections, the specified timeouts (ms) and keep-alive duration (ms).
+	 * The pool timeout limits the time to wait for a free connection of the pool. Opening a connection has no timeout,
+	 * a Unix domain socket connect succeeds or fails right away (it only blocks while the accept backlog of the client is full).
+	 */
+	public IpcTransport(String path, int maxConnections, int poolTimeout, int readTimeout, long keepAlive) {
+		this.address = new UnixSocketAddress(new File(path));
+		this.permits = new Semaphore(maxConnections);
+		this.poolTimeout = poolTimeout;
+		this.readTimeout = readTimeout;
+		this.keepAlive = keepAlive;
+	}
+
+	/**
+	 * Creates a service that sends its requests over this transport.
+	 */
+	public BatchIpcService createService() {
+		return new BatchIpcService(this);
+	}
+
+	/**
+	 * Sends the provided request (or batch) payload and returns the response.
+	 * A connection that fails or times out is closed and not returned to the pool.
+	 */
+	JsonNode send(byte [] payload) throws IOException {
+		Connection connection = lease();
+
+		try {
+			JsonNode response = connection.exchange(payload);
+			release(connection);
+
+			return response;
+		}
+		catch (IOException | RuntimeException e) {
+			discard(connection);
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of open connections that are currently not in use.
+	 */
+	public int getIdleConnections() {
+		return idle.size();
+	}
+
+	private Connection lease() throws IOException {
+		if(closed) {
+			throw new IOException("Transport closed: " + address.path());
+		}
+
+		try {
+			if(!permits.tryAcquire(poolTimeout, TimeUnit.MILLISECONDS)) {
+				throw new SocketTimeoutException("Timeout waiting for connection to " + address.path());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for connection to " + address.path(), e);
+		}
+
+		try {
+			Connection connection;
+
+			// most recently used connection first, connections idle for too long are closed
+			while((connection = idle.pollFirst()) != null) {
+				if(System.currentTimeMillis() - connection.lastUsed < keepAlive) {
+					return connection;
+				}
+
+				connection.close();
+			}
+
+			return new Connection();
+		}
+		catch (IOException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	private void release(Connection connection) {
+		connection.lastUsed = System.currentTimeMillis();
+
+		if(closed) {
+			connection.close();
+		}
+		else {
+			idle.addFirst(connection);
+		}
+
+		permits.release();
+	}
+
+	private void discard(Connection connection) {
+		connection.close();
+		permits.release();
+	}
+
+	/**
+	 * Closes all idle connections, connections in use are closed when they are returned.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+
+		Connection connection;
+		while((connection = idle.pollFirst()) != null) {
+			connection.close();
+		}
+	}
+
+	/**
+	 * A persistent socket connection. Responses are read as consecutive JSON values from the socket.
+	 */
+	private class Connection {
+
+		private final UnixSocketChannel channel;
+		private final OutputStream out;
+
+		private MappingIterator<JsonNode> responses = null;
+		private long lastUsed;
+
+		Connection() throws IOException {
+			channel = UnixSocketChannel.open(address);
+			channel.setOption(UnixSocketOptions.SO_RCVTIMEO, readTimeout);
+			out = Channels.newOutputStream(channel);
+		}
+
+		JsonNode exchange(byte [] payload) throws IOException {
+			byte [] line = new byte[payload.length + 1];
+			System.arraycopy(payload, 0, line, 0, payload.length);
+			line[payload.length] = '\n';
+
+			out.write(line);
+
+			// the parser reads ahead when it is created, so it is created after the first request
+			if(responses == null) {
+				responses = objectMapper
+						.readerFor(JsonNode.class)
+						.readValues(new TimeoutInputStream(channel));
+			}
+
+			if(!responses.hasNextValue()) {
+				throw new EOFException("Connection closed by " + address.path());
+			}
+
+			return responses.nextValue();
+		}
+
+		void close() {
+			try {
+				channel.close();
+			}
+			catch (IOException e) {
+				// nothing to do
+			}
+		}
+	}
+
+	/**
+	 * Reads from a channel with a receive timeout. The channel signals the timeout with an empty read.
+	 */
+	private static class TimeoutInputStream extends InputStream {
+
+		private final UnixSocketChannel channel;
+
+		TimeoutInputStream(UnixSocketChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte [] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte [] b, int off, int len) throws IOException {
+			if(len == 0) {
+				return 0;
+			}
+
+			int count = channel.read(ByteBuffer.wrap(b, off, len));
+
+			if(count == 0) {
+				throw new SocketTimeoutException("Read timed out");
+			}
+
+			return count;
+		}
+	}
+}
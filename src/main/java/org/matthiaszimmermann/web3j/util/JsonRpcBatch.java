@@ -0,0 +1,84 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Packs web3j requests into JSON-RPC 2.0 batches and matches the responses back to their requests.
+ * web3j uses the same id for all requests, so the batch assigns the ids by position within each chunk.
+ */
+public class JsonRpcBatch {
+
+	private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.getObjectMapper();
+
+	/**
+	 * Sends the provided requests in chunks of at most chunkSize requests per round trip.
+	 * All requests need to share the same response type.
+	 * The responses are returned in the order of the requests.
+	 */
+	public static <T extends Response<?>> List<T> send(BatchWeb3jService service, List<? extends Request<?, T>> requests, Class<T> responseType, int chunkSize) 
+			throws IOException 
+	{
+		if(chunkSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive: " + chunkSize);
+		}
+
+		List<T> responses = new ArrayList<>(requests.size());
+
+		for(int from = 0; from < requests.size(); from += chunkSize) {
+			int to = Math.min(from + chunkSize, requests.size());
+			responses.addAll(sendChunk(service, requests.subList(from, to), responseType));
+		}
+
+		return responses;
+	}
+
+	private static <T extends Response<?>> List<T> sendChunk(BatchWeb3jService service, List<? extends Request<?, T>> requests, Class<T> responseType) 
+			throws IOException 
+	{
+		for(int i = 0; i < requests.size(); i++) {
+			requests.get(i).setId(i);
+		}
+
+		String payload = OBJECT_MAPPER.writeValueAsString(requests);
+		JsonNode root = OBJECT_MAPPER.readTree(service.sendBatch(payload));
+
+		if(!root.isArray()) {
+			throw new IOException("Batch request rejected by client: " + root);
+		}
+
+		Object [] responses = new Object[requests.size()];
+
+		for(JsonNode node: root) {
+			JsonNode id = node.get("id");
+
+			if(id == null || !id.canConvertToInt() || id.asInt() < 0 || id.asInt() >= responses.length) {
+				throw new IOException("Unexpected response id in batch: " + node);
+			}
+
+			responses[id.asInt()] = OBJECT_MAPPER.treeToValue(node, responseType);
+		}
+
+		List<T> result = new ArrayList<>(responses.length);
+
+		for(int i = 0; i < responses.length; i++) {
+			if(responses[i] == null) {
+				throw new IOException("Missing response for request " + requests.get(i).getMethod() + 
+						" " + Arrays.toString(requests.get(i).getParams().toArray()));
+			}
+
+			result.add(responseType.cast(responses[i]));
+		}
+
+		return result;
+	}
+}
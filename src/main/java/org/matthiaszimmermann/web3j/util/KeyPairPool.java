@@ -0,0 +1,272 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Keys;
+
+/**
+ * Generates new key pairs and their addresses on background threads, so creating an account
+ * only takes ready-made credentials from a bounded queue.
+ * The workers keep the queue filled up to a target depth. The target grows with the observed demand
+ * (keys taken per second) up to the capacity of the queue, and the further the queue falls below
+ * the target the more workers generate keys. When the queue is empty the caller generates its
+ * key pair itself instead of waiting.
+ */
+public class KeyPairPool implements AutoCloseable {
+
+	// interval (ms) at which idle workers re-check the queue and the demand is sampled
+	static final long SAMPLE_INTERVAL = 100;
+
+	// weight of the latest sample in the demand average, seconds of demand the queue should cover
+	static final double DEMAND_SMOOTHING = 0.3;
+	static final double DEMAND_HORIZON = 1.0;
+
+	private final BlockingQueue<Credentials> ready;
+	private final int capacity;
+	private final int targetDepth;
+	private final int threads;
+	private final ExecutorService workers;
+	private final Object demand = new Object();
+
+	private final LongAdder generated = new LongAdder();
+	private final LongAdder generationNanos = new LongAdder();
+	private final LongAdder taken = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private volatile boolean closed = false;
+	private volatile int effectiveTarget;
+	private volatile double demandRate = 0.0;
+	private long lastSampleNanos = System.nanoTime();
+	private long lastSampleTaken = 0;
+
+	/**
+	 * Creates a pool with capacity {@link Web3jConstants#KEY_POOL_CAPACITY}, target depth
+	 * {@link Web3jConstants#KEY_POOL_TARGET_DEPTH} and one worker per two available processors.
+	 */
+	public KeyPairPool() {
+		this(Web3jConstants.KEY_POOL_CAPACITY, Web3jConstants.KEY_POOL_TARGET_DEPTH, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+	}
+
+	public KeyPairPool(int capacity, int targetDepth, int threads) {
+		if(targetDepth < 1 || targetDepth > capacity || threads < 1) {
+			throw new IllegalArgumentException(String.format("Invalid pool size: capacity %d, target depth %d, threads %d", capacity, targetDepth, threads));
+		}
+
+		this.ready = new ArrayBlockingQueue<>(capacity);
+		this.capacity = capacity;
+		this.targetDepth = targetDepth;
+		this.effectiveTarget = targetDepth;
+		this.threads = threads;
+		this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "key-pair-pool");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+
+		for(int i = 0; i < threads; i++) {
+			int worker = i;
+			workers.execute(() -> refill(worker));
+		}
+	}
+
+	/**
+	 * Returns new credentials. Takes pre-generated credentials if available, generates them in the calling thread otherwise.
+	 */
+	public Credentials take() throws Exception {
+		Credentials credentials = ready.poll();
+		taken.increment();
+
+		if(ready.size() < effectiveTarget) {
+			synchronized (demand) {
+				demand.notifyAll();
+			}
+		}
+
+		if(credentials != null) {
+			return credentials;
+		}
+
+		misses.increment();
+		return generate();
+	}
+
+	/**
+	 * Returns the specified number of new credentials.
+	 */
+	public List<Credentials> take(int count) throws Exception {
+		List<Credentials> credentials = new ArrayList<>(count);
+
+		for(int i = 0; i < count; i++) {
+			credentials.add(take());
+		}
+
+		return credentials;
+	}
+
+	/**
+	 * Worker loop: worker i only generates while the queue holds less than (threads - i) / threads of the target,
+	 * so a slightly drained queue is refilled by a single thread and an empty queue by all threads.
+	 */
+	private void refill(int worker) {
+		try {
+			while(!closed) {
+				sampleDemand();
+
+				long threshold = (long) effectiveTarget * (threads - worker) / threads;
+
+				if(ready.size() >= threshold) {
+					synchronized (demand) {
+						demand.wait(SAMPLE_INTERVAL);
+					}
+
+					continue;
+				}
+
+				long start = System.nanoTime();
+				Credentials credentials = generate();
+				generationNanos.add(System.nanoTime() - start);
+				generated.increment();
+
+				// only fails if other workers filled the queue in the meantime, the key pair is dropped
+				ready.offer(credentials);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (Exception e) {
+			// take() keeps working by generating in the calling thread
+			System.out.println("Key pair pool worker stopped: " + e);
+		}
+	}
+
+	/**
+	 * Updates the average demand at most every {@link #SAMPLE_INTERVAL} ms and derives the target depth from it.
+	 */
+	private synchronized void sampleDemand() {
+		long now = System.nanoTime();
+		long elapsed = now - lastSampleNanos;
+
+		if(elapsed < TimeUnit.MILLISECONDS.toNanos(SAMPLE_INTERVAL)) {
+			return;
+		}
+
+		long total = taken.sum();
+		double rate = (total - lastSampleTaken) * 1e9 / elapsed;
+
+		demandRate = DEMAND_SMOOTHING * rate + (1.0 - DEMAND_SMOOTHING) * demandRate;
+		effectiveTarget = (int) Math.min(capacity, Math.max(targetDepth, Math.ceil(demandRate * DEMAND_HORIZON)));
+		lastSampleNanos = now;
+		lastSampleTaken = total;
+	}
+
+	private static Credentials generate() throws Exception {
+		return Credentials.create(Keys.createEcKeyPair());
+	}
+
+	/**
+	 * Number of ready credentials in the queue.
+	 */
+	public int getDepth() {
+		return ready.size();
+	}
+
+	public Stats getStats() {
+		return new Stats(ready.size(), effectiveTarget, capacity,
+				generated.sum(), generationNanos.sum(), taken.sum(), misses.sum(), demandRate);
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		workers.shutdownNow();
+	}
+
+	/**
+	 * Snapshot of the queue depth and the generation and consumption counters of a pool.
+	 */
+	public static class Stats {
+
+		private final int depth;
+		private final int targetDepth;
+		private final int capacity;
+		private final long generated;
+		private final long generationNanos;
+		private final long taken;
+		private final long misses;
+		private final double demandRate;
+
+		Stats(int depth, int targetDepth, int capacity, long generated, long generationNanos, long taken, long misses, double demandRate) {
+			this.depth = depth;
+			this.targetDepth = targetDepth;
+			this.capacity = capacity;
+			this.generated = generated;
+			this.generationNanos = generationNanos;
+			this.taken = taken;
+			this.misses = misses;
+			this.demandRate = demandRate;
+		}
+
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Current target depth, adapted to the demand.
+		 */
+		public int getTargetDepth() {
+			return targetDepth;
+		}
+
+		public int getCapacity() {
+			return capacity;
+		}
+
+		/**
+		 * Number of key pairs generated by the background workers.
+		 */
+		public long getGenerated() {
+			return generated;
+		}
+
+		/**
+		 * Key pairs generated per second and worker thread.
+		 */
+		public double getGenerationRate() {
+			return generationNanos == 0 ? 0.0 : generated * 1e9 / generationNanos;
+		}
+
+		public long getTaken() {
+			return taken;
+		}
+
+		/**
+		 * Number of takes that found the queue empty and generated the key pair in the calling thread.
+		 */
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * Average number of credentials taken per second.
+		 */
+		public double getDemandRate() {
+			return demandRate;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("depth %d/%d (target %d), generated %d (%.1f keys/s per worker), taken %d (%d misses), demand %.1f keys/s",
+					depth, capacity, targetDepth, generated, getGenerationRate(), taken, misses, demandRate);
+		}
+	}
+}
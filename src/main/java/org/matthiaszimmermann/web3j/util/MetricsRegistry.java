@@ -0,0 +1,74 @@
+package org.matthiaszimmermann.web3j.util;
+
+/**
+ * Receives the measurements of a {@link MetricsService}.
+ * Implementations are called on the threads sending the requests and must be thread safe and fast.
+ * {@link RpcMetrics} keeps the metrics in memory and exposes them via JMX, other implementations
+ * may forward the measurements to an external monitoring system.
+ */
+public interface MetricsRegistry {
+
+	/**
+	 * Called before the request of the specified JSON-RPC method is sent.
+	 */
+	void onStart(String method);
+
+	/**
+	 * Called after the response has been received or the request has failed.
+	 * Payload sizes are the UTF-8 byte lengths of the JSON texts or -1 if unknown.
+	 * The error is null for successful calls, the JSON-RPC error code (eg "-32000") for error responses
+	 * and the exception class name for transport failures.
+	 */
+	void onComplete(String method, long latencyNanos, int requestSize, int responseSize, String error);
+
+	/**
+	 * Called for calls slower than the threshold of the {@link MetricsService}, if body sampling is enabled.
+	 */
+	default void onSlowCall(SlowCall call) {
+	}
+
+	/**
+	 * Sampled request and response bodies of a slow call. Bodies are truncated to a maximum length.
+	 */
+	public static class SlowCall {
+
+		private final String method;
+		private final long timestamp;
+		private final long latencyMillis;
+		private final String request;
+		private final String response;
+
+		public SlowCall(String method, long timestamp, long latencyMillis, String request, String response) {
+			this.method = method;
+			this.timestamp = timestamp;
+			this.latencyMillis = latencyMillis;
+			this.request = request;
+			this.response = response;
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public long getLatencyMillis() {
+			return latencyMillis;
+		}
+
+		public String getRequest() {
+			return request;
+		}
+
+		public String getResponse() {
+			return response;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %d ms request: %s response: %s", method, latencyMillis, request, response);
+		}
+	}
+}
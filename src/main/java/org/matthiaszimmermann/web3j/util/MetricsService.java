@@ -0,0 +1,323 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.matthiaszimmermann.web3j.util.MetricsRegistry.SlowCall;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Records latency, payload sizes and errors of every JSON-RPC call into a {@link MetricsRegistry}.
+ * Batches are recorded under the method name {@link #BATCH} and each request of a batch is recorded under its own method
+ * with the latency of the batch, the sizes of its request and response element and its own error code.
+ *
+ * If the wrapped service supports batches, single requests are serialized here and sent as raw payload.
+ * This is the same work the web3j services do internally, and it makes the exact payload sizes and bodies
+ * available without serializing twice. Otherwise requests are forwarded as is and payload sizes are unknown.
+ *
+ * Bodies of calls slower than the slow call threshold are passed to {@link MetricsRegistry#onSlowCall(SlowCall)}.
+ * Sampling is off if the threshold is 0.
+ */
+public class MetricsService extends ForwardingService {
+
+	public static final String BATCH = "batch";
+
+	// error of a batched request without a response element
+	public static final String NO_RESPONSE = "NoResponse";
+
+	private final MetricsRegistry registry;
+	private volatile long slowCallThresholdNanos;
+
+	/**
+	 * Returns the metrics service of a client built by {@link Web3jUtils} or null if the client is not instrumented.
+	 * Other forwarding services (eg a {@link CallCacheService}) on top of the metrics service are skipped.
+	 */
+	public static MetricsService forClient(Web3j web3j) {
+		Web3jService service = Web3jUtils.getService(web3j);
+
+		while(service instanceof ForwardingService) {
+			if(service instanceof MetricsService) {
+				return (MetricsService) service;
+			}
+
+			service = ((ForwardingService) service).getDelegate();
+		}
+
+		return null;
+	}
+
+	public MetricsService(Web3jService delegate, MetricsRegistry registry) {
+		super(delegate);
+
+		this.registry = registry;
+		setSlowCallThreshold(Web3jConstants.RPC_SLOW_CALL_THRESHOLD);
+	}
+
+	public MetricsRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * Sets the latency (ms) above which request and response bodies are sampled, 0 to turn sampling off.
+	 */
+	public void setSlowCallThreshold(long millis) {
+		slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	public long getSlowCallThreshold() {
+		return TimeUnit.NANOSECONDS.toMillis(slowCallThresholdNanos);
+	}
+
+	@Override
+	public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+		String method = request.getMethod();
+		String payload = null;
+		String body = null;
+		T response = null;
+		String error = null;
+
+		registry.onStart(method);
+		long start = System.nanoTime();
+
+		try {
+			if(isBatchSupported()) {
+				payload = objectMapper.writeValueAsString(request);
+				body = ((BatchWeb3jService) delegate).sendBatch(payload);
+				response = objectMapper.readValue(body, responseType);
+			}
+			else {
+				response = delegate.send(request, responseType);
+			}
+
+			if(response.hasError()) {
+				error = Integer.toString(response.getError().getCode());
+			}
+
+			return response;
+		}
+		catch (IOException | RuntimeException e) {
+			error = e.getClass().getSimpleName();
+			throw e;
+		}
+		finally {
+			long latency = System.nanoTime() - start;
+			registry.onComplete(method, latency, size(payload), size(body), error);
+
+			if(isSlow(latency)) {
+				registry.onSlowCall(new SlowCall(method, System.currentTimeMillis(), TimeUnit.NANOSECONDS.toMillis(latency),
+						truncate(payload != null ? payload : toJson(request)),
+						truncate(body != null ? body : toJson(response))));
+			}
+		}
+	}
+
+	@Override
+	public String sendBatch(String payload) throws IOException {
+		List<Element> requests = elements(payload);
+		String body = null;
+		String error = null;
+
+		registry.onStart(BATCH);
+		requests.forEach(request -> registry.onStart(request.method));
+		long start = System.nanoTime();
+
+		try {
+			body = super.sendBatch(payload);
+			return body;
+		}
+		catch (IOException | RuntimeException e) {
+			error = e.getClass().getSimpleName();
+			throw e;
+		}
+		finally {
+			long latency = System.nanoTime() - start;
+			registry.onComplete(BATCH, latency, size(payload), size(body), error);
+			completeElements(requests, body, latency, error);
+
+			if(isSlow(latency)) {
+				registry.onSlowCall(new SlowCall(BATCH, System.currentTimeMillis(), TimeUnit.NANOSECONDS.toMillis(latency),
+						truncate(payload), truncate(body)));
+			}
+		}
+	}
+
+	/**
+	 * Records each request of a batch under its method. The error of a request is the error of the batch,
+	 * the error code of its response element or {@link #NO_RESPONSE} if the response has no element with its id.
+	 */
+	private void completeElements(List<Element> requests, String body, long latencyNanos, String batchError) {
+		Map<String, Element> responses = new HashMap<>();
+
+		for(Element response: batchError == null ? elements(body) : Collections.<Element>emptyList()) {
+			responses.put(response.id, response);
+		}
+
+		for(Element request: requests) {
+			Element response = responses.get(request.id);
+			String error = batchError;
+
+			if(error == null) {
+				error = response == null ? NO_RESPONSE : response.error;
+			}
+
+			registry.onComplete(request.method, latencyNanos, request.size, response != null ? response.size : -1, error);
+		}
+	}
+
+	/**
+	 * Returns the id, method, error code and size of the elements of a JSON array text, an empty list for null or other texts.
+	 * The text is only tokenized, values other than these fields are skipped without being decoded.
+	 */
+	private List<Element> elements(String json) {
+		List<Element> elements = new ArrayList<>();
+
+		if(json == null) {
+			return elements;
+		}
+
+		try(JsonParser parser = objectMapper.getFactory().createParser(json)) {
+			if(parser.nextToken() != JsonToken.START_ARRAY) {
+				return elements;
+			}
+
+			while(parser.nextToken() == JsonToken.START_OBJECT) {
+				int start = (int) parser.getTokenLocation().getCharOffset();
+				Element element = new Element();
+
+				while(parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.getCurrentName();
+					parser.nextToken();
+
+					if(field.equals("id")) {
+						element.id = scalar(parser);
+					}
+					else if(field.equals("method")) {
+						element.method = scalar(parser);
+					}
+					else if(field.equals("error")) {
+						element.error = errorCode(parser);
+					}
+
+					parser.skipChildren();
+				}
+
+				int end = (int) parser.getTokenLocation().getCharOffset() + 1;
+				element.size = utf8Length(json, start, end);
+				elements.add(element);
+			}
+		}
+		catch (IOException e) {
+			// not a batch, only the batch itself is recorded
+			elements.clear();
+		}
+
+		return elements;
+	}
+
+	private static String scalar(JsonParser parser) throws IOException {
+		return parser.getCurrentToken().isScalarValue() ? parser.getText() : null;
+	}
+
+	/**
+	 * Returns the code of the error at the current token (empty if it has none) and consumes the error.
+	 */
+	private static String errorCode(JsonParser parser) throws IOException {
+		String code = "";
+
+		if(parser.getCurrentToken() != JsonToken.START_OBJECT) {
+			return code;
+		}
+
+		while(parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+
+			if(field.equals("code") && scalar(parser) != null) {
+				code = scalar(parser);
+			}
+
+			parser.skipChildren();
+		}
+
+		return code;
+	}
+
+	private boolean isSlow(long latencyNanos) {
+		long threshold = slowCallThresholdNanos;
+		return threshold > 0 && latencyNanos >= threshold;
+	}
+
+	private static int size(String json) {
+		return json != null ? utf8Length(json, 0, json.length()) : -1;
+	}
+
+	/**
+	 * Returns the number of UTF-8 bytes of the chars from start (inclusive) to end (exclusive), without encoding them.
+	 */
+	static int utf8Length(String text, int start, int end) {
+		int bytes = 0;
+
+		for(int i = start; i < end; i++) {
+			char c = text.charAt(i);
+
+			if(c < 0x80) {
+				bytes++;
+			}
+			else if(c < 0x800) {
+				bytes += 2;
+			}
+			else if(Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+				bytes += 4;
+				i++;
+			}
+			else {
+				bytes += 3;
+			}
+		}
+
+		return bytes;
+	}
+
+	private String toJson(Object value) {
+		if(value == null) {
+			return null;
+		}
+
+		try {
+			return objectMapper.writeValueAsString(value);
+		}
+		catch (IOException e) {
+			return "<" + e.getMessage() + ">";
+		}
+	}
+
+	private static String truncate(String body) {
+		if(body == null || body.length() <= Web3jConstants.RPC_SLOW_CALL_BODY_LENGTH) {
+			return body;
+		}
+
+		return body.substring(0, Web3jConstants.RPC_SLOW_CALL_BODY_LENGTH) + "...";
+	}
+
+	/**
+	 * Id, method (requests), error code (responses with an error) and size in bytes of a batch element.
+	 */
+	private static class Element {
+
+		private String id;
+		private String method;
+		private String error;
+		private int size;
+	}
+}
@@ -0,0 +1,254 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.math.BigInteger;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response.Error;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+
+/**
+ * Hands out transaction nonces for sending addresses without asking the client before every transaction.
+ * The counter of an address is seeded once from its pending transaction count.
+ * Afterwards nonces are allocated locally, so a single address may have many transactions in flight.
+ * Nonces of failed sends are reclaimed and handed out again before any new nonce.
+ * There is at most one manager per {@link Web3j} client, see {@link #forClient(Web3j)}.
+ */
+public class NonceManager {
+
+	// max number of re-sends after the client reports the nonce as already used
+	static final int MAX_RETRIES = 3;
+
+	private static final Map<Web3j, NonceManager> MANAGERS = new ConcurrentHashMap<>();
+
+	private final Web3j web3j;
+	private final Map<String, AccountNonces> accounts = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the nonce manager for the specified client. The manager is created on first use.
+	 */
+	public static NonceManager forClient(Web3j web3j) {
+		return MANAGERS.computeIfAbsent(web3j, NonceManager::new);
+	}
+
+	private NonceManager(Web3j web3j) {
+		this.web3j = web3j;
+	}
+
+	/**
+	 * Returns the next nonce for the specified address.
+	 * The first call for an address fetches its pending transaction count from the client.
+	 */
+	public BigInteger next(String address) throws Exception {
+		return BigInteger.valueOf(getAccount(address).take());
+	}
+
+	/**
+	 * Returns an unused nonce so that it is handed out again by the next call to {@link #next(String)}.
+	 * Use this for transactions that never reached the client's transaction pool.
+	 */
+	public void release(String address, BigInteger nonce) {
+		AccountNonces account = accounts.get(key(address));
+
+		if(account != null) {
+			account.release(nonce.longValue());
+		}
+	}
+
+	/**
+	 * Moves the counter of the specified address forward to the client's pending transaction count.
+	 * Reclaimed nonces below the pending count are dropped as they have been used in the meantime.
+	 * Nonces of sends with an unknown outcome are dropped if they are below the pending count
+	 * (the client has the transaction) and reclaimed otherwise.
+	 */
+	public void reconcile(String address) throws Exception {
+		getAccount(address).advanceTo(getPendingCount(address));
+	}
+
+	/**
+	 * Updates the nonce state of the address according to the response of a send with the specified nonce.
+	 * Returns true if the transaction was accepted by the client.
+	 */
+	public boolean handleResponse(String address, BigInteger nonce, EthSendTransaction response) throws Exception {
+		if(!response.hasError()) {
+			return true;
+		}
+
+		if(isNonceUsed(response.getError())) {
+			reconcile(address);
+		}
+		else {
+			release(address, nonce);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Sends the transaction created by the provided function for the next nonce of the specified address.
+	 * If the client reports the nonce as already used the counter is reconciled and the transaction
+	 * is re-created and re-sent with a fresh nonce (at most {@link #MAX_RETRIES} times).
+	 *
+	 * If the send fails before the request reached the client (no connection) the nonce is released.
+	 * Other failures (timeouts, IO errors after the request was written) leave it open whether the client
+	 * accepted the transaction, the nonce is then resolved against the pending transaction count, see {@link #reconcile(String)}.
+	 */
+	public EthSendTransaction send(String address, Function<BigInteger, Request<?, EthSendTransaction>> transactionForNonce)
+			throws Exception
+	{
+		for(int attempt = 0; ; attempt++) {
+			BigInteger nonce = next(address);
+			Request<?, EthSendTransaction> request = null;
+			EthSendTransaction response = null;
+
+			try {
+				request = transactionForNonce.apply(nonce);
+			}
+			catch (RuntimeException e) {
+				release(address, nonce);
+				throw e;
+			}
+
+			try {
+				response = request
+						.sendAsync()
+						.get();
+			}
+			catch (Exception e) {
+				if(isNotSent(e)) {
+					release(address, nonce);
+				}
+				else {
+					resolve(address, nonce, e);
+				}
+
+				throw e;
+			}
+
+			if(handleResponse(address, nonce, response) || !isNonceUsed(response.getError()) || attempt >= MAX_RETRIES) {
+				return response;
+			}
+		}
+	}
+
+	/**
+	 * Marks the nonce of a send with an unknown outcome and reconciles the address right away.
+	 * If the pending count cannot be fetched the nonce stays open until the next successful {@link #reconcile(String)}.
+	 */
+	private void resolve(String address, BigInteger nonce, Exception sendFailure) {
+		AccountNonces account = accounts.get(key(address));
+
+		if(account == null) {
+			return;
+		}
+
+		account.markUncertain(nonce.longValue());
+
+		try {
+			reconcile(address);
+		}
+		catch (Exception e) {
+			sendFailure.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Returns true if the failure (or one of its causes) shows that the request never reached the client.
+	 */
+	static boolean isNotSent(Throwable failure) {
+		for(Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if(cause instanceof ConnectException || cause instanceof UnknownHostException) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns true if the provided error indicates that the nonce of the transaction has been used already.
+	 */
+	static boolean isNonceUsed(Error error) {
+		String message = error.getMessage() == null ? "" : error.getMessage().toLowerCase();
+
+		return message.contains("nonce too low")
+				|| message.contains("known transaction")
+				|| message.contains("already known")
+				|| message.contains("replacement transaction underpriced")
+				|| message.contains("correct nonce");
+	}
+
+	private AccountNonces getAccount(String address) throws Exception {
+		String key = key(address);
+		AccountNonces account = accounts.get(key);
+
+		if(account != null) {
+			return account;
+		}
+
+		AccountNonces seeded = new AccountNonces(getPendingCount(address));
+		account = accounts.putIfAbsent(key, seeded);
+
+		return account != null ? account : seeded;
+	}
+
+	private long getPendingCount(String address) throws Exception {
+		return web3j
+				.ethGetTransactionCount(address, DefaultBlockParameterName.PENDING)
+				.sendAsync()
+				.get()
+				.getTransactionCount()
+				.longValue();
+	}
+
+	private static String key(String address) {
+		return address.toLowerCase();
+	}
+
+	/**
+	 * Lock-free nonce state of a single address.
+	 */
+	private static class AccountNonces {
+
+		private final AtomicLong next;
+		private final ConcurrentSkipListSet<Long> released = new ConcurrentSkipListSet<>();
+		private final ConcurrentSkipListSet<Long> uncertain = new ConcurrentSkipListSet<>();
+
+		AccountNonces(long pendingCount) {
+			next = new AtomicLong(pendingCount);
+		}
+
+		long take() {
+			Long gap = released.pollFirst();
+			return gap != null ? gap : next.getAndIncrement();
+		}
+
+		void release(long nonce) {
+			if(nonce < next.get()) {
+				released.add(nonce);
+			}
+		}
+
+		void markUncertain(long nonce) {
+			uncertain.add(nonce);
+		}
+
+		void advanceTo(long pendingCount) {
+			next.accumulateAndGet(pendingCount, Math::max);
+			released.headSet(pendingCount).clear();
+			uncertain.headSet(pendingCount).clear();
+
+			for(Long nonce = uncertain.pollFirst(); nonce != null; nonce = uncertain.pollFirst()) {
+				release(nonce);
+			}
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionTimeoutException;
+
+/**
+ * Tracks the receipts of all pending transactions of a client.
+ * Instead of polling each transaction on its own thread the watcher fetches the receipts of
+ * all pending transactions together whenever the {@link BlockHeadTracker} reports a new block.
+ * There is at most one watcher per {@link Web3j} client, see {@link #forClient(Web3j)}.
+ */
+public class ReceiptWatcher {
+
+	private static final Map<Web3j, ReceiptWatcher> WATCHERS = new ConcurrentHashMap<>();
+
+	private final Web3j web3j;
+	private final BlockHeadTracker tracker;
+	private final long timeout;
+	private final Map<String, CompletableFuture<TransactionReceipt>> pending = new ConcurrentHashMap<>();
+	private final Set<String> unchecked = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean checkScheduled = new AtomicBoolean(false);
+
+	/**
+	 * Returns the receipt watcher for the specified client. The watcher is created on first use.
+	 */
+	public static ReceiptWatcher forClient(Web3j web3j) {
+		return WATCHERS.computeIfAbsent(web3j, client -> new ReceiptWatcher(client, Web3jConstants.RECEIPT_TIMEOUT));
+	}
+
+	ReceiptWatcher(Web3j web3j, long timeout) {
+		this.web3j = web3j;
+		this.timeout = timeout;
+		this.tracker = BlockHeadTracker.forClient(web3j);
+		this.tracker.addListener(this::onNewBlock);
+		this.tracker.onStop(this::stop);
+	}
+
+	/**
+	 * Returns a future that completes with the receipt of the specified transaction.
+	 * The future completes exceptionally with a {@link TransactionTimeoutException} if no receipt
+	 * is available within the timeout of the watcher ({@link Web3jConstants#RECEIPT_TIMEOUT} milliseconds for {@link #forClient(Web3j)}).
+	 * Watching the same hash twice returns the same future.
+	 */
+	public CompletableFuture<TransactionReceipt> watch(String transactionHash) {
+		CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+		CompletableFuture<TransactionReceipt> existing = pending.putIfAbsent(transactionHash, future);
+
+		if(existing != null) {
+			return existing;
+		}
+
+		// the transaction might already be mined, check it once without waiting for the next block
+		unchecked.add(transactionHash);
+		scheduleCheck();
+
+		tracker.schedule(() -> expire(transactionHash, future), timeout, TimeUnit.MILLISECONDS);
+
+		return future;
+	}
+
+	/**
+	 * Returns the number of transactions currently waiting for their receipt.
+	 */
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Coalesces the checks for newly watched transactions into a single fetch on the listener pool of the tracker.
+	 */
+	private void scheduleCheck() {
+		if(checkScheduled.compareAndSet(false, true)) {
+			tracker.execute(this::checkUnchecked);
+		}
+	}
+
+	private void checkUnchecked() {
+		checkScheduled.set(false);
+
+		List<String> hashes = new ArrayList<>(unchecked);
+		unchecked.removeAll(hashes);
+
+		fetch(hashes);
+	}
+
+	private void onNewBlock(BigInteger blockNumber) {
+		List<String> hashes = new ArrayList<>(pending.keySet());
+		unchecked.removeAll(hashes);
+
+		fetch(hashes);
+	}
+
+	private void fetch(Collection<String> hashes) {
+		if(hashes.isEmpty()) {
+			return;
+		}
+
+		Map<String, Optional<TransactionReceipt>> receipts = fetchReceipts(hashes);
+
+		receipts.forEach((hash, receipt) -> {
+			if(receipt.isPresent()) {
+				CompletableFuture<TransactionReceipt> future = pending.remove(hash);
+
+				if(future != null) {
+					future.complete(receipt.get());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Fetches the receipts for all specified hashes in JSON-RPC batches.
+	 * If the fetch fails the hashes are left pending and retried on the next block.
+	 */
+	private Map<String, Optional<TransactionReceipt>> fetchReceipts(Collection<String> hashes) {
+		List<String> hashList = new ArrayList<>(hashes);
+		Map<String, Optional<TransactionReceipt>> receipts = new HashMap<>();
+
+		try {
+			List<Optional<TransactionReceipt>> responses = Web3jUtils.getReceipts(web3j, hashList);
+
+			for(int i = 0; i < hashList.size(); i++) {
+				receipts.put(hashList.get(i), responses.get(i));
+			}
+		}
+		catch (Exception e) {
+			System.out.println("Failed to get receipts for " + hashList.size() + " txs: " + e.getMessage());
+		}
+
+		return receipts;
+	}
+
+	/**
+	 * Releases the watcher of the stopped tracker, transactions still waiting for their receipt fail.
+	 */
+	private void stop() {
+		WATCHERS.remove(web3j, this);
+
+		for(String transactionHash: new ArrayList<>(pending.keySet())) {
+			CompletableFuture<TransactionReceipt> future = pending.remove(transactionHash);
+
+			if(future != null) {
+				future.completeExceptionally(new IllegalStateException("Block head tracker stopped while waiting for " + transactionHash));
+			}
+		}
+	}
+
+	private void expire(String transactionHash, CompletableFuture<TransactionReceipt> future) {
+		if(pending.remove(transactionHash, future)) {
+			unchecked.remove(transactionHash);
+			future.completeExceptionally(new TransactionTimeoutException("No Tx receipt received for " + transactionHash));
+		}
+	}
+}
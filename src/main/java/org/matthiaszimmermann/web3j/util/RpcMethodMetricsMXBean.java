@@ -0,0 +1,38 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics of a single JSON-RPC method, see {@link RpcMetrics}.
+ */
+public interface RpcMethodMetricsMXBean {
+
+	String getMethod();
+
+	long getCount();
+
+	long getErrorCount();
+
+	long getInFlight();
+
+	double getMeanMillis();
+
+	double getP50Millis();
+
+	double getP90Millis();
+
+	double getP99Millis();
+
+	double getMaxMillis();
+
+	long getRequestBytes();
+
+	long getResponseBytes();
+
+	/**
+	 * Number of failed calls per JSON-RPC error code or exception class name.
+	 */
+	Map<String, Long> getErrors();
+
+	void reset();
+}
@@ -0,0 +1,255 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * In-memory {@link MetricsRegistry} with call counts, in-flight gauges, latency histograms, payload sizes
+ * and error counts per JSON-RPC method. Each method is registered as a {@link RpcMethodMetricsMXBean} under
+ * org.matthiaszimmermann.web3j:type=RpcMetrics,name=&lt;name&gt;,method=&lt;method&gt; once it is first called.
+ * Recording a call is lock free: a map lookup, a few counter increments and a histogram update.
+ *
+ * The clients built by {@link Web3jUtils} record into {@link #getDefault()}.
+ */
+public class RpcMetrics implements MetricsRegistry {
+
+	public static final String JMX_DOMAIN = "org.matthiaszimmermann.web3j";
+
+	// latencies are recorded in microseconds with 3 significant digits
+	private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(10);
+
+	private static final RpcMetrics DEFAULT = new RpcMetrics("default", true);
+
+	private final String name;
+	private final boolean jmx;
+	private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+	private final Deque<SlowCall> slowCalls = new ArrayDeque<>();
+
+	/**
+	 * Returns the metrics shared by all clients built by {@link Web3jUtils}.
+	 */
+	public static RpcMetrics getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Creates metrics with the specified name. If jmx is true the metrics of each method are registered
+	 * with the platform MBean server.
+	 */
+	public RpcMetrics(String name, boolean jmx) {
+		this.name = name;
+		this.jmx = jmx;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public void onStart(String method) {
+		method(method).inFlight.increment();
+	}
+
+	@Override
+	public void onComplete(String method, long latencyNanos, int requestSize, int responseSize, String error) {
+		MethodMetrics metrics = method(method);
+
+		metrics.inFlight.decrement();
+		metrics.count.increment();
+		metrics.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY));
+
+		if(requestSize > 0) { metrics.requestBytes.add(requestSize); }
+		if(responseSize > 0) { metrics.responseBytes.add(responseSize); }
+
+		if(error != null) {
+			metrics.errors.computeIfAbsent(error, e -> new LongAdder()).increment();
+		}
+	}
+
+	@Override
+	public void onSlowCall(SlowCall call) {
+		synchronized (slowCalls) {
+			if(slowCalls.size() == Web3jConstants.RPC_SLOW_CALL_SAMPLES) {
+				slowCalls.removeFirst();
+			}
+
+			slowCalls.addLast(call);
+		}
+	}
+
+	/**
+	 * Returns the metrics of the specified method. The metrics are created on first access.
+	 */
+	public RpcMethodMetricsMXBean getMethod(String method) {
+		return method(method);
+	}
+
+	/**
+	 * Returns the metrics of all methods called so far, ordered by method name.
+	 */
+	public List<RpcMethodMetricsMXBean> getMethods() {
+		return new ArrayList<>(new TreeMap<>(methods).values());
+	}
+
+	/**
+	 * Returns the most recent slow calls, oldest first.
+	 */
+	public List<SlowCall> getSlowCalls() {
+		synchronized (slowCalls) {
+			return new ArrayList<>(slowCalls);
+		}
+	}
+
+	/**
+	 * Resets the metrics of all methods and drops the slow call samples. In-flight gauges are kept.
+	 */
+	public void reset() {
+		methods.values().forEach(MethodMetrics::reset);
+
+		synchronized (slowCalls) {
+			slowCalls.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(String.format("%-28s %8s %6s %8s %8s %8s %8s %10s %10s",
+				"method", "count", "errors", "mean ms", "p50 ms", "p99 ms", "max ms", "req bytes", "resp bytes"));
+
+		for(RpcMethodMetricsMXBean metrics: getMethods()) {
+			sb.append(String.format("\n%-28s %8d %6d %8.2f %8.2f %8.2f %8.2f %10d %10d",
+					metrics.getMethod(), metrics.getCount(), metrics.getErrorCount(),
+					metrics.getMeanMillis(), metrics.getP50Millis(), metrics.getP99Millis(), metrics.getMaxMillis(),
+					metrics.getRequestBytes(), metrics.getResponseBytes()));
+		}
+
+		return sb.toString();
+	}
+
+	private MethodMetrics method(String method) {
+		MethodMetrics metrics = methods.get(method);
+		return metrics != null ? metrics : methods.computeIfAbsent(method, this::create);
+	}
+
+	private MethodMetrics create(String method) {
+		MethodMetrics metrics = new MethodMetrics(method);
+
+		if(jmx) {
+			try {
+				ObjectName objectName = new ObjectName(String.format("%s:type=RpcMetrics,name=%s,method=%s",
+						JMX_DOMAIN, ObjectName.quote(name), ObjectName.quote(method)));
+				ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+			}
+			catch (InstanceAlreadyExistsException e) {
+				// another registry with the same name is already exposed, the metrics are still recorded
+			}
+			catch (JMException e) {
+				throw new IllegalStateException("Failed to register metrics of method " + method, e);
+			}
+		}
+
+		return metrics;
+	}
+
+	private static class MethodMetrics implements RpcMethodMetricsMXBean {
+
+		private final String method;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder inFlight = new LongAdder();
+		private final LongAdder requestBytes = new LongAdder();
+		private final LongAdder responseBytes = new LongAdder();
+		private final Histogram latency = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+		private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+		MethodMetrics(String method) {
+			this.method = method;
+		}
+
+		@Override
+		public String getMethod() {
+			return method;
+		}
+
+		@Override
+		public long getCount() {
+			return count.sum();
+		}
+
+		@Override
+		public long getErrorCount() {
+			return errors.values().stream().mapToLong(LongAdder::sum).sum();
+		}
+
+		@Override
+		public long getInFlight() {
+			return inFlight.sum();
+		}
+
+		@Override
+		public double getMeanMillis() {
+			return latency.getMean() / 1000;
+		}
+
+		@Override
+		public double getP50Millis() {
+			return latency.getValueAtPercentile(50.0) / 1000.0;
+		}
+
+		@Override
+		public double getP90Millis() {
+			return latency.getValueAtPercentile(90.0) / 1000.0;
+		}
+
+		@Override
+		public double getP99Millis() {
+			return latency.getValueAtPercentile(99.0) / 1000.0;
+		}
+
+		@Override
+		public double getMaxMillis() {
+			return latency.getMaxValue() / 1000.0;
+		}
+
+		@Override
+		public long getRequestBytes() {
+			return requestBytes.sum();
+		}
+
+		@Override
+		public long getResponseBytes() {
+			return responseBytes.sum();
+		}
+
+		@Override
+		public Map<String, Long> getErrors() {
+			Map<String, Long> result = new TreeMap<>();
+			errors.forEach((error, counter) -> result.put(error, counter.sum()));
+
+			return result;
+		}
+
+		@Override
+		public void reset() {
+			count.reset();
+			requestBytes.reset();
+			responseBytes.reset();
+			latency.reset();
+			errors.clear();
+		}
+	}
+}
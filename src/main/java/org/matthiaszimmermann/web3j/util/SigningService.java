@@ -0,0 +1,238 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.request.RawTransaction;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.utils.Numeric;
+
+/**
+ * Signs raw transactions offline on a pool of worker threads.
+ * Batches are split into chunks of {@link #CHUNK_SIZE} transactions that are signed in parallel.
+ * The signed transactions are returned in the order of the batch, so the transactions of each sender
+ * keep their (nonce) order.
+ * Signed batches can be saved to a file and replayed later with {@link #replay(Web3j, List)}.
+ */
+public class SigningService implements AutoCloseable {
+
+	// number of transactions signed by a single task
+	static final int CHUNK_SIZE = 64;
+
+	private final ExecutorService pool;
+
+	/**
+	 * Creates a signing service with one worker thread per available processor.
+	 */
+	public SigningService() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public SigningService(int threads) {
+		pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "signing-service");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Signs all transactions with the provided credentials.
+	 */
+	public List<SignedTransaction> sign(List<RawTransaction> transactions, Credentials credentials) throws Exception {
+		List<Entry> entries = new ArrayList<>(transactions.size());
+
+		for(RawTransaction transaction: transactions) {
+			entries.add(new Entry(transaction, credentials));
+		}
+
+		return sign(entries);
+	}
+
+	/**
+	 * Signs all transactions of the batch, each one with its own credentials.
+	 * The result list has the same order as the batch.
+	 */
+	public List<SignedTransaction> sign(List<Entry> batch) throws Exception {
+		SignedTransaction [] signed = new SignedTransaction[batch.size()];
+		List<Future<?>> chunks = new ArrayList<>();
+
+		for(int first = 0; first < batch.size(); first += CHUNK_SIZE) {
+			int start = first;
+			int end = Math.min(first + CHUNK_SIZE, batch.size());
+
+			chunks.add(pool.submit(() -> {
+				for(int i = start; i < end; i++) {
+					signed[i] = sign(batch.get(i));
+				}
+			}));
+		}
+
+		for(Future<?> chunk: chunks) {
+			chunk.get();
+		}
+
+		return Arrays.asList(signed);
+	}
+
+	private static SignedTransaction sign(Entry entry) {
+		byte [] signedBytes = TransactionEncoder.signMessage(entry.transaction, entry.credentials);
+		return new SignedTransaction(entry.credentials.getAddress(), entry.transaction.getNonce(), Numeric.toHexString(signedBytes));
+	}
+
+	/**
+	 * Writes the signed transactions to the specified file, one transaction per line.
+	 */
+	public static void save(List<SignedTransaction> transactions, Path file) throws IOException {
+		try(BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+			for(SignedTransaction transaction: transactions) {
+				writer.write(transaction.toLine());
+				writer.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Reads signed transactions written by {@link #save(List, Path)}.
+	 */
+	public static List<SignedTransaction> load(Path file) throws IOException {
+		List<SignedTransaction> transactions = new ArrayList<>();
+
+		try(BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+			String line;
+
+			while((line = reader.readLine()) != null) {
+				if(!line.trim().isEmpty()) {
+					transactions.add(SignedTransaction.fromLine(line));
+				}
+			}
+		}
+
+		return transactions;
+	}
+
+	/**
+	 * Sends the signed transactions to the client with {@link Web3j#ethSendRawTransaction(String)}.
+	 * The transactions of each sender are sent one after the other in their order in the list
+	 * while the transactions of different senders are sent concurrently.
+	 * The responses are returned in the order of the provided list.
+	 */
+	public static List<EthSendTransaction> replay(Web3j web3j, List<SignedTransaction> transactions) throws Exception {
+		EthSendTransaction [] responses = new EthSendTransaction[transactions.size()];
+		Map<String, CompletableFuture<Void>> senders = new LinkedHashMap<>();
+
+		for(int i = 0; i < transactions.size(); i++) {
+			int index = i;
+			SignedTransaction transaction = transactions.get(i);
+			CompletableFuture<Void> previous = senders.getOrDefault(transaction.getFrom(), CompletableFuture.completedFuture(null));
+
+			senders.put(transaction.getFrom(), previous.thenCompose(ignored -> web3j
+					.ethSendRawTransaction(transaction.getHex())
+					.sendAsync()
+					.thenAccept(response -> responses[index] = response)));
+		}
+
+		CompletableFuture
+				.allOf(senders.values().toArray(new CompletableFuture<?>[senders.size()]))
+				.get();
+
+		return Arrays.asList(responses);
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	/**
+	 * A raw transaction together with the credentials of its sender.
+	 */
+	public static class Entry {
+
+		private final RawTransaction transaction;
+		private final Credentials credentials;
+
+		public Entry(RawTransaction transaction, Credentials credentials) {
+			this.transaction = transaction;
+			this.credentials = credentials;
+		}
+
+		public RawTransaction getTransaction() {
+			return transaction;
+		}
+
+		public Credentials getCredentials() {
+			return credentials;
+		}
+	}
+
+	/**
+	 * A signed transaction ready to be sent with {@link Web3j#ethSendRawTransaction(String)}.
+	 */
+	public static class SignedTransaction {
+
+		private final String from;
+		private final BigInteger nonce;
+		private final String hex;
+
+		SignedTransaction(String from, BigInteger nonce, String hex) {
+			this.from = from;
+			this.nonce = nonce;
+			this.hex = hex;
+		}
+
+		public String getFrom() {
+			return from;
+		}
+
+		public BigInteger getNonce() {
+			return nonce;
+		}
+
+		/**
+		 * Hex encoded signed transaction.
+		 */
+		public String getHex() {
+			return hex;
+		}
+
+		/**
+		 * Transaction hash, known before the transaction is sent to the client.
+		 */
+		public String getHash() {
+			return Numeric.toHexString(Hash.sha3(Numeric.hexStringToByteArray(hex)));
+		}
+
+		String toLine() {
+			return String.format("%s %s %s", from, nonce, hex);
+		}
+
+		static SignedTransaction fromLine(String line) throws IOException {
+			String [] fields = line.trim().split("\\s+");
+
+			if(fields.length != 3) {
+				throw new IOException("Invalid signed transaction: " + line);
+			}
+
+			return new SignedTransaction(fields[0], new BigInteger(fields[1]), fields[2]);
+		}
+	}
+}
@@ -0,0 +1,347 @@
+package org.matthiaszimmermann.web3j.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads Solidity source files into a single line as expected by eth_compileSolidity.
+ * Each file is normalized in a single pass over its bytes: line and block comments are removed,
+ * whitespace outside of string literals is collapsed into single spaces and string literals are kept unchanged.
+ * Plain imports (import "file.sol";) are replaced by the normalized content of the imported file, each file
+ * is included once. Other import forms (aliases, symbol lists) are kept as they are.
+ * Parsed files are cached by the SHA-256 hash of their content: every file is read again, but only
+ * changed files are parsed again. Size and modification time are not used, a same size edit within
+ * the timestamp resolution of the file system would go unnoticed.
+ */
+public class SolidityNormalizer {
+
+	// files from this size (bytes) on are memory mapped instead of read into a heap buffer
+	static final long MAP_THRESHOLD = 64 * 1024;
+
+	private static final byte [] IMPORT = "import".getBytes(StandardCharsets.US_ASCII);
+
+	private static final SolidityNormalizer DEFAULT = new SolidityNormalizer();
+
+	private final Map<Path, ParsedFile> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the normalizer shared by {@link Web3jUtils#readSolidityFile(String)}.
+	 */
+	public static SolidityNormalizer getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns the normalized source of the file including all files it imports.
+	 */
+	public String normalize(Path file) throws IOException {
+		StringBuilder source = new StringBuilder();
+		append(file.toRealPath(), source, new HashSet<>());
+
+		return source.toString();
+	}
+
+	private void append(Path file, StringBuilder source, Set<Path> included) throws IOException {
+		if(!included.add(file)) {
+			return;
+		}
+
+		for(Object part: load(file).parts) {
+			if(part instanceof Path) {
+				Path imported;
+
+				try {
+					imported = ((Path) part).toRealPath();
+				}
+				catch (NoSuchFileException e) {
+					throw new NoSuchFileException(part.toString(), null, "imported by " + file);
+				}
+
+				append(imported, source, included);
+			}
+			else {
+				if(source.length() > 0) {
+					source.append(' ');
+				}
+
+				source.append((String) part);
+			}
+		}
+	}
+
+	private ParsedFile load(Path file) throws IOException {
+		ByteBuffer content = read(file);
+		byte [] hash = sha256(content);
+		ParsedFile parsed = cache.get(file);
+
+		if(parsed == null || !Arrays.equals(parsed.hash, hash)) {
+			parsed = new ParsedFile(hash, parse(file, content));
+			cache.put(file, parsed);
+		}
+
+		return parsed;
+	}
+
+	private static ByteBuffer read(Path file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+
+			if(size >= MAP_THRESHOLD) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+			while(buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// read until the buffer is full or the end of the file
+			}
+
+			buffer.flip();
+			return buffer;
+		}
+	}
+
+	private static byte [] sha256(ByteBuffer content) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(content.duplicate());
+
+			return digest.digest();
+		}
+		catch (NoSuchAlgorithmException e) {
+			// every java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Splits the file into normalized text (String) and the files of its plain imports (Path).
+	 * Works on UTF-8 bytes: all characters with a meaning for the parser are ASCII and never part of a multi byte character.
+	 */
+	static List<Object> parse(Path file, ByteBuffer in) throws IOException {
+		List<Object> parts = new ArrayList<>();
+		Output out = new Output(in.limit());
+		int length = in.limit();
+		int i = 0;
+		int importEnd;
+
+		while(i < length) {
+			byte b = in.get(i);
+			byte next = i + 1 < length ? in.get(i + 1) : 0;
+
+			if(b == '/' && next == '/') {
+				while(i < length && in.get(i) != '\n') {
+					i++;
+				}
+
+				out.space();
+			}
+			else if(b == '/' && next == '*') {
+				i = indexOfCommentEnd(in, i + 2, file) + 2;
+				out.space();
+			}
+			else if(b == '"' || b == '\'') {
+				i = copyString(in, i, out, file);
+			}
+			else if(isWhitespace(b)) {
+				out.space();
+				i++;
+			}
+			else if(b == 'i' && (i == 0 || !isIdentifier(in.get(i - 1))) && (importEnd = plainImportEnd(in, i)) > 0) {
+				int quote = skipWhitespace(in, i + IMPORT.length);
+				int close = findClosingQuote(in, quote);
+
+				// imported files are resolved relative to the importing file
+				addText(parts, out);
+				parts.add(file.resolveSibling(utf8(in, quote + 1, close)).normalize());
+				i = importEnd;
+			}
+			else {
+				out.write(b);
+				i++;
+			}
+		}
+
+		addText(parts, out);
+
+		return parts;
+	}
+
+	private static void addText(List<Object> parts, Output out) {
+		String text = out.take();
+
+		if(!text.isEmpty()) {
+			parts.add(text);
+		}
+	}
+
+	private static int indexOfCommentEnd(ByteBuffer in, int from, Path file) throws IOException {
+		for(int i = from; i + 1 < in.limit(); i++) {
+			if(in.get(i) == '*' && in.get(i + 1) == '/') {
+				return i;
+			}
+		}
+
+		throw new IOException("Unterminated comment in " + file);
+	}
+
+	/**
+	 * Copies the string literal starting at the provided quote and returns the index after its closing quote.
+	 */
+	private static int copyString(ByteBuffer in, int start, Output out, Path file) throws IOException {
+		byte quote = in.get(start);
+		out.write(quote);
+
+		for(int i = start + 1; i < in.limit(); i++) {
+			byte b = in.get(i);
+			out.write(b);
+
+			if(b == '\\' && i + 1 < in.limit()) {
+				out.write(in.get(++i));
+			}
+			else if(b == quote) {
+				return i + 1;
+			}
+		}
+
+		throw new IOException("Unterminated string literal in " + file);
+	}
+
+	/**
+	 * Returns the index after the ';' if a plain import statement (import "path";) starts at the provided index, -1 otherwise.
+	 */
+	private static int plainImportEnd(ByteBuffer in, int start) {
+		int i = start;
+
+		for(byte b: IMPORT) {
+			if(i >= in.limit() || in.get(i++) != b) {
+				return -1;
+			}
+		}
+
+		i = skipWhitespace(in, i);
+
+		if(i >= in.limit() || (in.get(i) != '"' && in.get(i) != '\'')) {
+			return -1;
+		}
+
+		int close = findClosingQuote(in, i);
+
+		if(close < 0) {
+			return -1;
+		}
+
+		i = skipWhitespace(in, close + 1);
+
+		return i < in.limit() && in.get(i) == ';' ? i + 1 : -1;
+	}
+
+	private static int findClosingQuote(ByteBuffer in, int open) {
+		byte quote = in.get(open);
+
+		for(int i = open + 1; i < in.limit(); i++) {
+			byte b = in.get(i);
+
+			if(b == '\\') {
+				i++;
+			}
+			else if(b == quote) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private static int skipWhitespace(ByteBuffer in, int from) {
+		int i = from;
+
+		while(i < in.limit() && isWhitespace(in.get(i))) {
+			i++;
+		}
+
+		return i;
+	}
+
+	private static String utf8(ByteBuffer in, int from, int to) {
+		byte [] bytes = new byte[to - from];
+
+		for(int i = 0; i < bytes.length; i++) {
+			bytes[i] = in.get(from + i);
+		}
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0b;
+	}
+
+	private static boolean isIdentifier(byte b) {
+		return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_' || b == '$';
+	}
+
+	/**
+	 * Growable byte buffer that writes a single space for any run of whitespace between two tokens.
+	 */
+	private static class Output {
+
+		private byte [] bytes;
+		private int size = 0;
+		private boolean pendingSpace = false;
+
+		Output(int capacity) {
+			bytes = new byte[Math.max(16, capacity)];
+		}
+
+		void space() {
+			pendingSpace = size > 0;
+		}
+
+		void write(byte b) {
+			if(size + 2 > bytes.length) {
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+			}
+
+			if(pendingSpace) {
+				bytes[size++] = ' ';
+				pendingSpace = false;
+			}
+
+			bytes[size++] = b;
+		}
+
+		String take() {
+			String text = new String(bytes, 0, size, StandardCharsets.UTF_8);
+			size = 0;
+			pendingSpace = false;
+
+			return text;
+		}
+	}
+
+	private static class ParsedFile {
+
+		private final byte [] hash;
+		private final List<Object> parts;
+
+		ParsedFile(byte [] hash, List<Object> parts) {
+			this.hash = hash;
+			this.parts = parts;
+		}
+	}
+}
@@ -7,16 +7,88 @@ public class Web3jConstants {
 	public static final String CLIENT_IP = "localhost";
 	public static final String CLIENT_PORT = "8545";
 
+	// ipc url of a local client (eg ipc:///path/geth.ipc), used instead of ip and port if not empty
+	public static final String CLIENT_IPC = "";
+
 	// see https://www.reddit.com/r/ethereum/comments/5g8ia6/attention_miners_we_recommend_raising_gas_limit/
 	public static final BigInteger GAS_PRICE = BigInteger.valueOf(20_000_000_000L);
+
+	// number of recent blocks sampled by the gas price oracle, percentiles of the sampled prices for cheap, standard and fast
+	public static final int GAS_ORACLE_BLOCKS = 20;
+	public static final int GAS_ORACLE_CHEAP_PERCENTILE = 30;
+	public static final int GAS_ORACLE_STANDARD_PERCENTILE = 60;
+	public static final int GAS_ORACLE_FAST_PERCENTILE = 90;
+
+	// number of sampled txs from which on the oracle ignores the client price (eth_gasPrice)
+	public static final int GAS_ORACLE_MIN_SAMPLES = 50;
+
+	// delay (ms) before the oracle retries a failed initial estimate
+	public static final int GAS_ORACLE_RETRY_INTERVAL = 1_000;
 	
 	// http://ethereum.stackexchange.com/questions/1832/cant-send-transaction-exceeds-block-gas-limit-or-intrinsic-gas-too-low
 	public static final BigInteger GAS_LIMIT_ETHER_TX = BigInteger.valueOf(21_000);
 	public static final BigInteger GAS_LIMIT_GREETER_TX = BigInteger.valueOf(500_000L);
 
+	// safety margin (percent) added to gas estimates, max number of code hashes and of estimates held by the GasEstimator
+	public static final int GAS_ESTIMATE_MARGIN = 20;
+	public static final int GAS_ESTIMATE_CACHE_SIZE = 10_000;
+
 	public static final int CONFIRMATION_ATTEMPTS = 40;
 	public static final int SLEEP_DURATION = 1000;
 
+	// block head polling (ms) and max time to wait for a tx receipt (ms)
+	public static final int BLOCK_POLL_INTERVAL = 250;
+	public static final int RECEIPT_TIMEOUT = CONFIRMATION_ATTEMPTS * SLEEP_DURATION;
+
+	// http connection pool size, connect and read timeouts (ms), keep-alive of idle connections (ms)
+	public static final int HTTP_MAX_CONNECTIONS = 64;
+	public static final int HTTP_MAX_CONNECTIONS_PER_ROUTE = 32;
+	public static final int HTTP_CONNECT_TIMEOUT = 5_000;
+	public static final int HTTP_READ_TIMEOUT = 30_000;
+	public static final int HTTP_KEEP_ALIVE = 30_000;
+
+	// max number of balances and nonces held by the account state cache
+	public static final int ACCOUNT_CACHE_SIZE = 10_000;
+
+	// max number of constant contract call results held by the call cache
+	public static final int CALL_CACHE_SIZE = 10_000;
+
+	// record per method rpc metrics for clients built by Web3jUtils, see RpcMetrics
+	public static final boolean RPC_METRICS = true;
+
+	// latency (ms) above which rpc bodies are sampled (0 = off), number of samples kept, max sampled body length
+	public static final int RPC_SLOW_CALL_THRESHOLD = 0;
+	public static final int RPC_SLOW_CALL_SAMPLES = 100;
+	public static final int RPC_SLOW_CALL_BODY_LENGTH = 4_096;
+
+	// max number of pre-generated key pairs and the depth the key pair pool keeps at low demand
+	public static final int KEY_POOL_CAPACITY = 1_024;
+	public static final int KEY_POOL_TARGET_DEPTH = 64;
+
+	// max number of requests per JSON-RPC batch
+	public static final int BATCH_SIZE = 100;
+
+	// max number of bulk transfers waiting for their receipt at the same time
+	public static final int BULK_TRANSFER_WINDOW = 64;
+
+	// segment file size (bytes) of the block indexer, blocks between checkpoints, blocks the indexer stays behind the head
+	public static final int INDEX_SEGMENT_SIZE = 64 * 1024 * 1024;
+	public static final int INDEX_CHECKPOINT_INTERVAL = 1_000;
+	public static final int INDEX_CONFIRMATIONS = 12;
+
+	// backfill scanner worker threads, blocks per chunk (fetched with one batch), max chunks fetched ahead of the sink
+	public static final int BACKFILL_THREADS = 4;
+	public static final int BACKFILL_CHUNK_SIZE = 20;
+	public static final int BACKFILL_WINDOW = 16;
+
+	// retries of a failed chunk fetch, delay before the first retry in ms (doubled per retry), blocks between two checkpoints of a backfill scan
+	public static final int BACKFILL_RETRIES = 3;
+	public static final long BACKFILL_RETRY_DELAY = 250;
+	public static final int BACKFILL_CHECKPOINT_INTERVAL = 1_000;
+
+	// compile cache of CompileDemo, stored next to the resources folder with the contract sources
+	public static final String COMPILE_CACHE_FILE = "compile-cache.properties";
+
 	// file name extensions for smart contracts
 	public static final String EXT_SOLIDITY = "sol";
 	public static final String EXT_BINARY = "bin";
@@ -1,18 +1,27 @@
 package org.matthiaszimmermann.web3j.util;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.DefaultBlockParameter;
 import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
 import org.web3j.protocol.core.methods.request.Transaction;
 import org.web3j.protocol.core.methods.response.EthAccounts;
+import org.web3j.protocol.core.methods.response.EthBlock;
 import org.web3j.protocol.core.methods.response.EthCoinbase;
 import org.web3j.protocol.core.methods.response.EthGetBalance;
 import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
@@ -20,14 +29,64 @@ import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.web3j.protocol.core.methods.response.EthSendTransaction;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.core.methods.response.Web3ClientVersion;
-import org.web3j.protocol.http.HttpService;
+import org.web3j.protocol.exceptions.TransactionTimeoutException;
 import org.web3j.utils.Convert;
 
 public class Web3jUtils {
 
+	// services of the clients built by this class, used to send batch requests
+	// weak keys: a service does not reference its client, the entry goes away with a discarded client
+	private static final Map<Web3j, Web3jService> SERVICES = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * Builds a client for the provided url. Urls like ipc:///path/geth.ipc connect to the Unix domain socket
+	 * of a local client using the {@link IpcTransport}, all other urls are used as HTTP urls.
+	 */
+	public static Web3j buildClient(String url) {
+		if(url.startsWith(IpcTransport.SCHEME)) {
+			return build(instrument(IpcTransport.forUrl(url).createService()));
+		}
+
+		return buildHttpClient(url);
+	}
+
 	public static Web3j buildHttpClient(String ip, String port) {
 		String url = String.format("http://%s:%s", ip, port);
-		return Web3j.build(new HttpService(url));
+		return buildHttpClient(url);
+	}
+
+	/**
+	 * Builds a client for the provided url that shares the pooled connections of the default {@link HttpTransport}.
+	 */
+	public static Web3j buildHttpClient(String url) {
+		return build(instrument(HttpTransport.getDefault().createService(url)));
+	}
+
+	/**
+	 * Wraps the provided service to record per method metrics into {@link RpcMetrics#getDefault()}
+	 * unless {@link Web3jConstants#RPC_METRICS} is turned off.
+	 */
+	private static Web3jService instrument(Web3jService service) {
+		return Web3jConstants.RPC_METRICS ? new MetricsService(service, RpcMetrics.getDefault()) : service;
+	}
+
+	/**
+	 * Builds a client for the provided service. 
+	 * Batch methods like {@link #getBalancesWei(Web3j, List, DefaultBlockParameter)} use a single 
+	 * round trip per batch if the service is a {@link BatchWeb3jService}.
+	 */
+	public static Web3j build(Web3jService service) {
+		Web3j web3j = Web3j.build(service);
+		SERVICES.put(web3j, service);
+
+		return web3j;
+	}
+
+	/**
+	 * Returns the service of a client built by this class or null for other clients.
+	 */
+	public static Web3jService getService(Web3j web3j) {
+		return SERVICES.get(web3j);
 	}
 
 	public static String getClientVersion(Web3j web3j) throws InterruptedException, ExecutionException {
@@ -65,8 +124,15 @@ public class Web3jUtils {
 	
 	/**
 	 * Returns the balance (in Wei) of the specified account address. 
+	 * Uses the {@link AccountStateCache} if it is enabled for the client.
 	 */
 	public static BigInteger getBalanceWei(Web3j web3j, String address) throws InterruptedException, ExecutionException {
+		AccountStateCache cache = AccountStateCache.forClient(web3j);
+
+		if(cache != null) {
+			return cache.getBalanceWei(address, DefaultBlockParameterName.LATEST);
+		}
+
 		EthGetBalance balance = web3j
 				.ethGetBalance(address, DefaultBlockParameterName.LATEST)
 				.sendAsync()
@@ -77,14 +143,165 @@ public class Web3jUtils {
 
 	/**
 	 * Return the nonce (tx count) for the specified address.
+	 * Uses the {@link AccountStateCache} if it is enabled for the client.
 	 */
 	public static BigInteger getNonce(Web3j web3j, String address) throws InterruptedException, ExecutionException {
+		AccountStateCache cache = AccountStateCache.forClient(web3j);
+
+		if(cache != null) {
+			return cache.getNonce(address, DefaultBlockParameterName.LATEST);
+		}
+
 		EthGetTransactionCount ethGetTransactionCount = 
 				web3j.ethGetTransactionCount(address, DefaultBlockParameterName.LATEST).sendAsync().get();
 
 		return ethGetTransactionCount.getTransactionCount();
 	}
 	
+	/**
+	 * Returns the balances (in Wei) of the specified account addresses at the specified block.
+	 * The balances are returned in the order of the provided addresses.
+	 * Uses JSON-RPC batches of {@link Web3jConstants#BATCH_SIZE} requests. 
+	 */
+	public static List<BigInteger> getBalancesWei(Web3j web3j, List<String> addresses, DefaultBlockParameter block) 
+			throws Exception 
+	{
+		return getBalancesWei(web3j, addresses, block, Web3jConstants.BATCH_SIZE);
+	}
+
+	public static List<BigInteger> getBalancesWei(Web3j web3j, List<String> addresses, DefaultBlockParameter block, int batchSize) 
+			throws Exception 
+	{
+		List<Request<?, EthGetBalance>> requests = new ArrayList<>(addresses.size());
+
+		for(String address: addresses) {
+			requests.add(web3j.ethGetBalance(address, block));
+		}
+
+		List<EthGetBalance> responses = sendBatch(web3j, requests, EthGetBalance.class, batchSize);
+		List<BigInteger> balances = new ArrayList<>(responses.size());
+
+		for(int i = 0; i < responses.size(); i++) {
+			balances.add(checkError(responses.get(i), addresses.get(i)).getBalance());
+		}
+
+		return balances;
+	}
+
+	/**
+	 * Returns the nonces (tx counts) of the specified addresses at the specified block.
+	 * The nonces are returned in the order of the provided addresses.
+	 * Uses JSON-RPC batches of {@link Web3jConstants#BATCH_SIZE} requests. 
+	 */
+	public static List<BigInteger> getNonces(Web3j web3j, List<String> addresses, DefaultBlockParameter block) 
+			throws Exception 
+	{
+		return getNonces(web3j, addresses, block, Web3jConstants.BATCH_SIZE);
+	}
+
+	public static List<BigInteger> getNonces(Web3j web3j, List<String> addresses, DefaultBlockParameter block, int batchSize) 
+			throws Exception 
+	{
+		List<Request<?, EthGetTransactionCount>> requests = new ArrayList<>(addresses.size());
+
+		for(String address: addresses) {
+			requests.add(web3j.ethGetTransactionCount(address, block));
+		}
+
+		List<EthGetTransactionCount> responses = sendBatch(web3j, requests, EthGetTransactionCount.class, batchSize);
+		List<BigInteger> nonces = new ArrayList<>(responses.size());
+
+		for(int i = 0; i < responses.size(); i++) {
+			nonces.add(checkError(responses.get(i), addresses.get(i)).getTransactionCount());
+		}
+
+		return nonces;
+	}
+
+	/**
+	 * Returns the receipts for the specified tx hashes in the order of the provided hashes.
+	 * Uses JSON-RPC batches of {@link Web3jConstants#BATCH_SIZE} requests. 
+	 */
+	public static List<Optional<TransactionReceipt>> getReceipts(Web3j web3j, List<String> transactionHashes) 
+			throws Exception 
+	{
+		List<Request<?, EthGetTransactionReceipt>> requests = new ArrayList<>(transactionHashes.size());
+
+		for(String transactionHash: transactionHashes) {
+			requests.add(web3j.ethGetTransactionReceipt(transactionHash));
+		}
+
+		List<EthGetTransactionReceipt> responses = sendBatch(web3j, requests, EthGetTransactionReceipt.class, Web3jConstants.BATCH_SIZE);
+		List<Optional<TransactionReceipt>> receipts = new ArrayList<>(responses.size());
+
+		for(int i = 0; i < responses.size(); i++) {
+			receipts.add(checkError(responses.get(i), transactionHashes.get(i)).getTransactionReceipt());
+		}
+
+		return receipts;
+	}
+
+	/**
+	 * Returns the blocks with the specified numbers in the order of the provided numbers (empty for unknown blocks).
+	 * With fullTransactions the blocks contain transaction objects, otherwise transaction hashes.
+	 * Uses JSON-RPC batches of {@link Web3jConstants#BATCH_SIZE} requests. 
+	 */
+	public static List<Optional<EthBlock.Block>> getBlocks(Web3j web3j, List<BigInteger> blockNumbers, boolean fullTransactions) 
+			throws Exception 
+	{
+		List<Request<?, EthBlock>> requests = new ArrayList<>(blockNumbers.size());
+
+		for(BigInteger blockNumber: blockNumbers) {
+			requests.add(web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(blockNumber), fullTransactions));
+		}
+
+		List<EthBlock> responses = sendBatch(web3j, requests, EthBlock.class, Web3jConstants.BATCH_SIZE);
+		List<Optional<EthBlock.Block>> blocks = new ArrayList<>(responses.size());
+
+		for(int i = 0; i < responses.size(); i++) {
+			blocks.add(Optional.ofNullable(checkError(responses.get(i), "block " + blockNumbers.get(i)).getBlock()));
+		}
+
+		return blocks;
+	}
+
+	/**
+	 * Sends the provided requests and returns the responses in the order of the requests.
+	 * If the client has been built with a {@link BatchWeb3jService} the requests are sent as 
+	 * JSON-RPC batches of at most batchSize requests. 
+	 * Otherwise, all requests are sent concurrently before the first response is collected.
+	 */
+	public static <T extends Response<?>> List<T> sendBatch(Web3j web3j, List<? extends Request<?, T>> requests, Class<T> responseType, int batchSize) 
+			throws Exception 
+	{
+		Web3jService service = SERVICES.get(web3j);
+
+		if(service instanceof BatchWeb3jService && ((BatchWeb3jService) service).isBatchSupported()) {
+			return JsonRpcBatch.send((BatchWeb3jService) service, requests, responseType, batchSize);
+		}
+
+		List<CompletableFuture<T>> futures = new ArrayList<>(requests.size());
+		List<T> responses = new ArrayList<>(requests.size());
+
+		for(Request<?, T> request: requests) {
+			futures.add(request.sendAsync());
+		}
+
+		for(CompletableFuture<T> future: futures) {
+			responses.add(future.get());
+		}
+
+		return responses;
+	}
+
+	private static <T extends Response<?>> T checkError(T response, String subject) {
+		if(response.hasError()) {
+			throw new RuntimeException("Request for " + subject + " failed: " + response.getError().getMessage());
+		}
+
+		return response;
+	}
+
 	/**
 	 * Converts the provided Wei amount (smallest value Unit) to Ethers. 
 	 */
@@ -98,58 +315,80 @@ public class Web3jUtils {
 	
 	/**
 	 * Transfers the specified amount of Wei from the coinbase to the specified account.
+	 * The nonce is allocated by the client's {@link NonceManager}, the gas price is the standard price of its {@link GasPriceOracle}
+	 * and the gas limit is estimated by its {@link GasEstimator}.
 	 * The method waits for the transfer to complete using method {@link waitForReceipt}.  
 	 */
 	public static TransactionReceipt transferFromCoinbaseAndWait(Web3j web3j, String to, BigInteger amountWei) 
 			throws Exception 
 	{
 		String coinbase = getCoinbase(web3j).getResult();
-		BigInteger nonce = getNonce(web3j, coinbase);
-		// this is a contract method call -> gas limit higher than simple fund transfer
-		BigInteger gasLimit = Web3jConstants.GAS_LIMIT_ETHER_TX.multiply(BigInteger.valueOf(2)); 
-		Transaction transaction = Transaction.createEtherTransaction(
-				coinbase, 
-				nonce, 
-				Web3jConstants.GAS_PRICE, 
-				gasLimit, 
-				to, 
-				amountWei);
-
-		EthSendTransaction ethSendTransaction = web3j
-				.ethSendTransaction(transaction)
-				.sendAsync()
-				.get();
+		// transfers to contracts that cannot be estimated use a gas limit higher than a simple fund transfer
+		BigInteger defaultGasLimit = Web3jConstants.GAS_LIMIT_ETHER_TX.multiply(BigInteger.valueOf(2)); 
+		GasEstimator.Estimate gas = GasEstimator.forClient(web3j).estimate(coinbase, to, null, amountWei, defaultGasLimit);
+		BigInteger gasPrice = GasPriceOracle.forClient(web3j).getPrice(GasPriceOracle.Speed.STANDARD);
+
+		EthSendTransaction ethSendTransaction = NonceManager
+				.forClient(web3j)
+				.send(coinbase, nonce -> web3j.ethSendTransaction(
+						Transaction.createEtherTransaction(
+								coinbase, 
+								nonce, 
+								gasPrice, 
+								gas.getGasLimit(), 
+								to, 
+								amountWei)));
+
+		if(ethSendTransaction.hasError()) {
+			throw new RuntimeException("Transfer from coinbase failed: " + ethSendTransaction.getError().getMessage());
+		}
 
 		String txHash = ethSendTransaction.getTransactionHash();
+		GasEstimator.forClient(web3j).verify(txHash, gas);
 		
 		return waitForReceipt(web3j, txHash);
 	}
 
+	/**
+	 * Transfers the specified amounts of Wei from the coinbase to the specified accounts.
+	 * In contrast to {@link #transferFromCoinbaseAndWait(Web3j, String, BigInteger)} all transfers
+	 * are submitted back to back and their receipts are collected together, see {@link BulkTransfer}.  
+	 */
+	public static BulkTransfer.Report transferFromCoinbaseAndWait(Web3j web3j, List<BulkTransfer.Entry> transfers) 
+			throws Exception 
+	{
+		return BulkTransfer.fromCoinbase(web3j, transfers);
+	}
+
 	/**
 	 * Waits for the receipt for the transaction specified by the provided tx hash.
-	 * Makes 40 attempts (waiting 1 sec. inbetween attempts) to get the receipt object.
+	 * The receipt is obtained from the shared {@link ReceiptWatcher} of the client which checks 
+	 * all pending transactions together on each new block. 
 	 * In the happy case the tx receipt object is returned.
 	 * Otherwise, a runtime exception is thrown. 
 	 */
 	public static TransactionReceipt waitForReceipt(Web3j web3j, String transactionHash) 
 			throws Exception 
 	{
-
-		int attempts = Web3jConstants.CONFIRMATION_ATTEMPTS;
-		int sleep_millis = Web3jConstants.SLEEP_DURATION;
-		
-		Optional<TransactionReceipt> receipt = getReceipt(web3j, transactionHash);
-
-		while(attempts-- > 0 && !receipt.isPresent()) {
-			Thread.sleep(sleep_millis);
-			receipt = getReceipt(web3j, transactionHash);
+		try {
+			return waitForReceiptAsync(web3j, transactionHash).get();
 		}
+		catch (ExecutionException e) {
+			if(e.getCause() instanceof TransactionTimeoutException) {
+				throw new RuntimeException("No Tx receipt received", e.getCause());
+			}
 
-		if (attempts <= 0) {
-			throw new RuntimeException("No Tx receipt received");
+			throw e;
 		}
+	}
 
-		return receipt.get();
+	/**
+	 * Returns a future for the receipt of the transaction specified by the provided tx hash.
+	 */
+	public static CompletableFuture<TransactionReceipt> waitForReceiptAsync(Web3j web3j, String transactionHash) {
+		return ReceiptWatcher
+				.forClient(web3j)
+				.watch(transactionHash);
 	}
 
 	/**
@@ -168,37 +407,9 @@ public class Web3jUtils {
 
 	/**
 	 * Reads the specified solidity file and returns it as a single line string.
-	 * Includes some preprocessing: removing '//' comments and \s+ are replaced by ' ' globally. 
+	 * Comments are removed, whitespace outside of string literals is collapsed and plain imports are inlined, see {@link SolidityNormalizer}.
 	 */
-	public static String readSolidityFile(String fileName) {
-		try {
-			File file = new File(fileName);
-			FileInputStream fis = new FileInputStream(file);
-			InputStreamReader isr = new InputStreamReader(fis);
-			BufferedReader br = new BufferedReader(isr);
-			StringBuffer text = new StringBuffer();
-
-			br.lines().forEach(line -> {
-				if(text.length() > 0) {
-					text.append(" ");
-				}
-
-				// treat comments
-				if(line.contains("//")) {
-					line = line.substring(0, line.indexOf("//"));
-				}
-
-				text.append(line);
-			});
-			
-			br.close();
-
-			String sourceCode = text.toString();
-			return sourceCode.replaceAll("\\s+", " ");
-		} 
-		catch (Exception e) {
-			e.printStackTrace();
-			return "";
-		}
-	}	
+	public static String readSolidityFile(String fileName) throws IOException {
+		return SolidityNormalizer.getDefault().normalize(Paths.get(fileName));
+	}
 }
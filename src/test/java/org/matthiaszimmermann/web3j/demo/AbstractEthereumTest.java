@@ -1,5 +1,7 @@
 package org.matthiaszimmermann.web3j.demo;
 
+import static org.junit.Assert.assertFalse;
+
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -7,11 +9,21 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.rules.ExpectedException;
+import org.matthiaszimmermann.web3j.node.FakeNodeHandler;
+import org.matthiaszimmermann.web3j.node.HttpEndpoint;
+import org.matthiaszimmermann.web3j.util.AccountPool;
+import org.matthiaszimmermann.web3j.util.NonceManager;
 import org.matthiaszimmermann.web3j.util.Web3jConstants;
 import org.matthiaszimmermann.web3j.util.Web3jUtils;
 import org.web3j.protocol.Web3j;
@@ -19,18 +31,92 @@ import org.web3j.protocol.core.methods.request.Transaction;
 import org.web3j.protocol.core.methods.response.EthAccounts;
 import org.web3j.protocol.core.methods.response.EthSendTransaction;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Convert;
 
 public class AbstractEthereumTest {
 
 	@Rule
 	public final ExpectedException exception = ExpectedException.none();
 
+	// client used by the tests: 'fake' for an in-process fake node (default) or the url of a real client, 
+	// eg mvn test -Dweb3j.client=http://192.168.99.100:8545
+	public static final String CLIENT_PROPERTY = "web3j.client";
+	public static final String CLIENT_FAKE = "fake";
+
+	// accounts leased exclusively to single tests, so tests can run in parallel, see the surefire configuration
+	public static final String POOL_SEED = "test-account";
+	public static final int POOL_SIZE = 16;
+	public static final BigInteger POOL_BALANCE = Convert.toWei("2", Convert.Unit.ETHER).toBigInteger();
+
+	// tests asserting on the coinbase balance hold the write lock, transfers from the coinbase the read lock 
+	static final ReadWriteLock COINBASE_LOCK = new ReentrantReadWriteLock();
+
 	public static Web3j web3j = null;
 	public static boolean setupFailed = false;
 
+	private static HttpEndpoint fakeNode = null;
+	private static AccountPool accountPool = null;
+
+	private final List<AccountPool.Lease> leases = new ArrayList<>();
+
 	@Before
 	public void setUp() throws Exception {
-		 web3j = Web3jUtils.buildHttpClient("192.168.99.100", Web3jConstants.CLIENT_PORT);
+		 web3j = getClient();
+	}
+
+	@After
+	public void tearDown() {
+		leases.forEach(AccountPool.Lease::close);
+		leases.clear();
+	}
+
+	/**
+	 * Returns the client shared by all tests, the account pool is funded on first use.
+	 */
+	static synchronized Web3j getClient() throws Exception {
+		if(accountPool == null) {
+			Web3j client = Web3jUtils.buildClient(getClientUrl());
+
+			COINBASE_LOCK.readLock().lock();
+			try {
+				accountPool = AccountPool.create(client, POOL_SEED, POOL_SIZE, POOL_BALANCE);
+			}
+			finally {
+				COINBASE_LOCK.readLock().unlock();
+			}
+
+			web3j = client;
+		}
+
+		return web3j;
+	}
+
+	/**
+	 * Returns the url of the client selected with the system property {@link #CLIENT_PROPERTY}.
+	 * The fake node is started on first use and shared by all tests.
+	 */
+	static synchronized String getClientUrl() throws IOException {
+		String client = System.getProperty(CLIENT_PROPERTY, CLIENT_FAKE);
+
+		if(!client.equals(CLIENT_FAKE)) {
+			return client;
+		}
+
+		if(fakeNode == null) {
+			fakeNode = new HttpEndpoint(new FakeNodeHandler(), 0);
+		}
+
+		return fakeNode.getUrl();
+	}
+
+	/**
+	 * Leases a funded account for the current test, the account is released after the test.
+	 */
+	AccountPool.Lease leaseAccount() throws Exception {
+		AccountPool.Lease lease = accountPool.lease(Web3jConstants.RECEIPT_TIMEOUT, TimeUnit.MILLISECONDS);
+		leases.add(lease);
+
+		return lease;
 	}
 
 	void ensureFunds(String address, BigInteger amountWei) throws Exception {
@@ -41,7 +127,17 @@ public class AbstractEthereumTest {
 		}
 		
 		BigInteger missingAmount = amountWei.subtract(balance);
-		Web3jUtils.transferFromCoinbaseAndWait(web3j, address, missingAmount);
+		transferFromCoinbase(address, missingAmount);
+	}
+
+	TransactionReceipt transferFromCoinbase(String to, BigInteger amountWei) throws Exception {
+		COINBASE_LOCK.readLock().lock();
+		try {
+			return Web3jUtils.transferFromCoinbaseAndWait(web3j, to, amountWei);
+		}
+		finally {
+			COINBASE_LOCK.readLock().unlock();
+		}
 	}
 
 	TransactionReceipt waitForReceipt(String transactionHash) throws Exception {
@@ -57,12 +153,30 @@ public class AbstractEthereumTest {
 	}
 
 	String transferWei(String from, String to, BigInteger amountWei) throws Exception {
-		BigInteger nonce = getNonce(from);
-		Transaction transaction = Transaction.createEtherTransaction(
-				from, nonce, Web3jConstants.GAS_PRICE, Web3jConstants.GAS_LIMIT_ETHER_TX, to, amountWei);
+		if(!from.equals(getCoinbase())) {
+			return sendWei(from, to, amountWei);
+		}
+
+		COINBASE_LOCK.readLock().lock();
+		try {
+			return sendWei(from, to, amountWei);
+		}
+		finally {
+			COINBASE_LOCK.readLock().unlock();
+		}
+	}
 
-		EthSendTransaction ethSendTransaction = web3j.ethSendTransaction(transaction).sendAsync().get();
-		System.out.println("transferEther. nonce: " + nonce + " amount: " + amountWei + " to: " + to);
+	private String sendWei(String from, String to, BigInteger amountWei) throws Exception {
+		AtomicReference<BigInteger> nonce = new AtomicReference<>();
+		EthSendTransaction ethSendTransaction = NonceManager.forClient(web3j).send(from, n -> {
+			nonce.set(n);
+			return web3j.ethSendTransaction(Transaction.createEtherTransaction(
+					from, n, Web3jConstants.GAS_PRICE, Web3jConstants.GAS_LIMIT_ETHER_TX, to, amountWei));
+		});
+
+		assertFalse("Transaction rejected: " + (ethSendTransaction.hasError() ? ethSendTransaction.getError().getMessage() : ""),
+				ethSendTransaction.hasError());
+		System.out.println("transferEther. nonce: " + nonce.get() + " amount: " + amountWei + " to: " + to);
 
 		String txHash = ethSendTransaction.getTransactionHash(); 
 		waitForReceipt(txHash);
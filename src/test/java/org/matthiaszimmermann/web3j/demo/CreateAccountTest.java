@@ -7,11 +7,12 @@ import static org.junit.Assert.assertNull;
 
 import java.math.BigInteger;
 
+import org.junit.AfterClass;
 import org.junit.Test;
+import org.matthiaszimmermann.web3j.util.KeyPairPool;
 import org.matthiaszimmermann.web3j.util.Web3jConstants;
 import org.web3j.crypto.Credentials;
 import org.web3j.crypto.ECKeyPair;
-import org.web3j.crypto.Keys;
 import org.web3j.crypto.TransactionEncoder;
 import org.web3j.protocol.core.Response.Error;
 import org.web3j.protocol.core.methods.request.RawTransaction;
@@ -21,11 +22,19 @@ import org.web3j.utils.Numeric;
 
 public class CreateAccountTest extends AbstractEthereumTest {
 
+	// new key pairs are generated in the background while the tests run
+	private static final KeyPairPool KEY_PAIRS = new KeyPairPool();
+
+	@AfterClass
+	public static void closeKeyPairs() {
+		KEY_PAIRS.close();
+	}
+
 	@Test
 	public void testCreateAccountFromScratch() throws Exception {
 		
 		// create new private/public key pair
-		ECKeyPair keyPair = Keys.createEcKeyPair();
+		ECKeyPair keyPair = KEY_PAIRS.take().getEcKeyPair();
 		
 		BigInteger publicKey = keyPair.getPublicKey();
 		String publicKeyHex = Numeric.toHexStringWithPrefix(publicKey);
@@ -2,6 +2,7 @@ package org.matthiaszimmermann.web3j.demo;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
 import java.util.concurrent.ExecutionException;
@@ -9,10 +10,10 @@ import java.util.concurrent.ExecutionException;
 import org.junit.Assert;
 import org.junit.Test;
 import org.matthiaszimmermann.web3j.demo.contract.Greeter;
-import org.matthiaszimmermann.web3j.util.Alice;
-import org.matthiaszimmermann.web3j.util.Bob;
+import org.matthiaszimmermann.web3j.util.AccountPool;
+import org.matthiaszimmermann.web3j.util.EstimatingTransactionManager;
+import org.matthiaszimmermann.web3j.util.GasPriceOracle;
 import org.matthiaszimmermann.web3j.util.Web3jConstants;
-import org.matthiaszimmermann.web3j.util.Web3jUtils;
 import org.web3j.abi.datatypes.Utf8String;
 import org.web3j.abi.datatypes.generated.Uint256;
 import org.web3j.crypto.Credentials;
@@ -26,7 +27,8 @@ public class DeployGreeterTest extends AbstractEthereumTest {
 	public void testDeployGreeter() throws Exception {
 
 		// move funds to contract owner (amount in wei) to deploy the contract
-		String contractOwnerAdress = Alice.ADDRESS;
+		AccountPool.Lease contractOwner = leaseAccount();
+		String contractOwnerAdress = contractOwner.getAddress();
 		BigInteger initialBalance = BigInteger.valueOf(25_000_000_000_000_000L);
 		ensureFunds(contractOwnerAdress, initialBalance);
 		
@@ -34,15 +36,17 @@ public class DeployGreeterTest extends AbstractEthereumTest {
 		System.out.println("Contract owner balance (pre-deploy): " + ownerBalanceBeforeDeploy);
 
 		// test (1) deploy the contract with the owner's credentials
-		Credentials credentials = Alice.CREDENTIALS;
+		Credentials credentials = contractOwner.getCredentials();
 		Utf8String greeting = new Utf8String(MESSAGE);
+		BigInteger gasPrice = GasPriceOracle.forClient(web3j).getPrice(GasPriceOracle.Speed.STANDARD);
+		System.out.println("Gas price (standard): " + gasPrice);
 
-		// deploy the greeter contract
+		// deploy the greeter contract, the gas limit is estimated and GAS_LIMIT_GREETER_TX only caps the estimate
 		Greeter contract = Greeter
 				.deploy(
 						web3j, 
-						credentials, 
-						Web3jConstants.GAS_PRICE, 
+						new EstimatingTransactionManager(web3j, credentials), 
+						gasPrice, 
 						Web3jConstants.GAS_LIMIT_GREETER_TX,
 						BigInteger.ZERO, 
 						greeting)
@@ -54,12 +58,17 @@ public class DeployGreeterTest extends AbstractEthereumTest {
 				.get();
 		
 		String deployHash = txReceipt.getTransactionHash();
-		BigInteger deployFees = txReceipt.getCumulativeGasUsed().multiply(Web3jConstants.GAS_PRICE);
+		BigInteger deployFees = txReceipt.getCumulativeGasUsed().multiply(gasPrice);
 		BigInteger expectedBalanceAfterDeploy = ownerBalanceBeforeDeploy.subtract(deployFees);
 		BigInteger actualBalanceAfterDeploy = getBalanceWei(contractOwnerAdress);
 		assertEquals("Unexpected contract owner balance after contract deploy", expectedBalanceAfterDeploy, actualBalanceAfterDeploy);
 		System.out.println("Deploy hash: " + deployHash);
 		System.out.println("Deploy fees: " + deployFees);
+
+		BigInteger deployGasLimit = web3j.ethGetTransactionByHash(deployHash).send().getTransaction().get().getGas();
+		assertTrue("Deploy gas limit not estimated: " + deployGasLimit, deployGasLimit.compareTo(Web3jConstants.GAS_LIMIT_GREETER_TX) < 0);
+		assertTrue("Deploy gas limit below gas used: " + deployGasLimit, deployGasLimit.compareTo(txReceipt.getGasUsed()) > 0);
+		System.out.println("Deploy gas limit (estimated): " + deployGasLimit);
 		
 		// get contract address (after deploy)
 		String contractAddress = contract.getContractAddress(); 
@@ -80,7 +89,7 @@ public class DeployGreeterTest extends AbstractEthereumTest {
 		
 		// test (2) standard ether transfer to contract address
 		BigInteger contractFundingAmount = BigInteger.valueOf(123_456);
-		Web3jUtils.transferFromCoinbaseAndWait(web3j, contractAddress, contractFundingAmount);
+		transferFromCoinbase(contractAddress, contractFundingAmount);
 		
 		deposits = contract
 				.deposits()
@@ -103,14 +112,15 @@ public class DeployGreeterTest extends AbstractEthereumTest {
 		System.out.println("Contract address balance (after greet): " + getBalanceWei(contractAddress));
 
 		// test (4) loading and using contract from existing address
-		ensureFunds(Bob.ADDRESS, initialBalance);
+		AccountPool.Lease user = leaseAccount();
+		ensureFunds(user.getAddress(), initialBalance);
 		
 		Greeter contractLoaded = Greeter
 				.load(
 						contractAddress, 
 						web3j, 
-						Bob.CREDENTIALS,
-						Web3jConstants.GAS_PRICE, 
+						new EstimatingTransactionManager(web3j, user.getCredentials()),
+						gasPrice, 
 						Web3jConstants.GAS_LIMIT_GREETER_TX);
 		
 		Utf8String messageFromLoaded = contractLoaded
@@ -128,7 +138,7 @@ public class DeployGreeterTest extends AbstractEthereumTest {
 				.get();
 		
 		Assert.assertNotNull(txReceipt);
-		BigInteger killFees = txReceipt.getCumulativeGasUsed().multiply(Web3jConstants.GAS_PRICE);
+		BigInteger killFees = txReceipt.getCumulativeGasUsed().multiply(gasPrice);
 		BigInteger expectedBalanceAfterKill = ownerBalanceBeforeKill.add(contractFundingAmount).subtract(killFees);
 		BigInteger actualBalanceAfterKill = getBalanceWei(contractOwnerAdress);
 
@@ -4,13 +4,20 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
-import org.matthiaszimmermann.web3j.util.Alice;
-import org.matthiaszimmermann.web3j.util.Bob;
+import org.matthiaszimmermann.web3j.util.AccountPool;
+import org.matthiaszimmermann.web3j.util.NonceManager;
+import org.matthiaszimmermann.web3j.util.SigningService;
+import org.matthiaszimmermann.web3j.util.SigningService.SignedTransaction;
 import org.matthiaszimmermann.web3j.util.Web3jConstants;
 import org.web3j.crypto.Credentials;
 import org.web3j.crypto.TransactionEncoder;
@@ -40,20 +47,23 @@ public class TransferEtherTest extends AbstractEthereumTest {
 		BigDecimal amountEther = BigDecimal.valueOf(0.123);
 		BigInteger amountWei = Convert.toWei(amountEther, Convert.Unit.ETHER).toBigInteger();
 
-		ensureFunds(Alice.ADDRESS, amountWei);
+		AccountPool.Lease from = leaseAccount();
+		AccountPool.Lease to = leaseAccount();
 
-		BigInteger fromBalanceBefore = getBalanceWei(Alice.ADDRESS);
-		BigInteger toBalanceBefore = getBalanceWei(Bob.ADDRESS);
+		ensureFunds(from.getAddress(), amountWei);
+
+		BigInteger fromBalanceBefore = getBalanceWei(from.getAddress());
+		BigInteger toBalanceBefore = getBalanceWei(to.getAddress());
 
 		// this is the method to test here
 		TransactionReceipt txReceipt = Transfer.sendFunds(
-				web3j, Alice.CREDENTIALS, Bob.ADDRESS, amountEther, Convert.Unit.ETHER);
+				web3j, from.getCredentials(), to.getAddress(), amountEther, Convert.Unit.ETHER);
 
 		BigInteger txFees = txReceipt.getGasUsed().multiply(Web3jConstants.GAS_PRICE);
 
 		assertFalse(txReceipt.getBlockHash().isEmpty());
-		assertEquals("Unexected balance for 'from' address", fromBalanceBefore.subtract(amountWei.add(txFees)), getBalanceWei(Alice.ADDRESS));
-		assertEquals("Unexected balance for 'to' address", toBalanceBefore.add(amountWei), getBalanceWei(Bob.ADDRESS));
+		assertEquals("Unexected balance for 'from' address", fromBalanceBefore.subtract(amountWei.add(txFees)), getBalanceWei(from.getAddress()));
+		assertEquals("Unexected balance for 'to' address", toBalanceBefore.add(amountWei), getBalanceWei(to.getAddress()));
 	}
 
 	/**
@@ -63,11 +73,29 @@ public class TransferEtherTest extends AbstractEthereumTest {
 	@Test
 	public void testCreateAndSendTransaction() throws Exception {
 
+		// no other test may spend from the coinbase while its balance is checked
+		COINBASE_LOCK.writeLock().lock();
+		try {
+			createAndSendTransaction();
+		}
+		finally {
+			COINBASE_LOCK.writeLock().unlock();
+		}
+	}
+
+	private void createAndSendTransaction() throws Exception {
 		String from = getCoinbase();
-		BigInteger nonce = getNonce(from);
-		String to = Alice.ADDRESS;
+		String to = leaseAccount().getAddress();
 		BigInteger amountWei = Convert.toWei("0.456", Convert.Unit.ETHER).toBigInteger();
 
+		// record account balances before the transfer
+		BigInteger fromBalanceBefore = getBalanceWei(from);
+		BigInteger toBalanceBefore = getBalanceWei(to);
+
+		// reserve the nonce right before the send, so no other failure can leave a gap
+		NonceManager nonceManager = NonceManager.forClient(web3j);
+		BigInteger nonce = nonceManager.next(from);
+
 		// this is the method to test here
 		Transaction transaction = Transaction
 				.createEtherTransaction(
@@ -77,11 +105,6 @@ public class TransferEtherTest extends AbstractEthereumTest {
 						Web3jConstants.GAS_LIMIT_ETHER_TX, 
 						to, 
 						amountWei);
-		
-
-		// record account balances before the transfer
-		BigInteger fromBalanceBefore = getBalanceWei(from);
-		BigInteger toBalanceBefore = getBalanceWei(to);
 
 		// send the transaction to the ethereum client
 		EthSendTransaction ethSendTx = web3j
@@ -89,6 +112,8 @@ public class TransferEtherTest extends AbstractEthereumTest {
 				.sendAsync()
 				.get();
 
+		assertTrue("Transaction rejected: " + (ethSendTx.hasError() ? ethSendTx.getError().getMessage() : ""),
+				nonceManager.handleResponse(from, nonce, ethSendTx));
 		String txHash = ethSendTx.getTransactionHash();
 		assertFalse(txHash.isEmpty());
 		
@@ -112,10 +137,11 @@ public class TransferEtherTest extends AbstractEthereumTest {
 	@Test
 	public void testCreateSignAndSendTransaction() throws Exception {
 
-		String from = Alice.ADDRESS;
-		Credentials credentials = Alice.CREDENTIALS;
+		AccountPool.Lease sender = leaseAccount();
+		String from = sender.getAddress();
+		Credentials credentials = sender.getCredentials();
 		BigInteger nonce = getNonce(from);
-		String to = Bob.ADDRESS; 
+		String to = leaseAccount().getAddress();
 		BigInteger amountWei = Convert.toWei("0.789", Convert.Unit.ETHER).toBigInteger();
 
 		// create raw transaction
@@ -134,11 +160,11 @@ public class TransferEtherTest extends AbstractEthereumTest {
 		BigInteger txFeeEstimate = Web3jConstants.GAS_LIMIT_ETHER_TX.multiply(Web3jConstants.GAS_PRICE);
 
 		// make sure sender has sufficient funds
-		ensureFunds(Alice.ADDRESS, amountWei.add(txFeeEstimate));
+		ensureFunds(from, amountWei.add(txFeeEstimate));
 
 		// record balanances before the ether transfer
-		BigInteger fromBalanceBefore = getBalanceWei(Alice.ADDRESS);
-		BigInteger toBalanceBefore = getBalanceWei(Bob.ADDRESS);
+		BigInteger fromBalanceBefore = getBalanceWei(from);
+		BigInteger toBalanceBefore = getBalanceWei(to);
 
 		// send the signed transaction to the ethereum client
 		EthSendTransaction ethSendTx = web3j
@@ -159,6 +185,66 @@ public class TransferEtherTest extends AbstractEthereumTest {
 		assertEquals("Unexected balance for 'to' address", toBalanceBefore.add(amountWei), getBalanceWei(to));
 	}
 
+	/**
+	 * Ether transfer tests using {@link SigningService}: a batch of raw transactions is signed in parallel,
+	 * saved to a file, loaded again and replayed with {@link Web3j#ethSendRawTransaction()}.
+	 */
+	@Test
+	public void testSignSaveAndReplayTransactions() throws Exception {
+
+		int transfers = 10;
+		AccountPool.Lease sender = leaseAccount();
+		String from = sender.getAddress();
+		String to = leaseAccount().getAddress();
+		BigInteger amountWei = Convert.toWei("0.001", Convert.Unit.ETHER).toBigInteger();
+		BigInteger txFees = Web3jConstants.GAS_LIMIT_ETHER_TX.multiply(Web3jConstants.GAS_PRICE);
+
+		ensureFunds(from, amountWei.add(txFees).multiply(BigInteger.valueOf(transfers)));
+
+		BigInteger nonce = getNonce(from);
+		List<RawTransaction> txRaws = new ArrayList<>();
+
+		for(int i = 0; i < transfers; i++) {
+			txRaws.add(RawTransaction
+					.createEtherTransaction(
+							nonce.add(BigInteger.valueOf(i)), 
+							Web3jConstants.GAS_PRICE, 
+							Web3jConstants.GAS_LIMIT_ETHER_TX, 
+							to, 
+							amountWei));
+		}
+
+		// sign batch in parallel, the signed transactions keep the nonce order
+		List<SignedTransaction> txsSigned;
+		try(SigningService signingService = new SigningService()) {
+			txsSigned = signingService.sign(txRaws, sender.getCredentials());
+		}
+
+		assertEquals(transfers, txsSigned.size());
+		for(int i = 0; i < transfers; i++) {
+			assertEquals("Unexpected nonce order", nonce.add(BigInteger.valueOf(i)), txsSigned.get(i).getNonce());
+		}
+
+		// persist pre-signed batch and read it back
+		Path file = Files.createTempFile("signed", ".txt");
+		SigningService.save(txsSigned, file);
+		List<SignedTransaction> txsLoaded = SigningService.load(file);
+		Files.delete(file);
+
+		BigInteger toBalanceBefore = getBalanceWei(to);
+
+		// replay the loaded batch
+		List<EthSendTransaction> responses = SigningService.replay(web3j, txsLoaded);
+
+		for(int i = 0; i < transfers; i++) {
+			assertNull(responses.get(i).getError());
+			assertEquals("Unexpected tx hash", txsSigned.get(i).getHash(), responses.get(i).getTransactionHash());
+			waitForReceipt(responses.get(i).getTransactionHash());
+		}
+
+		assertEquals("Unexected balance for 'to' address", toBalanceBefore.add(amountWei.multiply(BigInteger.valueOf(transfers))), getBalanceWei(to));
+	}
+
 	/**
 	 * Test accessing transactions, blocks and their attributes using methods {@link Web3j#ethGetTransactionByHash()},  {@link Web3j#ethGetBlockByHash()}  {@link Web3j#ethGetBlockByNumber()}.
 	 */
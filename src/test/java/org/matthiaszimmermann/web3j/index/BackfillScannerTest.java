@@ -0,0 +1,353 @@
+package org.matthiaszimmermann.web3j.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+public class BackfillScannerTest {
+
+	private static final int THREADS = 2;
+	private static final int WINDOW = 4;
+	private static final long RETRY_DELAY = 10;
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private Node node;
+	private BackfillScanner scanner;
+
+	@Before
+	public void setUp() {
+		node = new Node();
+		scanner = new BackfillScanner(node.getWeb3j(), THREADS, 1, WINDOW, RETRY_DELAY);
+	}
+
+	@After
+	public void tearDown() {
+		scanner.close();
+	}
+
+	@Test
+	public void testBlocksDeliveredInOrder() throws Exception {
+		// earlier blocks take longer, so later chunks complete first
+		node.slowBlocks = true;
+
+		Sink sink = new Sink();
+		BackfillScanner.Report report = scanner.scan(BigInteger.ONE, BigInteger.valueOf(30), sink);
+
+		assertEquals(30, sink.blocks.size());
+		assertEquals(30, report.getBlocks());
+		assertEquals(BigInteger.valueOf(30), report.getLastBlock());
+		assertTrue(report.isDone());
+
+		for(int i = 0; i < sink.blocks.size(); i++) {
+			assertEquals(i + 1, sink.blocks.get(i).intValue());
+		}
+
+		assertEquals(transactions(1, 30), report.getTransactions());
+		assertEquals(transactions(1, 30), sink.receipts);
+	}
+
+	@Test
+	public void testFetchesAtMostWindowAhead() throws Exception {
+		AtomicLong lookahead = new AtomicLong();
+
+		Sink sink = new Sink() {
+			@Override
+			public void accept(EthBlock.Block block, List<TransactionReceipt> receipts) throws IOException {
+				long ahead = node.lastRequested.get() - block.getNumber().longValue();
+
+				if(ahead >= WINDOW) {
+					throw new IOException("Block " + node.lastRequested.get() + " requested while delivering block " + block.getNumber());
+				}
+
+				lookahead.accumulateAndGet(ahead, Math::max);
+				super.accept(block, receipts);
+				sleep(5);
+			}
+		};
+
+		scanner.scan(BigInteger.ONE, BigInteger.valueOf(40), sink);
+
+		assertEquals(40, sink.blocks.size());
+		assertTrue(lookahead.get() > 0);
+	}
+
+	@Test
+	public void testMissingReceiptRetried() throws Exception {
+		node.missingReceipts.add(hash(7, 0));
+
+		Sink sink = new Sink();
+		scanner.scan(BigInteger.ONE, BigInteger.TEN, sink);
+
+		assertEquals(10, sink.blocks.size());
+		assertEquals(transactions(1, 10), sink.receipts);
+		assertEquals(2, node.receiptRequests.get(hash(7, 0)).get());
+	}
+
+	@Test
+	public void testMissingReceiptFailsScan() throws Exception {
+		node.missingForever = true;
+		node.missingReceipts.add(hash(5, 0));
+
+		Sink sink = new Sink();
+
+		try {
+			scanner.scan(BigInteger.ONE, BigInteger.TEN, sink);
+			fail("Scan with a missing receipt completed");
+		}
+		catch (IOException e) {
+			assertTrue(e.getMessage().contains("Failed to fetch blocks 5 to 5"));
+		}
+
+		assertEquals(4, node.receiptRequests.get(hash(5, 0)).get());
+		assertEquals(4, sink.blocks.size());
+	}
+
+	@Test
+	public void testResumeAfterCheckpoint() throws Exception {
+		Path checkpointFile = folder.getRoot().toPath().resolve("scan.properties");
+
+		Sink failing = new Sink() {
+			@Override
+			public void accept(EthBlock.Block block, List<TransactionReceipt> receipts) throws IOException {
+				if(block.getNumber().intValue() == 12) {
+					throw new IOException("Disk full");
+				}
+
+				super.accept(block, receipts);
+			}
+		};
+
+		try {
+			scanner.scan(BigInteger.ONE, BigInteger.valueOf(20), failing, checkpointFile);
+			fail("Scan with a failing sink completed");
+		}
+		catch (IOException e) {
+			assertEquals("Disk full", e.getMessage());
+		}
+
+		assertEquals(11, failing.blocks.size());
+		assertEquals(BigInteger.valueOf(11), failing.checkpoint);
+
+		// the same scanner resumes after the last delivered block
+		Sink sink = new Sink();
+		BackfillScanner.Report report = scanner.scan(BigInteger.ONE, BigInteger.valueOf(20), sink, checkpointFile);
+
+		assertEquals(9, report.getBlocks());
+		assertEquals(12, sink.blocks.get(0).intValue());
+		assertEquals(BigInteger.valueOf(20), sink.checkpoint);
+
+		// a completed scan has nothing left to do
+		Sink done = new Sink();
+		assertEquals(0, scanner.scan(BigInteger.ONE, BigInteger.valueOf(20), done, checkpointFile).getBlocks());
+		assertEquals(0, done.blocks.size());
+	}
+
+	@Test
+	public void testCloseFailsRunningScan() throws Exception {
+		node.blockFrom = 5;
+
+		Sink sink = new Sink();
+		CompletableFuture<BackfillScanner.Report> scan = CompletableFuture.supplyAsync(() -> {
+			try {
+				return scanner.scan(BigInteger.ONE, BigInteger.valueOf(8), sink);
+			}
+			catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		});
+
+		// both workers wait for blocks 5 and 6, the last chunks 7 and 8 are queued
+		for(int i = 0; i < 100 && node.blocked.get() < THREADS; i++) {
+			Thread.sleep(50);
+		}
+
+		assertEquals(THREADS, node.blocked.get());
+		scanner.close();
+		node.release.countDown();
+
+		try {
+			scan.get(5, TimeUnit.SECONDS);
+			fail("Scan of a closed scanner completed");
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause().toString(), e.getCause() instanceof IOException);
+		}
+
+		// the running chunks are delivered, the queued chunks are never fetched
+		long requests = node.blockRequests.get();
+		Thread.sleep(100);
+		assertEquals(requests, node.blockRequests.get());
+		assertEquals(6, sink.blocks.size());
+	}
+
+	/**
+	 * Block n holds n % 3 transactions.
+	 */
+	private static int transactions(int first, int last) {
+		int count = 0;
+
+		for(int n = first; n <= last; n++) {
+			count += n % 3;
+		}
+
+		return count;
+	}
+
+	private static String hash(long block, int index) {
+		return Numeric.toHexStringWithPrefixZeroPadded(BigInteger.valueOf(block * 16 + index), 64);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Records the delivered block numbers and checks the receipts against the transactions.
+	 */
+	private static class Sink implements BlockSink {
+
+		private final List<BigInteger> blocks = new ArrayList<>();
+		private int receipts = 0;
+		private BigInteger checkpoint = null;
+
+		@Override
+		public void accept(EthBlock.Block block, List<TransactionReceipt> receipts) throws IOException {
+			assertEquals(block.getTransactions().size(), receipts.size());
+
+			for(int i = 0; i < receipts.size(); i++) {
+				assertEquals(((EthBlock.TransactionObject) block.getTransactions().get(i)).getHash(), receipts.get(i).getTransactionHash());
+			}
+
+			blocks.add(block.getNumber());
+			this.receipts += receipts.size();
+		}
+
+		@Override
+		public void checkpoint(BigInteger lastBlock) {
+			checkpoint = lastBlock;
+		}
+	}
+
+	/**
+	 * Client with block n holding n % 3 transactions, receipts can be held back.
+	 */
+	private static class Node extends ScriptedService {
+
+		private final AtomicLong lastRequested = new AtomicLong();
+		private final Set<String> missingReceipts = ConcurrentHashMap.newKeySet();
+		private final Map<String, AtomicInteger> receiptRequests = new ConcurrentHashMap<>();
+		private final AtomicLong blockRequests = new AtomicLong();
+		private final AtomicInteger blocked = new AtomicInteger();
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		private volatile boolean slowBlocks = false;
+		private volatile long blockFrom = Long.MAX_VALUE;
+		private volatile boolean missingForever = false;
+
+		@Override
+		protected Object answer(Request<?, ?> request) throws IOException {
+			switch (request.getMethod()) {
+			case "eth_getBlockByNumber":
+				long number = Numeric.decodeQuantity((String) request.getParams().get(0)).longValue();
+				lastRequested.accumulateAndGet(number, Math::max);
+				blockRequests.incrementAndGet();
+
+				if(number >= blockFrom) {
+					block();
+				}
+
+				if(slowBlocks) {
+					sleep(Math.max(0, 20 - number));
+				}
+
+				return block(number);
+			case "eth_getTransactionReceipt":
+				String hash = (String) request.getParams().get(0);
+				receiptRequests.computeIfAbsent(hash, key -> new AtomicInteger()).incrementAndGet();
+
+				boolean missing = missingForever ? missingReceipts.contains(hash) : missingReceipts.remove(hash);
+
+				if(missing) {
+					return null;
+				}
+
+				TransactionReceipt receipt = new TransactionReceipt();
+				receipt.setTransactionHash(hash);
+				return receipt;
+			default:
+				return super.answer(request);
+			}
+		}
+
+		/**
+		 * Waits for the release of the blocked requests, like a blocking socket read it ignores interrupts.
+		 */
+		private void block() {
+			boolean interrupted = false;
+			blocked.incrementAndGet();
+
+			while(release.getCount() > 0) {
+				try {
+					release.await();
+				}
+				catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+
+			if(interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private static EthBlock.Block block(long number) {
+			List<EthBlock.TransactionResult> transactions = new ArrayList<>();
+
+			for(int i = 0; i < number % 3; i++) {
+				EthBlock.TransactionObject tx = new EthBlock.TransactionObject();
+				tx.setHash(hash(number, i));
+				transactions.add(tx);
+			}
+
+			EthBlock.Block block = new EthBlock.Block();
+			block.setNumber(Numeric.encodeQuantity(BigInteger.valueOf(number)));
+			block.setHash(hash(number, 15));
+			block.setTransactions(transactions);
+			return block;
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package org.matthiaszimmermann.web3j.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.matthiaszimmermann.web3j.node.FakeNodeHandler;
+import org.matthiaszimmermann.web3j.node.HttpEndpoint;
+import org.matthiaszimmermann.web3j.util.Web3jConstants;
+import org.matthiaszimmermann.web3j.util.Web3jUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+
+public class BlockIndexerTest {
+
+	private static final String RECIPIENT = "0xcc000000000000000000000000000000000000cc";
+	private static final int SEGMENT_SIZE = 64 * 1024;
+	private static final int CONFIRMATIONS = 2;
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private FakeNodeHandler node;
+	private HttpEndpoint endpoint;
+	private Web3j web3j;
+	private Path directory;
+
+	@Before
+	public void setUp() throws Exception {
+		node = new FakeNodeHandler();
+		endpoint = new HttpEndpoint(node, 0);
+		web3j = Web3jUtils.buildClient(endpoint.getUrl());
+		directory = folder.getRoot().toPath();
+	}
+
+	@After
+	public void tearDown() {
+		endpoint.close();
+		node.close();
+	}
+
+	@Test
+	public void testIndexCloseReopenAndQuery() throws Exception {
+		String alice = node.getAccounts().get(1).getAddress();
+		String bob = node.getAccounts().get(2).getAddress();
+
+		// blocks 1 to 3 hold a transfer each, blocks 4 and 5 are only confirmations
+		transfer(alice, RECIPIENT, 0);
+		transfer(bob, RECIPIENT, 0);
+		transfer(alice, bob, 1);
+		node.mine();
+		node.mine();
+
+		try(BlockIndexer indexer = open()) {
+			assertEquals(4, indexer.catchUp(web3j));
+			assertEquals(BigInteger.valueOf(3), indexer.getLastBlockNumber());
+		}
+
+		try(BlockIndexer indexer = open()) {
+			assertEquals(4, indexer.getBlockCount());
+			assertEquals(BigInteger.valueOf(3), indexer.getLastBlockNumber());
+
+			List<IndexedTransaction> history = indexer.getAddressHistory(RECIPIENT);
+			assertEquals(2, history.size());
+			assertEquals(alice, history.get(0).getTransaction().getFrom());
+			assertEquals(BigInteger.ONE, history.get(0).getBlockNumber());
+			assertEquals(bob, history.get(1).getTransaction().getFrom());
+			assertEquals(BigInteger.valueOf(2), history.get(1).getReceipt().getBlockNumber());
+
+			assertEquals(2, indexer.getTransactionCount(alice));
+			assertEquals(2, indexer.getTransactionCount(bob.toUpperCase().replace("0X", "0x")));
+			assertEquals(blockHash(3), indexer.getBlock(BigInteger.valueOf(3)).getHash());
+			assertEquals(1, indexer.getBlock(BigInteger.valueOf(3)).getTransactions().size());
+			assertNull(indexer.getBlock(BigInteger.valueOf(4)));
+
+			// the reopened index resumes after block 3
+			transfer(bob, RECIPIENT, 1);
+			node.mine();
+			node.mine();
+
+			assertEquals(3, indexer.catchUp(web3j));
+			assertEquals(3, indexer.getAddressHistory(RECIPIENT).size());
+			assertEquals(BigInteger.valueOf(6), indexer.getAddressHistory(RECIPIENT).get(2).getBlockNumber());
+		}
+	}
+
+	@Test
+	public void testStaysBehindHead() throws Exception {
+		try(BlockIndexer indexer = open()) {
+			assertEquals(0, indexer.catchUp(web3j));
+			assertNull(indexer.getLastBlockNumber());
+
+			node.mine();
+			node.mine();
+
+			assertEquals(1, indexer.catchUp(web3j));
+			assertEquals(BigInteger.ZERO, indexer.getLastBlockNumber());
+		}
+	}
+
+	@Test
+	public void testRejectsBlockWithOtherParent() throws Exception {
+		node.mine();
+		node.mine();
+		node.mine();
+
+		try(BlockIndexer indexer = open()) {
+			indexer.catchUp(web3j);
+		}
+
+		try(BlockIndexer indexer = open()) {
+			EthBlock.Block block = web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(2)), true).send().getBlock();
+			block.setParentHash(blockHash(0));
+
+			try {
+				indexer.append(block, Collections.emptyList());
+				fail("Block with other parent appended");
+			}
+			catch (IOException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("reorg"));
+			}
+
+			assertEquals(BigInteger.ONE, indexer.getLastBlockNumber());
+		}
+	}
+
+	private BlockIndexer open() throws IOException {
+		return new BlockIndexer(directory, SEGMENT_SIZE, CONFIRMATIONS);
+	}
+
+	private String blockHash(long number) throws Exception {
+		return web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(number)), false).send().getBlock().getHash();
+	}
+
+	private void transfer(String from, String to, long nonce) throws Exception {
+		EthSendTransaction response = web3j.ethSendTransaction(Transaction.createEtherTransaction(
+				from, BigInteger.valueOf(nonce), Web3jConstants.GAS_PRICE, Web3jConstants.GAS_LIMIT_ETHER_TX, to, BigInteger.TEN)).send();
+
+		assertTrue(response.hasError() ? response.getError().getMessage() : "", !response.hasError());
+	}
+}
@@ -0,0 +1,192 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.web3j.crypto.Hash;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+import org.web3j.utils.Numeric;
+
+/**
+ * Signed transaction as received by eth_sendRawTransaction: the RLP list
+ * [nonce, gasPrice, gas, to, value, data, v, r, s].
+ * The sender is recovered from the signature, both the original (v = 27/28) and the
+ * replay protected (EIP-155, v = chainId * 2 + 35/36) signature schemes are accepted.
+ */
+public class DecodedTransaction {
+
+	private static final int FIELDS = 9;
+
+	private static final BigInteger V_27 = BigInteger.valueOf(27);
+	private static final BigInteger V_28 = BigInteger.valueOf(28);
+
+	private final String hash;
+	private final String raw;
+	private final String from;
+	private final BigInteger nonce;
+	private final BigInteger gasPrice;
+	private final BigInteger gas;
+	private final String to;
+	private final BigInteger value;
+	private final byte [] data;
+	private final BigInteger v;
+	private final BigInteger r;
+	private final BigInteger s;
+
+	/**
+	 * Decodes the provided signed transaction (hex) and verifies its signature.
+	 */
+	public static DecodedTransaction decode(String rawHex) throws RpcException {
+		byte [] raw;
+		List<RlpType> fields;
+
+		try {
+			raw = Numeric.hexStringToByteArray(rawHex);
+			RlpType item = RlpDecoder.decode(raw);
+
+			if(!(item instanceof RlpList) || ((RlpList) item).getValues().size() != FIELDS) {
+				throw new IllegalArgumentException("Expected RLP list with " + FIELDS + " fields");
+			}
+
+			fields = ((RlpList) item).getValues();
+
+			for(RlpType field: fields) {
+				if(!(field instanceof RlpString)) {
+					throw new IllegalArgumentException("Unexpected nested list");
+				}
+			}
+		}
+		catch (RuntimeException e) {
+			throw new RpcException(RpcException.INVALID_PARAMS, "rlp: " + e.getMessage());
+		}
+
+		BigInteger v = quantity(fields.get(6));
+		BigInteger r = quantity(fields.get(7));
+		BigInteger s = quantity(fields.get(8));
+
+		// signed payload: the first six fields, plus [chainId, 0, 0] for replay protected signatures
+		List<RlpType> payload = new ArrayList<>(fields.subList(0, 6));
+		int recoveryId;
+
+		if(v.equals(V_27) || v.equals(V_28)) {
+			recoveryId = v.intValue() - 27;
+		}
+		else if(v.compareTo(BigInteger.valueOf(35)) >= 0) {
+			BigInteger chainId = v.subtract(BigInteger.valueOf(35)).shiftRight(1);
+			recoveryId = v.subtract(BigInteger.valueOf(35)).testBit(0) ? 1 : 0;
+
+			payload.add(RlpString.create(chainId));
+			payload.add(RlpString.create(new byte [0]));
+			payload.add(RlpString.create(new byte [0]));
+		}
+		else {
+			throw new RpcException(RpcException.INVALID_PARAMS, "invalid transaction v, r, s values");
+		}
+
+		// homestead: signatures with high s values are malleable and rejected
+		if(s.compareTo(EcRecover.HALF_ORDER) > 0) {
+			throw new RpcException(RpcException.INVALID_PARAMS, "invalid transaction v, r, s values");
+		}
+
+		byte [] signedHash = Hash.sha3(RlpEncoder.encode(new RlpList(payload)));
+		String from = EcRecover.recoverAddress(signedHash, recoveryId, r, s);
+
+		if(from == null) {
+			throw new RpcException(RpcException.INVALID_PARAMS, "invalid sender");
+		}
+
+		byte [] toBytes = ((RlpString) fields.get(3)).getBytes();
+
+		if(toBytes.length != 0 && toBytes.length != 20) {
+			throw new RpcException(RpcException.INVALID_PARAMS, "rlp: invalid to address");
+		}
+
+		return new DecodedTransaction(
+				Numeric.toHexString(Hash.sha3(raw)),
+				Numeric.toHexString(raw),
+				from,
+				quantity(fields.get(0)),
+				quantity(fields.get(1)),
+				quantity(fields.get(2)),
+				toBytes.length == 0 ? null : Numeric.toHexString(toBytes),
+				quantity(fields.get(4)),
+				((RlpString) fields.get(5)).getBytes(),
+				v, r, s);
+	}
+
+	private static BigInteger quantity(RlpType field) {
+		return new BigInteger(1, ((RlpString) field).getBytes());
+	}
+
+	private DecodedTransaction(String hash, String raw, String from, BigInteger nonce, BigInteger gasPrice, BigInteger gas,
+			String to, BigInteger value, byte [] data, BigInteger v, BigInteger r, BigInteger s)
+	{
+		this.hash = hash;
+		this.raw = raw;
+		this.from = from;
+		this.nonce = nonce;
+		this.gasPrice = gasPrice;
+		this.gas = gas;
+		this.to = to;
+		this.value = value;
+		this.data = data;
+		this.v = v;
+		this.r = r;
+		this.s = s;
+	}
+
+	public String getHash() {
+		return hash;
+	}
+
+	public String getRaw() {
+		return raw;
+	}
+
+	public String getFrom() {
+		return from;
+	}
+
+	public BigInteger getNonce() {
+		return nonce;
+	}
+
+	public BigInteger getGasPrice() {
+		return gasPrice;
+	}
+
+	public BigInteger getGas() {
+		return gas;
+	}
+
+	/**
+	 * Returns the receiving address or null for contract creations.
+	 */
+	public String getTo() {
+		return to;
+	}
+
+	public BigInteger getValue() {
+		return value;
+	}
+
+	public byte [] getData() {
+		return data;
+	}
+
+	public BigInteger getV() {
+		return v;
+	}
+
+	public BigInteger getR() {
+		return r;
+	}
+
+	public BigInteger getS() {
+		return s;
+	}
+}
@@ -0,0 +1,127 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.asn1.x9.X9IntegerConverter;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.custom.sec.SecP256K1Curve;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+/**
+ * Recovers the signing address from a secp256k1 signature (r, s, recovery id) and the signed message hash.
+ * This is the check Ethereum clients use to verify transaction signatures and the ecrecover precompile.
+ * {@link #sign(byte[], BigInteger)} creates such signatures for the accounts unlocked in the fake node.
+ */
+public class EcRecover {
+
+	private static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+	private static final ECDomainParameters CURVE = new ECDomainParameters(
+			CURVE_PARAMS.getCurve(), CURVE_PARAMS.getG(), CURVE_PARAMS.getN(), CURVE_PARAMS.getH());
+
+	public static final BigInteger ORDER = CURVE.getN();
+	public static final BigInteger HALF_ORDER = ORDER.shiftRight(1);
+
+	/**
+	 * Returns the deterministic (RFC 6979) signature [r, s, recovery id] of the provided hash, s is normalized to the lower half of the order.
+	 */
+	public static BigInteger [] sign(byte [] hash, BigInteger privateKey) {
+		ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+		signer.init(true, new ECPrivateKeyParameters(privateKey, CURVE));
+
+		BigInteger [] signature = signer.generateSignature(hash);
+		BigInteger r = signature[0];
+		BigInteger s = signature[1].compareTo(HALF_ORDER) > 0 ? ORDER.subtract(signature[1]) : signature[1];
+		BigInteger publicKey = Sign.publicKeyFromPrivate(privateKey);
+
+		for(int recoveryId = 0; recoveryId < 2; recoveryId++) {
+			if(publicKey.equals(recoverPublicKey(hash, recoveryId, r, s))) {
+				return new BigInteger [] { r, s, BigInteger.valueOf(recoveryId) };
+			}
+		}
+
+		throw new IllegalStateException("Failed to determine recovery id");
+	}
+
+	/**
+	 * Returns the address (0x prefixed, lower case) of the key that signed the provided hash
+	 * or null if the signature is invalid. The recovery id is 0 or 1.
+	 */
+	public static String recoverAddress(byte [] hash, int recoveryId, BigInteger r, BigInteger s) {
+		BigInteger publicKey = recoverPublicKey(hash, recoveryId, r, s);
+
+		if(publicKey == null) {
+			return null;
+		}
+
+		byte [] keyHash = Hash.sha3(Numeric.toBytesPadded(publicKey, 64));
+		return Numeric.toHexString(Arrays.copyOfRange(keyHash, 12, 32));
+	}
+
+	/**
+	 * Returns the uncompressed public key (64 bytes without prefix) that signed the provided hash or null if the signature is invalid.
+	 */
+	public static BigInteger recoverPublicKey(byte [] hash, int recoveryId, BigInteger r, BigInteger s) {
+		if(recoveryId < 0 || recoveryId > 1 || !inRange(r) || !inRange(s)) {
+			return null;
+		}
+
+		// only the first two of the four possible points occur in practice, x = r
+		BigInteger x = r;
+
+		if(x.compareTo(SecP256K1Curve.q) >= 0) {
+			return null;
+		}
+
+		ECPoint point;
+
+		try {
+			point = decompressKey(x, recoveryId == 1);
+		}
+		catch (IllegalArgumentException e) {
+			// x is not on the curve
+			return null;
+		}
+
+		if(!point.multiply(ORDER).isInfinity()) {
+			return null;
+		}
+
+		BigInteger e = new BigInteger(1, hash);
+		BigInteger eInv = BigInteger.ZERO.subtract(e).mod(ORDER);
+		BigInteger rInv = r.modInverse(ORDER);
+		BigInteger srInv = rInv.multiply(s).mod(ORDER);
+		BigInteger eInvrInv = rInv.multiply(eInv).mod(ORDER);
+
+		ECPoint q = ECAlgorithms.sumOfTwoMultiplies(CURVE.getG(), eInvrInv, point, srInv).normalize();
+
+		if(q.isInfinity()) {
+			return null;
+		}
+
+		byte [] encoded = q.getEncoded(false);
+		return new BigInteger(1, Arrays.copyOfRange(encoded, 1, encoded.length));
+	}
+
+	private static boolean inRange(BigInteger value) {
+		return value.signum() > 0 && value.compareTo(ORDER) < 0;
+	}
+
+	private static ECPoint decompressKey(BigInteger x, boolean yBit) {
+		X9IntegerConverter converter = new X9IntegerConverter();
+		byte [] compressed = converter.integerToBytes(x, 1 + converter.getByteLength(CURVE.getCurve()));
+		compressed[0] = (byte) (yBit ? 0x03 : 0x02);
+
+		return CURVE.getCurve().decodePoint(compressed);
+	}
+}
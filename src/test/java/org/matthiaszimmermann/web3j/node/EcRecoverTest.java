@@ -0,0 +1,79 @@
+package org.matthiaszimmermann.web3j.node;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.Test;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.core.methods.request.RawTransaction;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+import org.web3j.utils.Numeric;
+
+public class EcRecoverTest {
+
+	private static final BigInteger PRIVATE_KEY = Numeric.toBigInt("0x4646464646464646464646464646464646464646464646464646464646464646");
+	private static final String ADDRESS = "0x00000000000000000000000000000000000000cc";
+	private static final byte [] HASH = Hash.sha3("hello world".getBytes());
+
+	@Test
+	public void testRecoverAddressOfSignature() {
+		ECKeyPair keyPair = ECKeyPair.create(PRIVATE_KEY);
+		BigInteger [] signature = EcRecover.sign(HASH, PRIVATE_KEY);
+
+		String address = EcRecover.recoverAddress(HASH, signature[2].intValue(), signature[0], signature[1]);
+
+		assertEquals("0x" + Keys.getAddress(keyPair), address);
+		assertEquals(keyPair.getPublicKey(), EcRecover.recoverPublicKey(HASH, signature[2].intValue(), signature[0], signature[1]));
+	}
+
+	@Test
+	public void testSignatureMatchesWeb3j() {
+		RawTransaction tx = RawTransaction.createEtherTransaction(BigInteger.ONE, BigInteger.TEN, BigInteger.valueOf(21_000), ADDRESS, BigInteger.ONE);
+		List<RlpType> signed = ((RlpList) RlpDecoder.decode(TransactionEncoder.signMessage(tx, Credentials.create(ECKeyPair.create(PRIVATE_KEY))))).getValues();
+
+		BigInteger [] signature = EcRecover.sign(Hash.sha3(TransactionEncoder.encode(tx)), PRIVATE_KEY);
+
+		// signed transaction: nonce, gas price, gas limit, to, value, data, v, r, s
+		assertEquals(27 + signature[2].intValue(), value(signed.get(6)).intValue());
+		assertEquals(value(signed.get(7)), signature[0]);
+		assertEquals(value(signed.get(8)), signature[1]);
+		assertTrue(signature[1].compareTo(EcRecover.HALF_ORDER) <= 0);
+	}
+
+	@Test
+	public void testOtherRecoveryIdRecoversOtherKey() {
+		BigInteger [] signature = EcRecover.sign(HASH, PRIVATE_KEY);
+		String address = EcRecover.recoverAddress(HASH, 1 - signature[2].intValue(), signature[0], signature[1]);
+
+		assertFalse(("0x" + Keys.getAddress(ECKeyPair.create(PRIVATE_KEY))).equals(address));
+	}
+
+	@Test
+	public void testInvalidSignatures() {
+		BigInteger [] signature = EcRecover.sign(HASH, PRIVATE_KEY);
+		BigInteger r = signature[0];
+		BigInteger s = signature[1];
+
+		assertNull(EcRecover.recoverAddress(HASH, 2, r, s));
+		assertNull(EcRecover.recoverAddress(HASH, -1, r, s));
+		assertNull(EcRecover.recoverAddress(HASH, 0, BigInteger.ZERO, s));
+		assertNull(EcRecover.recoverAddress(HASH, 0, r, BigInteger.ZERO));
+		assertNull(EcRecover.recoverAddress(HASH, 0, EcRecover.ORDER, s));
+		assertNull(EcRecover.recoverAddress(HASH, 0, r, EcRecover.ORDER));
+	}
+
+	private static BigInteger value(RlpType item) {
+		return new BigInteger(1, ((RlpString) item).getBytes());
+	}
+}
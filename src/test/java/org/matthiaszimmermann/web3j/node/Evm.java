@@ -0,0 +1,1068 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+import org.bouncycastle.crypto.digests.RIPEMD160Digest;
+import org.web3j.crypto.Hash;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.utils.Numeric;
+
+/**
+ * Minimal Ethereum virtual machine for the {@link FakeNodeHandler}.
+ * Implements the instruction set used by contracts compiled with solc 0.4.x (eg the Greeter),
+ * the precompiled contracts 1-4 and a simplified gas schedule (Tangerine Whistle costs,
+ * memory expansion, refunds, all but 1/64 call gas forwarding).
+ * Not supported: CALLCODE, CREATE2 and the static call restrictions.
+ */
+public class Evm {
+
+	public static final int MAX_DEPTH = 1024;
+
+	private static final BigInteger TWO_256 = BigInteger.ONE.shiftLeft(256);
+	private static final BigInteger MAX_UINT = TWO_256.subtract(BigInteger.ONE);
+	private static final BigInteger ADDRESS_MASK = BigInteger.ONE.shiftLeft(160).subtract(BigInteger.ONE);
+	private static final BigInteger MAX_MEMORY = BigInteger.valueOf(1 << 24);
+	private static final byte [] EMPTY = new byte [0];
+
+	// gas costs
+	static final long G_TX = 21_000;
+	static final long G_TX_CREATE = 32_000;
+	static final long G_TX_DATA_ZERO = 4;
+	static final long G_TX_DATA_NON_ZERO = 68;
+	static final long G_CODE_DEPOSIT = 200;
+	static final long G_SSTORE_SET = 20_000;
+	static final long G_SSTORE_RESET = 5_000;
+	static final long R_SSTORE_CLEAR = 15_000;
+	static final long G_SELFDESTRUCT = 5_000;
+	static final long R_SELFDESTRUCT = 24_000;
+	static final long G_CALL = 700;
+	static final long G_CALL_VALUE = 9_000;
+	static final long G_CALL_STIPEND = 2_300;
+	static final long G_NEW_ACCOUNT = 25_000;
+
+	private final BlockContext block;
+	private final String origin;
+	private final BigInteger gasPrice;
+
+	/**
+	 * Block attributes available to the executed code.
+	 */
+	public static class BlockContext {
+
+		final String coinbase;
+		final long number;
+		final long timestamp;
+		final long gasLimit;
+		final long chainId;
+		final LongFunction<byte []> blockHashes;
+
+		public BlockContext(String coinbase, long number, long timestamp, long gasLimit, long chainId, LongFunction<byte []> blockHashes) {
+			this.coinbase = coinbase;
+			this.number = number;
+			this.timestamp = timestamp;
+			this.gasLimit = gasLimit;
+			this.chainId = chainId;
+			this.blockHashes = blockHashes;
+		}
+	}
+
+	/**
+	 * Log entry created by the LOG0 to LOG4 instructions.
+	 */
+	public static class Log {
+
+		private final String address;
+		private final List<byte []> topics;
+		private final byte [] data;
+
+		Log(String address, List<byte []> topics, byte [] data) {
+			this.address = address;
+			this.topics = topics;
+			this.data = data;
+		}
+
+		public String getAddress() {
+			return address;
+		}
+
+		public List<byte []> getTopics() {
+			return topics;
+		}
+
+		public byte [] getData() {
+			return data;
+		}
+	}
+
+	/**
+	 * Outcome of a message call or contract creation.
+	 * The state changes, logs, refunds and self destructs of failed executions are dropped.
+	 */
+	public static class Result {
+
+		private boolean success;
+		private boolean reverted;
+		private String error;
+		private byte [] output = EMPTY;
+		private long gasLeft;
+		private long refund;
+		private String createdAddress;
+		private final List<Log> logs = new ArrayList<>();
+		private final Set<String> destroyed = new LinkedHashSet<>();
+
+		static Result success(byte [] output, long gasLeft) {
+			Result result = new Result();
+			result.success = true;
+			result.output = output;
+			result.gasLeft = gasLeft;
+
+			return result;
+		}
+
+		static Result failure(String error) {
+			Result result = new Result();
+			result.error = error;
+
+			return result;
+		}
+
+		static Result revert(byte [] output, long gasLeft) {
+			Result result = failure("execution reverted");
+			result.reverted = true;
+			result.output = output;
+			result.gasLeft = gasLeft;
+
+			return result;
+		}
+
+		public boolean isSuccess() {
+			return success;
+		}
+
+		public boolean isReverted() {
+			return reverted;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		public byte [] getOutput() {
+			return output;
+		}
+
+		public long getGasLeft() {
+			return gasLeft;
+		}
+
+		public long getRefund() {
+			return refund;
+		}
+
+		public String getCreatedAddress() {
+			return createdAddress;
+		}
+
+		public List<Log> getLogs() {
+			return logs;
+		}
+
+		/**
+		 * Returns the addresses of the contracts that self destructed, to be deleted at the end of the transaction.
+		 */
+		public Set<String> getDestroyed() {
+			return destroyed;
+		}
+	}
+
+	public Evm(BlockContext block, String origin, BigInteger gasPrice) {
+		this.block = block;
+		this.origin = origin;
+		this.gasPrice = gasPrice;
+	}
+
+	/**
+	 * Returns the intrinsic gas of a transaction with the provided data.
+	 */
+	public static long intrinsicGas(byte [] data, boolean create) {
+		long gas = G_TX + (create ? G_TX_CREATE : 0);
+
+		for(byte b: data) {
+			gas += b == 0 ? G_TX_DATA_ZERO : G_TX_DATA_NON_ZERO;
+		}
+
+		return gas;
+	}
+
+	/**
+	 * Returns the address of the contract created by the sender with the provided nonce.
+	 */
+	public static String contractAddress(String sender, BigInteger nonce) {
+		byte [] encoded = RlpEncoder.encode(new RlpList(
+				RlpString.create(Numeric.hexStringToByteArray(sender)),
+				RlpString.create(nonce.signum() == 0 ? EMPTY : Numeric.toBytesPadded(nonce, (nonce.bitLength() + 7) / 8))));
+
+		return Numeric.toHexString(Arrays.copyOfRange(Hash.sha3(encoded), 12, 32));
+	}
+
+	/**
+	 * Transfers the value and executes the code of the receiving account (if any).
+	 * Changes are applied to the provided state if the call succeeds.
+	 */
+	public Result call(WorldState state, String caller, String to, BigInteger value, byte [] data, long gas) {
+		return message(state, caller, to, to, value, value, data, gas, 0);
+	}
+
+	/**
+	 * Transfers the value to the provided new contract address and runs the init code.
+	 * The code returned by the init code is stored as the code of the new contract.
+	 * Changes are applied to the provided state if the creation succeeds.
+	 */
+	public Result create(WorldState state, String caller, String address, BigInteger value, byte [] initCode, long gas) {
+		return createContract(state, caller, address, value, initCode, gas, 0);
+	}
+
+	private Result message(WorldState parent, String caller, String address, String codeAddress,
+			BigInteger value, BigInteger transfer, byte [] data, long gas, int depth)
+	{
+		WorldState state = parent.child();
+
+		if(transfer.signum() > 0) {
+			state.subtractBalance(caller, transfer);
+			state.addBalance(address, transfer);
+		}
+
+		Result result;
+		int precompile = precompile(codeAddress);
+
+		if(precompile > 0) {
+			result = runPrecompile(precompile, data, gas);
+		}
+		else {
+			byte [] code = state.getCode(codeAddress);
+			result = code.length == 0
+					? Result.success(EMPTY, gas)
+					: new Frame(state, caller, address, value, data, code, gas, depth).run();
+		}
+
+		if(result.success) {
+			state.commit();
+		}
+
+		return result;
+	}
+
+	private Result createContract(WorldState parent, String caller, String address, BigInteger value, byte [] initCode, long gas, int depth) {
+		WorldState state = parent.child();
+
+		if(state.getCode(address).length > 0 || state.getNonce(address).signum() > 0) {
+			return Result.failure("contract address collision");
+		}
+
+		state.subtractBalance(caller, value);
+		state.addBalance(address, value);
+		state.incrementNonce(address);
+
+		Result result = new Frame(state, caller, address, value, EMPTY, initCode, gas, depth).run();
+
+		if(result.success) {
+			long depositCost = G_CODE_DEPOSIT * result.output.length;
+
+			if(depositCost > result.gasLeft) {
+				return Result.failure("contract creation code storage out of gas");
+			}
+
+			result.gasLeft -= depositCost;
+			state.setCode(address, result.output);
+			state.commit();
+
+			result.createdAddress = address;
+			result.output = EMPTY;
+		}
+
+		return result;
+	}
+
+	private static int precompile(String address) {
+		BigInteger value = Numeric.toBigInt(address);
+		return value.signum() > 0 && value.compareTo(BigInteger.valueOf(4)) <= 0 ? value.intValue() : 0;
+	}
+
+	private static Result runPrecompile(int precompile, byte [] data, long gas) {
+		long words = (data.length + 31) / 32;
+		long cost;
+		byte [] output;
+
+		switch(precompile) {
+		case 1:
+			cost = 3_000;
+			output = ecrecover(data);
+			break;
+		case 2:
+			cost = 60 + 12 * words;
+			output = sha256(data);
+			break;
+		case 3:
+			cost = 600 + 120 * words;
+			output = ripemd160(data);
+			break;
+		default:
+			cost = 15 + 3 * words;
+			output = data;
+		}
+
+		if(cost > gas) {
+			return Result.failure("out of gas");
+		}
+
+		return Result.success(output, gas - cost);
+	}
+
+	private static byte [] ecrecover(byte [] data) {
+		byte [] input = Arrays.copyOf(data, 128);
+		BigInteger v = new BigInteger(1, Arrays.copyOfRange(input, 32, 64));
+		BigInteger r = new BigInteger(1, Arrays.copyOfRange(input, 64, 96));
+		BigInteger s = new BigInteger(1, Arrays.copyOfRange(input, 96, 128));
+
+		if(!v.equals(BigInteger.valueOf(27)) && !v.equals(BigInteger.valueOf(28))) {
+			return EMPTY;
+		}
+
+		String address = EcRecover.recoverAddress(Arrays.copyOf(input, 32), v.intValue() - 27, r, s);
+		return address == null ? EMPTY : Numeric.toBytesPadded(Numeric.toBigInt(address), 32);
+	}
+
+	private static byte [] sha256(byte [] data) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte [] ripemd160(byte [] data) {
+		RIPEMD160Digest digest = new RIPEMD160Digest();
+		digest.update(data, 0, data.length);
+
+		byte [] hash = new byte [32];
+		digest.doFinal(hash, 12);
+
+		return hash;
+	}
+
+	/**
+	 * Exceptional halt: out of gas, stack under/overflow, invalid jump or instruction.
+	 * All gas of the frame is consumed and its state changes are dropped.
+	 */
+	private static class Halt extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		Halt(String message) {
+			super(message, null, false, false);
+		}
+	}
+
+	/**
+	 * Execution of one piece of code: stack, memory, gas and program counter.
+	 */
+	private class Frame {
+
+		private final WorldState state;
+		private final String caller;
+		private final String address;
+		private final BigInteger value;
+		private final byte [] data;
+		private final byte [] code;
+		private final int depth;
+		private final BitSet jumpDests;
+
+		private final BigInteger [] stack = new BigInteger [1024];
+		private int sp = 0;
+		private byte [] memory = new byte [0];
+		private long memoryWords = 0;
+		private long gas;
+		private byte [] returnData = EMPTY;
+
+		private final Result substate = new Result();
+
+		Frame(WorldState state, String caller, String address, BigInteger value, byte [] data, byte [] code, long gas, int depth) {
+			this.state = state;
+			this.caller = caller;
+			this.address = address;
+			this.value = value;
+			this.data = data;
+			this.code = code;
+			this.gas = gas;
+			this.depth = depth;
+			this.jumpDests = jumpDests(code);
+		}
+
+		Result run() {
+			try {
+				Result result = execute();
+
+				if(result.success) {
+					result.refund += substate.refund;
+					result.logs.addAll(substate.logs);
+					result.destroyed.addAll(substate.destroyed);
+				}
+
+				return result;
+			}
+			catch (Halt e) {
+				return Result.failure(e.getMessage());
+			}
+		}
+
+		private Result execute() {
+			int pc = 0;
+
+			while(pc < code.length) {
+				int op = code[pc] & 0xff;
+
+				if(op >= 0x60 && op <= 0x7f) {
+					int size = op - 0x5f;
+					use(3);
+					push(new BigInteger(1, Arrays.copyOfRange(code, pc + 1, pc + 1 + size)));
+					pc += size + 1;
+					continue;
+				}
+
+				if(op >= 0x80 && op <= 0x8f) {
+					use(3);
+					int n = op - 0x7f;
+					require(n);
+					push(stack[sp - n]);
+					pc++;
+					continue;
+				}
+
+				if(op >= 0x90 && op <= 0x9f) {
+					use(3);
+					int n = op - 0x8f;
+					require(n + 1);
+					BigInteger top = stack[sp - 1];
+					stack[sp - 1] = stack[sp - 1 - n];
+					stack[sp - 1 - n] = top;
+					pc++;
+					continue;
+				}
+
+				if(op >= 0xa0 && op <= 0xa4) {
+					int topicCount = op - 0xa0;
+					long offset = memoryArg(pop());
+					long size = memoryArg(pop());
+					List<byte []> topics = new ArrayList<>();
+
+					for(int i = 0; i < topicCount; i++) {
+						topics.add(Numeric.toBytesPadded(pop(), 32));
+					}
+
+					use(375 + 375 * topicCount + 8 * size);
+					substate.logs.add(new Log(address, topics, readMemory(offset, size)));
+					pc++;
+					continue;
+				}
+
+				BigInteger a, b, c;
+
+				switch(op) {
+				case 0x00: // STOP
+					return Result.success(EMPTY, gas);
+				case 0x01: // ADD
+					use(3);
+					push(pop().add(pop()).and(MAX_UINT));
+					break;
+				case 0x02: // MUL
+					use(5);
+					push(pop().multiply(pop()).and(MAX_UINT));
+					break;
+				case 0x03: // SUB
+					use(3);
+					push(pop().subtract(pop()).mod(TWO_256));
+					break;
+				case 0x04: // DIV
+					use(5);
+					a = pop(); b = pop();
+					push(b.signum() == 0 ? BigInteger.ZERO : a.divide(b));
+					break;
+				case 0x05: // SDIV
+					use(5);
+					a = signed(pop()); b = signed(pop());
+					push(b.signum() == 0 ? BigInteger.ZERO : unsigned(a.divide(b)));
+					break;
+				case 0x06: // MOD
+					use(5);
+					a = pop(); b = pop();
+					push(b.signum() == 0 ? BigInteger.ZERO : a.mod(b));
+					break;
+				case 0x07: // SMOD
+					use(5);
+					a = signed(pop()); b = signed(pop());
+					push(b.signum() == 0 ? BigInteger.ZERO : unsigned(a.abs().mod(b.abs()).multiply(BigInteger.valueOf(a.signum() < 0 ? -1 : 1))));
+					break;
+				case 0x08: // ADDMOD
+					use(8);
+					a = pop(); b = pop(); c = pop();
+					push(c.signum() == 0 ? BigInteger.ZERO : a.add(b).mod(c));
+					break;
+				case 0x09: // MULMOD
+					use(8);
+					a = pop(); b = pop(); c = pop();
+					push(c.signum() == 0 ? BigInteger.ZERO : a.multiply(b).mod(c));
+					break;
+				case 0x0a: // EXP
+					a = pop(); b = pop();
+					use(10 + 50 * ((b.bitLength() + 7) / 8));
+					push(a.modPow(b, TWO_256));
+					break;
+				case 0x0b: // SIGNEXTEND
+					use(5);
+					a = pop(); b = pop();
+					if(a.compareTo(BigInteger.valueOf(31)) < 0) {
+						int bit = a.intValue() * 8 + 7;
+						BigInteger mask = BigInteger.ONE.shiftLeft(bit + 1).subtract(BigInteger.ONE);
+						b = b.testBit(bit) ? b.or(MAX_UINT.xor(mask)) : b.and(mask);
+					}
+					push(b);
+					break;
+				case 0x10: // LT
+					use(3);
+					push(bool(pop().compareTo(pop()) < 0));
+					break;
+				case 0x11: // GT
+					use(3);
+					push(bool(pop().compareTo(pop()) > 0));
+					break;
+				case 0x12: // SLT
+					use(3);
+					push(bool(signed(pop()).compareTo(signed(pop())) < 0));
+					break;
+				case 0x13: // SGT
+					use(3);
+					push(bool(signed(pop()).compareTo(signed(pop())) > 0));
+					break;
+				case 0x14: // EQ
+					use(3);
+					push(bool(pop().equals(pop())));
+					break;
+				case 0x15: // ISZERO
+					use(3);
+					push(bool(pop().signum() == 0));
+					break;
+				case 0x16: // AND
+					use(3);
+					push(pop().and(pop()));
+					break;
+				case 0x17: // OR
+					use(3);
+					push(pop().or(pop()));
+					break;
+				case 0x18: // XOR
+					use(3);
+					push(pop().xor(pop()));
+					break;
+				case 0x19: // NOT
+					use(3);
+					push(pop().xor(MAX_UINT));
+					break;
+				case 0x1a: // BYTE
+					use(3);
+					a = pop(); b = pop();
+					push(a.compareTo(BigInteger.valueOf(32)) >= 0 ? BigInteger.ZERO
+							: BigInteger.valueOf(Numeric.toBytesPadded(b, 32)[a.intValue()] & 0xff));
+					break;
+				case 0x1b: // SHL
+					use(3);
+					a = pop(); b = pop();
+					push(a.compareTo(BigInteger.valueOf(256)) >= 0 ? BigInteger.ZERO : b.shiftLeft(a.intValue()).and(MAX_UINT));
+					break;
+				case 0x1c: // SHR
+					use(3);
+					a = pop(); b = pop();
+					push(a.compareTo(BigInteger.valueOf(256)) >= 0 ? BigInteger.ZERO : b.shiftRight(a.intValue()));
+					break;
+				case 0x1d: // SAR
+					use(3);
+					a = pop(); b = signed(pop());
+					push(unsigned(b.shiftRight(a.compareTo(BigInteger.valueOf(256)) >= 0 ? 256 : a.intValue())));
+					break;
+				case 0x20: { // SHA3
+					long offset = memoryArg(pop());
+					long size = memoryArg(pop());
+					use(30 + 6 * words(size));
+					push(new BigInteger(1, Hash.sha3(readMemory(offset, size))));
+					break;
+				}
+				case 0x30: // ADDRESS
+					use(2);
+					push(Numeric.toBigInt(address));
+					break;
+				case 0x31: // BALANCE
+					use(400);
+					push(state.getBalance(toAddress(pop())));
+					break;
+				case 0x32: // ORIGIN
+					use(2);
+					push(Numeric.toBigInt(origin));
+					break;
+				case 0x33: // CALLER
+					use(2);
+					push(Numeric.toBigInt(caller));
+					break;
+				case 0x34: // CALLVALUE
+					use(2);
+					push(value);
+					break;
+				case 0x35: { // CALLDATALOAD
+					use(3);
+					a = pop();
+					byte [] word = new byte [32];
+					if(a.compareTo(BigInteger.valueOf(data.length)) < 0) {
+						int offset = a.intValue();
+						System.arraycopy(data, offset, word, 0, Math.min(32, data.length - offset));
+					}
+					push(new BigInteger(1, word));
+					break;
+				}
+				case 0x36: // CALLDATASIZE
+					use(2);
+					push(BigInteger.valueOf(data.length));
+					break;
+				case 0x37: // CALLDATACOPY
+					copy(data);
+					break;
+				case 0x38: // CODESIZE
+					use(2);
+					push(BigInteger.valueOf(code.length));
+					break;
+				case 0x39: // CODECOPY
+					copy(code);
+					break;
+				case 0x3a: // GASPRICE
+					use(2);
+					push(gasPrice);
+					break;
+				case 0x3b: // EXTCODESIZE
+					use(700);
+					push(BigInteger.valueOf(state.getCode(toAddress(pop())).length));
+					break;
+				case 0x3c: { // EXTCODECOPY
+					use(700);
+					byte [] other = state.getCode(toAddress(pop()));
+					copy(other);
+					break;
+				}
+				case 0x3d: // RETURNDATASIZE
+					use(2);
+					push(BigInteger.valueOf(returnData.length));
+					break;
+				case 0x3e: { // RETURNDATACOPY
+					BigInteger dataOffset = peek(1);
+					BigInteger size = peek(2);
+					if(dataOffset.add(size).compareTo(BigInteger.valueOf(returnData.length)) > 0) {
+						throw new Halt("return data out of bounds");
+					}
+					copy(returnData);
+					break;
+				}
+				case 0x3f: { // EXTCODEHASH
+					use(400);
+					String other = toAddress(pop());
+					push(state.exists(other) ? new BigInteger(1, Hash.sha3(state.getCode(other))) : BigInteger.ZERO);
+					break;
+				}
+				case 0x40: { // BLOCKHASH
+					use(20);
+					a = pop();
+					long number = a.bitLength() < 63 ? a.longValue() : -1;
+					byte [] hash = number >= 0 && number < block.number && number >= block.number - 256 ? block.blockHashes.apply(number) : null;
+					push(hash == null ? BigInteger.ZERO : new BigInteger(1, hash));
+					break;
+				}
+				case 0x41: // COINBASE
+					use(2);
+					push(Numeric.toBigInt(block.coinbase));
+					break;
+				case 0x42: // TIMESTAMP
+					use(2);
+					push(BigInteger.valueOf(block.timestamp));
+					break;
+				case 0x43: // NUMBER
+					use(2);
+					push(BigInteger.valueOf(block.number));
+					break;
+				case 0x44: // DIFFICULTY
+					use(2);
+					push(BigInteger.ONE);
+					break;
+				case 0x45: // GASLIMIT
+					use(2);
+					push(BigInteger.valueOf(block.gasLimit));
+					break;
+				case 0x46: // CHAINID
+					use(2);
+					push(BigInteger.valueOf(block.chainId));
+					break;
+				case 0x47: // SELFBALANCE
+					use(5);
+					push(state.getBalance(address));
+					break;
+				case 0x50: // POP
+					use(2);
+					pop();
+					break;
+				case 0x51: { // MLOAD
+					use(3);
+					long offset = memoryArg(pop());
+					push(new BigInteger(1, readMemory(offset, 32)));
+					break;
+				}
+				case 0x52: { // MSTORE
+					use(3);
+					long offset = memoryArg(pop());
+					writeMemory(offset, Numeric.toBytesPadded(pop(), 32));
+					break;
+				}
+				case 0x53: { // MSTORE8
+					use(3);
+					long offset = memoryArg(pop());
+					writeMemory(offset, new byte [] { pop().byteValue() });
+					break;
+				}
+				case 0x54: // SLOAD
+					use(200);
+					push(state.getStorage(address, pop()));
+					break;
+				case 0x55: { // SSTORE
+					a = pop(); b = pop();
+					BigInteger current = state.getStorage(address, a);
+					use(current.signum() == 0 && b.signum() != 0 ? G_SSTORE_SET : G_SSTORE_RESET);
+					if(current.signum() != 0 && b.signum() == 0) {
+						substate.refund += R_SSTORE_CLEAR;
+					}
+					state.setStorage(address, a, b);
+					break;
+				}
+				case 0x56: // JUMP
+					use(8);
+					pc = jump(pop());
+					continue;
+				case 0x57: // JUMPI
+					use(10);
+					a = pop(); b = pop();
+					if(b.signum() != 0) {
+						pc = jump(a);
+						continue;
+					}
+					break;
+				case 0x58: // PC
+					use(2);
+					push(BigInteger.valueOf(pc));
+					break;
+				case 0x59: // MSIZE
+					use(2);
+					push(BigInteger.valueOf(memoryWords * 32));
+					break;
+				case 0x5a: // GAS
+					use(2);
+					push(BigInteger.valueOf(gas));
+					break;
+				case 0x5b: // JUMPDEST
+					use(1);
+					break;
+				case 0xf0: // CREATE
+					create();
+					break;
+				case 0xf1: // CALL
+					call(op);
+					break;
+				case 0xf3: { // RETURN
+					long offset = memoryArg(pop());
+					long size = memoryArg(pop());
+					return Result.success(readMemory(offset, size), gas);
+				}
+				case 0xf4: // DELEGATECALL
+				case 0xfa: // STATICCALL
+					call(op);
+					break;
+				case 0xfd: { // REVERT
+					long offset = memoryArg(pop());
+					long size = memoryArg(pop());
+					return Result.revert(readMemory(offset, size), gas);
+				}
+				case 0xff: { // SELFDESTRUCT
+					String beneficiary = toAddress(pop());
+					use(G_SELFDESTRUCT);
+					BigInteger balance = state.getBalance(address);
+					state.subtractBalance(address, balance);
+					state.addBalance(beneficiary, balance);
+					if(substate.destroyed.add(address)) {
+						substate.refund += R_SELFDESTRUCT;
+					}
+					return Result.success(EMPTY, gas);
+				}
+				default:
+					throw new Halt(String.format("invalid opcode 0x%02x", op));
+				}
+
+				pc++;
+			}
+
+			return Result.success(EMPTY, gas);
+		}
+
+		private void call(int op) {
+			BigInteger requestedGas = pop();
+			String to = toAddress(pop());
+			BigInteger callValue = op == 0xf1 ? pop() : BigInteger.ZERO;
+			long inOffset = memoryArg(pop());
+			long inSize = memoryArg(pop());
+			long outOffset = memoryArg(pop());
+			long outSize = memoryArg(pop());
+
+			expandMemory(inOffset, inSize);
+			expandMemory(outOffset, outSize);
+
+			long cost = G_CALL;
+
+			if(callValue.signum() > 0) {
+				cost += G_CALL_VALUE;
+
+				if(!state.exists(to)) {
+					cost += G_NEW_ACCOUNT;
+				}
+			}
+
+			use(cost);
+
+			long available = gas - gas / 64;
+			long callGas = requestedGas.compareTo(BigInteger.valueOf(available)) < 0 ? requestedGas.longValue() : available;
+			use(callGas);
+
+			if(callValue.signum() > 0) {
+				callGas += G_CALL_STIPEND;
+			}
+
+			byte [] input = readMemory(inOffset, inSize);
+			returnData = EMPTY;
+
+			if(depth + 1 >= MAX_DEPTH || state.getBalance(address).compareTo(callValue) < 0) {
+				gas += callGas;
+				push(BigInteger.ZERO);
+				return;
+			}
+
+			Result result = op == 0xf4
+					? message(state, caller, address, to, value, BigInteger.ZERO, input, callGas, depth + 1)
+					: message(state, address, to, to, callValue, callValue, input, callGas, depth + 1);
+
+			gas += result.gasLeft;
+			returnData = result.output;
+
+			if(result.success) {
+				substate.refund += result.refund;
+				substate.logs.addAll(result.logs);
+				substate.destroyed.addAll(result.destroyed);
+			}
+
+			writeMemory(outOffset, Arrays.copyOf(result.output, (int) Math.min(outSize, result.output.length)));
+			push(bool(result.success));
+		}
+
+		private void create() {
+			BigInteger createValue = pop();
+			long offset = memoryArg(pop());
+			long size = memoryArg(pop());
+
+			use(G_TX_CREATE);
+			byte [] initCode = readMemory(offset, size);
+
+			long callGas = gas - gas / 64;
+			use(callGas);
+			returnData = EMPTY;
+
+			if(depth + 1 >= MAX_DEPTH || state.getBalance(address).compareTo(createValue) < 0) {
+				gas += callGas;
+				push(BigInteger.ZERO);
+				return;
+			}
+
+			String created = contractAddress(address, state.getNonce(address));
+			state.incrementNonce(address);
+
+			Result result = createContract(state, address, created, createValue, initCode, callGas, depth + 1);
+			gas += result.gasLeft;
+
+			if(result.success) {
+				substate.refund += result.refund;
+				substate.logs.addAll(result.logs);
+				substate.destroyed.addAll(result.destroyed);
+				push(Numeric.toBigInt(created));
+			}
+			else {
+				returnData = result.output;
+				push(BigInteger.ZERO);
+			}
+		}
+
+		/**
+		 * CALLDATACOPY, CODECOPY, EXTCODECOPY and RETURNDATACOPY: memory offset, source offset, size.
+		 * Bytes beyond the end of the source are copied as zeros.
+		 */
+		private void copy(byte [] source) {
+			long memoryOffset = memoryArg(pop());
+			BigInteger sourceOffset = pop();
+			long size = memoryArg(pop());
+
+			use(3 + 3 * words(size));
+
+			byte [] bytes = new byte [(int) size];
+
+			if(sourceOffset.compareTo(BigInteger.valueOf(source.length)) < 0) {
+				int start = sourceOffset.intValue();
+				System.arraycopy(source, start, bytes, 0, (int) Math.min(size, source.length - start));
+			}
+
+			writeMemory(memoryOffset, bytes);
+		}
+
+		private int jump(BigInteger destination) {
+			if(destination.compareTo(BigInteger.valueOf(code.length)) >= 0 || !jumpDests.get(destination.intValue())) {
+				throw new Halt("invalid jump destination");
+			}
+
+			return destination.intValue();
+		}
+
+		private void use(long amount) {
+			if(amount > gas || amount < 0) {
+				gas = 0;
+				throw new Halt("out of gas");
+			}
+
+			gas -= amount;
+		}
+
+		private void push(BigInteger value) {
+			if(sp == stack.length) {
+				throw new Halt("stack limit reached 1024");
+			}
+
+			stack[sp++] = value;
+		}
+
+		private BigInteger pop() {
+			require(1);
+			return stack[--sp];
+		}
+
+		private BigInteger peek(int index) {
+			require(index + 1);
+			return stack[sp - 1 - index];
+		}
+
+		private void require(int items) {
+			if(sp < items) {
+				throw new Halt("stack underflow");
+			}
+		}
+
+		private long memoryArg(BigInteger value) {
+			if(value.compareTo(MAX_MEMORY) > 0) {
+				throw new Halt("out of gas");
+			}
+
+			return value.longValue();
+		}
+
+		private byte [] readMemory(long offset, long size) {
+			if(size == 0) {
+				return EMPTY;
+			}
+
+			expandMemory(offset, size);
+			return Arrays.copyOfRange(memory, (int) offset, (int) (offset + size));
+		}
+
+		private void writeMemory(long offset, byte [] bytes) {
+			if(bytes.length == 0) {
+				return;
+			}
+
+			expandMemory(offset, bytes.length);
+			System.arraycopy(bytes, 0, memory, (int) offset, bytes.length);
+		}
+
+		private void expandMemory(long offset, long size) {
+			if(size == 0) {
+				return;
+			}
+
+			long words = words(offset + size);
+
+			if(words > memoryWords) {
+				use(memoryCost(words) - memoryCost(memoryWords));
+				memoryWords = words;
+
+				if(memory.length < words * 32) {
+					memory = Arrays.copyOf(memory, (int) Math.max(words * 32, memory.length * 2L));
+				}
+			}
+		}
+	}
+
+	private static long words(long size) {
+		return (size + 31) / 32;
+	}
+
+	private static long memoryCost(long words) {
+		return 3 * words + words * words / 512;
+	}
+
+	private static BitSet jumpDests(byte [] code) {
+		BitSet dests = new BitSet(code.length);
+
+		for(int pc = 0; pc < code.length; pc++) {
+			int op = code[pc] & 0xff;
+
+			if(op == 0x5b) {
+				dests.set(pc);
+			}
+			else if(op >= 0x60 && op <= 0x7f) {
+				pc += op - 0x5f;
+			}
+		}
+
+		return dests;
+	}
+
+	private static BigInteger bool(boolean value) {
+		return value ? BigInteger.ONE : BigInteger.ZERO;
+	}
+
+	private static BigInteger signed(BigInteger value) {
+		return value.testBit(255) ? value.subtract(TWO_256) : value;
+	}
+
+	private static BigInteger unsigned(BigInteger value) {
+		return value.signum() < 0 ? value.add(TWO_256) : value.and(MAX_UINT);
+	}
+
+	private static String toAddress(BigInteger value) {
+		return Numeric.toHexStringWithPrefixZeroPadded(value.and(ADDRESS_MASK), 40);
+	}
+}
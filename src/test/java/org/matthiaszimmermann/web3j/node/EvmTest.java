@@ -0,0 +1,141 @@
+package org.matthiaszimmermann.web3j.node;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Keys;
+import org.web3j.utils.Numeric;
+
+public class EvmTest {
+
+	private static final String SENDER = "0x6ac7ea33f8831ea9dcc53393aaa88b25a785dbf0";
+	private static final String CONTRACT = "0x00000000000000000000000000000000000000cc";
+	private static final String ECRECOVER = "0x0000000000000000000000000000000000000001";
+	private static final long GAS = 100_000;
+
+	// PUSH1 42, PUSH1 0, SSTORE, STOP
+	private static final String STORE_42 = "0x602a60005500";
+
+	private WorldState state;
+	private Evm evm;
+
+	@Before
+	public void setUp() {
+		state = new WorldState();
+		state.addBalance(SENDER, BigInteger.valueOf(1_000_000));
+		evm = new Evm(new Evm.BlockContext(SENDER, 1, 0, 8_000_000, 1, number -> new byte[32]), SENDER, BigInteger.ONE);
+	}
+
+	@Test
+	public void testIntrinsicGas() {
+		byte [] data = { 0, 1, 2 };
+
+		assertEquals(21_000, Evm.intrinsicGas(new byte[0], false));
+		assertEquals(21_000 + 4 + 68 + 68, Evm.intrinsicGas(data, false));
+		assertEquals(53_000 + 4 + 68 + 68, Evm.intrinsicGas(data, true));
+	}
+
+	@Test
+	public void testContractAddress() {
+		assertEquals("0xcd234a471b72ba2f1ccf0a70fcaba648a5eecd8d", Evm.contractAddress(SENDER, BigInteger.ZERO));
+		assertEquals("0x343c43a37d37dff08ae8c4a11544c718abb4fcf8", Evm.contractAddress(SENDER, BigInteger.ONE));
+	}
+
+	@Test
+	public void testCreateAndCall() {
+		// runtime code: PUSH1 2, PUSH1 3, ADD, PUSH1 0, MSTORE, PUSH1 32, PUSH1 0, RETURN
+		String runtime = "6002600301600052602060" + "00f3";
+		// init code: PUSH13 runtime, PUSH1 0, MSTORE, PUSH1 13, PUSH1 19, RETURN
+		byte [] initCode = Numeric.hexStringToByteArray("0x6c" + runtime + "600052600d6013f3");
+		String address = Evm.contractAddress(SENDER, BigInteger.ZERO);
+
+		Evm.Result created = evm.create(state, SENDER, address, BigInteger.TEN, initCode, GAS);
+
+		assertTrue(created.getError(), created.isSuccess());
+		assertEquals(address, created.getCreatedAddress());
+		assertArrayEquals(Numeric.hexStringToByteArray(runtime), state.getCode(address));
+		assertEquals(BigInteger.TEN, state.getBalance(address));
+
+		Evm.Result result = evm.call(state, SENDER, address, BigInteger.ZERO, new byte[0], GAS);
+
+		assertTrue(result.isSuccess());
+		assertEquals(BigInteger.valueOf(5), new BigInteger(1, result.getOutput()));
+		assertTrue(result.getGasLeft() < GAS);
+	}
+
+	@Test
+	public void testStorageGas() {
+		state.setCode(CONTRACT, Numeric.hexStringToByteArray(STORE_42));
+
+		Evm.Result result = evm.call(state, SENDER, CONTRACT, BigInteger.ZERO, new byte[0], GAS);
+
+		assertTrue(result.isSuccess());
+		assertEquals(BigInteger.valueOf(42), state.getStorage(CONTRACT, BigInteger.ZERO));
+		assertEquals(GAS - 3 - 3 - 20_000, result.getGasLeft());
+	}
+
+	@Test
+	public void testOutOfGasDropsChanges() {
+		state.setCode(CONTRACT, Numeric.hexStringToByteArray(STORE_42));
+
+		Evm.Result result = evm.call(state, SENDER, CONTRACT, BigInteger.ONE, new byte[0], 10_000);
+
+		assertFalse(result.isSuccess());
+		assertFalse(result.isReverted());
+		assertEquals(BigInteger.ZERO, state.getStorage(CONTRACT, BigInteger.ZERO));
+		assertEquals(BigInteger.ZERO, state.getBalance(CONTRACT));
+	}
+
+	@Test
+	public void testRevertDropsChangesAndKeepsGas() {
+		// STORE_42 without STOP followed by PUSH1 0, PUSH1 0, REVERT
+		state.setCode(CONTRACT, Numeric.hexStringToByteArray("0x602a60005560006000fd"));
+
+		Evm.Result result = evm.call(state, SENDER, CONTRACT, BigInteger.ONE, new byte[0], GAS);
+
+		assertFalse(result.isSuccess());
+		assertTrue(result.isReverted());
+		assertTrue(result.getGasLeft() > 0);
+		assertEquals(BigInteger.ZERO, state.getStorage(CONTRACT, BigInteger.ZERO));
+		assertEquals(BigInteger.valueOf(1_000_000), state.getBalance(SENDER));
+	}
+
+	@Test
+	public void testLog() {
+		// PUSH1 1, PUSH1 0, PUSH1 0, LOG1, STOP
+		state.setCode(CONTRACT, Numeric.hexStringToByteArray("0x600160006000a100"));
+
+		Evm.Result result = evm.call(state, SENDER, CONTRACT, BigInteger.ZERO, new byte[0], GAS);
+
+		assertTrue(result.isSuccess());
+		assertEquals(1, result.getLogs().size());
+		assertEquals(CONTRACT, result.getLogs().get(0).getAddress());
+		assertEquals(BigInteger.ONE, new BigInteger(1, result.getLogs().get(0).getTopics().get(0)));
+	}
+
+	@Test
+	public void testEcrecoverPrecompile() {
+		BigInteger privateKey = Numeric.toBigInt("0x4646464646464646464646464646464646464646464646464646464646464646");
+		byte [] hash = Hash.sha3("hello world".getBytes());
+		BigInteger [] signature = EcRecover.sign(hash, privateKey);
+
+		String input = Numeric.toHexString(hash)
+				+ Numeric.toHexStringNoPrefixZeroPadded(signature[2].add(BigInteger.valueOf(27)), 64)
+				+ Numeric.toHexStringNoPrefixZeroPadded(signature[0], 64)
+				+ Numeric.toHexStringNoPrefixZeroPadded(signature[1], 64);
+
+		Evm.Result result = evm.call(state, SENDER, ECRECOVER, BigInteger.ZERO, Numeric.hexStringToByteArray(input), GAS);
+
+		assertTrue(result.isSuccess());
+		assertEquals(GAS - 3_000, result.getGasLeft());
+		assertEquals(Numeric.toBigInt(Keys.getAddress(ECKeyPair.create(privateKey))), new BigInteger(1, result.getOutput()));
+	}
+}
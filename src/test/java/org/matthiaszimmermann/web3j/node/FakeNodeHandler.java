@@ -0,0 +1,738 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.matthiaszimmermann.web3j.util.Web3jConstants;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Hash;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+import org.web3j.utils.Convert;
+import org.web3j.utils.Numeric;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * In-process stand-in for an Ethereum client, for tests and demos without a docker node.
+ * Keeps accounts, balances, nonces, contract code and storage in memory, verifies the signatures of raw
+ * transactions, executes contracts with a minimal {@link Evm} and produces blocks and receipts.
+ *
+ * Like TestRPC the node starts with {@link #ACCOUNTS} unlocked accounts with {@link #INITIAL_BALANCE_ETHER} Ether each,
+ * the first account is the coinbase and receives the transaction fees.
+ * Transactions are mined instantly (one block per submitted transaction) or every block interval.
+ * Transactions with a future nonce wait until the missing nonces arrive.
+ * State queries always answer from the latest state, regardless of the requested block.
+ *
+ * Serve it with a {@link HttpEndpoint} or {@link IpcEndpoint}.
+ */
+public class FakeNodeHandler extends JsonRpcHandler implements Closeable {
+
+	public static final String CLIENT_VERSION = "FakeNode/v1.0";
+	public static final long CHAIN_ID = 1337;
+	public static final int ACCOUNTS = 10;
+	public static final long INITIAL_BALANCE_ETHER = 100;
+	public static final long BLOCK_GAS_LIMIT = 8_000_000;
+
+	private static final String ZERO_ADDRESS = "0x0000000000000000000000000000000000000000";
+	private static final String ZERO_HASH = Numeric.toHexString(new byte [32]);
+	private static final String EMPTY_BLOOM = Numeric.toHexString(new byte [256]);
+	private static final String EMPTY_UNCLES = Numeric.toHexString(Hash.sha3(RlpEncoder.encode(new RlpList())));
+
+	private final long blockInterval;
+	private final List<Credentials> accounts = new ArrayList<>();
+	private final Map<String, Credentials> unlocked = new HashMap<>();
+	private final String coinbase;
+
+	private final WorldState state = new WorldState();
+	private final List<Block> blocks = new ArrayList<>();
+	private final Map<String, Block> blocksByHash = new HashMap<>();
+	private final Map<String, MinedTransaction> transactions = new HashMap<>();
+
+	// pending transactions by sender and nonce, senders in order of arrival
+	private final Map<String, TreeMap<BigInteger, DecodedTransaction>> pool = new LinkedHashMap<>();
+	private final Map<String, DecodedTransaction> pendingByHash = new HashMap<>();
+
+	private final ScheduledExecutorService miner;
+
+	/**
+	 * Creates a node that mines every transaction instantly.
+	 */
+	public FakeNodeHandler() {
+		this(0);
+	}
+
+	/**
+	 * Creates a node that mines a block every block interval (ms), or instantly if the interval is 0.
+	 */
+	public FakeNodeHandler(long blockInterval) {
+		this.blockInterval = blockInterval;
+
+		BigInteger initialBalance = Convert.toWei(BigDecimal.valueOf(INITIAL_BALANCE_ETHER), Convert.Unit.ETHER).toBigInteger();
+
+		for(int i = 0; i < ACCOUNTS; i++) {
+			byte [] privateKey = Hash.sha3(("fake-node-account-" + i).getBytes(StandardCharsets.UTF_8));
+			Credentials credentials = Credentials.create(ECKeyPair.create(privateKey));
+
+			accounts.add(credentials);
+			unlocked.put(credentials.getAddress(), credentials);
+			state.addBalance(credentials.getAddress(), initialBalance);
+		}
+
+		coinbase = accounts.get(0).getAddress();
+		addBlock(Collections.emptyList(), 0);
+
+		if(blockInterval > 0) {
+			miner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "fake-node-miner");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+			miner.scheduleAtFixedRate(this::mine, blockInterval, blockInterval, TimeUnit.MILLISECONDS);
+		}
+		else {
+			miner = null;
+		}
+	}
+
+	/**
+	 * Returns the credentials of the unlocked accounts of the node.
+	 */
+	public List<Credentials> getAccounts() {
+		return Collections.unmodifiableList(accounts);
+	}
+
+	public long getBlockInterval() {
+		return blockInterval;
+	}
+
+	public synchronized long getBlockNumber() {
+		return head().number;
+	}
+
+	/**
+	 * Mines a block with the executable pending transactions.
+	 */
+	public synchronized void mine() {
+		Block parent = head();
+		Evm.BlockContext context = context(parent.number + 1);
+
+		List<MinedTransaction> mined = new ArrayList<>();
+		long gasUsed = 0;
+
+		for(Iterator<TreeMap<BigInteger, DecodedTransaction>> senders = pool.values().iterator(); senders.hasNext(); ) {
+			TreeMap<BigInteger, DecodedTransaction> queue = senders.next();
+
+			while(!queue.isEmpty()) {
+				DecodedTransaction tx = queue.firstEntry().getValue();
+				BigInteger nonce = state.getNonce(tx.getFrom());
+
+				if(tx.getNonce().compareTo(nonce) > 0 || gasUsed + tx.getGas().longValue() > BLOCK_GAS_LIMIT) {
+					break;
+				}
+
+				queue.pollFirstEntry();
+				pendingByHash.remove(tx.getHash());
+
+				// stale or no longer affordable transactions are dropped
+				if(tx.getNonce().compareTo(nonce) < 0 || state.getBalance(tx.getFrom()).compareTo(upfrontCost(tx)) < 0) {
+					continue;
+				}
+
+				MinedTransaction receipt = execute(tx, context, mined.size(), gasUsed);
+				gasUsed = receipt.cumulativeGasUsed;
+				mined.add(receipt);
+			}
+
+			if(queue.isEmpty()) {
+				senders.remove();
+			}
+		}
+
+		addBlock(mined, gasUsed);
+	}
+
+	@Override
+	public void close() {
+		if(miner != null) {
+			miner.shutdownNow();
+		}
+	}
+
+	@Override
+	protected synchronized JsonNode call(String method, JsonNode params) throws RpcException {
+		switch(method) {
+		case "web3_clientVersion":         return NODES.textNode(CLIENT_VERSION);
+		case "web3_sha3":                  return NODES.textNode(Numeric.toHexString(Hash.sha3(bytes(param(params, 0)))));
+		case "net_version":                return NODES.textNode(Long.toString(CHAIN_ID));
+		case "net_listening":              return NODES.booleanNode(true);
+		case "net_peerCount":              return quantity(0);
+		case "eth_chainId":                return quantity(CHAIN_ID);
+		case "eth_protocolVersion":        return NODES.textNode("63");
+		case "eth_syncing":                return NODES.booleanNode(false);
+		case "eth_mining":                 return NODES.booleanNode(true);
+		case "eth_hashrate":               return quantity(0);
+		case "eth_coinbase":               return NODES.textNode(coinbase);
+		case "eth_accounts":               return accounts();
+		case "eth_gasPrice":               return quantity(Web3jConstants.GAS_PRICE);
+		case "eth_blockNumber":            return quantity(head().number);
+		case "eth_getBalance":             return quantity(state.getBalance(address(param(params, 0))));
+		case "eth_getTransactionCount":    return quantity(transactionCount(address(param(params, 0)), params.get(1)));
+		case "eth_getCode":                return NODES.textNode(Numeric.toHexString(state.getCode(address(param(params, 0)))));
+		case "eth_getStorageAt":           return NODES.textNode(Numeric.toHexString(Numeric.toBytesPadded(
+		                                           state.getStorage(address(param(params, 0)), number(param(params, 1))), 32)));
+		case "eth_getCompilers":           return NODES.arrayNode();
+		case "eth_sendRawTransaction":     return NODES.textNode(submit(DecodedTransaction.decode(param(params, 0).asText())));
+		case "eth_sendTransaction":        return NODES.textNode(submit(sign(param(params, 0))));
+		case "eth_call":                   return NODES.textNode(Numeric.toHexString(call(param(params, 0))));
+		case "eth_estimateGas":            return quantity(estimateGas(param(params, 0)));
+		case "eth_getBlockByNumber":       return blockJson(blockByNumber(param(params, 0)), params.path(1).asBoolean());
+		case "eth_getBlockByHash":         return blockJson(blocksByHash.get(hash(param(params, 0))), params.path(1).asBoolean());
+		case "eth_getBlockTransactionCountByNumber": return transactionCount(blockByNumber(param(params, 0)));
+		case "eth_getBlockTransactionCountByHash":   return transactionCount(blocksByHash.get(hash(param(params, 0))));
+		case "eth_getUncleCountByBlockNumber":       return quantity(0);
+		case "eth_getUncleCountByBlockHash":         return quantity(0);
+		case "eth_getTransactionByHash":   return transactionByHash(hash(param(params, 0)));
+		case "eth_getTransactionReceipt":  return receiptJson(transactions.get(hash(param(params, 0))));
+		case "eth_getLogs":                return logs(param(params, 0));
+		case "evm_mine":                   mine(); return quantity(0);
+		default:                           throw methodNotFound(method);
+		}
+	}
+
+	private String submit(DecodedTransaction tx) throws RpcException {
+		String from = tx.getFrom();
+
+		if(transactions.containsKey(tx.getHash()) || pendingByHash.containsKey(tx.getHash())) {
+			throw serverError("known transaction: " + tx.getHash());
+		}
+
+		if(tx.getNonce().compareTo(state.getNonce(from)) < 0) {
+			throw serverError("nonce too low");
+		}
+
+		TreeMap<BigInteger, DecodedTransaction> queue = pool.get(from);
+
+		if(queue != null && queue.containsKey(tx.getNonce())) {
+			throw serverError("replacement transaction underpriced");
+		}
+
+		if(tx.getGas().compareTo(BigInteger.valueOf(Evm.intrinsicGas(tx.getData(), tx.getTo() == null))) < 0) {
+			throw serverError("intrinsic gas too low");
+		}
+
+		if(tx.getGas().compareTo(BigInteger.valueOf(BLOCK_GAS_LIMIT)) > 0) {
+			throw serverError("exceeds block gas limit");
+		}
+
+		if(state.getBalance(from).compareTo(upfrontCost(tx)) < 0) {
+			throw serverError("insufficient funds for gas * price + value");
+		}
+
+		pool.computeIfAbsent(from, sender -> new TreeMap<>()).put(tx.getNonce(), tx);
+		pendingByHash.put(tx.getHash(), tx);
+
+		if(blockInterval == 0) {
+			mine();
+		}
+
+		return tx.getHash();
+	}
+
+	/**
+	 * Signs the transaction of eth_sendTransaction with the key of the unlocked sender account.
+	 */
+	private DecodedTransaction sign(JsonNode request) throws RpcException {
+		String from = address(request.path("from"));
+		Credentials credentials = unlocked.get(from);
+
+		if(credentials == null) {
+			throw serverError("unknown account");
+		}
+
+		BigInteger nonce = request.hasNonNull("nonce") ? number(request.get("nonce")) : transactionCount(from, NODES.textNode("pending"));
+		BigInteger gasPrice = request.hasNonNull("gasPrice") ? number(request.get("gasPrice")) : Web3jConstants.GAS_PRICE;
+		BigInteger gas = request.hasNonNull("gas") ? number(request.get("gas")) : BigInteger.valueOf(90_000);
+		BigInteger value = request.hasNonNull("value") ? number(request.get("value")) : BigInteger.ZERO;
+		byte [] to = request.hasNonNull("to") ? Numeric.hexStringToByteArray(address(request.get("to"))) : new byte [0];
+
+		// encoded here as web3j's TransactionEncoder drops leading zero bytes of the to address
+		List<RlpType> fields = new ArrayList<>();
+		fields.add(RlpString.create(nonce));
+		fields.add(RlpString.create(gasPrice));
+		fields.add(RlpString.create(gas));
+		fields.add(RlpString.create(to));
+		fields.add(RlpString.create(value));
+		fields.add(RlpString.create(data(request)));
+
+		byte [] hash = Hash.sha3(RlpEncoder.encode(new RlpList(fields)));
+		BigInteger [] signature = EcRecover.sign(hash, credentials.getEcKeyPair().getPrivateKey());
+
+		fields.add(RlpString.create(signature[2].add(BigInteger.valueOf(27))));
+		fields.add(RlpString.create(signature[0]));
+		fields.add(RlpString.create(signature[1]));
+
+		return DecodedTransaction.decode(Numeric.toHexString(RlpEncoder.encode(new RlpList(fields))));
+	}
+
+	private MinedTransaction execute(DecodedTransaction tx, Evm.BlockContext context, int index, long cumulativeGasUsed) {
+		String from = tx.getFrom();
+		long gas = tx.getGas().longValue();
+		BigInteger gasPrice = tx.getGasPrice();
+
+		WorldState txState = state.child();
+		txState.subtractBalance(from, tx.getGas().multiply(gasPrice));
+		txState.incrementNonce(from);
+
+		long executionGas = gas - Evm.intrinsicGas(tx.getData(), tx.getTo() == null);
+		Evm evm = new Evm(context, from, gasPrice);
+		String contractAddress = tx.getTo() == null ? Evm.contractAddress(from, tx.getNonce()) : null;
+
+		Evm.Result result = tx.getTo() == null
+				? evm.create(txState, from, contractAddress, tx.getValue(), tx.getData(), executionGas)
+				: evm.call(txState, from, tx.getTo(), tx.getValue(), tx.getData(), executionGas);
+
+		long gasUsed = gas - result.getGasLeft();
+
+		if(result.isSuccess()) {
+			gasUsed -= Math.min(result.getRefund(), gasUsed / 2);
+			result.getDestroyed().forEach(txState::delete);
+		}
+
+		txState.addBalance(from, BigInteger.valueOf(gas - gasUsed).multiply(gasPrice));
+		txState.addBalance(context.coinbase, BigInteger.valueOf(gasUsed).multiply(gasPrice));
+		txState.commit();
+
+		MinedTransaction mined = new MinedTransaction();
+		mined.transaction = tx;
+		mined.index = index;
+		mined.gasUsed = gasUsed;
+		mined.cumulativeGasUsed = cumulativeGasUsed + gasUsed;
+		mined.contractAddress = contractAddress;
+		mined.success = result.isSuccess();
+		mined.logs = result.isSuccess() ? result.getLogs() : Collections.emptyList();
+
+		return mined;
+	}
+
+	/**
+	 * Executes an eth_call or eth_estimateGas request on a copy of the latest state.
+	 */
+	private Evm.Result simulate(JsonNode request, long gas) {
+		String from = request.hasNonNull("from") ? address(request.get("from")) : ZERO_ADDRESS;
+		BigInteger gasPrice = request.hasNonNull("gasPrice") ? number(request.get("gasPrice")) : BigInteger.ZERO;
+		BigInteger value = request.hasNonNull("value") ? number(request.get("value")) : BigInteger.ZERO;
+		byte [] data = data(request);
+
+		WorldState callState = state.child();
+		Evm evm = new Evm(context(head().number + 1), from, gasPrice);
+
+		// calls are free and may transfer value the caller does not have
+		callState.addBalance(from, value);
+
+		if(request.hasNonNull("to")) {
+			return evm.call(callState, from, address(request.get("to")), value, data, gas);
+		}
+
+		return evm.create(callState, from, Evm.contractAddress(from, state.getNonce(from)), value, data, gas);
+	}
+
+	private byte [] call(JsonNode request) throws RpcException {
+		long gas = request.hasNonNull("gas") ? number(request.get("gas")).longValue() : BLOCK_GAS_LIMIT;
+		Evm.Result result = simulate(request, gas);
+
+		if(!result.isSuccess()) {
+			throw serverError(result.getError());
+		}
+
+		return result.getOutput();
+	}
+
+	/**
+	 * Returns the lowest gas limit with which the transaction succeeds (binary search, like geth).
+	 */
+	private long estimateGas(JsonNode request) throws RpcException {
+		long intrinsic = Evm.intrinsicGas(data(request), !request.hasNonNull("to"));
+		long cap = request.hasNonNull("gas") ? number(request.get("gas")).longValue() : BLOCK_GAS_LIMIT;
+
+		Evm.Result result = simulate(request, cap - intrinsic);
+
+		if(!result.isSuccess()) {
+			throw serverError("gas required exceeds allowance or always failing transaction: " + result.getError());
+		}
+
+		long low = intrinsic + (cap - intrinsic - result.getGasLeft()) - 1;
+		long high = cap;
+
+		while(low + 1 < high) {
+			long mid = (low + high) >>> 1;
+
+			if(simulate(request, mid - intrinsic).isSuccess()) {
+				high = mid;
+			}
+			else {
+				low = mid;
+			}
+		}
+
+		return high;
+	}
+
+	private BigInteger transactionCount(String address, JsonNode block) {
+		BigInteger nonce = state.getNonce(address);
+
+		if(block != null && "pending".equals(block.asText())) {
+			TreeMap<BigInteger, DecodedTransaction> queue = pool.get(address);
+
+			while(queue != null && queue.containsKey(nonce)) {
+				nonce = nonce.add(BigInteger.ONE);
+			}
+		}
+
+		return nonce;
+	}
+
+	private BigInteger upfrontCost(DecodedTransaction tx) {
+		return tx.getGas().multiply(tx.getGasPrice()).add(tx.getValue());
+	}
+
+	private Evm.BlockContext context(long number) {
+		long timestamp = Math.max(System.currentTimeMillis() / 1000, head().timestamp);
+		return new Evm.BlockContext(coinbase, number, timestamp, BLOCK_GAS_LIMIT, CHAIN_ID, this::blockHash);
+	}
+
+	private byte [] blockHash(long number) {
+		return number < blocks.size() ? Numeric.hexStringToByteArray(blocks.get((int) number).hash) : null;
+	}
+
+	private Block head() {
+		return blocks.get(blocks.size() - 1);
+	}
+
+	private void addBlock(List<MinedTransaction> mined, long gasUsed) {
+		Block block = new Block();
+		block.number = blocks.size();
+		block.parentHash = blocks.isEmpty() ? ZERO_HASH : head().hash;
+		block.timestamp = Math.max(System.currentTimeMillis() / 1000, blocks.isEmpty() ? 0 : head().timestamp);
+		block.gasUsed = gasUsed;
+		block.transactions = mined;
+
+		List<RlpType> header = new ArrayList<>();
+		header.add(RlpString.create(Numeric.hexStringToByteArray(block.parentHash)));
+		header.add(RlpString.create(BigInteger.valueOf(block.number)));
+		header.add(RlpString.create(BigInteger.valueOf(block.timestamp)));
+		mined.forEach(tx -> header.add(RlpString.create(Numeric.hexStringToByteArray(tx.transaction.getHash()))));
+		block.hash = Numeric.toHexString(Hash.sha3(RlpEncoder.encode(new RlpList(header))));
+
+		int logIndex = 0;
+
+		for(MinedTransaction tx: mined) {
+			tx.block = block;
+			tx.firstLogIndex = logIndex;
+			logIndex += tx.logs.size();
+			transactions.put(tx.transaction.getHash(), tx);
+		}
+
+		blocks.add(block);
+		blocksByHash.put(block.hash, block);
+	}
+
+	private Block blockByNumber(JsonNode param) throws RpcException {
+		String block = param.asText();
+
+		switch(block) {
+		case "latest":
+		case "pending":  return head();
+		case "earliest": return blocks.get(0);
+		default:
+			BigInteger number = number(param);
+			return number.compareTo(BigInteger.valueOf(blocks.size())) < 0 ? blocks.get(number.intValue()) : null;
+		}
+	}
+
+	private JsonNode accounts() {
+		ArrayNode result = NODES.arrayNode();
+		accounts.forEach(credentials -> result.add(credentials.getAddress()));
+
+		return result;
+	}
+
+	private JsonNode transactionCount(Block block) {
+		return block == null ? null : quantity(block.transactions.size());
+	}
+
+	private JsonNode transactionByHash(String hash) {
+		MinedTransaction mined = transactions.get(hash);
+
+		if(mined != null) {
+			return transactionJson(mined.transaction, mined);
+		}
+
+		DecodedTransaction pending = pendingByHash.get(hash);
+		return pending == null ? null : transactionJson(pending, null);
+	}
+
+	private JsonNode blockJson(Block block, boolean fullTransactions) {
+		if(block == null) {
+			return null;
+		}
+
+		ObjectNode json = NODES.objectNode();
+		json.set("number", quantity(block.number));
+		json.put("hash", block.hash);
+		json.put("parentHash", block.parentHash);
+		json.put("nonce", "0x0000000000000000");
+		json.put("sha3Uncles", EMPTY_UNCLES);
+		json.put("logsBloom", EMPTY_BLOOM);
+		json.put("transactionsRoot", ZERO_HASH);
+		json.put("stateRoot", ZERO_HASH);
+		json.put("receiptsRoot", ZERO_HASH);
+		json.put("miner", coinbase);
+		json.put("mixHash", ZERO_HASH);
+		json.set("difficulty", quantity(block.number == 0 ? 1 : 0));
+		json.set("totalDifficulty", quantity(1));
+		json.put("extraData", "0x");
+		json.set("size", quantity(508 + 110 * block.transactions.size()));
+		json.set("gasLimit", quantity(BLOCK_GAS_LIMIT));
+		json.set("gasUsed", quantity(block.gasUsed));
+		json.set("timestamp", quantity(block.timestamp));
+
+		ArrayNode transactionsJson = json.putArray("transactions");
+
+		for(MinedTransaction mined: block.transactions) {
+			if(fullTransactions) {
+				transactionsJson.add(transactionJson(mined.transaction, mined));
+			}
+			else {
+				transactionsJson.add(mined.transaction.getHash());
+			}
+		}
+
+		json.putArray("uncles");
+
+		return json;
+	}
+
+	private JsonNode transactionJson(DecodedTransaction tx, MinedTransaction mined) {
+		ObjectNode json = NODES.objectNode();
+		json.put("hash", tx.getHash());
+		json.set("nonce", quantity(tx.getNonce()));
+		json.put("blockHash", mined == null ? null : mined.block.hash);
+		json.set("blockNumber", mined == null ? null : quantity(mined.block.number));
+		json.set("transactionIndex", mined == null ? null : quantity(mined.index));
+		json.put("from", tx.getFrom());
+		json.put("to", tx.getTo());
+		json.set("value", quantity(tx.getValue()));
+		json.set("gasPrice", quantity(tx.getGasPrice()));
+		json.set("gas", quantity(tx.getGas()));
+		json.put("input", Numeric.toHexString(tx.getData()));
+		json.put("creates", tx.getTo() == null ? Evm.contractAddress(tx.getFrom(), tx.getNonce()) : null);
+		json.put("raw", tx.getRaw());
+		json.set("v", quantity(tx.getV()));
+		json.set("r", quantity(tx.getR()));
+		json.set("s", quantity(tx.getS()));
+
+		return json;
+	}
+
+	private JsonNode receiptJson(MinedTransaction mined) {
+		if(mined == null) {
+			return null;
+		}
+
+		ObjectNode json = NODES.objectNode();
+		json.put("transactionHash", mined.transaction.getHash());
+		json.set("transactionIndex", quantity(mined.index));
+		json.put("blockHash", mined.block.hash);
+		json.set("blockNumber", quantity(mined.block.number));
+		json.put("from", mined.transaction.getFrom());
+		json.put("to", mined.transaction.getTo());
+		json.set("cumulativeGasUsed", quantity(mined.cumulativeGasUsed));
+		json.set("gasUsed", quantity(mined.gasUsed));
+		json.put("contractAddress", mined.contractAddress);
+		json.put("logsBloom", EMPTY_BLOOM);
+		json.set("status", quantity(mined.success ? 1 : 0));
+
+		ArrayNode logs = json.putArray("logs");
+
+		for(int i = 0; i < mined.logs.size(); i++) {
+			logs.add(logJson(mined, i));
+		}
+
+		return json;
+	}
+
+	private JsonNode logJson(MinedTransaction mined, int index) {
+		Evm.Log log = mined.logs.get(index);
+
+		ObjectNode json = NODES.objectNode();
+		json.put("removed", false);
+		json.set("logIndex", quantity(mined.firstLogIndex + index));
+		json.set("transactionIndex", quantity(mined.index));
+		json.put("transactionHash", mined.transaction.getHash());
+		json.put("blockHash", mined.block.hash);
+		json.set("blockNumber", quantity(mined.block.number));
+		json.put("address", log.getAddress());
+		json.put("data", Numeric.toHexString(log.getData()));
+		json.put("type", "mined");
+
+		ArrayNode topics = json.putArray("topics");
+		log.getTopics().forEach(topic -> topics.add(Numeric.toHexString(topic)));
+
+		return json;
+	}
+
+	/**
+	 * eth_getLogs with the filter fields fromBlock, toBlock, blockHash, address and topics.
+	 */
+	private JsonNode logs(JsonNode filter) throws RpcException {
+		List<Block> range = new ArrayList<>();
+
+		if(filter.hasNonNull("blockHash")) {
+			Block block = blocksByHash.get(hash(filter.get("blockHash")));
+
+			if(block != null) {
+				range.add(block);
+			}
+		}
+		else {
+			Block from = filter.hasNonNull("fromBlock") ? blockByNumber(filter.get("fromBlock")) : head();
+			Block to = filter.hasNonNull("toBlock") ? blockByNumber(filter.get("toBlock")) : head();
+
+			for(long number = from == null ? blocks.size() : from.number; to != null && number <= to.number; number++) {
+				range.add(blocks.get((int) number));
+			}
+		}
+
+		List<String> addresses = new ArrayList<>();
+		JsonNode address = filter.path("address");
+
+		if(address.isArray()) {
+			address.forEach(a -> addresses.add(a.asText().toLowerCase()));
+		}
+		else if(address.isTextual()) {
+			addresses.add(address.asText().toLowerCase());
+		}
+
+		ArrayNode result = NODES.arrayNode();
+
+		for(Block block: range) {
+			for(MinedTransaction mined: block.transactions) {
+				for(int i = 0; i < mined.logs.size(); i++) {
+					Evm.Log log = mined.logs.get(i);
+
+					if((addresses.isEmpty() || addresses.contains(log.getAddress())) && matches(log, filter.path("topics"))) {
+						result.add(logJson(mined, i));
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private static boolean matches(Evm.Log log, JsonNode topics) {
+		for(int i = 0; i < topics.size(); i++) {
+			JsonNode expected = topics.get(i);
+
+			if(expected.isNull()) {
+				continue;
+			}
+
+			if(i >= log.getTopics().size()) {
+				return false;
+			}
+
+			String topic = Numeric.toHexString(log.getTopics().get(i));
+			boolean match = false;
+
+			if(expected.isArray()) {
+				for(JsonNode alternative: expected) {
+					match |= alternative.asText().equalsIgnoreCase(topic);
+				}
+			}
+			else {
+				match = expected.asText().equalsIgnoreCase(topic);
+			}
+
+			if(!match) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static byte [] data(JsonNode request) {
+		JsonNode data = request.hasNonNull("data") ? request.get("data") : request.path("input");
+		return data.isTextual() ? Numeric.hexStringToByteArray(data.asText()) : new byte [0];
+	}
+
+	private static byte [] bytes(JsonNode param) {
+		return Numeric.hexStringToByteArray(param.asText());
+	}
+
+	private static String address(JsonNode param) {
+		return param.asText().toLowerCase();
+	}
+
+	private static String hash(JsonNode param) {
+		return param.asText().toLowerCase();
+	}
+
+	private static BigInteger number(JsonNode param) {
+		return Numeric.decodeQuantity(param.asText());
+	}
+
+	private static JsonNode quantity(long value) {
+		return quantity(BigInteger.valueOf(value));
+	}
+
+	private static JsonNode quantity(BigInteger value) {
+		return NODES.textNode(Numeric.encodeQuantity(value));
+	}
+
+	private static RpcException serverError(String message) {
+		return new RpcException(RpcException.SERVER_ERROR, message);
+	}
+
+	private static class Block {
+		long number;
+		String hash;
+		String parentHash;
+		long timestamp;
+		long gasUsed;
+		List<MinedTransaction> transactions;
+	}
+
+	private static class MinedTransaction {
+		DecodedTransaction transaction;
+		Block block;
+		int index;
+		long gasUsed;
+		long cumulativeGasUsed;
+		String contractAddress;
+		boolean success;
+		List<Evm.Log> logs;
+		int firstLogIndex;
+	}
+}
@@ -0,0 +1,106 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+
+/**
+ * Decodes Recursive Length Prefix (RLP) data into the {@link RlpString} and {@link RlpList} types
+ * of web3j, the counterpart of {@link RlpEncoder}.
+ * Only canonical encodings are accepted, so re-encoding a decoded value yields the original bytes.
+ */
+public class RlpDecoder {
+
+	private static final int OFFSET_SHORT_STRING = 0x80;
+	private static final int OFFSET_LONG_STRING = 0xb7;
+	private static final int OFFSET_SHORT_LIST = 0xc0;
+	private static final int OFFSET_LONG_LIST = 0xf7;
+
+	/**
+	 * Decodes the provided data which must hold exactly one RLP item.
+	 */
+	public static RlpType decode(byte [] data) {
+		int [] position = { 0 };
+		RlpType item = decode(data, position, data.length);
+
+		if(position[0] != data.length) {
+			throw new IllegalArgumentException("Trailing bytes after RLP item at position " + position[0]);
+		}
+
+		return item;
+	}
+
+	private static RlpType decode(byte [] data, int [] position, int end) {
+		if(position[0] >= end) {
+			throw new IllegalArgumentException("Unexpected end of RLP data at position " + position[0]);
+		}
+
+		int prefix = data[position[0]++] & 0xff;
+
+		if(prefix < OFFSET_SHORT_STRING) {
+			return RlpString.create(new byte [] { (byte) prefix });
+		}
+
+		if(prefix < OFFSET_SHORT_LIST) {
+			int length = prefix <= OFFSET_LONG_STRING
+					? prefix - OFFSET_SHORT_STRING
+					: readLength(data, position, prefix - OFFSET_LONG_STRING, end);
+
+			int start = position[0];
+			checkBounds(start, length, end);
+
+			if(length == 1 && (data[start] & 0xff) < OFFSET_SHORT_STRING) {
+				throw new IllegalArgumentException("Non-canonical single byte string at position " + start);
+			}
+
+			position[0] += length;
+			return RlpString.create(Arrays.copyOfRange(data, start, start + length));
+		}
+
+		int length = prefix <= OFFSET_LONG_LIST
+				? prefix - OFFSET_SHORT_LIST
+				: readLength(data, position, prefix - OFFSET_LONG_LIST, end);
+
+		int listEnd = position[0] + length;
+		checkBounds(position[0], length, end);
+
+		List<RlpType> values = new ArrayList<>();
+
+		while(position[0] < listEnd) {
+			values.add(decode(data, position, listEnd));
+		}
+
+		return new RlpList(values);
+	}
+
+	private static int readLength(byte [] data, int [] position, int lengthOfLength, int end) {
+		checkBounds(position[0], lengthOfLength, end);
+
+		if(lengthOfLength > 4 || data[position[0]] == 0) {
+			throw new IllegalArgumentException("Invalid RLP length at position " + position[0]);
+		}
+
+		int length = 0;
+
+		for(int i = 0; i < lengthOfLength; i++) {
+			length = (length << 8) | (data[position[0]++] & 0xff);
+		}
+
+		if(length < 56) {
+			throw new IllegalArgumentException("Non-canonical RLP length " + length);
+		}
+
+		return length;
+	}
+
+	private static void checkBounds(int start, int length, int end) {
+		if(length < 0 || start + length > end) {
+			throw new IllegalArgumentException("RLP item exceeds data, position " + start + " length " + length);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package org.matthiaszimmermann.web3j.node;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.web3j.rlp.RlpEncoder;
+import org.web3j.rlp.RlpList;
+import org.web3j.rlp.RlpString;
+import org.web3j.rlp.RlpType;
+import org.web3j.utils.Numeric;
+
+public class RlpDecoderTest {
+
+	@Test
+	public void testDecodeStrings() {
+		assertString(new byte [] { 0x05 }, "0x05");
+		assertString(new byte [0], "0x80");
+		assertString("dog".getBytes(), "0x83646f67");
+		assertString(new byte [] { (byte) 0x80 }, "0x8180");
+	}
+
+	@Test
+	public void testDecodeLongString() {
+		byte [] value = new byte[1024];
+		Arrays.fill(value, (byte) 0xab);
+		byte [] encoded = RlpEncoder.encode(RlpString.create(value));
+
+		// 0xb9: string with a two byte length
+		assertEquals((byte) 0xb9, encoded[0]);
+		assertArrayEquals(value, ((RlpString) RlpDecoder.decode(encoded)).getBytes());
+	}
+
+	@Test
+	public void testRoundTripNestedList() {
+		byte [] longValue = new byte[60];
+		Arrays.fill(longValue, (byte) 1);
+
+		RlpList list = new RlpList(
+				RlpString.create("cat".getBytes()),
+				new RlpList(),
+				new RlpList(RlpString.create(new byte [] { 0x01 }), new RlpList(RlpString.create(longValue))),
+				RlpString.create(new byte [0]));
+
+		byte [] encoded = RlpEncoder.encode(list);
+		RlpType decoded = RlpDecoder.decode(encoded);
+
+		assertTrue(decoded instanceof RlpList);
+		assertEquals(4, ((RlpList) decoded).getValues().size());
+		assertArrayEquals(encoded, RlpEncoder.encode(decoded));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsTrailingBytes() {
+		RlpDecoder.decode(Numeric.hexStringToByteArray("0x83646f6700"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsTruncatedString() {
+		RlpDecoder.decode(Numeric.hexStringToByteArray("0x83646f"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsTruncatedList() {
+		RlpDecoder.decode(Numeric.hexStringToByteArray("0xc583646f67"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsEmptyData() {
+		RlpDecoder.decode(new byte [0]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsNonCanonicalSingleByte() {
+		RlpDecoder.decode(Numeric.hexStringToByteArray("0x8105"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsNonCanonicalLength() {
+		// long form length prefix for a string of 3 bytes
+		RlpDecoder.decode(Numeric.hexStringToByteArray("0xb803646f67"));
+	}
+
+	private static void assertString(byte [] expected, String encoded) {
+		RlpType decoded = RlpDecoder.decode(Numeric.hexStringToByteArray(encoded));
+
+		assertTrue(decoded instanceof RlpString);
+		assertArrayEquals(expected, ((RlpString) decoded).getBytes());
+	}
+}
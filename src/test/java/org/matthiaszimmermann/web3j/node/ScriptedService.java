@@ -0,0 +1,71 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+/**
+ * Base of the in-test clients that answer each request from a script instead of a node.
+ * Subclasses implement {@link #answer(Request)}, the response object of the requested type is built here.
+ * Async requests are answered synchronously on the calling thread.
+ */
+public abstract class ScriptedService implements Web3jService {
+
+	private final Web3j web3j = Web3j.build(this);
+
+	/**
+	 * Returns the client that sends its requests to this service.
+	 */
+	public Web3j getWeb3j() {
+		return web3j;
+	}
+
+	/**
+	 * Returns the result of the request, or a {@link Response.Error} for an error response.
+	 * A thrown {@link IOException} is a failed request. Unsupported methods fail by default.
+	 */
+	protected Object answer(Request<?, ?> request) throws IOException {
+		throw new IOException("Unsupported method " + request.getMethod());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+		Object result = answer(request);
+		T response;
+
+		try {
+			response = responseType.newInstance();
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot create a " + responseType.getSimpleName(), e);
+		}
+
+		if(result instanceof Response.Error) {
+			response.setError((Response.Error) result);
+		}
+		else {
+			response.setResult(result);
+		}
+
+		return response;
+	}
+
+	@Override
+	public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+
+		try {
+			future.complete(send(request, responseType));
+		}
+		catch (IOException e) {
+			future.completeExceptionally(e);
+		}
+
+		return future;
+	}
+}
@@ -0,0 +1,168 @@
+package org.matthiaszimmermann.web3j.node;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Accounts with balance, nonce, code and storage, keyed by lower case 0x address.
+ * A child state records changes on top of its parent without modifying it. The changes are
+ * applied to the parent with {@link #commit()} or dropped by discarding the child.
+ * This is how transactions, calls and nested message calls are reverted.
+ * Not thread safe.
+ */
+public class WorldState {
+
+	private final WorldState parent;
+	private final Map<String, Account> accounts = new HashMap<>();
+
+	public WorldState() {
+		this(null);
+	}
+
+	private WorldState(WorldState parent) {
+		this.parent = parent;
+	}
+
+	public WorldState child() {
+		return new WorldState(this);
+	}
+
+	/**
+	 * Applies all changes of this child state to its parent.
+	 */
+	public void commit() {
+		if(parent == null) {
+			throw new IllegalStateException("Root state cannot be committed");
+		}
+
+		parent.accounts.putAll(accounts);
+		accounts.clear();
+	}
+
+	/**
+	 * Returns the account for reading. Missing accounts are returned as empty accounts.
+	 * The returned account must not be modified, see {@link #getForUpdate(String)}.
+	 */
+	public Account get(String address) {
+		for(WorldState state = this; state != null; state = state.parent) {
+			Account account = state.accounts.get(address);
+
+			if(account != null) {
+				return account;
+			}
+		}
+
+		return Account.EMPTY;
+	}
+
+	/**
+	 * Returns the account for modification in this state.
+	 */
+	public Account getForUpdate(String address) {
+		Account account = accounts.get(address);
+
+		if(account == null) {
+			account = get(address).copy();
+			accounts.put(address, account);
+		}
+
+		return account;
+	}
+
+	public boolean exists(String address) {
+		return !get(address).isEmpty();
+	}
+
+	public BigInteger getBalance(String address) {
+		return get(address).balance;
+	}
+
+	public void addBalance(String address, BigInteger amount) {
+		Account account = getForUpdate(address);
+		account.balance = account.balance.add(amount);
+	}
+
+	public void subtractBalance(String address, BigInteger amount) {
+		Account account = getForUpdate(address);
+		account.balance = account.balance.subtract(amount);
+	}
+
+	public BigInteger getNonce(String address) {
+		return get(address).nonce;
+	}
+
+	public void incrementNonce(String address) {
+		Account account = getForUpdate(address);
+		account.nonce = account.nonce.add(BigInteger.ONE);
+	}
+
+	public byte [] getCode(String address) {
+		return get(address).code;
+	}
+
+	public void setCode(String address, byte [] code) {
+		getForUpdate(address).code = code;
+	}
+
+	public BigInteger getStorage(String address, BigInteger key) {
+		return get(address).storage.getOrDefault(key, BigInteger.ZERO);
+	}
+
+	public void setStorage(String address, BigInteger key, BigInteger value) {
+		Map<BigInteger, BigInteger> storage = getForUpdate(address).storage;
+
+		if(value.signum() == 0) {
+			storage.remove(key);
+		}
+		else {
+			storage.put(key, value);
+		}
+	}
+
+	/**
+	 * Removes the account, eg after a self destruct.
+	 */
+	public void delete(String address) {
+		accounts.put(address, new Account());
+	}
+
+	public static class Account {
+
+		static final Account EMPTY = new Account();
+
+		private BigInteger balance = BigInteger.ZERO;
+		private BigInteger nonce = BigInteger.ZERO;
+		private byte [] code = new byte [0];
+		private Map<BigInteger, BigInteger> storage = new HashMap<>();
+
+		Account copy() {
+			Account copy = new Account();
+			copy.balance = balance;
+			copy.nonce = nonce;
+			copy.code = code;
+			copy.storage = new HashMap<>(storage);
+
+			return copy;
+		}
+
+		/**
+		 * Accounts without balance, nonce and code are empty (EIP-161).
+		 */
+		boolean isEmpty() {
+			return balance.signum() == 0 && nonce.signum() == 0 && code.length == 0;
+		}
+
+		public BigInteger getBalance() {
+			return balance;
+		}
+
+		public BigInteger getNonce() {
+			return nonce;
+		}
+
+		public byte [] getCode() {
+			return code;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.utils.Numeric;
+
+public class AccountStateCacheTest {
+
+	private static final String ADDRESS = "0x00000000000000000000000000000000000000aa";
+
+	private Node node;
+	private AccountStateCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		node = new Node();
+		cache = AccountStateCache.enable(node.getWeb3j(), 2);
+		awaitHead(5);
+	}
+
+	@After
+	public void tearDown() {
+		BlockHeadTracker.shutdown(node.getWeb3j());
+	}
+
+	@Test
+	public void testSpecificBlockCached() throws Exception {
+		DefaultBlockParameter block = DefaultBlockParameter.valueOf(BigInteger.valueOf(3));
+
+		assertEquals(Node.balance(ADDRESS, "0x3"), cache.getBalanceWei(ADDRESS, block));
+		assertEquals(Node.balance(ADDRESS, "0x3"), cache.getBalanceWei(ADDRESS.toUpperCase().replace("0X", "0x"), block));
+		assertEquals(Node.nonce(ADDRESS, "0x3"), cache.getNonce(ADDRESS, block));
+
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, node.loads.size());
+	}
+
+	@Test
+	public void testLatestResolvedToBlockHead() throws Exception {
+		assertEquals(Node.balance(ADDRESS, "0x5"), cache.getBalanceWei(ADDRESS, DefaultBlockParameterName.LATEST));
+		assertEquals(Node.balance(ADDRESS, "0x5"), cache.getBalanceWei(ADDRESS, DefaultBlockParameterName.LATEST));
+		assertEquals("0x5", node.loads.get(0));
+		assertEquals(1, cache.getHits());
+
+		// the new head is a new key, the value of the previous head is not returned for latest
+		awaitHead(6);
+
+		assertEquals(Node.balance(ADDRESS, "0x6"), cache.getBalanceWei(ADDRESS, DefaultBlockParameterName.LATEST));
+		assertEquals("0x6", node.loads.get(1));
+		assertEquals(2, cache.getMisses());
+
+		// the value of the previous head is still valid for its block
+		assertEquals(Node.balance(ADDRESS, "0x5"), cache.getBalanceWei(ADDRESS, DefaultBlockParameter.valueOf(BigInteger.valueOf(5))));
+		assertEquals(2, node.loads.size());
+	}
+
+	@Test
+	public void testPendingNotCached() throws Exception {
+		cache.getNonce(ADDRESS, DefaultBlockParameterName.PENDING);
+		cache.getNonce(ADDRESS, DefaultBlockParameterName.PENDING);
+
+		assertEquals(2, node.loads.size());
+		assertEquals("pending", node.loads.get(1));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvicted() throws Exception {
+		DefaultBlockParameter block = DefaultBlockParameter.valueOf(BigInteger.ONE);
+		String [] addresses = { "0x01", "0x02", "0x03" };
+
+		cache.getBalanceWei(addresses[0], block);
+		cache.getBalanceWei(addresses[1], block);
+		// uses the first entry, the second is now the eldest
+		cache.getBalanceWei(addresses[0], block);
+		cache.getBalanceWei(addresses[2], block);
+
+		assertEquals(2, cache.getSize());
+		assertEquals(3, node.loads.size());
+
+		cache.getBalanceWei(addresses[0], block);
+		assertEquals(3, node.loads.size());
+
+		cache.getBalanceWei(addresses[1], block);
+		assertEquals(4, node.loads.size());
+	}
+
+	@Test
+	public void testDisabledWithTracker() {
+		BlockHeadTracker.shutdown(node.getWeb3j());
+
+		assertNull(AccountStateCache.forClient(node.getWeb3j()));
+	}
+
+	private void awaitHead(long blockNumber) throws InterruptedException {
+		node.head = blockNumber;
+		BigInteger expected = BigInteger.valueOf(blockNumber);
+		BlockHeadTracker tracker = BlockHeadTracker.forClient(node.getWeb3j());
+
+		for(int i = 0; i < 100 && !expected.equals(tracker.getBlockNumber()); i++) {
+			Thread.sleep(50);
+		}
+
+		assertEquals(expected, tracker.getBlockNumber());
+	}
+
+	/**
+	 * Client with a settable block head, balances and nonces are derived from address and block.
+	 */
+	private static class Node extends ScriptedService {
+
+		private final List<String> loads = new ArrayList<>();
+
+		private volatile long head = 0;
+
+		static BigInteger balance(String address, String block) {
+			return Numeric.toBigInt(address).multiply(BigInteger.valueOf(1000)).add(Numeric.toBigInt(block));
+		}
+
+		static BigInteger nonce(String address, String block) {
+			return Numeric.toBigInt(block);
+		}
+
+		@Override
+		protected synchronized Object answer(Request<?, ?> request) throws IOException {
+			switch (request.getMethod()) {
+			case "eth_blockNumber":
+				return Numeric.toHexStringWithPrefix(BigInteger.valueOf(head));
+			case "eth_getBalance":
+			case "eth_getTransactionCount":
+				String address = (String) request.getParams().get(0);
+				String block = (String) request.getParams().get(1);
+				loads.add(block);
+
+				// block names (pending) are answered as block 0
+				String number = block.startsWith("0x") ? block : "0x0";
+				return Numeric.toHexStringWithPrefix(request.getMethod().equals("eth_getBalance") ? balance(address, number) : nonce(address, number));
+			default:
+				return super.answer(request);
+			}
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+import org.web3j.protocol.core.Request;
+import org.web3j.utils.Numeric;
+
+public class BlockHeadTrackerTest {
+
+	private Node node;
+	private BlockHeadTracker tracker;
+
+	@Before
+	public void setUp() throws Exception {
+		node = new Node();
+		tracker = BlockHeadTracker.forClient(node.getWeb3j());
+		awaitHead(1);
+	}
+
+	@After
+	public void tearDown() {
+		BlockHeadTracker.shutdown(node.getWeb3j());
+	}
+
+	@Test
+	public void testHeadsSeenByBusyListenerCoalesced() throws Exception {
+		List<BigInteger> delivered = new CopyOnWriteArrayList<>();
+		CountDownLatch release = new CountDownLatch(1);
+
+		tracker.addListener(blockNumber -> {
+			delivered.add(blockNumber);
+
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		awaitHead(2);
+		assertTrue(waitFor(() -> delivered.size() == 1));
+
+		// blocks 3 and 4 are seen while the listener still handles block 2
+		awaitHead(3);
+		awaitHead(4);
+		release.countDown();
+
+		assertTrue(waitFor(() -> delivered.size() == 2));
+		Thread.sleep(100);
+		assertEquals(Arrays.asList(BigInteger.valueOf(2), BigInteger.valueOf(4)), delivered);
+	}
+
+	@Test
+	public void testFailingListenerIsolated() throws Exception {
+		AtomicInteger failing = new AtomicInteger();
+		List<BigInteger> delivered = new CopyOnWriteArrayList<>();
+
+		tracker.addListener(blockNumber -> {
+			failing.incrementAndGet();
+			throw new AssertionError("listener failed");
+		});
+		tracker.addListener(delivered::add);
+
+		awaitHead(2);
+		assertTrue(waitFor(() -> failing.get() == 1 && delivered.size() == 1));
+
+		// the listener that threw an error is still called for later blocks
+		awaitHead(3);
+		assertTrue(waitFor(() -> failing.get() == 2 && delivered.size() == 2));
+		assertEquals(Arrays.asList(BigInteger.valueOf(2), BigInteger.valueOf(3)), delivered);
+	}
+
+	@Test
+	public void testRemovedListenerNotCalled() throws Exception {
+		List<BigInteger> delivered = new CopyOnWriteArrayList<>();
+		Consumer<BigInteger> listener = delivered::add;
+
+		tracker.addListener(listener);
+		awaitHead(2);
+		assertTrue(waitFor(() -> delivered.size() == 1));
+
+		tracker.removeListener(listener);
+		awaitHead(3);
+		Thread.sleep(100);
+		assertEquals(1, delivered.size());
+	}
+
+	@Test
+	public void testStopRunsStopTasksOnce() throws Exception {
+		AtomicInteger stopped = new AtomicInteger();
+
+		tracker.onStop(() -> {
+			throw new IllegalStateException("stop task failed");
+		});
+		tracker.onStop(stopped::incrementAndGet);
+
+		assertSame(tracker, BlockHeadTracker.forClient(node.getWeb3j()));
+
+		BlockHeadTracker.shutdown(node.getWeb3j());
+		BlockHeadTracker.shutdown(node.getWeb3j());
+		tracker.stop();
+
+		assertEquals(1, stopped.get());
+
+		// the stopped tracker does not poll anymore, the next use starts a new tracker
+		node.head = 2;
+		Thread.sleep(2 * Web3jConstants.BLOCK_POLL_INTERVAL);
+		assertEquals(BigInteger.ONE, tracker.getBlockNumber());
+
+		BlockHeadTracker next = BlockHeadTracker.forClient(node.getWeb3j());
+		assertNotSame(tracker, next);
+		assertTrue(waitFor(() -> BigInteger.valueOf(2).equals(next.getBlockNumber())));
+	}
+
+	@Test
+	public void testPollingResumesAfterFailures() throws Exception {
+		node.failing = true;
+		node.head = 2;
+		Thread.sleep(2 * Web3jConstants.BLOCK_POLL_INTERVAL);
+		assertEquals(BigInteger.ONE, tracker.getBlockNumber());
+
+		node.failing = false;
+		awaitHead(2);
+	}
+
+	private void awaitHead(long blockNumber) throws InterruptedException {
+		node.head = blockNumber;
+		BigInteger expected = BigInteger.valueOf(blockNumber);
+
+		assertTrue(waitFor(() -> expected.equals(tracker.getBlockNumber())));
+	}
+
+	private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+		for(int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+			Thread.sleep(50);
+		}
+
+		return condition.getAsBoolean();
+	}
+
+	/**
+	 * Client with a settable block head, polls fail while failing is set.
+	 */
+	private static class Node extends ScriptedService {
+
+		private volatile long head = 0;
+		private volatile boolean failing = false;
+
+		@Override
+		protected Object answer(Request<?, ?> request) throws IOException {
+			if(request.getMethod().equals("eth_blockNumber")) {
+				if(failing) {
+					throw new IOException("Connection refused");
+				}
+
+				return Numeric.toHexStringWithPrefix(BigInteger.valueOf(head));
+			}
+
+			return super.answer(request);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.FakeNodeHandler;
+import org.matthiaszimmermann.web3j.node.HttpEndpoint;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+public class BulkTransferTest {
+
+	private static final String CONTRACT = "0xcc000000000000000000000000000000000000cc";
+	private static final BigInteger ESTIMATED_LIMIT = BigInteger.valueOf(60_000);
+
+	private FakeNodeHandler node;
+	private HttpEndpoint endpoint;
+	private Web3j web3j;
+
+	@Before
+	public void setUp() throws Exception {
+		node = new FakeNodeHandler(100);
+		endpoint = new HttpEndpoint(node, 0);
+		web3j = Web3jUtils.buildClient(endpoint.getUrl());
+	}
+
+	@After
+	public void tearDown() {
+		BlockHeadTracker.shutdown(web3j);
+		endpoint.close();
+		node.close();
+	}
+
+	@Test
+	public void testTransfersConfirmed() throws Exception {
+		String from = node.getAccounts().get(1).getAddress();
+		List<BulkTransfer.Entry> transfers = new ArrayList<>();
+
+		for(int i = 0; i < 10; i++) {
+			transfers.add(new BulkTransfer.Entry(recipient(i), BigInteger.valueOf(1_000 + i)));
+		}
+
+		BulkTransfer.Report report = BulkTransfer.send(web3j, from, transfers, 4);
+
+		assertEquals(report.toString(), 10, report.getSucceeded());
+		assertEquals(0, report.getFailed());
+		assertEquals(Web3jConstants.GAS_LIMIT_ETHER_TX.multiply(BigInteger.TEN), report.getTotalGasUsed());
+		assertTrue(report.getBlockCount() >= 1);
+
+		for(int i = 0; i < 10; i++) {
+			BulkTransfer.EntryResult result = report.getResults().get(i);
+
+			// results are in the order of the transfers, nonces are sequential
+			assertEquals(recipient(i), result.getTransfer().getTo());
+			assertEquals(BigInteger.valueOf(i), result.getNonce());
+			assertEquals(BigInteger.valueOf(1_000 + i), web3j.ethGetBalance(recipient(i), DefaultBlockParameterName.LATEST).send().getBalance());
+		}
+	}
+
+	@Test
+	public void testOutOfGasComparedWithSentLimit() {
+		BulkTransfer.Entry transfer = new BulkTransfer.Entry(CONTRACT, BigInteger.ONE);
+		GasEstimator.Estimate estimated = new GasEstimator.Estimate(null, CONTRACT, ESTIMATED_LIMIT);
+		GasEstimator.Estimate fallback = new GasEstimator.Estimate(null, null, BulkTransfer.GAS_LIMIT);
+
+		// an estimated limit above the default limit, using exactly the default limit is fine
+		assertTrue(BulkTransfer.toResult(transfer, BigInteger.ZERO, "0x01", estimated, receipt(BulkTransfer.GAS_LIMIT), null).isSuccess());
+		assertFalse(BulkTransfer.toResult(transfer, BigInteger.ZERO, "0x01", estimated, receipt(ESTIMATED_LIMIT), null).isSuccess());
+
+		// a default limit is not verified by the estimator but still reported as out of gas
+		assertTrue(BulkTransfer.toResult(transfer, BigInteger.ZERO, "0x01", fallback, receipt(Web3jConstants.GAS_LIMIT_ETHER_TX), null).isSuccess());
+		assertFalse(BulkTransfer.toResult(transfer, BigInteger.ZERO, "0x01", fallback, receipt(BulkTransfer.GAS_LIMIT), null).isSuccess());
+	}
+
+	private static String recipient(int i) {
+		return "0xdd" + Numeric.toHexStringNoPrefixZeroPadded(BigInteger.valueOf(i + 1), 38);
+	}
+
+	private static TransactionReceipt receipt(BigInteger gasUsed) {
+		TransactionReceipt receipt = new TransactionReceipt();
+		receipt.setGasUsed(Numeric.toHexStringWithPrefix(gasUsed));
+		return receipt;
+	}
+}
@@ -0,0 +1,185 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.utils.Numeric;
+
+public class CallCacheServiceTest {
+
+	private static final String CONTRACT = "0x00000000000000000000000000000000000000cc";
+	private static final String GREET = "0xcfae3217";
+	private static final String GET = "0x6d4ce63c";
+
+	private Node node;
+	private Web3j web3j;
+	private Web3j cachedWeb3j;
+	private CallCacheService cache;
+
+	@Before
+	public void setUp() throws Exception {
+		node = new Node();
+		web3j = Web3jUtils.build(node);
+		cachedWeb3j = CallCacheService.wrap(web3j, 10);
+		cache = CallCacheService.forClient(cachedWeb3j);
+		awaitHead(5);
+	}
+
+	@After
+	public void tearDown() {
+		BlockHeadTracker.shutdown(web3j);
+	}
+
+	@Test
+	public void testHit() throws Exception {
+		EthCall first = call(GREET, DefaultBlockParameterName.LATEST);
+		EthCall second = call(GREET, DefaultBlockParameterName.LATEST);
+
+		assertEquals(GREET + "@0x5", first.getValue());
+		assertEquals(GREET + "@0x5", second.getValue());
+		assertEquals(1, node.calls.size());
+		assertEquals(1, cache.getHits());
+
+		// callers get copies, changing one response does not change the cached result
+		assertFalse(first == second);
+		second.setResult("0x");
+		assertEquals(GREET + "@0x5", call(GREET, DefaultBlockParameterName.LATEST).getValue());
+	}
+
+	@Test
+	public void testMiss() throws Exception {
+		call(GREET, DefaultBlockParameterName.LATEST);
+		call(GET, DefaultBlockParameterName.LATEST);
+		call(GREET, DefaultBlockParameter.valueOf(BigInteger.valueOf(3)));
+
+		assertEquals(3, node.calls.size());
+		assertEquals(3, cache.getMisses());
+		assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void testPendingNotCached() throws Exception {
+		call(GREET, DefaultBlockParameterName.PENDING);
+		call(GREET, DefaultBlockParameterName.PENDING);
+
+		assertEquals(2, node.calls.size());
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void testNewBlockInvalidatesLatest() throws Exception {
+		DefaultBlockParameter block3 = DefaultBlockParameter.valueOf(BigInteger.valueOf(3));
+
+		call(GREET, DefaultBlockParameterName.LATEST);
+		call(GREET, block3);
+		awaitHead(6);
+
+		assertEquals(GREET + "@0x6", call(GREET, DefaultBlockParameterName.LATEST).getValue());
+		assertEquals(3, node.calls.size());
+
+		// results for a specific block stay cached
+		assertEquals(GREET + "@0x3", call(GREET, block3).getValue());
+		assertEquals(3, node.calls.size());
+	}
+
+	@Test
+	public void testImmutableFunctionKeptAcrossBlocks() throws Exception {
+		cache.declareImmutable(CONTRACT, "greet()");
+
+		call(GREET, DefaultBlockParameterName.LATEST);
+		awaitHead(6);
+		call(GREET, DefaultBlockParameterName.LATEST);
+
+		assertEquals(1, node.calls.size());
+	}
+
+	@Test
+	public void testTransactionsRejected() throws Exception {
+		try {
+			cachedWeb3j.ethSendRawTransaction("0x01").send();
+			fail("Transaction sent through the call cache client");
+		}
+		catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("eth_sendRawTransaction not supported"));
+		}
+
+		assertTrue(node.calls.isEmpty());
+	}
+
+	@Test
+	public void testOneCachePerClient() throws Exception {
+		assertSame(cachedWeb3j, CallCacheService.wrap(web3j));
+
+		// a stopped cache is released, the next wrap starts a new cache
+		cache.stop();
+		Web3j next = CallCacheService.wrap(web3j, 10);
+		assertNotSame(cachedWeb3j, next);
+		assertSame(next, CallCacheService.wrap(web3j));
+
+		BlockHeadTracker.shutdown(web3j);
+		assertNotSame(next, CallCacheService.wrap(web3j));
+	}
+
+	private EthCall call(String data, DefaultBlockParameter block) throws IOException {
+		return cachedWeb3j
+				.ethCall(Transaction.createEthCallTransaction(CONTRACT, data), block)
+				.send();
+	}
+
+	private void awaitHead(long blockNumber) throws InterruptedException {
+		node.head = blockNumber;
+		BigInteger expected = BigInteger.valueOf(blockNumber);
+		BlockHeadTracker tracker = BlockHeadTracker.forClient(web3j);
+
+		for(int i = 0; i < 100 && !expected.equals(tracker.getBlockNumber()); i++) {
+			Thread.sleep(50);
+		}
+
+		assertEquals(expected, tracker.getBlockNumber());
+	}
+
+	/**
+	 * Client with a settable block head, eth_call returns the call data and the block of the call.
+	 */
+	private static class Node extends ScriptedService {
+
+		private final List<String> calls = new ArrayList<>();
+
+		private volatile long head = 0;
+
+		@Override
+		protected synchronized Object answer(Request<?, ?> request) throws IOException {
+			switch (request.getMethod()) {
+			case "eth_blockNumber":
+				return Numeric.toHexStringWithPrefix(BigInteger.valueOf(head));
+			case "eth_call":
+				Transaction transaction = (Transaction) request.getParams().get(0);
+				String block = ((DefaultBlockParameter) request.getParams().get(1)).getValue();
+				calls.add(transaction.getData());
+
+				return transaction.getData() + "@" + (block.equals("latest") ? Numeric.toHexStringWithPrefix(BigInteger.valueOf(head)) : block);
+			default:
+				return super.answer(request);
+			}
+		}
+	}
+}
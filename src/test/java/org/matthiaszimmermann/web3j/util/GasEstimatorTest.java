@@ -0,0 +1,181 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+public class GasEstimatorTest {
+
+	private static final String FROM = "0x00000000000000000000000000000000000000aa";
+	private static final String ACCOUNT = "0x00000000000000000000000000000000000000bb";
+	private static final String CONTRACT = "0x00000000000000000000000000000000000000cc";
+	private static final String CODE = "0x6001600055";
+	private static final String CALL = "0xa4136862" + Numeric.toHexStringNoPrefixZeroPadded(BigInteger.ONE, 64);
+
+	private static final BigInteger ESTIMATE = BigInteger.valueOf(50_000);
+	private static final BigInteger ESTIMATE_WITH_MARGIN = BigInteger.valueOf(60_000);
+	private static final BigInteger TRANSFER_WITH_MARGIN = BigInteger.valueOf(25_200);
+
+	private Node node;
+	private GasEstimator estimator;
+
+	@Before
+	public void setUp() {
+		node = new Node();
+		node.code.put(CONTRACT, CODE);
+		estimator = new GasEstimator(node.getWeb3j(), 2);
+	}
+
+	@After
+	public void tearDown() {
+		BlockHeadTracker.shutdown(node.getWeb3j());
+	}
+
+	@Test
+	public void testSizeClass() {
+		assertEquals(0, GasEstimator.sizeClass(0));
+		assertEquals(1, GasEstimator.sizeClass(1));
+		assertEquals(1, GasEstimator.sizeClass(32));
+		assertEquals(2, GasEstimator.sizeClass(33));
+		assertEquals(2, GasEstimator.sizeClass(64));
+		assertEquals(4, GasEstimator.sizeClass(65));
+		assertEquals(4, GasEstimator.sizeClass(128));
+		assertEquals(8, GasEstimator.sizeClass(129));
+		assertEquals(64, GasEstimator.sizeClass(64 * 32));
+	}
+
+	@Test
+	public void testEstimateCachedPerKey() throws Exception {
+		GasEstimator.Estimate first = estimator.estimate(FROM, CONTRACT, CALL, BigInteger.ZERO);
+		GasEstimator.Estimate second = estimator.estimate(FROM, CONTRACT, CALL, BigInteger.ZERO);
+
+		assertTrue(first.isCached());
+		assertEquals(ESTIMATE_WITH_MARGIN, first.getGasLimit());
+		assertEquals(ESTIMATE_WITH_MARGIN, second.getGasLimit());
+		assertEquals(1, node.estimates.get());
+		assertEquals(1, node.codeLoads.get());
+		assertEquals(1, estimator.getHits());
+		assertEquals(1, estimator.getMisses());
+
+		// a different argument size class is a new key
+		estimator.estimate(FROM, CONTRACT, CALL + Numeric.toHexStringNoPrefixZeroPadded(BigInteger.ONE, 64), BigInteger.ZERO);
+		assertEquals(2, node.estimates.get());
+	}
+
+	@Test
+	public void testPlainTransferWithoutRequest() throws Exception {
+		GasEstimator.Estimate estimate = estimator.estimate(FROM, ACCOUNT, null, BigInteger.TEN);
+
+		assertFalse(estimate.isCached());
+		assertEquals(TRANSFER_WITH_MARGIN, estimate.getGasLimit());
+		assertFalse(estimate.isOutOfGas(receipt(Web3jConstants.GAS_LIMIT_ETHER_TX)));
+		assertEquals(0, node.estimates.get());
+
+		estimator.estimate(FROM, ACCOUNT, null, BigInteger.TEN);
+		assertEquals(1, node.codeLoads.get());
+	}
+
+	@Test
+	public void testOutOfGasDropsEstimateAndCode() throws Exception {
+		GasEstimator.Estimate estimate = estimator.estimate(FROM, CONTRACT, CALL, BigInteger.ZERO);
+
+		estimator.check(receipt(ESTIMATE), estimate);
+		estimator.estimate(FROM, CONTRACT, CALL, BigInteger.ZERO);
+
+		assertEquals(0, estimator.getRefreshes());
+		assertEquals(1, node.estimates.get());
+
+		estimator.check(receipt(estimate.getGasLimit()), estimate);
+		estimator.estimate(FROM, CONTRACT, CALL, BigInteger.ZERO);
+
+		assertEquals(1, estimator.getRefreshes());
+		assertEquals(2, node.estimates.get());
+		assertEquals(2, node.codeLoads.get());
+	}
+
+	@Test
+	public void testTransferToNewContractDropsCode() throws Exception {
+		GasEstimator.Estimate transfer = estimator.estimate(FROM, ACCOUNT, null, BigInteger.TEN);
+
+		// a contract is deployed to the address, the next transfer uses more than a plain transfer
+		node.code.put(ACCOUNT, CODE);
+		node.receipts.put("0x01", receipt(Web3jConstants.GAS_LIMIT_ETHER_TX.add(BigInteger.valueOf(2_000))));
+		estimator.verify("0x01", transfer);
+
+		for(int i = 0; i < 100 && node.codeLoads.get() == 1; i++) {
+			estimator.estimate(FROM, ACCOUNT, null, BigInteger.TEN);
+			Thread.sleep(50);
+		}
+
+		// the transfer is estimated with the code of the contract now
+		assertEquals(2, node.codeLoads.get());
+		assertTrue(estimator.estimate(FROM, ACCOUNT, null, BigInteger.TEN).isCached());
+		assertEquals(1, node.estimates.get());
+	}
+
+	@Test
+	public void testCodeHashesBounded() throws Exception {
+		String [] accounts = { ACCOUNT, "0x00000000000000000000000000000000000000b1", "0x00000000000000000000000000000000000000b2" };
+
+		estimator.prefetchCode(Arrays.asList(accounts));
+		assertEquals(3, node.codeLoads.get());
+
+		// the first account was evicted, the others are still cached
+		estimator.estimate(FROM, accounts[2], null, BigInteger.TEN);
+		estimator.estimate(FROM, accounts[1], null, BigInteger.TEN);
+		assertEquals(3, node.codeLoads.get());
+
+		estimator.estimate(FROM, accounts[0], null, BigInteger.TEN);
+		assertEquals(4, node.codeLoads.get());
+	}
+
+	private static TransactionReceipt receipt(BigInteger gasUsed) {
+		TransactionReceipt receipt = new TransactionReceipt();
+		receipt.setGasUsed(Numeric.toHexStringWithPrefix(gasUsed));
+		return receipt;
+	}
+
+	/**
+	 * Client with settable code per address, every estimate is {@link #ESTIMATE}.
+	 */
+	private static class Node extends ScriptedService {
+
+		private final Map<String, String> code = new ConcurrentHashMap<>();
+		private final Map<String, TransactionReceipt> receipts = new ConcurrentHashMap<>();
+		private final AtomicInteger codeLoads = new AtomicInteger();
+		private final AtomicInteger estimates = new AtomicInteger();
+
+		@Override
+		protected Object answer(Request<?, ?> request) throws IOException {
+			switch (request.getMethod()) {
+			case "eth_blockNumber":
+				return "0x1";
+			case "eth_getCode":
+				codeLoads.incrementAndGet();
+				return code.getOrDefault((String) request.getParams().get(0), "0x");
+			case "eth_estimateGas":
+				estimates.incrementAndGet();
+				return Numeric.toHexStringWithPrefix(ESTIMATE);
+			case "eth_getTransactionReceipt":
+				return receipts.get((String) request.getParams().get(0));
+			default:
+				return super.answer(request);
+			}
+		}
+	}
+}
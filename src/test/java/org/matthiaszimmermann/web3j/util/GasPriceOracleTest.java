@@ -0,0 +1,198 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.utils.Numeric;
+
+public class GasPriceOracleTest {
+
+	private static final BigInteger GWEI = BigInteger.valueOf(1_000_000_000L);
+	private static final BigInteger CLIENT_PRICE = GWEI.multiply(BigInteger.valueOf(7));
+
+	private Node node;
+
+	@Before
+	public void setUp() {
+		node = new Node();
+	}
+
+	@After
+	public void tearDown() {
+		node.gate.countDown();
+		BlockHeadTracker.shutdown(node.getWeb3j());
+	}
+
+	@Test
+	public void testPercentile() {
+		List<BigInteger> prices = new ArrayList<>();
+
+		for(int i = 1; i <= 10; i++) {
+			prices.add(BigInteger.valueOf(i));
+		}
+
+		assertNull(GasPriceOracle.percentile(Collections.emptyList(), 50));
+		assertEquals(BigInteger.ONE, GasPriceOracle.percentile(prices, 0));
+		assertEquals(BigInteger.valueOf(3), GasPriceOracle.percentile(prices, 30));
+		assertEquals(BigInteger.valueOf(6), GasPriceOracle.percentile(prices, 55));
+		assertEquals(BigInteger.valueOf(9), GasPriceOracle.percentile(prices, 90));
+		assertEquals(BigInteger.TEN, GasPriceOracle.percentile(prices, 100));
+		assertEquals(BigInteger.TEN, GasPriceOracle.percentile(Arrays.asList(BigInteger.TEN), 1));
+	}
+
+	@Test
+	public void testBlend() {
+		BigInteger sampled = BigInteger.valueOf(100);
+		BigInteger client = BigInteger.valueOf(200);
+		int minSamples = Web3jConstants.GAS_ORACLE_MIN_SAMPLES;
+
+		assertEquals(client, GasPriceOracle.blend(null, client, 0));
+		assertEquals(client, GasPriceOracle.blend(sampled, client, 0));
+		assertEquals(sampled, GasPriceOracle.blend(sampled, client, minSamples));
+		assertEquals(sampled, GasPriceOracle.blend(sampled, client, minSamples + 1));
+
+		// weighted by the number of samples: (100 * n + 200 * (min - n)) / min
+		int half = minSamples / 2;
+		BigInteger expected = BigInteger.valueOf(Math.round((100.0 * half + 200.0 * (minSamples - half)) / minSamples));
+		assertEquals(expected, GasPriceOracle.blend(sampled, client, half));
+	}
+
+	@Test
+	public void testEstimateDoesNotWaitForClient() throws Exception {
+		// all requests block until the gate opens
+		GasPriceOracle oracle = GasPriceOracle.forClient(node.getWeb3j());
+		GasPriceOracle.Estimate estimate = oracle.getEstimate();
+
+		assertNull(estimate.getBlockNumber());
+		assertEquals(Web3jConstants.GAS_PRICE, estimate.getStandard());
+
+		node.gate.countDown();
+
+		assertEquals(true, waitFor(() -> oracle.getEstimate().getBlockNumber() != null));
+		assertEquals(BigInteger.valueOf(node.head), oracle.getEstimate().getBlockNumber());
+	}
+
+	@Test
+	public void testInitialEstimateRetried() throws Exception {
+		node.gasPriceFailures = 2;
+		node.gate.countDown();
+
+		GasPriceOracle oracle = GasPriceOracle.forClient(node.getWeb3j());
+
+		// the head does not change, only the retries of the oracle make the estimate
+		assertEquals(true, waitFor(() -> oracle.getEstimate().getBlockNumber() != null));
+
+		GasPriceOracle.Estimate estimate = oracle.getEstimate();
+
+		assertEquals(0, node.gasPriceFailures);
+		assertEquals(3, estimate.getBlockCount());
+		assertEquals(6, estimate.getSampleCount());
+		assertEquals(CLIENT_PRICE, estimate.getClientPrice());
+		assertEquals(GasPriceOracle.blend(GWEI.multiply(BigInteger.valueOf(2)), CLIENT_PRICE, 6), estimate.getCheap());
+		assertEquals(GasPriceOracle.blend(GWEI.multiply(BigInteger.valueOf(4)), CLIENT_PRICE, 6), estimate.getStandard());
+		assertEquals(GasPriceOracle.blend(GWEI.multiply(BigInteger.valueOf(6)), CLIENT_PRICE, 6), estimate.getFast());
+	}
+
+	@Test
+	public void testDroppedWithTracker() {
+		node.gate.countDown();
+		GasPriceOracle oracle = GasPriceOracle.forClient(node.getWeb3j());
+
+		assertSame(oracle, GasPriceOracle.forClient(node.getWeb3j()));
+
+		BlockHeadTracker.shutdown(node.getWeb3j());
+
+		assertNotSame(oracle, GasPriceOracle.forClient(node.getWeb3j()));
+	}
+
+	private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+		for(int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+			Thread.sleep(50);
+		}
+
+		return condition.getAsBoolean();
+	}
+
+	/**
+	 * Client at block 2 (blocks 0 to 2 hold two txs each, block n with prices 2n+1 and 2n+2 gwei).
+	 * Requests wait for the gate, eth_gasPrice fails the specified number of times.
+	 */
+	private static class Node extends ScriptedService {
+
+		private final CountDownLatch gate = new CountDownLatch(1);
+		private final long head = 2;
+
+		private volatile int gasPriceFailures = 0;
+
+		@Override
+		protected Object answer(Request<?, ?> request) throws IOException {
+			try {
+				gate.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+
+			switch (request.getMethod()) {
+			case "eth_blockNumber":
+				return Numeric.toHexStringWithPrefix(BigInteger.valueOf(head));
+			case "eth_gasPrice":
+				synchronized (this) {
+					if(gasPriceFailures > 0) {
+						gasPriceFailures--;
+						throw new IOException("Client not ready");
+					}
+				}
+
+				return Numeric.toHexStringWithPrefix(CLIENT_PRICE);
+			case "eth_getBlockByNumber":
+				long number = Numeric.toBigInt((String) request.getParams().get(0)).longValue();
+				EthBlock.Block block = new EthBlock.Block();
+				block.setNumber(Numeric.toHexStringWithPrefix(BigInteger.valueOf(number)));
+				block.setTransactions(Arrays.asList(tx(2 * number + 2), tx(2 * number + 1)));
+				return block;
+			default:
+				return super.answer(request);
+			}
+		}
+
+		private static EthBlock.TransactionResult<?> tx(long gwei) {
+			EthBlock.TransactionObject tx = new EthBlock.TransactionObject();
+			tx.setGasPrice(Numeric.toHexStringWithPrefix(GWEI.multiply(BigInteger.valueOf(gwei))));
+			return tx;
+		}
+
+		// requests wait for the gate, so async requests must not block the caller
+		@Override
+		public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					return send(request, responseType);
+				}
+				catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class JsonRpcBatchTest {
+
+	private static final String UNKNOWN = "0x00000000000000000000000000000000000000ff";
+
+	@Test
+	public void testResponsesInRequestOrder() throws Exception {
+		BalanceService service = new BalanceService();
+		Web3j web3j = Web3jUtils.build(service);
+
+		List<String> addresses = addresses(5);
+		List<EthGetBalance> responses = JsonRpcBatch.send(service, requests(web3j, addresses), EthGetBalance.class, 2);
+
+		assertEquals(5, responses.size());
+
+		// the service answers each chunk in reverse order
+		for(int i = 0; i < addresses.size(); i++) {
+			assertEquals(balance(addresses.get(i)), responses.get(i).getBalance());
+		}
+
+		// chunks of 2, 2 and 1 requests, ids are assigned by position within each chunk
+		assertEquals(3, service.payloads.size());
+		assertEquals(Arrays.asList(0, 1), service.ids.get(0));
+		assertEquals(Arrays.asList(0, 1), service.ids.get(1));
+		assertEquals(Arrays.asList(0), service.ids.get(2));
+	}
+
+	@Test
+	public void testErrorOfSingleRequest() throws Exception {
+		BalanceService service = new BalanceService();
+		Web3j web3j = Web3jUtils.build(service);
+
+		List<String> addresses = addresses(3);
+		addresses.set(1, UNKNOWN);
+
+		List<EthGetBalance> responses = JsonRpcBatch.send(service, requests(web3j, addresses), EthGetBalance.class, 10);
+
+		assertFalse(responses.get(0).hasError());
+		assertTrue(responses.get(1).hasError());
+		assertEquals("unknown account", responses.get(1).getError().getMessage());
+		assertFalse(responses.get(2).hasError());
+		assertEquals(balance(addresses.get(2)), responses.get(2).getBalance());
+
+		try {
+			Web3jUtils.getBalancesWei(web3j, addresses, DefaultBlockParameterName.LATEST);
+			fail("Error of a single request not reported");
+		}
+		catch (RuntimeException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(UNKNOWN));
+		}
+	}
+
+	@Test
+	public void testMissingResponse() throws Exception {
+		BalanceService service = new BalanceService();
+		service.dropLast = true;
+		Web3j web3j = Web3jUtils.build(service);
+
+		try {
+			JsonRpcBatch.send(service, requests(web3j, addresses(3)), EthGetBalance.class, 10);
+			fail("Missing response not detected");
+		}
+		catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Missing response for request eth_getBalance"));
+		}
+	}
+
+	@Test
+	public void testServiceOfBuiltClient() {
+		BalanceService service = new BalanceService();
+		Web3j web3j = Web3jUtils.build(service);
+
+		assertTrue(service == Web3jUtils.getService(web3j));
+	}
+
+	private static List<String> addresses(int count) {
+		List<String> addresses = new ArrayList<>();
+
+		for(int i = 1; i <= count; i++) {
+			addresses.add(String.format("0x%040x", i));
+		}
+
+		return addresses;
+	}
+
+	private static List<Request<?, EthGetBalance>> requests(Web3j web3j, List<String> addresses) {
+		List<Request<?, EthGetBalance>> requests = new ArrayList<>();
+
+		for(String address: addresses) {
+			requests.add(web3j.ethGetBalance(address, DefaultBlockParameterName.LATEST));
+		}
+
+		return requests;
+	}
+
+	private static BigInteger balance(String address) {
+		return new BigInteger(address.substring(2), 16).multiply(BigInteger.valueOf(1000));
+	}
+
+	/**
+	 * Answers eth_getBalance batches in reverse order, with an error for {@link #UNKNOWN}.
+	 */
+	private static class BalanceService extends ScriptedService implements BatchWeb3jService {
+
+		private final ObjectMapper mapper = ObjectMapperFactory.getObjectMapper();
+		private final List<String> payloads = new ArrayList<>();
+		private final List<List<Integer>> ids = new ArrayList<>();
+		private boolean dropLast = false;
+
+		@Override
+		public String sendBatch(String payload) throws IOException {
+			payloads.add(payload);
+
+			JsonNode requests = mapper.readTree(payload);
+			ArrayNode responses = mapper.createArrayNode();
+			List<Integer> chunkIds = new ArrayList<>();
+
+			for(JsonNode request: requests) {
+				chunkIds.add(request.get("id").asInt());
+
+				ObjectNode response = mapper.createObjectNode();
+				response.put("jsonrpc", "2.0");
+				response.set("id", request.get("id"));
+
+				String address = request.get("params").get(0).asText();
+
+				if(address.equals(UNKNOWN)) {
+					response.putObject("error").put("code", -32000).put("message", "unknown account");
+				}
+				else {
+					response.put("result", "0x" + balance(address).toString(16));
+				}
+
+				responses.insert(0, response);
+			}
+
+			if(dropLast) {
+				responses.remove(0);
+			}
+
+			ids.add(chunkIds);
+
+			return mapper.writeValueAsString(responses);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Test;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Keys;
+
+public class KeyPairPoolTest {
+
+	private KeyPairPool pool;
+
+	@After
+	public void tearDown() {
+		if(pool != null) {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void testFillsUpToTargetDepth() throws Exception {
+		pool = new KeyPairPool(16, 4, 2);
+
+		assertTrue("Queue not filled: " + pool.getStats(), waitFor(() -> pool.getDepth() >= 4));
+		assertTrue(pool.getDepth() <= 16);
+
+		Credentials credentials = pool.take();
+
+		assertEquals(credentials.getAddress(), "0x" + Keys.getAddress(credentials.getEcKeyPair()));
+		assertEquals(0, pool.getStats().getMisses());
+	}
+
+	@Test
+	public void testTakeFromEmptyQueueGeneratesInCaller() throws Exception {
+		pool = new KeyPairPool(4, 1, 1);
+		pool.close();
+
+		// drain whatever the worker generated before it stopped, including a key pair in progress
+		Thread.sleep(2 * KeyPairPool.SAMPLE_INTERVAL);
+		int depth = pool.getDepth();
+		Set<String> addresses = new HashSet<>();
+
+		for(Credentials credentials: pool.take(depth + 3)) {
+			assertNotNull(credentials);
+			addresses.add(credentials.getAddress());
+		}
+
+		assertEquals(depth + 3, addresses.size());
+		assertEquals(0, pool.getDepth());
+		assertEquals(3, pool.getStats().getMisses());
+		assertEquals(depth + 3, pool.getStats().getTaken());
+	}
+
+	@Test
+	public void testCloseStopsWorkers() throws Exception {
+		pool = new KeyPairPool(8, 2, 2);
+		pool.close();
+
+		long generated = pool.getStats().getGenerated();
+		pool.take(pool.getDepth());
+		Thread.sleep(3 * KeyPairPool.SAMPLE_INTERVAL);
+
+		// a worker may finish the key pair it was generating when the pool was closed
+		assertTrue(pool.getStats().getGenerated() <= generated + 2);
+		assertTrue(pool.getDepth() <= 2);
+	}
+
+	@Test
+	public void testTargetFollowsDemand() throws Exception {
+		pool = new KeyPairPool(64, 2, 1);
+		assertEquals(2, pool.getStats().getTargetDepth());
+
+		// the first key pairs are slow, the random generator and the curve are set up
+		assertTrue(waitFor(() -> pool.getDepth() >= 2));
+
+		// take faster than a single worker generates for a few sampling intervals
+		long end = System.currentTimeMillis() + 5 * KeyPairPool.SAMPLE_INTERVAL;
+
+		while(System.currentTimeMillis() < end) {
+			pool.take();
+		}
+
+		int target = pool.getStats().getTargetDepth();
+
+		assertTrue("Target not raised: " + pool.getStats(), target > 2);
+		assertTrue(target <= 64);
+		assertNotEquals(0.0, pool.getStats().getDemandRate(), 0.0);
+
+		// without demand the target decays back to the configured depth
+		assertTrue("Target not lowered: " + pool.getStats(), waitFor(() -> pool.getStats().getTargetDepth() == 2));
+	}
+
+	private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+		for(int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+			Thread.sleep(50);
+		}
+
+		return condition.getAsBoolean();
+	}
+}
@@ -0,0 +1,114 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+
+public class MetricsServiceTest {
+
+	private static final String PAYLOAD = "["
+			+ "{\"jsonrpc\":\"2.0\",\"method\":\"eth_getBalance\",\"params\":[\"0x01\",\"latest\"],\"id\":0},"
+			+ "{\"jsonrpc\":\"2.0\",\"method\":\"eth_getBalance\",\"params\":[\"0x02\",\"latest\"],\"id\":1},"
+			+ "{\"jsonrpc\":\"2.0\",\"method\":\"eth_getTransactionCount\",\"params\":[\"0x01\",\"latest\"],\"id\":2},"
+			+ "{\"jsonrpc\":\"2.0\",\"method\":\"eth_getTransactionCount\",\"params\":[\"0x02\",\"latest\"],\"id\":3}]";
+
+	// no response for id 3
+	private static final String BODY = "["
+			+ "{\"jsonrpc\":\"2.0\",\"id\":2,\"result\":\"0x1\"},"
+			+ "{\"jsonrpc\":\"2.0\",\"id\":1,\"error\":{\"code\":-32000,\"message\":\"unknown account\"}},"
+			+ "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":\"0x0\"}]";
+
+	@Test
+	public void testBatchRequestsRecordedPerMethod() throws Exception {
+		RpcMetrics metrics = new RpcMetrics("test", false);
+		MetricsService service = new MetricsService(new BatchService(BODY), metrics);
+
+		assertEquals(BODY, service.sendBatch(PAYLOAD));
+
+		assertEquals(1, metrics.getMethod(MetricsService.BATCH).getCount());
+		assertEquals(0, metrics.getMethod(MetricsService.BATCH).getErrorCount());
+
+		RpcMethodMetricsMXBean balance = metrics.getMethod("eth_getBalance");
+		assertEquals(2, balance.getCount());
+		assertEquals(errors("-32000"), balance.getErrors());
+		assertEquals(0, balance.getInFlight());
+
+		RpcMethodMetricsMXBean count = metrics.getMethod("eth_getTransactionCount");
+		assertEquals(2, count.getCount());
+		assertEquals(errors(MetricsService.NO_RESPONSE), count.getErrors());
+	}
+
+	@Test
+	public void testElementSizesInBytes() throws Exception {
+		String request = "{\"jsonrpc\":\"2.0\",\"method\":\"web3_sha3\",\"params\":[\"0x68\"],\"id\":0}";
+		String response = "{\"id\":0,\"result\":{\"text\":\"h\u00e9llo \u20ac \ud83d\ude00\",\"nested\":[{\"id\":7}]},\"jsonrpc\":\"2.0\"}";
+		String payload = "[ " + request + " ]";
+		String body = "[" + response + "]";
+
+		RpcMetrics metrics = new RpcMetrics("test", false);
+		MetricsService service = new MetricsService(new BatchService(body), metrics);
+		service.sendBatch(payload);
+
+		RpcMethodMetricsMXBean sha3 = metrics.getMethod("web3_sha3");
+		assertEquals(request.getBytes(StandardCharsets.UTF_8).length, sha3.getRequestBytes());
+		assertEquals(response.getBytes(StandardCharsets.UTF_8).length, sha3.getResponseBytes());
+		assertEquals(0, sha3.getErrorCount());
+
+		RpcMethodMetricsMXBean batch = metrics.getMethod(MetricsService.BATCH);
+		assertEquals(body.getBytes(StandardCharsets.UTF_8).length, batch.getResponseBytes());
+	}
+
+	@Test
+	public void testFailedBatchRecordedForEachRequest() throws Exception {
+		RpcMetrics metrics = new RpcMetrics("test", false);
+		MetricsService service = new MetricsService(new BatchService(null), metrics);
+
+		try {
+			service.sendBatch(PAYLOAD);
+			fail("Batch failure not propagated");
+		}
+		catch (IOException e) {
+			// expected
+		}
+
+		assertEquals(errors("IOException"), metrics.getMethod(MetricsService.BATCH).getErrors());
+		assertEquals(2, metrics.getMethod("eth_getBalance").getErrorCount());
+		assertEquals(0, metrics.getMethod("eth_getBalance").getInFlight());
+		assertEquals(2, metrics.getMethod("eth_getTransactionCount").getErrorCount());
+	}
+
+	private static Map<String, Long> errors(String error) {
+		Map<String, Long> errors = new HashMap<>();
+		errors.put(error, 1L);
+
+		return errors;
+	}
+
+	/**
+	 * Answers every batch with the provided body, fails if the body is null.
+	 */
+	private static class BatchService extends ScriptedService implements BatchWeb3jService {
+
+		private final String body;
+
+		BatchService(String body) {
+			this.body = body;
+		}
+
+		@Override
+		public String sendBatch(String payload) throws IOException {
+			if(body == null) {
+				throw new IOException("Connection reset");
+			}
+
+			return body;
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.utils.Numeric;
+
+public class NonceManagerTest {
+
+	private static final String ADDRESS = "0x00000000000000000000000000000000000000aa";
+
+	@Test
+	public void testSeededFromPendingCount() throws Exception {
+		Node node = new Node(7);
+		NonceManager nonces = NonceManager.forClient(node.getWeb3j());
+
+		assertEquals(BigInteger.valueOf(7), nonces.next(ADDRESS));
+		assertEquals(BigInteger.valueOf(8), nonces.next(ADDRESS.toUpperCase().replace("0X", "0x")));
+		assertEquals(1, node.countRequests);
+	}
+
+	@Test
+	public void testReleasedNoncesReusedLowestFirst() throws Exception {
+		NonceManager nonces = NonceManager.forClient(new Node(0).getWeb3j());
+
+		for(int i = 0; i < 5; i++) {
+			nonces.next(ADDRESS);
+		}
+
+		nonces.release(ADDRESS, BigInteger.valueOf(3));
+		nonces.release(ADDRESS, BigInteger.valueOf(1));
+		// never handed out, ignored
+		nonces.release(ADDRESS, BigInteger.valueOf(9));
+
+		assertEquals(BigInteger.valueOf(1), nonces.next(ADDRESS));
+		assertEquals(BigInteger.valueOf(3), nonces.next(ADDRESS));
+		assertEquals(BigInteger.valueOf(5), nonces.next(ADDRESS));
+		assertEquals(BigInteger.valueOf(6), nonces.next(ADDRESS));
+	}
+
+	@Test
+	public void testReconcile() throws Exception {
+		Node node = new Node(0);
+		NonceManager nonces = NonceManager.forClient(node.getWeb3j());
+
+		for(int i = 0; i < 4; i++) {
+			nonces.next(ADDRESS);
+		}
+
+		nonces.release(ADDRESS, BigInteger.valueOf(1));
+		nonces.release(ADDRESS, BigInteger.valueOf(2));
+
+		// nonces 0 to 5 have been used by another sender of the same account
+		node.pendingCount = 6;
+		nonces.reconcile(ADDRESS);
+
+		assertEquals(BigInteger.valueOf(6), nonces.next(ADDRESS));
+
+		// the client's count never moves the counter back
+		node.pendingCount = 2;
+		nonces.reconcile(ADDRESS);
+
+		assertEquals(BigInteger.valueOf(7), nonces.next(ADDRESS));
+	}
+
+	@Test
+	public void testRejectedResponseReleasesNonce() throws Exception {
+		Node node = new Node(0);
+		NonceManager nonces = NonceManager.forClient(node.getWeb3j());
+
+		node.sendError = "insufficient funds for gas * price + value";
+		EthSendTransaction response = nonces.send(ADDRESS, node::transaction);
+
+		assertTrue(response.hasError());
+		assertEquals(BigInteger.ZERO, nonces.next(ADDRESS));
+	}
+
+	@Test
+	public void testNonceUsedRetriesWithFreshNonce() throws Exception {
+		Node node = new Node(0);
+		NonceManager nonces = NonceManager.forClient(node.getWeb3j());
+
+		nonces.next(ADDRESS);
+		node.pendingCount = 3;
+		node.sendError = "nonce too low";
+		node.errorsLeft = 1;
+
+		EthSendTransaction response = nonces.send(ADDRESS, node::transaction);
+
+		assertFalse(response.hasError());
+		assertEquals(3L, (long) node.sentNonces.get(node.sentNonces.size() - 1));
+		assertEquals(BigInteger.valueOf(4), nonces.next(ADDRESS));
+	}
+
+	@Test
+	public void testConnectFailureReleasesNonce() throws Exception {
+		Node node = new Node(0);
+		NonceManager nonces = NonceManager.forClient(node.getWeb3j());
+
+		node.sendFailure = new ConnectException("Connection refused");
+		sendExpectingFailure(nonces, node);
+
+		// the pending count is not asked, the request never reached the client
+		assertEquals(1, node.countRequests);
+		assertEquals(BigInteger.ZERO, nonces.next(ADDRESS));
+	}
+
+	@Test
+	public void testTimeoutOfAcceptedTransaction() throws Exception {
+		Node node = new Node(0);
+		NonceManager nonces = NonceManager.forClient(node.getWeb3j());
+
+		// the client got the transaction but the response was lost
+		node.sendFailure = new SocketTimeoutException("Read timed out");
+		node.acceptBeforeFailure = true;
+		sendExpectingFailure(nonces, node);
+
+		assertEquals(BigInteger.ONE, nonces.next(ADDRESS));
+	}
+
+	@Test
+	public void testTimeoutOfLostTransaction() throws Exception {
+		Node node = new Node(0);
+		NonceManager nonces = NonceManager.forClient(node.getWeb3j());
+
+		node.sendFailure = new SocketTimeoutException("Read timed out");
+		sendExpectingFailure(nonces, node);
+
+		assertEquals(BigInteger.ZERO, nonces.next(ADDRESS));
+	}
+
+	@Test
+	public void testTimeoutResolvedByLaterReconcile() throws Exception {
+		Node node = new Node(0);
+		NonceManager nonces = NonceManager.forClient(node.getWeb3j());
+
+		nonces.reconcile(ADDRESS);
+
+		// neither the send nor the pending count can be fetched
+		node.sendFailure = new SocketTimeoutException("Read timed out");
+		node.countFailure = true;
+		sendExpectingFailure(nonces, node);
+
+		assertEquals(BigInteger.ONE, nonces.next(ADDRESS));
+
+		node.countFailure = false;
+		nonces.reconcile(ADDRESS);
+
+		assertEquals(BigInteger.ZERO, nonces.next(ADDRESS));
+	}
+
+	private static void sendExpectingFailure(NonceManager nonces, Node node) throws Exception {
+		try {
+			nonces.send(ADDRESS, node::transaction);
+			fail("Send failure not propagated");
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() == node.sendFailure);
+		}
+	}
+
+	/**
+	 * Client with a pending count for {@link #ADDRESS} that answers eth_sendRawTransaction as configured.
+	 */
+	private static class Node extends ScriptedService {
+
+		private final List<Long> sentNonces = new ArrayList<>();
+
+		private long pendingCount;
+		private int countRequests = 0;
+		private boolean countFailure = false;
+
+		private String sendError = null;
+		private int errorsLeft = Integer.MAX_VALUE;
+		private IOException sendFailure = null;
+		private boolean acceptBeforeFailure = false;
+
+		Node(long pendingCount) {
+			this.pendingCount = pendingCount;
+		}
+
+		Request<?, EthSendTransaction> transaction(BigInteger nonce) {
+			return getWeb3j().ethSendRawTransaction(Numeric.toHexStringWithPrefix(nonce));
+		}
+
+		@Override
+		protected synchronized Object answer(Request<?, ?> request) throws IOException {
+			if(request.getMethod().equals("eth_getTransactionCount")) {
+				countRequests++;
+
+				if(countFailure) {
+					throw new SocketTimeoutException("Read timed out");
+				}
+
+				return Numeric.toHexStringWithPrefix(BigInteger.valueOf(pendingCount));
+			}
+
+			long nonce = Numeric.toBigInt((String) request.getParams().get(0)).longValue();
+			sentNonces.add(nonce);
+
+			if(sendFailure != null) {
+				if(acceptBeforeFailure) {
+					pendingCount = nonce + 1;
+				}
+
+				throw sendFailure;
+			}
+
+			if(sendError != null && errorsLeft-- > 0) {
+				return new Response.Error(-32000, sendError);
+			}
+
+			pendingCount = Math.max(pendingCount, nonce + 1);
+			return "0x" + nonce;
+		}
+	}
+}
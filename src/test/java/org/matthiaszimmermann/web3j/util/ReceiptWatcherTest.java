@@ -0,0 +1,143 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.matthiaszimmermann.web3j.node.ScriptedService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionTimeoutException;
+import org.web3j.utils.Numeric;
+
+public class ReceiptWatcherTest {
+
+	private static final String MINED = "0x01";
+	private static final String PENDING = "0x02";
+	private static final long TIMEOUT = 500;
+
+	private Node node;
+	private ReceiptWatcher watcher;
+
+	@Before
+	public void setUp() {
+		node = new Node();
+		node.receipts.put(MINED, receipt(MINED));
+		watcher = new ReceiptWatcher(node.getWeb3j(), TIMEOUT);
+	}
+
+	@After
+	public void tearDown() {
+		BlockHeadTracker.shutdown(node.getWeb3j());
+	}
+
+	@Test
+	public void testMinedTransactionCompletesWithoutNewBlock() throws Exception {
+		CompletableFuture<TransactionReceipt> receipt = watcher.watch(MINED);
+
+		assertEquals(MINED, receipt.get(5, TimeUnit.SECONDS).getTransactionHash());
+		assertEquals(0, watcher.getPendingCount());
+	}
+
+	@Test
+	public void testReceiptFetchedOnNewBlock() throws Exception {
+		CompletableFuture<TransactionReceipt> receipt = watcher.watch(PENDING);
+
+		assertSame(receipt, watcher.watch(PENDING));
+		Thread.sleep(100);
+		assertFalse(receipt.isDone());
+		assertEquals(1, watcher.getPendingCount());
+
+		node.receipts.put(PENDING, receipt(PENDING));
+		node.head = 1;
+
+		assertEquals(PENDING, receipt.get(5, TimeUnit.SECONDS).getTransactionHash());
+		assertEquals(0, watcher.getPendingCount());
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		CompletableFuture<TransactionReceipt> receipt = watcher.watch(PENDING);
+
+		try {
+			receipt.get(5, TimeUnit.SECONDS);
+			fail("Receipt of an unknown transaction received");
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TransactionTimeoutException);
+		}
+
+		assertTrue(waitFor(() -> watcher.getPendingCount() == 0));
+
+		// watching the hash again after the timeout starts a new wait
+		node.receipts.put(PENDING, receipt(PENDING));
+		assertEquals(PENDING, watcher.watch(PENDING).get(5, TimeUnit.SECONDS).getTransactionHash());
+	}
+
+	@Test
+	public void testStopFailsPendingTransactions() throws Exception {
+		CompletableFuture<TransactionReceipt> receipt = watcher.watch(PENDING);
+
+		BlockHeadTracker.shutdown(node.getWeb3j());
+
+		try {
+			receipt.get(5, TimeUnit.SECONDS);
+			fail("Receipt received after the tracker stopped");
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+
+		assertEquals(0, watcher.getPendingCount());
+	}
+
+	private static TransactionReceipt receipt(String transactionHash) {
+		TransactionReceipt receipt = new TransactionReceipt();
+		receipt.setTransactionHash(transactionHash);
+		return receipt;
+	}
+
+	private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+		for(int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+			Thread.sleep(50);
+		}
+
+		return condition.getAsBoolean();
+	}
+
+	/**
+	 * Client with a settable block head and settable receipts.
+	 */
+	private static class Node extends ScriptedService {
+
+		private final Map<String, TransactionReceipt> receipts = new ConcurrentHashMap<>();
+
+		private volatile long head = 0;
+
+		@Override
+		protected Object answer(Request<?, ?> request) throws IOException {
+			switch (request.getMethod()) {
+			case "eth_blockNumber":
+				return Numeric.toHexStringWithPrefix(BigInteger.valueOf(head));
+			case "eth_getTransactionReceipt":
+				return receipts.get((String) request.getParams().get(0));
+			default:
+				return super.answer(request);
+			}
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package org.matthiaszimmermann.web3j.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SolidityNormalizerTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final SolidityNormalizer normalizer = new SolidityNormalizer();
+
+	@Test
+	public void testCommentsAndWhitespace() throws Exception {
+		Path file = write("a.sol", "pragma solidity ^0.4.0; // version\n\ncontract A {\n\t/* block\n comment */ uint x;   }\n");
+
+		assertEquals("pragma solidity ^0.4.0; contract A { uint x; }", normalizer.normalize(file));
+	}
+
+	@Test
+	public void testCommentsInStringsAreKept() throws Exception {
+		Path file = write("a.sol", "string a = \"http://x  /* y */\"; string b = '// z';");
+
+		assertEquals("string a = \"http://x  /* y */\"; string b = '// z';", normalizer.normalize(file));
+	}
+
+	@Test
+	public void testEscapedQuotes() throws Exception {
+		Path file = write("a.sol", "string a = \"say \\\"hi\\\" // not a comment\";  // comment\nstring b = 'it\\'s';");
+
+		assertEquals("string a = \"say \\\"hi\\\" // not a comment\"; string b = 'it\\'s';", normalizer.normalize(file));
+	}
+
+	@Test
+	public void testImportsAreInlinedOnce() throws Exception {
+		write("base.sol", "contract Base {}");
+		write("lib/util.sol", "import \"../base.sol\";\ncontract Util is Base {}");
+		Path file = write("main.sol", "import \"base.sol\";\nimport 'lib/util.sol' ;\nimport {Other} from \"other.sol\";\ncontract Main is Util {}");
+
+		assertEquals("contract Base {} contract Util is Base {} import {Other} from \"other.sol\"; contract Main is Util {}", normalizer.normalize(file));
+	}
+
+	@Test
+	public void testImportCycle() throws Exception {
+		write("b.sol", "import \"a.sol\"; contract B {}");
+		Path file = write("a.sol", "import \"b.sol\"; contract A {}");
+
+		assertEquals("contract B {} contract A {}", normalizer.normalize(file));
+	}
+
+	@Test
+	public void testImportedIdentifierIsNotAnImport() throws Exception {
+		Path file = write("a.sol", "uint reimport \"x\"; uint important;");
+
+		assertEquals("uint reimport \"x\"; uint important;", normalizer.normalize(file));
+	}
+
+	@Test
+	public void testMissingImport() throws Exception {
+		Path file = write("a.sol", "import \"missing.sol\"; contract A {}");
+
+		try {
+			normalizer.normalize(file);
+			fail("Missing import not reported");
+		}
+		catch (NoSuchFileException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("missing.sol"));
+		}
+	}
+
+	@Test
+	public void testUnterminatedComment() throws Exception {
+		assertFails("contract A { /* no end");
+	}
+
+	@Test
+	public void testUnterminatedString() throws Exception {
+		assertFails("string a = \"no end;");
+		assertFails("string a = 'escaped end\\'");
+	}
+
+	@Test
+	public void testSameSizeEditIsNotServedFromCache() throws Exception {
+		Path file = write("a.sol", "contract A {}");
+		FileTime modified = Files.getLastModifiedTime(file);
+
+		assertEquals("contract A {}", normalizer.normalize(file));
+
+		// same size and modification time as before
+		write("a.sol", "contract B {}");
+		Files.setLastModifiedTime(file, modified);
+
+		assertEquals("contract B {}", normalizer.normalize(file));
+	}
+
+	private void assertFails(String source) throws Exception {
+		Path file = write("unterminated.sol", source);
+
+		try {
+			normalizer.normalize(file);
+			fail("Unterminated input not reported: " + source);
+		}
+		catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Unterminated"));
+		}
+	}
+
+	private Path write(String name, String content) throws IOException {
+		Path file = folder.getRoot().toPath().resolve(name);
+		Files.createDirectories(file.getParent());
+
+		return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+}